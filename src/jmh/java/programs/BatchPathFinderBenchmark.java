@@ -0,0 +1,61 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пути всех юнитов армии компьютера за раунд 63 на 63: по одному запросу на атакующего
+ * и одним пакетом по снимку поля. Каждый атакующий выбирает случайную открытую цель.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchPathFinderBenchmark {
+
+    private UnitTargetPathFinderImpl pathFinder;
+    private List<Unit> units;
+    private List<UnitTargetPathFinderImpl.PathQuery> queries;
+
+    @Setup
+    public void setUp() {
+        pathFinder = new UnitTargetPathFinderImpl();
+        Army computerArmy = BenchmarkFixtures.computerArmy(63);
+        Army playerArmy = BenchmarkFixtures.playerArmy(63);
+        units = new ArrayList<>(computerArmy.getUnits());
+        units.addAll(playerArmy.getUnits());
+
+        List<Unit> frontier = new SuitableForAttackUnitsFinderImpl()
+                .getSuitableUnits(BenchmarkFixtures.rows(playerArmy, 24, 26), false);
+        Random random = new Random(42);
+        queries = new ArrayList<>();
+        for (Unit attacker : computerArmy.getUnits()) {
+            queries.add(new UnitTargetPathFinderImpl.PathQuery(attacker, frontier.get(random.nextInt(frontier.size()))));
+        }
+    }
+
+    @Benchmark
+    public int singleQueries() {
+        int steps = 0;
+        for (UnitTargetPathFinderImpl.PathQuery query : queries) {
+            steps += pathFinder.getTargetPath(query.attackUnit(), query.targetUnit(), units).size();
+        }
+        return steps;
+    }
+
+    @Benchmark
+    public int batch() {
+        int steps = 0;
+        for (List<Edge> path : pathFinder.getTargetPaths(queries, units)) {
+            steps += path.size();
+        }
+        return steps;
+    }
+}
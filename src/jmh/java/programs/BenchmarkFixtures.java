@@ -0,0 +1,134 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import com.battle.heroes.army.programs.computer.ComputerArcherProgram;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+
+import java.util.*;
+
+/**
+ * Общие данные бенчмарков: поля с заданной заполненностью, армии и шаблоны юнитов.
+ * Все генераторы детерминированы по зерну.
+ */
+final class BenchmarkFixtures {
+
+    static final int WIDTH = 27;
+    static final int HEIGHT = 21;
+
+    private static final String[] TYPES = {"Archer", "Knight", "Pikeman", "Swordsman"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Юниты в случайных клетках поля: density — доля занятых клеток.
+     */
+    static List<Unit> crowdedField(double density, long seed) {
+        Random random = new Random(seed);
+        List<Integer> cells = new ArrayList<>();
+        for (int cell = 0; cell < WIDTH * HEIGHT; cell++) {
+            cells.add(cell);
+        }
+        Collections.shuffle(cells, random);
+        int count = (int) Math.round(density * cells.size());
+        List<Unit> units = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int cell = cells.get(i);
+            units.add(createUnit("Obstacle " + i, "Knight", 100, 20, cell / HEIGHT, cell % HEIGHT));
+        }
+        return units;
+    }
+
+    /**
+     * Армия компьютера из size юнитов в колонках x = 0..2.
+     */
+    static Army computerArmy(int size) {
+        return army(size, 0, "Computer");
+    }
+
+    /**
+     * Армия игрока из size юнитов в колонках x = 24..26.
+     */
+    static Army playerArmy(int size) {
+        return army(size, 24, "Player");
+    }
+
+    /**
+     * Подключает программы библиотеки без задержек анимации.
+     */
+    static void attachPrograms(Army playerArmy, Army computerArmy) {
+        attachPrograms(playerArmy, computerArmy, new UnitTargetPathFinderImpl());
+    }
+
+    /**
+     * Подключает программы библиотеки с заданным поиском пути для рыцарей обеих армий.
+     */
+    static void attachPrograms(Army playerArmy, Army computerArmy, UnitTargetPathFinder pathFinder) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        SuitableForAttackUnitsFinderImpl suitableFinder = new SuitableForAttackUnitsFinderImpl();
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram("Archer".equals(unit.getUnitType())
+                    ? new UserArcherProgram(unit, playerArmy, computerArmy, speed)
+                    : new UserKnightProgram(unit, playerArmy, computerArmy, speed, suitableFinder, pathFinder));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram("Archer".equals(unit.getUnitType())
+                    ? new ComputerArcherProgram(unit, computerArmy, playerArmy, speed)
+                    : new ComputerKnightProgram(unit, computerArmy, playerArmy, speed, suitableFinder, pathFinder));
+        }
+    }
+
+    /**
+     * Шаблоны юнитов, по одному на тип.
+     */
+    static List<Unit> templates() {
+        List<Unit> units = new ArrayList<>();
+        units.add(createUnit("Archer", "Archer", 50, 15, 30, 0, 0));
+        units.add(createUnit("Knight", "Knight", 100, 25, 60, 0, 0));
+        units.add(createUnit("Pikeman", "Pikeman", 70, 20, 40, 0, 0));
+        units.add(createUnit("Swordsman", "Swordsman", 80, 22, 50, 0, 0));
+        return units;
+    }
+
+    /**
+     * Ряды армии по x, как их собирают программы через {@code getUnitsByRow}.
+     */
+    static List<List<Unit>> rows(Army army, int fromRow, int toRow) {
+        List<List<Unit>> rows = new ArrayList<>();
+        for (int x = fromRow; x <= toRow; x++) {
+            List<Unit> row = new ArrayList<>();
+            for (Unit unit : army.getUnits()) {
+                if (unit.getxCoordinate() == x) {
+                    row.add(unit);
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Army army(int size, int firstColumn, String prefix) {
+        List<Unit> units = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String type = TYPES[i % TYPES.length];
+            units.add(createUnit(prefix + " " + i, type, 100 + 5 * (i % 7), 15 + i % 11, 50,
+                    firstColumn + i / HEIGHT, i % HEIGHT));
+        }
+        return new Army(units);
+    }
+
+    private static Unit createUnit(String name, String type, int health, int attack, int x, int y) {
+        return createUnit(name, type, health, attack, 50, x, y);
+    }
+
+    private static Unit createUnit(String name, String type, int health, int attack, int cost, int x, int y) {
+        Unit unit = new Unit(name, type, health, attack, cost, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
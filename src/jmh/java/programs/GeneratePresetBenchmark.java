@@ -0,0 +1,40 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация армии компьютера при разных бюджетах и режимах.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratePresetBenchmark {
+
+    @Param({"500", "1500", "5000", "100000"})
+    public int maxPoints;
+
+    @Param({"GREEDY", "OPTIMAL"})
+    public PresetMode mode;
+
+    private GeneratePresetImpl generator;
+    private List<Unit> templates;
+
+    @Setup
+    public void setUp() {
+        generator = new GeneratePresetImpl(mode);
+        templates = BenchmarkFixtures.templates();
+    }
+
+    @Benchmark
+    public Army generate() {
+        return generator.generate(templates, maxPoints);
+    }
+}
@@ -0,0 +1,83 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запрос пути на большом поле: две армии по 300 юнитов в крайних колонках и 10% случайных препятствий.
+ * Перед каждым запросом один случайный юнит сдвигается на клетку, так что в замер входит
+ * инкрементальная перестройка графа входов. Кластер 0 — один кластер на всё поле, то есть
+ * плоская Дейкстра по всем клеткам.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchicalPathFinderBenchmark {
+
+    private static final int ARMY_SIZE = 300;
+
+    @Param({"128", "512"})
+    public int size;
+
+    @Param({"16", "0"})
+    public int clusterSize;
+
+    private HierarchicalPathFinder pathFinder;
+    private List<Unit> units;
+    private List<Unit> left;
+    private List<Unit> right;
+    private Set<Integer> occupied;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        pathFinder = new HierarchicalPathFinder(size, size, clusterSize == 0 ? size : clusterSize);
+        random = new Random(42);
+        units = new ArrayList<>();
+        left = new ArrayList<>();
+        right = new ArrayList<>();
+        occupied = new HashSet<>();
+        int columns = (ARMY_SIZE + size - 1) / size;
+        for (int i = 0; i < ARMY_SIZE; i++) {
+            left.add(place("Left " + i, i / size, i % size));
+            right.add(place("Right " + i, size - columns + i / size, i % size));
+        }
+        for (int i = 0; i < size * size / 10; i++) {
+            int x = columns + 1 + random.nextInt(size - 2 * columns - 2);
+            int y = random.nextInt(size);
+            if (!occupied.contains(x * size + y)) {
+                place("Obstacle " + i, x, y);
+            }
+        }
+        // Первый вызов строит входы на всех границах и кластеры вдоль пути
+        pathFinder.getTargetPath(left.get(0), right.get(0), units);
+    }
+
+    @Benchmark
+    public List<Edge> moveAndQuery() {
+        Unit unit = units.get(random.nextInt(units.size()));
+        int x = Math.max(0, Math.min(size - 1, unit.getxCoordinate() + random.nextInt(3) - 1));
+        int y = Math.max(0, Math.min(size - 1, unit.getyCoordinate() + random.nextInt(3) - 1));
+        if (occupied.add(x * size + y)) {
+            occupied.remove(unit.getxCoordinate() * size + unit.getyCoordinate());
+            unit.setxCoordinate(x);
+            unit.setyCoordinate(y);
+        }
+        return pathFinder.getTargetPath(left.get(random.nextInt(ARMY_SIZE)), right.get(random.nextInt(ARMY_SIZE)), units);
+    }
+
+    private Unit place(String name, int x, int y) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        units.add(unit);
+        occupied.add(x * size + y);
+        return unit;
+    }
+}
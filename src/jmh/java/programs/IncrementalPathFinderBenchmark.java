@@ -0,0 +1,86 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный бой SimulateBattleImpl с разными поисками пути для рыцарей: Дейкстра без коридора,
+ * {@link UnitTargetPathFinderImpl} по умолчанию и {@link IncrementalPathFinder}.
+ * <p>
+ * Одна итерация — один бой ({@link Mode#SingleShotTime}), поэтому вспомогательные счётчики
+ * показывают число раскрытых вершин и запросов пути за бой.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class IncrementalPathFinderBenchmark {
+
+    @Param({"16", "63"})
+    public int armySize;
+
+    @Param({"DIJKSTRA", "DEFAULT", "INCREMENTAL"})
+    public String finder;
+
+    private SimulateBattleImpl simulateBattle;
+    private Army playerArmy;
+    private Army computerArmy;
+    private UnitTargetPathFinderImpl fullSearch;
+    private IncrementalPathFinder incremental;
+    private LongAdderMetricsRegistry metrics;
+
+    /**
+     * Раскрытые вершины и запросы пути за итерацию.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expansions {
+        public long expandedNodes;
+        public long pathQueries;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpSimulator() throws ReflectiveOperationException {
+        simulateBattle = new SimulateBattleImpl();
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, (PrintBattleLog) (attacker, target) -> {
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpBattle() {
+        playerArmy = BenchmarkFixtures.playerArmy(armySize);
+        computerArmy = BenchmarkFixtures.computerArmy(armySize);
+        metrics = new LongAdderMetricsRegistry();
+        if ("INCREMENTAL".equals(finder)) {
+            incremental = new IncrementalPathFinder();
+            BenchmarkFixtures.attachPrograms(playerArmy, computerArmy, incremental);
+        } else {
+            fullSearch = new UnitTargetPathFinderImpl(PathSearchStrategy.DIJKSTRA);
+            fullSearch.setCorridorShortcut(!"DIJKSTRA".equals(finder));
+            fullSearch.setMetrics(metrics);
+            BenchmarkFixtures.attachPrograms(playerArmy, computerArmy, fullSearch);
+        }
+    }
+
+    @Benchmark
+    public Army battle(Expansions expansions) throws InterruptedException {
+        simulateBattle.simulate(playerArmy, computerArmy);
+        if ("INCREMENTAL".equals(finder)) {
+            expansions.expandedNodes += incremental.getExpandedNodes();
+            expansions.pathQueries += incremental.getPlannerHits() + incremental.getPlannerBuilds();
+        } else {
+            expansions.expandedNodes += metrics.counterValue(UnitTargetPathFinderImpl.METRIC_NODES_EXPANDED);
+            LatencyHistogram queries = metrics.histogram(UnitTargetPathFinderImpl.METRIC_GET_TARGET_PATH);
+            expansions.pathQueries += queries == null ? 0 : queries.getCount();
+        }
+        return playerArmy;
+    }
+}
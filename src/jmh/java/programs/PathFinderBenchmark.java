@@ -0,0 +1,61 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск пути на пустом, наполовину и почти полностью заполненном поле.
+ * Атакующий и цель стоят в противоположных углах; их клетки освобождаются от препятствий.
+ * Параметр corridor включает проверку свободного октильного коридора перед поиском.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFinderBenchmark {
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double density;
+
+    @Param({"DIJKSTRA", "A_STAR", "JUMP_POINT"})
+    public PathSearchStrategy strategy;
+
+    @Param({"true", "false"})
+    public boolean corridor;
+
+    private UnitTargetPathFinderImpl pathFinder;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> units;
+
+    @Setup
+    public void setUp() {
+        pathFinder = new UnitTargetPathFinderImpl(strategy);
+        pathFinder.setCorridorShortcut(corridor);
+        units = new ArrayList<>();
+        for (Unit unit : BenchmarkFixtures.crowdedField(density, 42)) {
+            boolean nearStart = unit.getxCoordinate() <= 1 && unit.getyCoordinate() <= 1;
+            boolean nearTarget = unit.getxCoordinate() >= 25 && unit.getyCoordinate() >= 19;
+            if (!nearStart && !nearTarget) {
+                units.add(unit);
+            }
+        }
+        attacker = new Unit("Attacker", "Knight", 100, 20, 50, "melee", null, null, 0, 0);
+        attacker.setAlive(true);
+        target = new Unit("Target", "Knight", 100, 20, 50, "melee", null, null, 26, 20);
+        target.setAlive(true);
+        units.add(attacker);
+        units.add(target);
+    }
+
+    @Benchmark
+    public List<Edge> getTargetPath() {
+        return pathFinder.getTargetPath(attacker, target, units);
+    }
+}
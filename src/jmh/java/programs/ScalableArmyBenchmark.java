@@ -0,0 +1,52 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация армии и поиск доступных целей на поле из {@link BattlefieldConfig} с колонками по 500 клеток:
+ * армия занимает armySize / 500 колонок расстановки. Время на операцию должно расти линейно с armySize.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalableArmyBenchmark {
+
+    private static final int COLUMN_HEIGHT = 500;
+
+    @Param({"500", "2000", "8000", "32000"})
+    public int armySize;
+
+    private GeneratePresetImpl generator;
+    private SuitableForAttackUnitsFinderImpl finder;
+    private List<Unit> templates;
+    private Army army;
+
+    @Setup
+    public void setUp() {
+        int columns = armySize / COLUMN_HEIGHT;
+        // Лимит типа и бюджет не ограничивают армию: она заполняет все колонки расстановки
+        BattlefieldConfig config = new BattlefieldConfig(2 * columns + 10, COLUMN_HEIGHT, columns, armySize);
+        generator = new GeneratePresetImpl(PresetMode.GREEDY, config);
+        finder = new SuitableForAttackUnitsFinderImpl(config);
+        templates = BenchmarkFixtures.templates();
+        army = generator.generate(templates, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Army generate() {
+        return generator.generate(templates, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Unit> suitableUnits() {
+        return finder.getSuitableUnits(army, true);
+    }
+}
@@ -0,0 +1,63 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный бой: SimulateBattleImpl с программами библиотеки (скорость анимации 0)
+ * и HeadlessBattleSimulator на тех же армиях.
+ * <p>
+ * Бой изменяет армии, поэтому перед каждым вызовом они пересоздаются ({@link Level#Invocation});
+ * один бой длится достаточно долго, чтобы накладные расходы JMH на такой уровень были малы.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulateBattleBenchmark {
+
+    @Param({"4", "16", "63"})
+    public int armySize;
+
+    private SimulateBattleImpl simulateBattle;
+    private Army playerArmy;
+    private Army computerArmy;
+    private long battle;
+
+    @Setup(Level.Trial)
+    public void setUpSimulator(Blackhole blackhole) throws ReflectiveOperationException {
+        simulateBattle = new SimulateBattleImpl();
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, (PrintBattleLog) (attacker, target) -> {
+            blackhole.consume(attacker);
+            blackhole.consume(target);
+        });
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpArmies() {
+        playerArmy = BenchmarkFixtures.playerArmy(armySize);
+        computerArmy = BenchmarkFixtures.computerArmy(armySize);
+        BenchmarkFixtures.attachPrograms(playerArmy, computerArmy);
+    }
+
+    @Benchmark
+    public Army simulate() throws InterruptedException {
+        simulateBattle.simulate(playerArmy, computerArmy);
+        return playerArmy;
+    }
+
+    @Benchmark
+    public BattleOutcome headless() {
+        return new HeadlessBattleSimulator(new Random(battle++)).run(playerArmy, computerArmy);
+    }
+}
@@ -0,0 +1,52 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск доступных целей по рядам армии компьютера: списки рядов, битовая доска и индекс рядов.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuitableUnitsBenchmark {
+
+    @Param({"4", "16", "63"})
+    public int armySize;
+
+    private final SuitableForAttackUnitsFinderImpl finder = new SuitableForAttackUnitsFinderImpl();
+    private List<List<Unit>> rows;
+    private BattlefieldBitboard board;
+    private RowFrontierIndex frontierIndex;
+
+    @Setup
+    public void setUp() {
+        Army computerArmy = BenchmarkFixtures.computerArmy(armySize);
+        rows = BenchmarkFixtures.rows(computerArmy, 0, 2);
+        Army playerArmy = BenchmarkFixtures.playerArmy(armySize);
+        board = BattlefieldBitboard.of(computerArmy, playerArmy);
+        frontierIndex = RowFrontierIndex.of(computerArmy, playerArmy);
+    }
+
+    @Benchmark
+    public List<Unit> rowLists() {
+        return finder.getSuitableUnits(rows, true);
+    }
+
+    @Benchmark
+    public List<Unit> bitboard() {
+        return finder.getSuitableUnits(board, true, 0, 3);
+    }
+
+    @Benchmark
+    public List<Unit> frontierIndex() {
+        return frontierIndex.getSuitableUnits(rows, true);
+    }
+}
@@ -0,0 +1,50 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Вспомогательные операции над армиями.
+ */
+public final class Armies {
+
+    private Armies() {
+    }
+
+    /**
+     * Глубокая копия армии: у каждого юнита свои здоровье, живость, координаты и словари бонусов.
+     * Программа юнита не копируется — она привязана к исходным армиям.
+     * Сложность: O(n)
+     */
+    public static Army deepCopy(Army army) {
+        Army copy = new Army();
+        copy.setPoints(army.getPoints());
+        List<Unit> units = army.getUnits();
+        List<Unit> copiedUnits = new ArrayList<>(units == null ? 0 : units.size());
+        if (units != null) {
+            for (Unit unit : units) {
+                copiedUnits.add(deepCopy(unit));
+            }
+        }
+        copy.setUnits(copiedUnits);
+        return copy;
+    }
+
+    /**
+     * Глубокая копия юнита без программы.
+     * Сложность: O(1) (плюс размер словарей бонусов)
+     */
+    public static Unit deepCopy(Unit unit) {
+        Unit copy = new Unit(unit.getName(), unit.getUnitType(), unit.getHealth(), unit.getBaseAttack(),
+                unit.getCost(), unit.getAttackType(),
+                unit.getAttackBonuses() == null ? null : new HashMap<>(unit.getAttackBonuses()),
+                unit.getDefenceBonuses() == null ? null : new HashMap<>(unit.getDefenceBonuses()),
+                unit.getxCoordinate(), unit.getyCoordinate());
+        copy.setAlive(unit.isAlive());
+        return copy;
+    }
+}
@@ -0,0 +1,120 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Счётчики изменений (эпохи) двух армий.
+ * <p>
+ * Эпоха армии увеличивается при каждой гибели или перемещении её юнита; пока эпоха не изменилась,
+ * ответы, вычисленные по армии, остаются верными. Трекер — декоратор {@link PrintBattleLog}:
+ * симулятор вызывает лог после каждой атаки, и погибшая цель сама продвигает эпоху своей армии,
+ * поэтому для {@link SimulateBattleImpl} достаточно передать трекер как лог. Перемещения и гибели
+ * вне лога сообщаются через {@link #onUnitMoved(Unit)} и {@link #onUnitDied(Unit)}.
+ * <p>
+ * Левая армия — армия компьютера, правая — армия игрока. Экземпляр не потокобезопасен.
+ */
+public final class ArmyMutationTracker implements RoundAwareBattleLog {
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    private final PrintBattleLog delegate;
+    private final Map<Unit, Integer> sides = new IdentityHashMap<>();
+    private final Map<Unit, Boolean> knownDead = new IdentityHashMap<>();
+    private final long[] epochs = new long[2];
+
+    /**
+     * @param leftArmy  армия компьютера
+     * @param rightArmy армия игрока
+     * @param delegate  лог, которому передаются атаки, или null
+     */
+    public ArmyMutationTracker(Army leftArmy, Army rightArmy, PrintBattleLog delegate) {
+        this.delegate = delegate;
+        register(leftArmy, LEFT);
+        register(rightArmy, RIGHT);
+    }
+
+    public ArmyMutationTracker(Army leftArmy, Army rightArmy) {
+        this(leftArmy, rightArmy, null);
+    }
+
+    /**
+     * Текущая эпоха армии. Сложность: O(1)
+     */
+    public long epoch(boolean leftArmy) {
+        return epochs[leftArmy ? LEFT : RIGHT];
+    }
+
+    /**
+     * Отмечает гибель юнита; повторная гибель эпоху не меняет. Сложность: O(1)
+     */
+    public void onUnitDied(Unit unit) {
+        if (knownDead.put(unit, Boolean.TRUE) == null) {
+            advance(unit);
+        }
+    }
+
+    /**
+     * Отмечает перемещение юнита. Сложность: O(1)
+     */
+    public void onUnitMoved(Unit unit) {
+        advance(unit);
+    }
+
+    /**
+     * Передаёт атаку логу и продвигает эпоху армии погибшей цели. Сложность: O(1)
+     */
+    @Override
+    public void printBattleLog(Unit attacker, Unit target) {
+        if (target != null && !target.isAlive()) {
+            onUnitDied(target);
+        }
+        if (delegate != null) {
+            delegate.printBattleLog(attacker, target);
+        }
+    }
+
+    @Override
+    public void onRoundStart(int round) {
+        if (delegate instanceof RoundAwareBattleLog log) {
+            log.onRoundStart(round);
+        }
+    }
+
+    @Override
+    public void onBattleEnd() {
+        if (delegate instanceof RoundAwareBattleLog log) {
+            log.onBattleEnd();
+        }
+    }
+
+    /**
+     * Продвигает эпоху армии юнита; для незарегистрированного юнита — обеих армий.
+     */
+    private void advance(Unit unit) {
+        Integer side = sides.get(unit);
+        if (side != null) {
+            epochs[side]++;
+        } else {
+            epochs[LEFT]++;
+            epochs[RIGHT]++;
+        }
+    }
+
+    private void register(Army army, int side) {
+        if (army == null || army.getUnits() == null) {
+            return;
+        }
+        for (Unit unit : army.getUnits()) {
+            sides.put(unit, side);
+            if (!unit.isAlive()) {
+                knownDead.put(unit, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Асинхронный лог боя: декоратор {@link PrintBattleLog}, который не задерживает поток симуляции.
+ * <p>
+ * Каждая атака записывается в заранее выделенный кольцевой буфер как четыре числа:
+ * номер атакующего, номер цели (-1 — цели нет), здоровье цели после атаки и номер раунда.
+ * Номера юнитам выдаются при первой встрече. Фоновый поток забирает события пачками
+ * до {@code batchSize} штук и передаёт их получателю уже вне блокировки.
+ * <p>
+ * При заполненном буфере действует {@link BackpressurePolicy}. В режиме SPILL события
+ * дописываются во временный файл; пока файл не прочитан, новые события тоже идут в файл,
+ * поэтому порядок доставки совпадает с порядком атак.
+ * <p>
+ * {@link #flush()} ждёт доставки всех принятых событий; он же вызывается в {@link #onBattleEnd()},
+ * после чего номера юнитов сбрасываются, чтобы долгоживущий лог не удерживал юнитов прошедших боёв.
+ * Исключения получателя не останавливают поток, а учитываются в {@link #getSinkErrors()}.
+ * <p>
+ * Получатель работает в фоновом потоке, пока симуляция продолжает менять юнитов, поэтому
+ * {@link Sink} должен брать здоровье цели из аргумента {@code targetHealth}, а не из юнита.
+ * Декоратор {@link PrintBattleLog} этого не умеет: делегат читает юнитов сам. Для него в потоке
+ * симуляции снимаются отдельные копии атакующего и цели с их состоянием на момент атаки, и делегат
+ * получает копии — без гонки с симуляцией и с тем здоровьем, которое было сразу после атаки.
+ * Копии лежат в параллельных слотах кольца и в этом режиме номера юнитам не выдаются; в режиме SPILL
+ * копии переполнения держатся в памяти рядом с сегментом файла, пока он не доставлен.
+ */
+public class AsyncBattleLog implements RoundAwareBattleLog, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final int NO_TARGET = -1;
+    private static final int SPILL_RECORD_BYTES = 4 * Integer.BYTES;
+
+    /**
+     * Получатель событий лога.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Одна атака: цель может быть null, targetHealth — здоровье цели сразу после атаки.
+         */
+        void onAttack(int round, Unit attacker, Unit target, int targetHealth);
+
+        /**
+         * Пачка событий доставлена — удобный момент сбросить буфер вывода.
+         */
+        default void onBatchEnd() {
+        }
+    }
+
+    private final Sink sink;
+    private final boolean detachUnits; // передавать получателю копии юнитов, снятые в потоке симуляции
+    private final BackpressurePolicy policy;
+    private final int mask;
+    private final int batchSize;
+
+    // Кольцевой буфер событий: позиция — sequence & mask
+    private final int[] attackerIds;
+    private final int[] targetIds;
+    private final int[] healths;
+    private final int[] rounds;
+    private final Unit[] attackerCopies; // копии юнитов по слотам; только при detachUnits
+    private final Unit[] targetCopies;
+    private long head;  // следующее событие для потребителя
+    private long tail;  // следующая свободная позиция
+
+    // Номера юнитов
+    private final Map<Unit, Integer> ids = new IdentityHashMap<>();
+    private Unit[] units = new Unit[64];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition delivered = lock.newCondition();
+
+    // Файл переполнения: запись идёт в текущий сегмент, чтение — из предыдущего
+    private Path spillPath;
+    private DataOutputStream spillOut;
+    private List<Unit> spillCopies;      // копии текущего сегмента при detachUnits: атакующий и цель подряд
+    private int spillPending;
+
+    private int round;
+    private long accepted;
+    private long deliveredCount;
+    private long dropped;
+    private long spilled;
+    private long sinkErrors;
+    private boolean closed;
+
+    private final Thread consumer;
+
+    public AsyncBattleLog(PrintBattleLog delegate) {
+        this(delegate, BackpressurePolicy.BLOCK, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public AsyncBattleLog(PrintBattleLog delegate, BackpressurePolicy policy, int capacity, int batchSize) {
+        this(toSink(Objects.requireNonNull(delegate, "delegate")), true, policy, capacity, batchSize);
+    }
+
+    /**
+     * @param capacity  ёмкость кольцевого буфера, округляется вверх до степени двойки
+     * @param batchSize максимальный размер пачки, передаваемой получателю за раз
+     */
+    public AsyncBattleLog(Sink sink, BackpressurePolicy policy, int capacity, int batchSize) {
+        this(sink, false, policy, capacity, batchSize);
+    }
+
+    private AsyncBattleLog(Sink sink, boolean detachUnits, BackpressurePolicy policy, int capacity, int batchSize) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Ёмкость и размер пачки должны быть положительными");
+        }
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.detachUnits = detachUnits;
+        this.policy = Objects.requireNonNull(policy, "policy");
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.batchSize = batchSize;
+        this.attackerIds = new int[size];
+        this.targetIds = new int[size];
+        this.healths = new int[size];
+        this.rounds = new int[size];
+        this.attackerCopies = detachUnits ? new Unit[size] : null;
+        this.targetCopies = detachUnits ? new Unit[size] : null;
+
+        consumer = new Thread(this::drainLoop, "battle-log-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Принимает событие атаки. Сложность: O(1) (кроме ожидания в BLOCK и записи в файл в SPILL)
+     */
+    @Override
+    public void printBattleLog(Unit attacker, Unit target) {
+        if (detachUnits) {
+            // Делегат прочитает юнитов в потоке-потребителе: отдаём ему состояние на момент атаки
+            attacker = detach(attacker);
+            target = target == null ? null : detach(target);
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Лог боя закрыт");
+            }
+            // Копии уникальны для события: номер из реестра им не нужен
+            int attackerId = detachUnits ? 0 : idOf(attacker);
+            int targetId = target == null ? NO_TARGET : detachUnits ? 0 : idOf(target);
+            int health = target == null ? 0 : target.getHealth();
+
+            boolean full = tail - head > mask;
+            if (spillPending > 0 || (full && policy == BackpressurePolicy.SPILL)) {
+                spill(attackerId, targetId, health);
+                if (detachUnits) {
+                    spillCopies.add(attacker);
+                    spillCopies.add(target);
+                }
+            } else if (full && policy == BackpressurePolicy.DROP) {
+                dropped++;
+                return;
+            } else {
+                while (tail - head > mask) {
+                    notFull.awaitUninterruptibly();
+                }
+                int slot = (int) (tail & mask);
+                attackerIds[slot] = attackerId;
+                targetIds[slot] = targetId;
+                healths[slot] = health;
+                rounds[slot] = round;
+                if (detachUnits) {
+                    attackerCopies[slot] = attacker;
+                    targetCopies[slot] = target;
+                }
+                tail++;
+            }
+            accepted++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onRoundStart(int round) {
+        lock.lock();
+        try {
+            this.round = round;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onBattleEnd() {
+        flush();
+        lock.lock();
+        try {
+            if (head == tail && spillPending == 0) {
+                // Все события доставлены: номера юнитов боя больше не нужны
+                ids.clear();
+                units = new Unit[64];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждёт, пока все принятые к этому моменту события будут доставлены получателю.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            long target = accepted;
+            while (deliveredCount < target && consumer.isAlive()) {
+                notEmpty.signal();
+                delivered.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Доставляет оставшиеся события, останавливает поток-потребитель и удаляет файл переполнения.
+     */
+    @Override
+    public void close() {
+        flush();
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSpill();
+    }
+
+    public long getAccepted() {
+        lock.lock();
+        try {
+            return accepted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDelivered() {
+        lock.lock();
+        try {
+            return deliveredCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSpilled() {
+        lock.lock();
+        try {
+            return spilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSinkErrors() {
+        lock.lock();
+        try {
+            return sinkErrors;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Число юнитов, которым выданы номера с начала боя.
+     */
+    int registeredUnits() {
+        lock.lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Цикл потребителя: пачка из буфера, иначе сегмент файла переполнения, иначе ожидание.
+     */
+    private void drainLoop() {
+        Unit[] batchAttackers = new Unit[batchSize];
+        Unit[] batchTargets = new Unit[batchSize];
+        int[] batchHealths = new int[batchSize];
+        int[] batchRounds = new int[batchSize];
+
+        while (true) {
+            int count = 0;
+            Path segment = null;
+            int segmentSize = 0;
+            List<Unit> segmentCopies = null;
+            Unit[] registry;
+
+            lock.lock();
+            try {
+                while (head == tail && spillPending == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (head == tail && spillPending == 0) {
+                    return; // закрыт и всё доставлено
+                }
+                registry = units;
+                if (head != tail) {
+                    // События в буфере старше событий в файле
+                    while (head != tail && count < batchSize) {
+                        int slot = (int) (head & mask);
+                        if (detachUnits) {
+                            batchAttackers[count] = attackerCopies[slot];
+                            batchTargets[count] = targetCopies[slot];
+                            attackerCopies[slot] = null;
+                            targetCopies[slot] = null;
+                        } else {
+                            batchAttackers[count] = registry[attackerIds[slot]];
+                            batchTargets[count] = targetIds[slot] == NO_TARGET ? null : registry[targetIds[slot]];
+                        }
+                        batchHealths[count] = healths[slot];
+                        batchRounds[count] = rounds[slot];
+                        head++;
+                        count++;
+                    }
+                    notFull.signalAll();
+                } else {
+                    // Буфер пуст: забираем весь текущий сегмент файла, новые события пишутся в новый
+                    segmentCopies = spillCopies;
+                    segment = rotateSpill();
+                    segmentSize = spillPending;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (segment != null) {
+                deliverSegment(segment, segmentSize, registry, segmentCopies);
+                continue;
+            }
+
+            int errors = 0;
+            for (int i = 0; i < count; i++) {
+                errors += deliver(batchRounds[i], batchAttackers[i], batchTargets[i], batchHealths[i]);
+                batchAttackers[i] = null;
+                batchTargets[i] = null;
+            }
+            errors += finishBatch();
+            markDelivered(count, errors, 0);
+        }
+    }
+
+    /**
+     * Доставляет сегмент файла переполнения; copies — копии юнитов сегмента при detachUnits, иначе null.
+     */
+    private void deliverSegment(Path segment, int segmentSize, Unit[] registry, List<Unit> copies) {
+        int errors = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            for (int i = 0; i < segmentSize; i++) {
+                int attackerId = in.readInt();
+                int targetId = in.readInt();
+                int health = in.readInt();
+                int eventRound = in.readInt();
+                Unit attacker = copies != null ? copies.get(2 * i) : registry[attackerId];
+                Unit target = copies != null ? copies.get(2 * i + 1)
+                        : targetId == NO_TARGET ? null : registry[targetId];
+                errors += deliver(eventRound, attacker, target, health);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать файл переполнения лога", e);
+        } finally {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException ignored) {
+                // временный файл будет удалён при выходе
+            }
+        }
+        errors += finishBatch();
+        markDelivered(segmentSize, errors, segmentSize);
+    }
+
+    private int deliver(int eventRound, Unit attacker, Unit target, int health) {
+        try {
+            sink.onAttack(eventRound, attacker, target, health);
+            return 0;
+        } catch (RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private int finishBatch() {
+        try {
+            sink.onBatchEnd();
+            return 0;
+        } catch (RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private void markDelivered(int count, int errors, int fromSpill) {
+        lock.lock();
+        try {
+            deliveredCount += count;
+            sinkErrors += errors;
+            spillPending -= fromSpill;
+            delivered.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Дописывает событие в текущий сегмент файла переполнения. Вызывается под блокировкой.
+     */
+    private void spill(int attackerId, int targetId, int health) {
+        try {
+            if (spillOut == null) {
+                spillPath = Files.createTempFile("battle-log-", ".spill");
+                spillPath.toFile().deleteOnExit();
+                spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillPath),
+                        SPILL_RECORD_BYTES * batchSize));
+                spillCopies = detachUnits ? new ArrayList<>() : null;
+            }
+            spillOut.writeInt(attackerId);
+            spillOut.writeInt(targetId);
+            spillOut.writeInt(health);
+            spillOut.writeInt(round);
+            spillPending++;
+            spilled++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать событие лога в файл переполнения", e);
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и отдаёт его на чтение. Вызывается под блокировкой.
+     * Пока сегмент не доставлен, spillPending > 0, и новые события идут в следующий сегмент.
+     */
+    private Path rotateSpill() {
+        try {
+            spillOut.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось закрыть файл переполнения лога", e);
+        }
+        Path segment = spillPath;
+        spillOut = null;
+        spillPath = null;
+        spillCopies = null;
+        return segment;
+    }
+
+    private void closeSpill() {
+        lock.lock();
+        try {
+            if (spillOut != null) {
+                spillOut.close();
+                Files.deleteIfExists(spillPath);
+                spillOut = null;
+                spillPath = null;
+                spillCopies = null;
+            }
+        } catch (IOException ignored) {
+            // временный файл будет удалён при выходе
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Номер юнита, выдаётся при первой встрече. Вызывается под блокировкой.
+     */
+    private int idOf(Unit unit) {
+        Integer id = ids.get(unit);
+        if (id != null) {
+            return id;
+        }
+        int newId = ids.size();
+        if (newId == units.length) {
+            Unit[] grown = new Unit[units.length * 2];
+            System.arraycopy(units, 0, grown, 0, units.length);
+            units = grown;
+        }
+        units[newId] = unit;
+        ids.put(unit, newId);
+        return newId;
+    }
+
+    /**
+     * Копия юнита с его текущим состоянием; программа не копируется. Сложность: O(1)
+     */
+    private static Unit detach(Unit unit) {
+        Unit copy = new Unit(unit.getName(), unit.getUnitType(), unit.getHealth(), unit.getBaseAttack(), unit.getCost(),
+                unit.getAttackType(), unit.getAttackBonuses(), unit.getDefenceBonuses(),
+                unit.getxCoordinate(), unit.getyCoordinate());
+        copy.setAlive(unit.isAlive());
+        return copy;
+    }
+
+    private static Sink toSink(PrintBattleLog delegate) {
+        return (eventRound, attacker, target, targetHealth) -> delegate.printBattleLog(attacker, target);
+    }
+}
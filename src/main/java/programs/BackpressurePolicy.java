@@ -0,0 +1,22 @@
+package programs;
+
+/**
+ * Поведение {@link AsyncBattleLog}, когда кольцевой буфер заполнен.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * Поток симуляции ждёт, пока потребитель освободит место.
+     */
+    BLOCK,
+
+    /**
+     * Событие отбрасывается и учитывается в счётчике отброшенных.
+     */
+    DROP,
+
+    /**
+     * Событие дописывается во временный файл; порядок событий сохраняется.
+     */
+    SPILL
+}
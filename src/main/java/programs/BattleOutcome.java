@@ -0,0 +1,34 @@
+package programs;
+
+/**
+ * Итог боя, сыгранного без анимации.
+ *
+ * @param winner            победившая сторона
+ * @param rounds            число сыгранных раундов
+ * @param attacks           число ходов юнитов (включая ходы без цели)
+ * @param playerSurvivors   живые юниты армии игрока после боя
+ * @param computerSurvivors живые юниты армии компьютера после боя
+ * @param predicted         бой остановлен {@link OutcomePredictor}: победитель и выжившие предсказаны
+ */
+public record BattleOutcome(Winner winner, int rounds, int attacks, int playerSurvivors, int computerSurvivors,
+                            boolean predicted) {
+
+    /**
+     * Итог боя, сыгранного до конца.
+     */
+    public BattleOutcome(Winner winner, int rounds, int attacks, int playerSurvivors, int computerSurvivors) {
+        this(winner, rounds, attacks, playerSurvivors, computerSurvivors, false);
+    }
+
+    /**
+     * Победившая сторона.
+     */
+    public enum Winner {
+        PLAYER,
+        COMPUTER,
+        /**
+         * Обе армии пусты либо бой зашёл в тупик: за целый раунд никто не смог нанести урон.
+         */
+        DRAW
+    }
+}
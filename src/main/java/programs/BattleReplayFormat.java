@@ -0,0 +1,141 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Двоичный формат записи боя.
+ * <pre>
+ * Заголовок:  int MAGIC, short VERSION, short 0, int playerCount, int computerCount,
+ *             затем юниты (сначала армия игрока, затем компьютера):
+ *             строки name, unitType, attackType; int health, baseAttack, cost, x, y; byte alive;
+ *             словари attackBonuses, defenceBonuses
+ * Записи:     по RECORD_BYTES байт — byte kind, byte flags, short 0, int unitId, int otherId, int value
+ * Индекс:     long номер первой записи для каждого раунда 1..roundCount
+ * Концовка:   long recordsOffset, long recordCount, long indexOffset, int roundCount, int MAGIC
+ * </pre>
+ * Строка — int длина в байтах UTF-8 (-1 для null) и байты; словарь — int размер (-1 для null)
+ * и пары «строка, double». Порядок байт — big-endian.
+ * <p>
+ * Атака: unitId — атакующий, otherId — цель или -1, value — здоровье цели после атаки,
+ * бит {@link #FLAG_TARGET_ALIVE} — цель жива. Перемещение: unitId — юнит, otherId — x, value — y.
+ */
+final class BattleReplayFormat {
+
+    static final int MAGIC = 0x48525031; // "HRP1"
+    static final short VERSION = 1;
+
+    static final int RECORD_BYTES = 16;
+    static final int TRAILER_BYTES = 3 * Long.BYTES + 2 * Integer.BYTES;
+
+    static final byte KIND_ATTACK = 1;
+    static final byte KIND_MOVE = 2;
+
+    static final byte FLAG_TARGET_ALIVE = 1;
+    static final int NO_TARGET = -1;
+
+    private BattleReplayFormat() {
+    }
+
+    static void writeUnit(ByteBuffer buffer, Unit unit) {
+        writeString(buffer, unit.getName());
+        writeString(buffer, unit.getUnitType());
+        writeString(buffer, unit.getAttackType());
+        buffer.putInt(unit.getHealth());
+        buffer.putInt(unit.getBaseAttack());
+        buffer.putInt(unit.getCost());
+        buffer.putInt(unit.getxCoordinate());
+        buffer.putInt(unit.getyCoordinate());
+        buffer.put((byte) (unit.isAlive() ? 1 : 0));
+        writeBonuses(buffer, unit.getAttackBonuses());
+        writeBonuses(buffer, unit.getDefenceBonuses());
+    }
+
+    static Unit readUnit(ByteBuffer buffer) {
+        String name = readString(buffer);
+        String unitType = readString(buffer);
+        String attackType = readString(buffer);
+        int health = buffer.getInt();
+        int baseAttack = buffer.getInt();
+        int cost = buffer.getInt();
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        boolean alive = buffer.get() != 0;
+        Map<String, Double> attackBonuses = readBonuses(buffer);
+        Map<String, Double> defenceBonuses = readBonuses(buffer);
+        Unit unit = new Unit(name, unitType, health, baseAttack, cost, attackType, attackBonuses, defenceBonuses, x, y);
+        unit.setAlive(alive);
+        return unit;
+    }
+
+    /**
+     * Размер юнита в заголовке, байт.
+     */
+    static int unitBytes(Unit unit) {
+        return stringBytes(unit.getName()) + stringBytes(unit.getUnitType()) + stringBytes(unit.getAttackType())
+                + 5 * Integer.BYTES + 1
+                + bonusesBytes(unit.getAttackBonuses()) + bonusesBytes(unit.getDefenceBonuses());
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int stringBytes(String value) {
+        return Integer.BYTES + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void writeBonuses(ByteBuffer buffer, Map<String, Double> bonuses) {
+        if (bonuses == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bonuses.size());
+        for (Map.Entry<String, Double> entry : bonuses.entrySet()) {
+            writeString(buffer, entry.getKey());
+            buffer.putDouble(entry.getValue());
+        }
+    }
+
+    private static Map<String, Double> readBonuses(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Double> bonuses = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            bonuses.put(readString(buffer), buffer.getDouble());
+        }
+        return bonuses;
+    }
+
+    private static int bonusesBytes(Map<String, Double> bonuses) {
+        int bytes = Integer.BYTES;
+        if (bonuses != null) {
+            for (String key : bonuses.keySet()) {
+                bytes += stringBytes(key) + Double.BYTES;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,198 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение записи боя формата {@link BattleReplayFormat}.
+ * <p>
+ * Файл отображается в память целиком. Открытие читает концовку в конце файла и заголовок
+ * со снимком армий — его стоимость не зависит от числа раундов и записей. Начало раунда N
+ * берётся из индекса за O(1), записи раунда читаются по фиксированному смещению.
+ * <p>
+ * Состояние юнитов восстанавливается применением записей к снимку армий, без запуска программ.
+ */
+public class BattleReplayReader implements AutoCloseable {
+
+    /**
+     * Запись файла: атака или перемещение.
+     *
+     * @param kind        вид записи
+     * @param unitId      номер атакующего или перемещённого юнита в снимке
+     * @param otherId     для атаки — номер цели или -1, для перемещения — x
+     * @param value       для атаки — здоровье цели после атаки, для перемещения — y
+     * @param targetAlive для атаки — жива ли цель после атаки
+     */
+    public record Event(Kind kind, int unitId, int otherId, int value, boolean targetAlive) {
+    }
+
+    public enum Kind {
+        ATTACK,
+        MOVE
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int playerCount;
+    private final List<Unit> snapshot; // юниты в порядке номеров: армия игрока, затем компьютера
+    private final long recordsOffset;
+    private final long recordCount;
+    private final long indexOffset;
+    private final int roundCount;
+
+    /**
+     * Открывает запись боя.
+     *
+     * @throws IOException              если файл не удалось прочитать
+     * @throws IllegalArgumentException если файл не является записью боя
+     */
+    public BattleReplayReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 4 * Integer.BYTES + BattleReplayFormat.TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Некорректный размер записи боя: " + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // Концовка
+            int trailer = (int) (size - BattleReplayFormat.TRAILER_BYTES);
+            recordsOffset = buffer.getLong(trailer);
+            recordCount = buffer.getLong(trailer + Long.BYTES);
+            indexOffset = buffer.getLong(trailer + 2 * Long.BYTES);
+            roundCount = buffer.getInt(trailer + 3 * Long.BYTES);
+            if (buffer.getInt(trailer + 3 * Long.BYTES + Integer.BYTES) != BattleReplayFormat.MAGIC) {
+                throw new IllegalArgumentException("Запись боя не завершена или повреждена: " + file);
+            }
+
+            // Заголовок
+            if (buffer.getInt(0) != BattleReplayFormat.MAGIC) {
+                throw new IllegalArgumentException("Файл не является записью боя: " + file);
+            }
+            short version = buffer.getShort(Integer.BYTES);
+            if (version != BattleReplayFormat.VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия записи боя: " + version);
+            }
+            buffer.position(2 * Integer.BYTES);
+            playerCount = buffer.getInt();
+            int computerCount = buffer.getInt();
+            snapshot = new ArrayList<>(playerCount + computerCount);
+            for (int i = 0; i < playerCount + computerCount; i++) {
+                snapshot.add(BattleReplayFormat.readUnit(buffer));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getUnitCount() {
+        return snapshot.size();
+    }
+
+    /**
+     * Номер первой записи раунда (раунды с единицы; round = roundCount + 1 — конец записей).
+     * Сложность: O(1)
+     */
+    public long firstRecordOfRound(int round) {
+        if (round < 1 || round > roundCount + 1) {
+            throw new IndexOutOfBoundsException("Раунд " + round + " вне диапазона 1.." + (roundCount + 1));
+        }
+        if (round == roundCount + 1) {
+            return recordCount;
+        }
+        return buffer.getLong((int) (indexOffset + (long) (round - 1) * Long.BYTES));
+    }
+
+    /**
+     * Запись с номером index. Сложность: O(1)
+     */
+    public Event event(long index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Запись " + index + " вне диапазона 0.." + (recordCount - 1));
+        }
+        int offset = (int) (recordsOffset + index * BattleReplayFormat.RECORD_BYTES);
+        byte kind = buffer.get(offset);
+        byte flags = buffer.get(offset + 1);
+        int unitId = buffer.getInt(offset + 4);
+        int otherId = buffer.getInt(offset + 8);
+        int value = buffer.getInt(offset + 12);
+        return new Event(kind == BattleReplayFormat.KIND_MOVE ? Kind.MOVE : Kind.ATTACK, unitId, otherId, value,
+                (flags & BattleReplayFormat.FLAG_TARGET_ALIVE) != 0);
+    }
+
+    /**
+     * Записи раунда round. Сложность: O(записей раунда)
+     */
+    public List<Event> eventsOfRound(int round) {
+        long from = firstRecordOfRound(round);
+        long to = firstRecordOfRound(round + 1);
+        List<Event> events = new ArrayList<>((int) (to - from));
+        for (long index = from; index < to; index++) {
+            events.add(event(index));
+        }
+        return events;
+    }
+
+    /**
+     * Армии в состоянии перед началом раунда round (round = roundCount + 1 — итог боя).
+     * Каждый вызов создаёт новых юнитов из снимка.
+     * Сложность: O(n + записей до раунда)
+     *
+     * @return [армия игрока, армия компьютера]
+     */
+    public Army[] replayTo(int round) {
+        long end = firstRecordOfRound(round);
+        List<Unit> units = new ArrayList<>(snapshot.size());
+        for (Unit unit : snapshot) {
+            units.add(Armies.deepCopy(unit));
+        }
+        for (long index = 0; index < end; index++) {
+            apply(units, event(index));
+        }
+        return new Army[]{
+                new Army(new ArrayList<>(units.subList(0, playerCount))),
+                new Army(new ArrayList<>(units.subList(playerCount, units.size())))
+        };
+    }
+
+    /**
+     * Армии в конце записи.
+     */
+    public Army[] replayAll() {
+        return replayTo(roundCount + 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void apply(List<Unit> units, Event event) {
+        if (event.kind() == Kind.MOVE) {
+            Unit unit = units.get(event.unitId());
+            unit.setxCoordinate(event.otherId());
+            unit.setyCoordinate(event.value());
+        } else if (event.otherId() != BattleReplayFormat.NO_TARGET) {
+            Unit target = units.get(event.otherId());
+            target.setHealth(event.value());
+            target.setAlive(event.targetAlive());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Запись боя в двоичный файл формата {@link BattleReplayFormat}.
+ * <p>
+ * Заголовок со снимком обеих армий пишется при создании. Дальше писатель подключается как лог боя:
+ * каждая атака — запись фиксированной длины, номера раундов собираются в индекс. Записи идут
+ * через отображённый в память {@link FileChannel}: файл растёт окнами по {@code CHUNK_BYTES},
+ * запись события — несколько {@code put} в {@link MappedByteBuffer} без системных вызовов.
+ * Заполненное окно сбрасывается на диск перед отображением следующего.
+ * <p>
+ * {@link #onBattleEnd()} или {@link #close()} дописывают индекс раундов и концовку. Последнее окно
+ * выходит за конец данных, а обрезать файл с живым отображением нельзя (на части систем это ошибка),
+ * поэтому {@link #close()} сначала закрывает канал и лишь затем обрезает файл до фактической длины:
+ * читать запись можно после {@link #close()}. Экземпляр не потокобезопасен.
+ */
+public class BattleReplayWriter implements RoundAwareBattleLog, AutoCloseable {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<Unit, Integer> ids = new IdentityHashMap<>();
+    private final long recordsOffset;
+
+    private MappedByteBuffer window;
+    private long windowOffset;
+    private long position;          // абсолютная позиция следующей записи
+    private long recordCount;
+    private long[] roundStarts = new long[64]; // [r - 1] — номер первой записи раунда r
+    private int roundCount;
+    private boolean finished;
+
+    /**
+     * Создаёт файл и записывает снимок армий.
+     *
+     * @throws IOException если файл не удалось создать или записать
+     */
+    public BattleReplayWriter(Path file, Army playerArmy, Army computerArmy) throws IOException {
+        List<Unit> playerUnits = unitsOf(playerArmy);
+        List<Unit> computerUnits = unitsOf(computerArmy);
+
+        int headerBytes = 4 * Integer.BYTES;
+        for (Unit unit : playerUnits) {
+            headerBytes += BattleReplayFormat.unitBytes(unit);
+        }
+        for (Unit unit : computerUnits) {
+            headerBytes += BattleReplayFormat.unitBytes(unit);
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerBytes);
+        header.putInt(BattleReplayFormat.MAGIC);
+        header.putShort(BattleReplayFormat.VERSION);
+        header.putShort((short) 0);
+        header.putInt(playerUnits.size());
+        header.putInt(computerUnits.size());
+        int id = 0;
+        for (Unit unit : playerUnits) {
+            ids.putIfAbsent(unit, id++);
+            BattleReplayFormat.writeUnit(header, unit);
+        }
+        for (Unit unit : computerUnits) {
+            ids.putIfAbsent(unit, id++);
+            BattleReplayFormat.writeUnit(header, unit);
+        }
+        header.flip();
+
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        recordsOffset = headerBytes;
+        position = headerBytes;
+        mapWindow(position);
+    }
+
+    /**
+     * Записывает атаку: цель, её здоровье после атаки и живость. Сложность: O(1)
+     */
+    @Override
+    public void printBattleLog(Unit attacker, Unit target) {
+        int targetId = target == null ? BattleReplayFormat.NO_TARGET : requireId(target);
+        int health = target == null ? 0 : target.getHealth();
+        byte flags = target != null && target.isAlive() ? BattleReplayFormat.FLAG_TARGET_ALIVE : 0;
+        putRecord(BattleReplayFormat.KIND_ATTACK, flags, requireId(attacker), targetId, health);
+    }
+
+    /**
+     * Записывает текущие координаты юнита. Сложность: O(1)
+     */
+    public void recordMove(Unit unit) {
+        putRecord(BattleReplayFormat.KIND_MOVE, (byte) 0, requireId(unit), unit.getxCoordinate(),
+                unit.getyCoordinate());
+    }
+
+    /**
+     * Отмечает начало раунда в индексе. Пропущенные номера получают ту же первую запись.
+     */
+    @Override
+    public void onRoundStart(int round) {
+        ensureOpen();
+        while (roundCount < round) {
+            if (roundCount == roundStarts.length) {
+                roundStarts = Arrays.copyOf(roundStarts, roundStarts.length * 2);
+            }
+            roundStarts[roundCount++] = recordCount;
+        }
+    }
+
+    @Override
+    public void onBattleEnd() {
+        try {
+            finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     * Дописывает индекс и концовку (если ещё не дописаны), закрывает канал и обрезает файл
+     * до фактической длины.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            window = null;
+            channel.close();
+        }
+        try (FileChannel trim = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            trim.truncate(position);
+        }
+    }
+
+    private void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        long indexOffset = position;
+        for (int r = 0; r < roundCount; r++) {
+            ensureWindow(Long.BYTES);
+            window.putLong(roundStarts[r]);
+            position += Long.BYTES;
+        }
+        ensureWindow(BattleReplayFormat.TRAILER_BYTES);
+        window.putLong(recordsOffset);
+        window.putLong(recordCount);
+        window.putLong(indexOffset);
+        window.putInt(roundCount);
+        window.putInt(BattleReplayFormat.MAGIC);
+        position += BattleReplayFormat.TRAILER_BYTES;
+
+        window.force();
+        window = null;
+        finished = true;
+    }
+
+    private void putRecord(byte kind, byte flags, int unitId, int otherId, int value) {
+        ensureOpen();
+        ensureWindow(BattleReplayFormat.RECORD_BYTES);
+        window.put(kind);
+        window.put(flags);
+        window.putShort((short) 0);
+        window.putInt(unitId);
+        window.putInt(otherId);
+        window.putInt(value);
+        position += BattleReplayFormat.RECORD_BYTES;
+        recordCount++;
+    }
+
+    private void ensureWindow(int bytes) {
+        if (position + bytes > windowOffset + window.capacity()) {
+            window.force();
+            try {
+                mapWindow(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось расширить файл записи боя", e);
+            }
+        }
+    }
+
+    private void mapWindow(long offset) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, offset, CHUNK_BYTES);
+        windowOffset = offset;
+    }
+
+    private void ensureOpen() {
+        if (finished) {
+            throw new IllegalStateException("Запись боя уже завершена");
+        }
+    }
+
+    private int requireId(Unit unit) {
+        Integer id = ids.get(unit);
+        if (id == null) {
+            throw new IllegalArgumentException("Юнит отсутствует в снимке армий: " + unit.getName());
+        }
+        return id;
+    }
+
+    private static List<Unit> unitsOf(Army army) {
+        if (army == null || army.getUnits() == null) {
+            return Collections.emptyList();
+        }
+        return army.getUnits();
+    }
+}
@@ -0,0 +1,157 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Одна сессия боя в {@link BattleSessionExecutor}: состояние, отмена и ожидание результата.
+ * <p>
+ * Состояние меняется только вперёд: {@code QUEUED → RUNNING → конечное}; первое конечное
+ * состояние окончательно. Отмена и истечение времени меняют состояние сразу и прерывают поток боя,
+ * а ожидание {@link #await()} и {@link #completion()} завершается, когда поток вышел из симулятора
+ * и освободил армии — после этого их можно передать в новую сессию.
+ * <p>
+ * Экземпляр потокобезопасен.
+ */
+public final class BattleSession {
+
+    private final long id;
+    private final Army playerArmy;
+    private final Army computerArmy;
+    private final AtomicReference<SessionStatus> status = new AtomicReference<>(SessionStatus.QUEUED);
+    private final CompletableFuture<SessionStatus> result = new CompletableFuture<>();
+    private volatile Thread thread;
+    private volatile Throwable error;
+
+    BattleSession(long id, Army playerArmy, Army computerArmy) {
+        this.id = id;
+        this.playerArmy = playerArmy;
+        this.computerArmy = computerArmy;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Army getPlayerArmy() {
+        return playerArmy;
+    }
+
+    public Army getComputerArmy() {
+        return computerArmy;
+    }
+
+    public SessionStatus getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Исключение симулятора для {@link SessionStatus#FAILED}, иначе null.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Завершение потока сессии с её конечным состоянием.
+     */
+    public CompletionStage<SessionStatus> completion() {
+        return result.minimalCompletionStage();
+    }
+
+    /**
+     * Ждёт завершения потока сессии.
+     *
+     * @return конечное состояние
+     */
+    public SessionStatus await() throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Ждёт завершения потока сессии не дольше timeout.
+     *
+     * @return конечное состояние или текущее, если время ожидания истекло
+     */
+    public SessionStatus await(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            return result.get(timeout, unit);
+        } catch (TimeoutException e) {
+            return status.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Отменяет сессию: ожидающая в очереди не начнётся, идущий бой будет прерван.
+     *
+     * @return true, если эта отмена завершила сессию
+     */
+    public boolean cancel() {
+        return interruptWith(SessionStatus.CANCELLED);
+    }
+
+    void attach(Thread thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * Переводит сессию из очереди в работу.
+     *
+     * @return false, если сессия уже завершена (отменена, пока ждала)
+     */
+    boolean markRunning() {
+        return status.compareAndSet(SessionStatus.QUEUED, SessionStatus.RUNNING);
+    }
+
+    /**
+     * Завершает сессию, если она ещё не завершена, и прерывает её поток.
+     */
+    boolean interruptWith(SessionStatus terminal) {
+        if (!finish(terminal, null)) {
+            return false;
+        }
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Записывает конечное состояние; выигрывает первое.
+     */
+    boolean finish(SessionStatus terminal, Throwable failure) {
+        while (true) {
+            SessionStatus current = status.get();
+            if (current.isTerminal()) {
+                return false;
+            }
+            // Ошибку передаёт только поток боя, поэтому её можно записать до смены состояния
+            if (failure != null) {
+                error = failure;
+            }
+            if (status.compareAndSet(current, terminal)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Сообщает ожидающим, что поток сессии завершился; вызывается после {@link #finish}.
+     */
+    void done() {
+        result.complete(status.get());
+    }
+}
@@ -0,0 +1,350 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.SimulateBattle;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Исполнитель множества одновременных боёв на виртуальных потоках.
+ * <p>
+ * {@link SimulateBattle#simulate} блокирует поток, а программы библиотеки при анимированной игре
+ * большую часть времени спят в {@code Thread.sleep}. Каждая сессия получает свой виртуальный поток,
+ * который на время сна освобождает поток-носитель, поэтому десятки тысяч боёв идут на нескольких
+ * потоках ОС.
+ * <p>
+ * Ограничения:
+ * <ul>
+ *   <li>одновременно идёт не больше {@code maxConcurrent} боёв, остальные ждут в очереди;</li>
+ *   <li>в очереди не больше {@code queueCapacity} сессий, дальше {@link #submit} отказывает
+ *       {@link RejectedExecutionException};</li>
+ *   <li>армии и юниты сессии принадлежат только ей: пока сессия не завершена, те же объекты
+ *       нельзя передать в другую сессию.</li>
+ * </ul>
+ * Время боя ограничивается таймаутом: по его истечении сессия завершается как
+ * {@link SessionStatus#TIMED_OUT}, а её поток прерывается. Счётчики и длительности пишутся в
+ * {@link MetricsRegistry}, текущие значения доступны через геттеры.
+ */
+public final class BattleSessionExecutor implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONCURRENT = 10_000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 100_000;
+
+    public static final String METRIC_QUEUE_WAIT = "session.queueWait";
+    public static final String METRIC_RUN = "session.run";
+    public static final String METRIC_REJECTED = "session.rejected";
+    private static final String METRIC_FINISHED_PREFIX = "session.";
+
+    private final int maxConcurrent;
+    private final int admissionLimit;             // выполняющиеся + ожидающие
+    private final Semaphore runPermits;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("battle-session-", 0).factory();
+    private final ScheduledExecutorService watchdog;
+    private final MetricsRegistry metrics;
+
+    // армии и юниты незавершённых сессий, по ссылкам; под своим монитором
+    private final Set<Object> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<BattleSession> live = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAccumulator peakActive = new LongAccumulator(Math::max, 0);
+    private final LongAdder rejected = new LongAdder();
+    private final Map<SessionStatus, LongAdder> finished = new EnumMap<>(SessionStatus.class);
+    private volatile boolean closed;
+    // открывается, когда исполнитель закрыт и все принятые сессии завершились
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    public BattleSessionExecutor() {
+        this(DEFAULT_MAX_CONCURRENT, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public BattleSessionExecutor(int maxConcurrent, int queueCapacity) {
+        this(maxConcurrent, queueCapacity, MetricsRegistry.global());
+    }
+
+    /**
+     * @param maxConcurrent максимум одновременно идущих боёв
+     * @param queueCapacity максимум сессий, ожидающих начала
+     * @param metrics       реестр метрик сессий
+     */
+    public BattleSessionExecutor(int maxConcurrent, int queueCapacity, MetricsRegistry metrics) {
+        if (maxConcurrent <= 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Некорректные ограничения: maxConcurrent=" + maxConcurrent
+                    + ", queueCapacity=" + queueCapacity);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.admissionLimit = (int) Math.min(Integer.MAX_VALUE, (long) maxConcurrent + queueCapacity);
+        this.runPermits = new Semaphore(maxConcurrent);
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        for (SessionStatus status : SessionStatus.values()) {
+            if (status.isTerminal()) {
+                finished.put(status, new LongAdder());
+            }
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "battle-session-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Принимает бой к исполнению.
+     * Сложность: O(n) на проверку принадлежности армий, где n — число юнитов
+     *
+     * @param simulator симулятор этой сессии (не должен разделяться с другими сессиями)
+     * @param timeout   ограничение времени боя с момента его начала; null — без ограничения
+     * @return сессия для отмены и ожидания
+     * @throws RejectedExecutionException если очередь заполнена или исполнитель закрыт
+     * @throws IllegalArgumentException   если армии совпадают или армия или юнит уже заняты незавершённой сессией
+     */
+    public BattleSession submit(SimulateBattle simulator, Army playerArmy, Army computerArmy, Duration timeout) {
+        Objects.requireNonNull(simulator, "simulator");
+        // Проверка аргументов до приёма: отказ не должен занимать место в очереди
+        List<Object> owned = ownedObjects(playerArmy, computerArmy);
+        if (closed) {
+            throw new RejectedExecutionException("Исполнитель закрыт");
+        }
+        if (!admit()) {
+            rejected.increment();
+            metrics.counter(METRIC_REJECTED).increment();
+            throw new RejectedExecutionException("Очередь сессий заполнена: " + admissionLimit);
+        }
+
+        boolean claimedOwned = false;
+        try {
+            if (closed) {
+                // close() мог не увидеть эту сессию в admitted
+                throw new RejectedExecutionException("Исполнитель закрыт");
+            }
+            claim(owned);
+            claimedOwned = true;
+            BattleSession session = new BattleSession(nextId.incrementAndGet(), playerArmy, computerArmy);
+            long submittedAt = System.nanoTime();
+            Thread thread = threadFactory.newThread(() ->
+                    runSession(session, simulator, timeout, submittedAt, owned));
+            session.attach(thread);
+            live.add(session);
+            thread.start();
+            return session;
+        } catch (RuntimeException | Error e) {
+            if (claimedOwned) {
+                release(owned);
+            }
+            leave();
+            throw e;
+        }
+    }
+
+    public BattleSession submit(SimulateBattle simulator, Army playerArmy, Army computerArmy) {
+        return submit(simulator, playerArmy, computerArmy, null);
+    }
+
+    /**
+     * Число идущих боёв.
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * Число сессий, ожидающих начала.
+     */
+    public int getQueued() {
+        return Math.max(0, admitted.get() - active.get());
+    }
+
+    /**
+     * Наибольшее число одновременно шедших боёв.
+     */
+    public int getPeakActive() {
+        return (int) peakActive.get();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Число сессий, завершившихся с данным конечным состоянием.
+     */
+    public long getFinished(SessionStatus status) {
+        LongAdder counter = finished.get(status);
+        if (counter == null) {
+            throw new IllegalArgumentException("Состояние не конечное: " + status);
+        }
+        return counter.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Перестаёт принимать сессии, отменяет незавершённые и ждёт выхода их потоков
+     * не дольше timeout.
+     *
+     * @return true, если все потоки сессий завершились
+     */
+    public boolean shutdownNow(Duration timeout) throws InterruptedException {
+        closed = true;
+        signalIfDrained();
+        for (BattleSession session : live) {
+            session.cancel();
+        }
+        if (!drained.await(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        watchdog.shutdownNow();
+        return true;
+    }
+
+    /**
+     * Перестаёт принимать сессии и ждёт завершения уже принятых.
+     * Прерывание не обрывает ожидание, а восстанавливает флаг прерывания после него —
+     * как {@link ExecutorService#close()}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        signalIfDrained();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                drained.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        watchdog.shutdownNow();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runSession(BattleSession session, SimulateBattle simulator, Duration timeout,
+                            long submittedAt, List<Object> owned) {
+        boolean running = false;
+        ScheduledFuture<?> expiry = null;
+        try {
+            runPermits.acquire();
+            running = true;
+            if (!session.markRunning()) {
+                return; // отменена, пока ждала в очереди
+            }
+            peakActive.accumulate(active.incrementAndGet());
+            metrics.timer(METRIC_QUEUE_WAIT).record(System.nanoTime() - submittedAt);
+            if (timeout != null) {
+                expiry = watchdog.schedule(() -> session.interruptWith(SessionStatus.TIMED_OUT),
+                        timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            MetricsRegistry.Timer runTimer = metrics.timer(METRIC_RUN);
+            long start = runTimer.start();
+            try {
+                simulator.simulate(session.getPlayerArmy(), session.getComputerArmy());
+                session.finish(SessionStatus.COMPLETED, null);
+            } finally {
+                runTimer.stop(start);
+                active.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            // Прерывание приходит только от отмены или истечения времени — состояние уже записано
+            session.finish(SessionStatus.CANCELLED, null);
+        } catch (Throwable t) {
+            session.finish(SessionStatus.FAILED, t);
+        } finally {
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            if (running) {
+                runPermits.release();
+            }
+            release(owned);
+            live.remove(session);
+            SessionStatus status = session.getStatus();
+            finished.get(status).increment();
+            metrics.counter(METRIC_FINISHED_PREFIX + status.name().toLowerCase(Locale.ROOT)).increment();
+            leave();
+            session.done();
+        }
+    }
+
+    private boolean admit() {
+        while (true) {
+            int current = admitted.get();
+            if (current >= admissionLimit) {
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Снимает сессию с учёта; последняя сессия закрытого исполнителя открывает {@link #drained}.
+     */
+    private void leave() {
+        if (admitted.decrementAndGet() == 0 && closed) {
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Открывает {@link #drained}, если при закрытии принятых сессий уже нет.
+     * Запись closed и чтение admitted здесь и в {@link #leave()} идут в обратном порядке,
+     * поэтому хотя бы одна сторона увидит закрытый исполнитель без сессий.
+     */
+    private void signalIfDrained() {
+        if (admitted.get() == 0) {
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Занимает армии и юниты за сессией целиком или не занимает ничего.
+     */
+    private void claim(List<Object> owned) {
+        synchronized (claimed) {
+            for (Object object : owned) {
+                if (claimed.contains(object)) {
+                    throw new IllegalArgumentException("Армия или юнит уже участвуют в незавершённой сессии: "
+                            + (object instanceof Unit unit ? unit.getName() : object));
+                }
+            }
+            claimed.addAll(owned);
+        }
+    }
+
+    private void release(List<Object> owned) {
+        synchronized (claimed) {
+            owned.forEach(claimed::remove);
+        }
+    }
+
+    private static List<Object> ownedObjects(Army playerArmy, Army computerArmy) {
+        Objects.requireNonNull(playerArmy, "playerArmy");
+        Objects.requireNonNull(computerArmy, "computerArmy");
+        if (playerArmy == computerArmy) {
+            throw new IllegalArgumentException("Армии игрока и компьютера должны быть разными объектами");
+        }
+        List<Object> owned = new ArrayList<>();
+        for (Army army : List.of(playerArmy, computerArmy)) {
+            owned.add(army);
+            if (army.getUnits() != null) {
+                owned.addAll(army.getUnits());
+            }
+        }
+        return owned;
+    }
+}
@@ -0,0 +1,384 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.*;
+
+/**
+ * Битовое представление поля боя.
+ * <p>
+ * Клетка (x, y) хранится битом с номером {@code x * height + y}; поле 27×21 из 567 клеток
+ * умещается в девять слов {@code long}. Для каждой армии хранится битовая маска клеток,
+ * занятых живыми юнитами, плюс общая маска занятости и битовая маска живых юнитов по их
+ * идентификаторам. Ряд (фиксированный x, как в {@code Program.getUnitsByRow}) — это
+ * {@code height} подряд идущих битов, поэтому запросы по рядам сводятся к сдвигам и
+ * {@link Long#numberOfTrailingZeros(long)}.
+ * <p>
+ * Левая армия — армия компьютера в рядах с малыми x (её атакуют с {@code isLeftArmyTarget == true}),
+ * правая — армия игрока.
+ * <p>
+ * Доска обновляется инкрементально через {@link #onUnitMoved(Unit)} и {@link #onUnitDied(Unit)}.
+ * Предполагается, что в одной клетке стоит не больше одного живого юнита.
+ * Экземпляр не потокобезопасен.
+ */
+public final class BattlefieldBitboard {
+
+    public static final int DEFAULT_WIDTH = 27;
+    public static final int DEFAULT_HEIGHT = 21;
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    // Смещения 8 соседей: бит d маски соседей соответствует направлению (DX[d], DY[d])
+    private static final int[] DX = UnitTargetPathFinderImpl.DX;
+    private static final int[] DY = UnitTargetPathFinderImpl.DY;
+
+    private final int width;
+    private final int height;
+    private final int words;
+    private final long rowMask;
+
+    private final long[][] armyOccupancy; // [сторона][слово] — клетки живых юнитов армии
+    private final long[] occupancy;       // клетки живых юнитов обеих армий
+    private final Unit[] cellUnit;        // живой юнит в клетке
+
+    private final Map<Unit, Integer> ids = new IdentityHashMap<>();
+    private final List<Unit> units = new ArrayList<>();
+    private int[] unitSide = new int[16];
+    private int[] unitCell = new int[16];  // клетка юнита в доске, -1 если он не на доске
+    private long[] alive = new long[1];    // бит id — юнит жив
+
+    public BattlefieldBitboard() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    public BattlefieldBitboard(int width, int height) {
+        if (width <= 0 || height <= 0 || height > 64) {
+            throw new IllegalArgumentException("Некорректный размер поля: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.words = (width * height + 63) >>> 6;
+        this.rowMask = height == 64 ? -1L : (1L << height) - 1;
+        this.armyOccupancy = new long[2][words];
+        this.occupancy = new long[words];
+        this.cellUnit = new Unit[width * height];
+    }
+
+    /**
+     * Создаёт доску стандартного размера для двух армий.
+     * Сложность: O(n)
+     *
+     * @param leftArmy  армия компьютера (малые x)
+     * @param rightArmy армия игрока (большие x)
+     */
+    public static BattlefieldBitboard of(Army leftArmy, Army rightArmy) {
+        BattlefieldBitboard board = new BattlefieldBitboard();
+        board.addArmy(leftArmy, true);
+        board.addArmy(rightArmy, false);
+        return board;
+    }
+
+    /**
+     * Регистрирует юнитов армии на доске.
+     * Сложность: O(n)
+     */
+    public void addArmy(Army army, boolean leftArmy) {
+        if (army == null || army.getUnits() == null) {
+            return;
+        }
+        for (Unit unit : army.getUnits()) {
+            addUnit(unit, leftArmy);
+        }
+    }
+
+    /**
+     * Регистрирует юнита на доске. Повторная регистрация обновляет его положение.
+     * Сложность: O(1) амортизированно
+     */
+    public void addUnit(Unit unit, boolean leftArmy) {
+        Integer existing = ids.get(unit);
+        if (existing != null) {
+            refresh(existing);
+            return;
+        }
+        int id = units.size();
+        ids.put(unit, id);
+        units.add(unit);
+        ensureCapacity(id + 1);
+        unitSide[id] = leftArmy ? LEFT : RIGHT;
+        unitCell[id] = -1;
+        refresh(id);
+    }
+
+    /**
+     * Обновляет клетку юнита после перемещения.
+     * Сложность: O(1)
+     */
+    public void onUnitMoved(Unit unit) {
+        refresh(requireId(unit));
+    }
+
+    /**
+     * Убирает погибшего юнита с доски.
+     * Сложность: O(1)
+     */
+    public void onUnitDied(Unit unit) {
+        int id = requireId(unit);
+        clearAlive(id);
+        removeFromCell(id);
+    }
+
+    /**
+     * Сверяет доску с текущим состоянием всех зарегистрированных юнитов.
+     * Нужна, если перемещения и гибели не сообщались через {@link #onUnitMoved}/{@link #onUnitDied}.
+     * Сложность: O(n)
+     */
+    public void synchronize() {
+        for (int id = 0; id < units.size(); id++) {
+            refresh(id);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Число слов {@code long} в масках занятости.
+     */
+    public int getWords() {
+        return words;
+    }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Занята ли клетка живым юнитом любой армии. Сложность: O(1)
+     */
+    public boolean isOccupied(int x, int y) {
+        return isInside(x, y) && testBit(occupancy, x * height + y);
+    }
+
+    /**
+     * Занята ли клетка живым юнитом указанной армии. Сложность: O(1)
+     */
+    public boolean isOccupied(boolean leftArmy, int x, int y) {
+        return isInside(x, y) && testBit(armyOccupancy[side(leftArmy)], x * height + y);
+    }
+
+    /**
+     * Живой юнит в клетке или null. Сложность: O(1)
+     */
+    public Unit unitAt(int x, int y) {
+        return isInside(x, y) ? cellUnit[x * height + y] : null;
+    }
+
+    /**
+     * Жив ли юнит по данным доски. Сложность: O(1)
+     */
+    public boolean isAlive(Unit unit) {
+        Integer id = ids.get(unit);
+        return id != null && testBit(alive, id);
+    }
+
+    /**
+     * Принадлежит ли зарегистрированный юнит левой армии. Сложность: O(1)
+     */
+    public boolean isLeftArmyUnit(Unit unit) {
+        return unitSide[requireId(unit)] == LEFT;
+    }
+
+    /**
+     * Число живых юнитов армии. Сложность: O(words)
+     */
+    public int aliveCount(boolean leftArmy) {
+        int count = 0;
+        for (long word : armyOccupancy[side(leftArmy)]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Маска ряда x армии: бит y установлен, если клетка (x, y) занята живым юнитом армии.
+     * Сложность: O(1)
+     */
+    public long rowMask(boolean leftArmy, int x) {
+        return extractRow(armyOccupancy[side(leftArmy)], x);
+    }
+
+    /**
+     * Маска ряда x по обеим армиям. Сложность: O(1)
+     */
+    public long rowMask(int x) {
+        return extractRow(occupancy, x);
+    }
+
+    /**
+     * Минимальный y живого юнита армии в ряду x или -1, если ряд пуст.
+     * Сложность: O(1)
+     */
+    public int firstInRow(boolean leftArmy, int x) {
+        long mask = rowMask(leftArmy, x);
+        return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Максимальный y живого юнита армии в ряду x или -1, если ряд пуст.
+     * Сложность: O(1)
+     */
+    public int lastInRow(boolean leftArmy, int x) {
+        long mask = rowMask(leftArmy, x);
+        return mask == 0 ? -1 : 63 - Long.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Маска занятых соседей клетки: бит d установлен, если занята клетка
+     * (x + DX[d], y + DY[d]) в порядке направлений {@link UnitTargetPathFinderImpl}.
+     * Сложность: O(1)
+     */
+    public int neighbourMask(int x, int y) {
+        int mask = 0;
+        for (int d = 0; d < DX.length; d++) {
+            if (isOccupied(x + DX[d], y + DY[d])) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Копирует общую маску занятости в target (длиной не меньше {@link #getWords()}).
+     * Сложность: O(words)
+     */
+    public void copyOccupancy(long[] target) {
+        System.arraycopy(occupancy, 0, target, 0, words);
+    }
+
+    /**
+     * Заполняет плоскую сетку препятствий: занятые клетки, кроме клеток attackUnit и targetUnit.
+     * Сложность: O(W * H / 64 + n)
+     */
+    void fillBlocked(boolean[] blocked, Unit attackUnit, Unit targetUnit) {
+        Arrays.fill(blocked, false);
+        for (int word = 0; word < words; word++) {
+            long bits = occupancy[word];
+            while (bits != 0) {
+                blocked[(word << 6) + Long.numberOfTrailingZeros(bits)] = true;
+                bits &= bits - 1;
+            }
+        }
+        clearUnitCell(blocked, attackUnit);
+        clearUnitCell(blocked, targetUnit);
+    }
+
+    private void clearUnitCell(boolean[] blocked, Unit unit) {
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        if (isInside(x, y)) {
+            blocked[x * height + y] = false;
+        }
+    }
+
+    private long extractRow(long[] bits, int x) {
+        if (x < 0 || x >= width) {
+            return 0L;
+        }
+        int offset = x * height;
+        int word = offset >>> 6;
+        int shift = offset & 63;
+        long row = bits[word] >>> shift;
+        if (shift + height > 64 && word + 1 < words) {
+            row |= bits[word + 1] << (64 - shift);
+        }
+        return row & rowMask;
+    }
+
+    /**
+     * Приводит бит живости и клетку юнита к его текущему состоянию.
+     */
+    private void refresh(int id) {
+        Unit unit = units.get(id);
+        if (!unit.isAlive()) {
+            clearAlive(id);
+            removeFromCell(id);
+            return;
+        }
+        alive[id >>> 6] |= 1L << id;
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        int cell = isInside(x, y) ? x * height + y : -1;
+        if (cell == unitCell[id]) {
+            return;
+        }
+        removeFromCell(id);
+        if (cell >= 0) {
+            unitCell[id] = cell;
+            cellUnit[cell] = unit;
+            setBit(armyOccupancy[unitSide[id]], cell);
+            setBit(occupancy, cell);
+        }
+    }
+
+    private void removeFromCell(int id) {
+        int cell = unitCell[id];
+        if (cell < 0) {
+            return;
+        }
+        unitCell[id] = -1;
+        // Клетку мог уже занять другой юнит — тогда её биты не трогаем
+        if (cellUnit[cell] == units.get(id)) {
+            cellUnit[cell] = null;
+            clearBit(armyOccupancy[unitSide[id]], cell);
+            clearBit(occupancy, cell);
+        }
+    }
+
+    private void clearAlive(int id) {
+        alive[id >>> 6] &= ~(1L << id);
+    }
+
+    private int requireId(Unit unit) {
+        Integer id = ids.get(unit);
+        if (id == null) {
+            throw new IllegalArgumentException("Юнит не зарегистрирован на доске: " + unit.getName());
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > unitSide.length) {
+            int newLength = Math.max(size, unitSide.length * 2);
+            unitSide = Arrays.copyOf(unitSide, newLength);
+            unitCell = Arrays.copyOf(unitCell, newLength);
+        }
+        int aliveWords = (size + 63) >>> 6;
+        if (aliveWords > alive.length) {
+            alive = Arrays.copyOf(alive, Math.max(aliveWords, alive.length * 2));
+        }
+    }
+
+    private static int side(boolean leftArmy) {
+        return leftArmy ? LEFT : RIGHT;
+    }
+
+    private static boolean testBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void clearBit(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+}
@@ -0,0 +1,67 @@
+package programs;
+
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+/**
+ * Размеры поля боя и ограничения армии.
+ * <p>
+ * Армия компьютера расставляется в колонках x от 0 до {@code deploymentColumns − 1},
+ * армия игрока — в последних {@code deploymentColumns} колонках; в колонке {@code height} клеток.
+ * {@link #DEFAULT} — поле библиотеки: 27 × 21, по три колонки на армию (до 63 юнитов)
+ * и не больше 11 юнитов каждого типа. Конфигурация с другими размерами нужна для нагрузочных
+ * прогонов с тысячами юнитов на сторону.
+ *
+ * @param width             ширина поля (число колонок x)
+ * @param height            высота поля (число клеток y в колонке)
+ * @param deploymentColumns число колонок расстановки каждой армии
+ * @param maxUnitsPerType   максимум юнитов одного типа в сгенерированной армии
+ */
+public record BattlefieldConfig(int width, int height, int deploymentColumns, int maxUnitsPerType) {
+
+    public static final BattlefieldConfig DEFAULT = new BattlefieldConfig(27, 21, 3, 11);
+
+    public BattlefieldConfig {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Некорректный размер поля: " + width + "x" + height);
+        }
+        if (deploymentColumns <= 0 || 2 * deploymentColumns > width) {
+            throw new IllegalArgumentException("Колонки расстановки должны помещаться на поле: " + deploymentColumns);
+        }
+        if (maxUnitsPerType <= 0) {
+            throw new IllegalArgumentException("Лимит юнитов типа должен быть положительным: " + maxUnitsPerType);
+        }
+    }
+
+    /**
+     * Максимальный размер армии: все клетки колонок расстановки.
+     */
+    public int maxArmySize() {
+        return deploymentColumns * height;
+    }
+
+    /**
+     * Первая колонка расстановки армии: 0 у компьютера (левой армии), {@code width − deploymentColumns} у игрока.
+     */
+    public int firstColumn(boolean leftArmy) {
+        return leftArmy ? 0 : width - deploymentColumns;
+    }
+
+    /**
+     * Стоит ли колонка x в колонках расстановки армии.
+     */
+    public boolean isDeploymentColumn(boolean leftArmy, int x) {
+        int first = firstColumn(leftArmy);
+        return x >= first && x < first + deploymentColumns;
+    }
+
+    /**
+     * Поиск пути для поля конфигурации: {@link UnitTargetPathFinderImpl} на поле библиотеки 27 × 21,
+     * {@link HierarchicalPathFinder} на поле другого размера.
+     */
+    public UnitTargetPathFinder createPathFinder() {
+        if (width == UnitTargetPathFinderImpl.WIDTH && height == UnitTargetPathFinderImpl.HEIGHT) {
+            return new UnitTargetPathFinderImpl();
+        }
+        return new HierarchicalPathFinder(width, height);
+    }
+}
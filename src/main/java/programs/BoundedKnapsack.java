@@ -0,0 +1,121 @@
+package programs;
+
+/**
+ * Точное решение ограниченной задачи о рюкзаке.
+ * <p>
+ * Каждый тип i можно взять от 0 до caps[i] раз по цене costs[i]. Ограниченные количества
+ * раскладываются двоичным разбиением (1, 2, 4, ..., остаток) на O(log cap) предметов 0/1,
+ * после чего считается одномерная таблица {@code long[]} по бюджету с обходом справа налево.
+ * Ценность упакована в {@code long} так, что сравнение чисел даёт лексикографический порядок
+ * (см. {@link #packValue(int, int)}).
+ * <p>
+ * Если суммарный лимит количеств превышает maxItems, таблица получает второе измерение —
+ * число взятых предметов. Выбор предметов запоминается битами для восстановления ответа.
+ */
+final class BoundedKnapsack {
+
+    private BoundedKnapsack() {
+    }
+
+    /**
+     * Ценность с лексикографическим сравнением: primary в старших 32 битах, secondary в младших.
+     * Сумма упакованных значений остаётся корректной, пока сумма secondary меньше 2^32.
+     */
+    static long packValue(int primary, int secondary) {
+        return ((long) primary << 32) + secondary;
+    }
+
+    /**
+     * Находит оптимальные количества каждого типа.
+     * Сложность: O(m × B × min(U, maxItems)), где m — число предметов после двоичного разбиения
+     * (O(Σ log caps[i])), B — бюджет, ограниченный Σ caps[i] × costs[i], U — Σ caps[i]
+     *
+     * @param costs    положительные стоимости типов
+     * @param values   упакованные неотрицательные ценности одного юнита каждого типа
+     * @param caps     максимальное количество каждого типа
+     * @param budget   бюджет
+     * @param maxItems ограничение на общее число юнитов
+     * @return количество юнитов каждого типа
+     */
+    static int[] solve(int[] costs, long[] values, int[] caps, int budget, int maxItems) {
+        int types = costs.length;
+        int[] counts = new int[types];
+        if (types == 0 || budget <= 0 || maxItems <= 0) {
+            return counts;
+        }
+
+        // 1. Бюджет больше суммы всех допустимых покупок ничего не меняет
+        long fullCost = 0;
+        int totalCap = 0;
+        for (int i = 0; i < types; i++) {
+            fullCost += (long) caps[i] * costs[i];
+            totalCap += caps[i];
+        }
+        int capacity = (int) Math.min(budget, fullCost);
+        int itemLimit = Math.min(maxItems, totalCap);
+        boolean limitItems = itemLimit < totalCap;
+
+        // 2. Двоичное разбиение количеств
+        int pieces = 0;
+        for (int cap : caps) {
+            pieces += 32 - Integer.numberOfLeadingZeros(cap);
+        }
+        int[] pieceType = new int[pieces];
+        int[] pieceCount = new int[pieces];
+        int piece = 0;
+        for (int i = 0; i < types; i++) {
+            int remaining = caps[i];
+            for (int k = 1; remaining > 0; k <<= 1) {
+                int take = Math.min(k, remaining);
+                pieceType[piece] = i;
+                pieceCount[piece] = take;
+                remaining -= take;
+                piece++;
+            }
+        }
+        pieces = piece;
+
+        // 3. Таблица: dp[u * width + b] — лучшая ценность при стоимости ≤ b и не более u юнитов
+        int width = capacity + 1;
+        int layers = limitItems ? itemLimit + 1 : 1;
+        long[] dp = new long[layers * width];
+        long[] chosen = new long[(int) (((long) pieces * layers * width + 63) >>> 6)];
+
+        for (int p = 0; p < pieces; p++) {
+            int weight = pieceCount[p] * costs[pieceType[p]];
+            if (weight > capacity) {
+                continue;
+            }
+            long value = pieceCount[p] * values[pieceType[p]];
+            int units = limitItems ? pieceCount[p] : 0;
+            long base = (long) p * layers * width;
+            for (int u = layers - 1; u >= units; u--) {
+                int row = u * width;
+                int fromRow = (u - units) * width;
+                for (int b = capacity; b >= weight; b--) {
+                    long candidate = dp[fromRow + b - weight] + value;
+                    if (candidate > dp[row + b]) {
+                        dp[row + b] = candidate;
+                        long bit = base + row + b;
+                        chosen[(int) (bit >>> 6)] |= 1L << bit;
+                    }
+                }
+            }
+        }
+
+        // 4. Восстановление ответа от последнего предмета к первому
+        int u = layers - 1;
+        int b = capacity;
+        for (int p = pieces - 1; p >= 0; p--) {
+            long bit = (long) p * layers * width + (long) u * width + b;
+            if ((chosen[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+                counts[pieceType[p]] += pieceCount[p];
+                b -= pieceCount[p] * costs[pieceType[p]];
+                if (limitItems) {
+                    u -= pieceCount[p];
+                }
+            }
+        }
+        return counts;
+    }
+}
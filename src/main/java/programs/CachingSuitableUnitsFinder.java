@@ -0,0 +1,129 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+
+import java.util.*;
+
+/**
+ * Кэширующая обёртка {@link SuitableForAttackUnitsFinder}, общая для всех атакующих раунда.
+ * <p>
+ * Программы рыцарей, копейщиков и мечников каждая заново собирают ряды армии-цели и ищут
+ * открытых юнитов, хотя между двумя гибелями ответ у всех одинаков. Обёртка хранит последний
+ * ответ для каждой стороны-цели вместе с эпохой армии из {@link ArmyMutationTracker} и отдаёт
+ * его, пока эпоха не изменилась.
+ * <p>
+ * Ответ хранится неизменяемым снимком, но наружу отдаётся его копия: программы библиотеки
+ * перемешивают полученный список через {@code Collections.shuffle}, и общий снимок сломал бы
+ * и их, и кэш. Копия стоит O(размер ответа), как и проверка снимка.
+ * <p>
+ * Перед выдачей снимок проверяется за O(размер ответа): все юниты в нём живы и стоят в тех же
+ * клетках. Так гибель открытого юнита, о которой трекеру не сообщили, не приводит к устаревшему
+ * ответу; перемещения из глубины ряда должны сообщаться трекеру.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ */
+public final class CachingSuitableUnitsFinder implements SuitableForAttackUnitsFinder {
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    private final SuitableForAttackUnitsFinder delegate;
+    private final ArmyMutationTracker tracker;
+
+    // [сторона-цель]: снимок ответа, эпоха и клетки его юнитов на момент вычисления
+    private final List<?>[] snapshots = new List<?>[2];
+    private final long[] snapshotEpochs = {-1, -1};
+    private final int[][] snapshotCells = new int[2][];
+
+    private long hits;
+    private long misses;
+    private long staleSnapshots;
+
+    public CachingSuitableUnitsFinder(SuitableForAttackUnitsFinder delegate, ArmyMutationTracker tracker) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.tracker = Objects.requireNonNull(tracker, "tracker");
+    }
+
+    /**
+     * Возвращает снимок ответа для стороны-цели или вычисляет его через исходный поиск.
+     * <p>
+     * Сложность: O(R) при попадании, где R — число рядов; иначе сложность исходного поиска
+     *
+     * @return новый изменяемый список открытых юнитов
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        int side = isLeftArmyTarget ? LEFT : RIGHT;
+        long epoch = tracker.epoch(isLeftArmyTarget);
+        List<Unit> snapshot = (List<Unit>) snapshots[side];
+        if (snapshot != null && snapshotEpochs[side] == epoch) {
+            if (isCurrent(snapshot, snapshotCells[side])) {
+                hits++;
+                return new ArrayList<>(snapshot);
+            }
+            staleSnapshots++;
+        }
+
+        misses++;
+        snapshot = List.copyOf(delegate.getSuitableUnits(unitsByRow, isLeftArmyTarget));
+        snapshots[side] = snapshot;
+        snapshotEpochs[side] = epoch;
+        snapshotCells[side] = cellsOf(snapshot);
+        return new ArrayList<>(snapshot);
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Снимки с актуальной эпохой, отброшенные проверкой: кто-то из юнитов погиб или сменил клетку.
+     */
+    public long getStaleSnapshots() {
+        return staleSnapshots;
+    }
+
+    /**
+     * Доля запросов, обслуженных из кэша, или 0, если запросов не было.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Сбрасывает снимки; счётчики сохраняются.
+     */
+    public void clear() {
+        Arrays.fill(snapshots, null);
+        Arrays.fill(snapshotEpochs, -1);
+    }
+
+    private static boolean isCurrent(List<Unit> snapshot, int[] cells) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            Unit unit = snapshot.get(i);
+            if (!unit.isAlive() || cellOf(unit) != cells[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] cellsOf(List<Unit> units) {
+        int[] cells = new int[units.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cellOf(units.get(i));
+        }
+        return cells;
+    }
+
+    private static int cellOf(Unit unit) {
+        return (unit.getxCoordinate() << 16) ^ unit.getyCoordinate();
+    }
+}
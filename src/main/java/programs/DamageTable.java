@@ -0,0 +1,143 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.*;
+
+/**
+ * Скомпилированная таблица множителей урона.
+ * <p>
+ * Бонусы юнита хранятся в словарях {@code attackBonuses} и {@code defenceBonuses} по строковому типу
+ * юнита, поэтому каждый их поиск в цикле боя — это хэш строки и распаковка {@code Double}.
+ * Таблица строится один раз на бой: юниты с одинаковыми типом, типом атаки и словарями бонусов
+ * получают общий небольшой номер класса, а множители всех пар классов складываются в плотную
+ * матрицу {@code double[атакующий][защищающийся]}. Урон затем вычисляется двумя чтениями массивов.
+ * <p>
+ * Семантика совпадает с {@link #resolve(Unit, Unit)}: множитель равен
+ * {@code attacker.attackBonuses[тип защищающегося] × defender.defenceBonuses[тип атакующего]},
+ * отсутствующий словарь или ключ даёт 1.0.
+ * <p>
+ * Таблица неизменяема и может разделяться между потоками.
+ */
+public final class DamageTable {
+
+    private static final double NO_BONUS = 1.0;
+
+    private final int[] unitClass;          // класс по номеру юнита хранилища
+    private final String[] classUnitType;   // тип юнита класса
+    private final double[][] multipliers;   // [класс атакующего][класс защищающегося]
+
+    private DamageTable(int[] unitClass, String[] classUnitType, double[][] multipliers) {
+        this.unitClass = unitClass;
+        this.classUnitType = classUnitType;
+        this.multipliers = multipliers;
+    }
+
+    /**
+     * Компилирует таблицу для юнитов хранилища.
+     * <p>
+     * Сложность: O(n × b + C² × b), где C — число различных классов юнитов, b — размер словарей бонусов
+     */
+    public static DamageTable compile(UnitStore store) {
+        Map<UnitClass, Integer> classIds = new HashMap<>();
+        List<UnitClass> classes = new ArrayList<>();
+        int[] unitClass = new int[store.size()];
+        for (int id = 0; id < store.size(); id++) {
+            UnitClass key = UnitClass.of(store.unit(id));
+            Integer classId = classIds.get(key);
+            if (classId == null) {
+                classId = classes.size();
+                classIds.put(key, classId);
+                classes.add(key);
+            }
+            unitClass[id] = classId;
+        }
+
+        int count = classes.size();
+        String[] classUnitType = new String[count];
+        double[][] multipliers = new double[count][count];
+        for (int attacker = 0; attacker < count; attacker++) {
+            UnitClass attackerClass = classes.get(attacker);
+            classUnitType[attacker] = attackerClass.unitType();
+            for (int defender = 0; defender < count; defender++) {
+                UnitClass defenderClass = classes.get(defender);
+                multipliers[attacker][defender] = bonus(attackerClass.attackBonuses(), defenderClass.unitType())
+                        * bonus(defenderClass.defenceBonuses(), attackerClass.unitType());
+            }
+        }
+        return new DamageTable(unitClass, classUnitType, multipliers);
+    }
+
+    /**
+     * Множитель урона по словарям юнитов без таблицы — эталонная семантика.
+     * Сложность: O(1) с поиском по строкам
+     */
+    public static double resolve(Unit attacker, Unit defender) {
+        return bonus(attacker.getAttackBonuses(), defender.getUnitType())
+                * bonus(defender.getDefenceBonuses(), attacker.getUnitType());
+    }
+
+    /**
+     * Число различных классов юнитов.
+     */
+    public int classCount() {
+        return multipliers.length;
+    }
+
+    /**
+     * Класс юнита по его номеру в хранилище. Сложность: O(1)
+     */
+    public int classOf(int unitId) {
+        return unitClass[unitId];
+    }
+
+    public String unitTypeOf(int classId) {
+        return classUnitType[classId];
+    }
+
+    /**
+     * Множитель урона пары классов. Сложность: O(1)
+     */
+    public double multiplier(int attackerClass, int defenderClass) {
+        return multipliers[attackerClass][defenderClass];
+    }
+
+    /**
+     * Множитель урона пары юнитов по номерам хранилища. Сложность: O(1)
+     */
+    public double multiplierFor(int attackerId, int defenderId) {
+        return multipliers[unitClass[attackerId]][unitClass[defenderId]];
+    }
+
+    /**
+     * Урон атаки с учётом бонусов, округлённый до целого. Сложность: O(1)
+     */
+    public int damage(int attackerId, int defenderId, int baseAttack) {
+        return (int) Math.round(baseAttack * multiplierFor(attackerId, defenderId));
+    }
+
+    private static double bonus(Map<String, Double> bonuses, String type) {
+        if (bonuses == null) {
+            return NO_BONUS;
+        }
+        Double value = bonuses.get(type);
+        return value == null ? NO_BONUS : value;
+    }
+
+    /**
+     * Всё, от чего зависит множитель: тип юнита, тип атаки и копии словарей бонусов.
+     * Отсутствующий словарь приравнивается к пустому.
+     */
+    private record UnitClass(String unitType, String attackType,
+                             Map<String, Double> attackBonuses, Map<String, Double> defenceBonuses) {
+
+        static UnitClass of(Unit unit) {
+            return new UnitClass(unit.getUnitType(), unit.getAttackType(),
+                    copyOf(unit.getAttackBonuses()), copyOf(unit.getDefenceBonuses()));
+        }
+
+        private static Map<String, Double> copyOf(Map<String, Double> bonuses) {
+            return bonuses == null ? Map.of() : new HashMap<>(bonuses);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.*;
+
+/**
+ * Поиск пути через кэш обратных полей расстояний.
+ * <p>
+ * Для каждой клетки-цели один раз строится поле расстояний — Дейкстра «от цели»
+ * по всей достижимой части поля. Граф неориентированный, поэтому поле хранит расстояние
+ * от любой клетки до цели и следующий шаг к ней. Путь для любого атакующего извлекается
+ * за O(длина пути) без повторного поиска, так что все юниты армии, атакующие одну цель,
+ * разделяют один проход по сетке.
+ * <p>
+ * Кэш привязан к версии множества препятствий. На каждом вызове занятость поля сравнивается
+ * с сохранённым снимком; при перемещении или гибели юнита версия увеличивается и
+ * сбрасываются только те поля, на которые изменённая клетка могла повлиять.
+ * <p>
+ * Экземпляр хранит состояние и не потокобезопасен: используйте один экземпляр на бой.
+ * <p>
+ * Сложность раунда: O(T × W × H × log(W × H)) вместо O(A × W × H × log(W × H)),
+ * где T — число различных целей, A — число атакующих.
+ *
+ * @see UnitTargetPathFinderImpl
+ */
+public class DistanceFieldPathFinder implements UnitTargetPathFinder {
+
+    private static final int WIDTH = UnitTargetPathFinderImpl.WIDTH;
+    private static final int HEIGHT = UnitTargetPathFinderImpl.HEIGHT;
+    private static final int CELLS = UnitTargetPathFinderImpl.CELLS;
+    private static final int WORDS = (CELLS + 63) >>> 6;
+    private static final int[] DX = UnitTargetPathFinderImpl.DX;
+    private static final int[] DY = UnitTargetPathFinderImpl.DY;
+
+    private final DistanceField[] fields = new DistanceField[CELLS]; // поле по индексу клетки-цели
+    private final long[] occupancy = new long[WORDS];                 // снимок занятых клеток
+    private final long[] scratch = new long[WORDS];
+    private final IndexedMinHeap heap = new IndexedMinHeap(CELLS);
+    private final int[] pathCells = new int[CELLS];
+
+    private long obstacleVersion;
+    private long fieldHits;
+    private long fieldBuilds;
+    private long fieldInvalidations;
+
+    /**
+     * Находит кратчайший путь между атакующим и атакуемым юнитом по полю расстояний цели.
+     * <p>
+     * Сложность: O(n + длина пути) при попадании в кэш, O(n + W * H * log(W * H)) при построении поля,
+     * где n — количество юнитов
+     *
+     * @param attackUnit       атакующий юнит
+     * @param targetUnit       цель атаки
+     * @param existingUnitList список всех юнитов на поле
+     * @return список координат пути от attackUnit до targetUnit, или пустой список если путь не найден
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        Arrays.fill(scratch, 0L);
+        for (Unit unit : existingUnitList) {
+            if (unit.isAlive()) {
+                int x = unit.getxCoordinate();
+                int y = unit.getyCoordinate();
+                if (UnitTargetPathFinderImpl.isInside(x, y)) {
+                    int cell = x * HEIGHT + y;
+                    scratch[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+        return findPath(attackUnit, targetUnit);
+    }
+
+    /**
+     * Находит кратчайший путь, беря снимок препятствий из битовой доски вместо обхода списка юнитов.
+     * <p>
+     * Сложность: O(W * H / 64 + длина пути) при попадании в кэш
+     *
+     * @param attackUnit атакующий юнит
+     * @param targetUnit цель атаки
+     * @param board      битовая доска поля размером W × H
+     * @return список координат пути от attackUnit до targetUnit, или пустой список если путь не найден
+     */
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, BattlefieldBitboard board) {
+        if (board.getWidth() != WIDTH || board.getHeight() != HEIGHT) {
+            throw new IllegalArgumentException("Размер доски " + board.getWidth() + "x" + board.getHeight()
+                    + " не совпадает с полем " + WIDTH + "x" + HEIGHT);
+        }
+        board.copyOccupancy(scratch);
+        return findPath(attackUnit, targetUnit);
+    }
+
+    /**
+     * Ищет путь по снимку занятости, подготовленному в scratch.
+     */
+    private List<Edge> findPath(Unit attackUnit, Unit targetUnit) {
+        int startX = attackUnit.getxCoordinate();
+        int startY = attackUnit.getyCoordinate();
+        int endX = targetUnit.getxCoordinate();
+        int endY = targetUnit.getyCoordinate();
+        if (!UnitTargetPathFinderImpl.isInside(startX, startY) || !UnitTargetPathFinderImpl.isInside(endX, endY)) {
+            return Collections.emptyList();
+        }
+
+        // 1. Синхронизируем снимок препятствий и инвалидируем затронутые поля
+        synchronizeObstacles();
+
+        int start = startX * HEIGHT + startY;
+        int target = endX * HEIGHT + endY;
+        if (start == target) {
+            return Collections.singletonList(new Edge(startX, startY));
+        }
+
+        // 2. Берём поле цели из кэша или строим его
+        DistanceField field = validField(target);
+
+        // 3. Извлекаем путь: первый шаг — в лучшую соседнюю клетку, дальше по ссылкам поля
+        return extractPath(field, start, target);
+    }
+
+    /**
+     * Проверяет, есть ли путь между юнитами хранилища, не создавая список клеток пути.
+     * Снимок препятствий строится из массивов {@link UnitStore}, а не из объектов {@link Unit}.
+     * <p>
+     * Сложность: O(W * H / 64 + n) при попадании в кэш, без выделения памяти
+     *
+     * @param store      хранилище юнитов боя
+     * @param attackerId номер атакующего юнита
+     * @param targetId   номер цели атаки
+     * @return true, если путь существует
+     */
+    public boolean isReachable(UnitStore store, int attackerId, int targetId) {
+        store.fillOccupancy(scratch, WIDTH, HEIGHT);
+        int startX = store.x(attackerId);
+        int startY = store.y(attackerId);
+        int endX = store.x(targetId);
+        int endY = store.y(targetId);
+        if (!UnitTargetPathFinderImpl.isInside(startX, startY) || !UnitTargetPathFinderImpl.isInside(endX, endY)) {
+            return false;
+        }
+
+        synchronizeObstacles();
+
+        int start = startX * HEIGHT + startY;
+        int target = endX * HEIGHT + endY;
+        return start == target || firstStep(validField(target), start) >= 0;
+    }
+
+    /**
+     * Возвращает версию множества препятствий; увеличивается при каждом перемещении или гибели юнитов.
+     */
+    public long getObstacleVersion() {
+        return obstacleVersion;
+    }
+
+    /**
+     * Число запросов, обслуженных готовым полем расстояний.
+     */
+    public long getFieldHits() {
+        return fieldHits;
+    }
+
+    /**
+     * Число построенных полей расстояний (проходов Дейкстры).
+     */
+    public long getFieldBuilds() {
+        return fieldBuilds;
+    }
+
+    /**
+     * Число полей, сброшенных из-за изменения препятствий.
+     */
+    public long getFieldInvalidations() {
+        return fieldInvalidations;
+    }
+
+    /**
+     * Сбрасывает все поля и снимок препятствий, например перед новым боем.
+     */
+    public void clear() {
+        for (DistanceField field : fields) {
+            if (field != null) {
+                field.valid = false;
+            }
+        }
+        Arrays.fill(occupancy, 0L);
+        obstacleVersion++;
+    }
+
+    /**
+     * Сравнивает маску занятых клеток из scratch со снимком.
+     * Для каждой изменившейся клетки сбрасывает только зависящие от неё поля.
+     * Сложность: O(W * H / 64 + изменённые клетки × T)
+     */
+    private void synchronizeObstacles() {
+        boolean changed = false;
+        for (int word = 0; word < WORDS; word++) {
+            long diff = scratch[word] ^ occupancy[word];
+            while (diff != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(diff);
+                diff &= diff - 1;
+                invalidateFieldsAffectedBy(cell, (scratch[word] & (1L << cell)) != 0);
+                changed = true;
+            }
+            occupancy[word] = scratch[word];
+        }
+        if (changed) {
+            obstacleVersion++;
+        }
+    }
+
+    /**
+     * Сбрасывает поля, на которые влияет изменение клетки:
+     * <ul>
+     *   <li>клетка заняла место — поле зависит от неё, только если она была достижима;</li>
+     *   <li>клетка освободилась — поле меняется, только если достижим хотя бы один её сосед.</li>
+     * </ul>
+     * Клетка самой цели в её поле всегда свободна, поэтому её изменение поле не затрагивает.
+     */
+    private void invalidateFieldsAffectedBy(int cell, boolean nowBlocked) {
+        int x = cell / HEIGHT;
+        int y = cell % HEIGHT;
+        for (int target = 0; target < CELLS; target++) {
+            DistanceField field = fields[target];
+            if (field == null || !field.valid || target == cell) {
+                continue;
+            }
+            boolean affected;
+            if (nowBlocked) {
+                affected = field.distance[cell] != Double.MAX_VALUE;
+            } else {
+                affected = false;
+                for (int d = 0; d < DX.length && !affected; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    affected = UnitTargetPathFinderImpl.isInside(nx, ny)
+                            && field.distance[nx * HEIGHT + ny] != Double.MAX_VALUE;
+                }
+            }
+            if (affected) {
+                field.valid = false;
+                fieldInvalidations++;
+            }
+        }
+    }
+
+    /**
+     * Дейкстра от клетки цели по свободным клеткам текущего снимка.
+     * Сложность: O(W * H * log(W * H))
+     */
+    private void buildField(DistanceField field, int target) {
+        double[] distance = field.distance;
+        int[] next = field.next;
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(next, -1);
+        heap.clear();
+
+        distance[target] = 0;
+        heap.insertOrDecrease(target, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.pollMin();
+            int x = current / HEIGHT;
+            int y = current % HEIGHT;
+            double currentDist = distance[current];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                    continue;
+                }
+                int neighbour = nx * HEIGHT + ny;
+                if (isOccupied(neighbour)) {
+                    continue;
+                }
+                double newDist = currentDist + (d < 4 ? UnitTargetPathFinderImpl.STRAIGHT_COST : UnitTargetPathFinderImpl.DIAGONAL_COST);
+                if (newDist < distance[neighbour]) {
+                    distance[neighbour] = newDist;
+                    next[neighbour] = current;
+                    heap.insertOrDecrease(neighbour, newDist);
+                }
+            }
+        }
+        field.valid = true;
+        fieldBuilds++;
+    }
+
+    /**
+     * Извлекает путь из поля. Клетка атакующего в поле занята им самим,
+     * поэтому первый шаг выбирается среди соседей: кратчайший путь не возвращается в старт.
+     * Сложность: O(длина пути)
+     */
+    private List<Edge> extractPath(DistanceField field, int start, int target) {
+        int bestNext = firstStep(field, start);
+        if (bestNext < 0) {
+            // Путь не найден
+            return Collections.emptyList();
+        }
+
+        int length = 0;
+        pathCells[length++] = start;
+        for (int cell = bestNext; cell != target; cell = field.next[cell]) {
+            pathCells[length++] = cell;
+        }
+        pathCells[length++] = target;
+
+        List<Edge> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(new Edge(pathCells[i] / HEIGHT, pathCells[i] % HEIGHT));
+        }
+        return path;
+    }
+
+    /**
+     * Поле цели из кэша; недействительное или отсутствующее поле строится заново.
+     */
+    private DistanceField validField(int target) {
+        DistanceField field = fields[target];
+        if (field == null) {
+            field = new DistanceField();
+            fields[target] = field;
+        }
+        if (field.valid) {
+            fieldHits++;
+        } else {
+            buildField(field, target);
+        }
+        return field;
+    }
+
+    /**
+     * Соседняя клетка старта с наименьшим расстоянием до цели или -1, если цель недостижима.
+     * Сложность: O(1)
+     */
+    private int firstStep(DistanceField field, int start) {
+        int x = start / HEIGHT;
+        int y = start % HEIGHT;
+        int bestNext = -1;
+        double bestDist = Double.MAX_VALUE;
+        for (int d = 0; d < DX.length; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (!UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                continue;
+            }
+            int neighbour = nx * HEIGHT + ny;
+            double dist = field.distance[neighbour];
+            if (dist == Double.MAX_VALUE) {
+                continue;
+            }
+            dist += d < 4 ? UnitTargetPathFinderImpl.STRAIGHT_COST : UnitTargetPathFinderImpl.DIAGONAL_COST;
+            if (dist < bestDist) {
+                bestDist = dist;
+                bestNext = neighbour;
+            }
+        }
+        return bestNext;
+    }
+
+    private boolean isOccupied(int cell) {
+        return (occupancy[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Поле расстояний до одной клетки-цели.
+     */
+    private static final class DistanceField {
+        final double[] distance = new double[CELLS]; // расстояние до цели
+        final int[] next = new int[CELLS];           // следующая клетка на пути к цели
+        boolean valid;
+    }
+}
@@ -9,18 +9,52 @@ import java.util.*;
 /**
  * Реализация генератора армии компьютера.
  * <p>
- * Использует жадный алгоритм для формирования максимально эффективной армии
- * по соотношению атака/стоимость с учётом ограничений.
+ * По умолчанию использует жадный алгоритм для формирования максимально эффективной армии
+ * по соотношению атака/стоимость с учётом ограничений. В режиме {@link PresetMode#OPTIMAL}
+ * состав армии находится точно как решение ограниченной задачи о рюкзаке.
  * <p>
- * Алгоритмическая сложность: O(n × m), где n — количество типов юнитов, m — максимум юнитов на тип.
+ * Размер поля, колонки расстановки и лимит юнитов типа задаются {@link BattlefieldConfig}
+ * (по умолчанию — поле библиотеки: 3 колонки по 21 клетке, не больше 11 юнитов типа).
+ * <p>
+ * Алгоритмическая сложность: O(n log n + u), где n — количество типов юнитов, u — размер армии;
+ * в режиме OPTIMAL — O(n × log m × B × U), где m — лимит юнитов типа, B — бюджет, U — см.
+ * {@link BoundedKnapsack}: для армий из тысяч юнитов точный режим непригоден, используйте GREEDY.
+ * <p>
+ * Метрики ({@link MetricsRegistry}): таймер {@value #METRIC_GENERATE}, счётчики созданных юнитов
+ * и байт, выделенных потоком за генерацию.
  *
  * @see GeneratePreset
  */
 public class GeneratePresetImpl implements GeneratePreset {
 
-    private static final int MAX_UNITS_PER_TYPE = 11;
-    private static final int COMPUTER_ARMY_WIDTH = 3;  // Колонки x: 0, 1, 2
-    private static final int FIELD_HEIGHT = 21;        // Строки y: 0-20
+    public static final String METRIC_GENERATE = "preset.generate";
+    public static final String METRIC_UNITS = "preset.units";
+    public static final String METRIC_ALLOCATED_BYTES = "preset.allocatedBytes";
+
+    private final PresetMode mode;
+    private final BattlefieldConfig config;
+    private MetricsRegistry metrics; // null — глобальный реестр
+
+    public GeneratePresetImpl() {
+        this(PresetMode.GREEDY);
+    }
+
+    public GeneratePresetImpl(PresetMode mode) {
+        this(mode, BattlefieldConfig.DEFAULT);
+    }
+
+    public GeneratePresetImpl(PresetMode mode, BattlefieldConfig config) {
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.config = Objects.requireNonNull(config, "config");
+    }
+
+    public PresetMode getMode() {
+        return mode;
+    }
+
+    public BattlefieldConfig getConfig() {
+        return config;
+    }
 
     /**
      * Генерирует армию компьютера с максимальной эффективностью.
@@ -31,22 +65,57 @@ public class GeneratePresetImpl implements GeneratePreset {
      */
     @Override
     public Army generate(List<Unit> unitList, int maxPoints) {
-        // 1. Сортируем типы юнитов по эффективности:
-        //    - Первичный критерий: baseAttack / cost (убывание)
-        //    - Вторичный критерий: health / cost (убывание)
-        List<Unit> sortedUnits = new ArrayList<>(unitList);
-        sortedUnits.sort((a, b) -> {
-            double attackEffA = (double) a.getBaseAttack() / a.getCost();
-            double attackEffB = (double) b.getBaseAttack() / b.getCost();
-            if (Double.compare(attackEffA, attackEffB) != 0) {
-                return Double.compare(attackEffB, attackEffA); // убывание
-            }
-            double healthEffA = (double) a.getHealth() / a.getCost();
-            double healthEffB = (double) b.getHealth() / b.getCost();
-            return Double.compare(healthEffB, healthEffA); // убывание
-        });
+        MetricsRegistry registry = registry();
+        long allocatedBefore = registry != MetricsRegistry.NOOP ? MetricsRegistry.threadAllocatedBytes() : -1;
+        MetricsRegistry.Timer timer = registry.timer(METRIC_GENERATE);
+        long start = timer.start();
+
+        Army army = mode == PresetMode.OPTIMAL ? generateOptimal(unitList, maxPoints) : generateGreedy(unitList, maxPoints);
+
+        timer.stop(start);
+        registry.counter(METRIC_UNITS).add(army.getUnits().size());
+        if (allocatedBefore >= 0) {
+            registry.counter(METRIC_ALLOCATED_BYTES).add(MetricsRegistry.threadAllocatedBytes() - allocatedBefore);
+        }
+        return army;
+    }
+
+    /**
+     * Задаёт реестр метрик экземпляра; null возвращает глобальный реестр.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    private MetricsRegistry registry() {
+        return metrics != null ? metrics : MetricsRegistry.global();
+    }
+
+    /**
+     * Сравнивает жадную армию с оптимальной при том же бюджете.
+     * Сложность: как у двух генераций
+     *
+     * @return насколько жадная армия уступает оптимальной по атаке и здоровью
+     */
+    public PresetGap compareGreedyWithOptimal(List<Unit> unitList, int maxPoints) {
+        Army greedy = generateGreedy(unitList, maxPoints);
+        Army optimal = generateOptimal(unitList, maxPoints);
+        return new PresetGap(totalAttack(greedy), totalHealth(greedy), greedy.getPoints(),
+                totalAttack(optimal), totalHealth(optimal), optimal.getPoints());
+    }
+
+    /**
+     * Жадная генерация: типы по убыванию эффективности, до лимита юнитов каждого, пока хватает бюджета.
+     * Сложность: O(n log n + u)
+     */
+    private Army generateGreedy(List<Unit> unitList, int maxPoints) {
+        // 1. Сортируем типы юнитов по эффективности
+        List<Unit> sortedUnits = sortByEfficiency(unitList);
 
-        // 2. Жадно добавляем юнитов (до 11 каждого типа, пока есть бюджет)
+        // 2. Жадно добавляем юнитов (до лимита каждого типа, пока есть бюджет)
+        int maxUnitsPerType = config.maxUnitsPerType();
+        int fieldHeight = config.height();
+        int armyWidth = config.deploymentColumns();
         List<Unit> armyUnits = new ArrayList<>();
         int currentPoints = 0;
         Map<String, Integer> countByType = new HashMap<>();
@@ -57,14 +126,14 @@ public class GeneratePresetImpl implements GeneratePreset {
             String unitType = template.getUnitType();
             int count = countByType.getOrDefault(unitType, 0);
 
-            while (count < MAX_UNITS_PER_TYPE && currentPoints + template.getCost() <= maxPoints) {
+            while (count < maxUnitsPerType && currentPoints + template.getCost() <= maxPoints) {
                 // Вычисляем координаты для размещения на поле
-                int x = unitIndex / FIELD_HEIGHT; // 0, 1, 2 (колонки)
-                int y = unitIndex % FIELD_HEIGHT; // 0-20 (строки)
+                int x = unitIndex / fieldHeight; // колонки 0..armyWidth - 1
+                int y = unitIndex % fieldHeight; // строки 0..fieldHeight - 1
 
                 // Проверяем, что не вышли за пределы области компьютера
-                if (x >= COMPUTER_ARMY_WIDTH) {
-                    break; // Максимум 3 * 21 = 63 юнита
+                if (x >= armyWidth) {
+                    break; // Максимум armyWidth * fieldHeight юнитов (63 на поле библиотеки)
                 }
 
                 // Создаём копию юнита с уникальным именем и координатами
@@ -85,6 +154,97 @@ public class GeneratePresetImpl implements GeneratePreset {
         return army;
     }
 
+    /**
+     * Оптимальная генерация: максимум суммарной атаки, при равенстве — суммарного здоровья,
+     * при бюджете maxPoints, не более лимита юнитов каждого типа и не более, чем помещается в колонки расстановки.
+     * Сложность: O(n × log m × B × U), где U = 1, если m × n не больше размера армии, иначе U = размер армии + 1
+     */
+    private Army generateOptimal(List<Unit> unitList, int maxPoints) {
+        // 1. По одному шаблону на тип, в порядке эффективности — для размещения на поле
+        List<Unit> templates = new ArrayList<>();
+        Set<String> seenTypes = new HashSet<>();
+        for (Unit template : sortByEfficiency(unitList)) {
+            if (seenTypes.add(template.getUnitType())) {
+                if (template.getCost() <= 0) {
+                    throw new IllegalArgumentException("Стоимость юнита должна быть положительной: "
+                            + template.getUnitType());
+                }
+                templates.add(template);
+            }
+        }
+
+        // 2. Рюкзак: ценность — (атака, здоровье) в лексикографическом порядке
+        int types = templates.size();
+        int[] costs = new int[types];
+        long[] values = new long[types];
+        int[] caps = new int[types];
+        for (int i = 0; i < types; i++) {
+            Unit template = templates.get(i);
+            costs[i] = template.getCost();
+            values[i] = BoundedKnapsack.packValue(template.getBaseAttack(), template.getHealth());
+            caps[i] = config.maxUnitsPerType();
+        }
+        int[] counts = BoundedKnapsack.solve(costs, values, caps, maxPoints, config.maxArmySize());
+
+        // 3. Размещаем юнитов так же, как жадная генерация: колонками расстановки
+        int fieldHeight = config.height();
+        List<Unit> armyUnits = new ArrayList<>();
+        int currentPoints = 0;
+        int unitIndex = 0;
+        for (int i = 0; i < types; i++) {
+            Unit template = templates.get(i);
+            for (int count = 0; count < counts[i]; count++) {
+                int x = unitIndex / fieldHeight;
+                int y = unitIndex % fieldHeight;
+                armyUnits.add(createUnitCopy(template, template.getUnitType() + " " + (count + 1), x, y));
+                currentPoints += template.getCost();
+                unitIndex++;
+            }
+        }
+
+        Army army = new Army();
+        army.setUnits(armyUnits);
+        army.setPoints(currentPoints);
+        return army;
+    }
+
+    /**
+     * Сортирует типы юнитов по эффективности:
+     * - Первичный критерий: baseAttack / cost (убывание)
+     * - Вторичный критерий: health / cost (убывание)
+     * Сложность: O(n log n)
+     */
+    private List<Unit> sortByEfficiency(List<Unit> unitList) {
+        List<Unit> sortedUnits = new ArrayList<>(unitList);
+        sortedUnits.sort((a, b) -> {
+            double attackEffA = (double) a.getBaseAttack() / a.getCost();
+            double attackEffB = (double) b.getBaseAttack() / b.getCost();
+            if (Double.compare(attackEffA, attackEffB) != 0) {
+                return Double.compare(attackEffB, attackEffA); // убывание
+            }
+            double healthEffA = (double) a.getHealth() / a.getCost();
+            double healthEffB = (double) b.getHealth() / b.getCost();
+            return Double.compare(healthEffB, healthEffA); // убывание
+        });
+        return sortedUnits;
+    }
+
+    private static long totalAttack(Army army) {
+        long total = 0;
+        for (Unit unit : army.getUnits()) {
+            total += unit.getBaseAttack();
+        }
+        return total;
+    }
+
+    private static long totalHealth(Army army) {
+        long total = 0;
+        for (Unit unit : army.getUnits()) {
+            total += unit.getHealth();
+        }
+        return total;
+    }
+
     /**
      * Создаёт копию юнита с новым именем и координатами.
      * Сложность: O(1)
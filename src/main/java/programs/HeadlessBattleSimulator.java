@@ -0,0 +1,282 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.SimulateBattle;
+
+import java.util.*;
+
+/**
+ * Симулятор боя без анимации и без программ юнитов.
+ * <p>
+ * Воспроизводит правила {@link SimulateBattleImpl} вместе с правилами атаки программ
+ * библиотеки, но без {@code Thread.sleep} на каждом шаге и без вызова {@code Program.attack()}:
+ * <ul>
+ *   <li>раунд: живые юниты игрока, затем компьютера, устойчивая сортировка по убыванию атаки;</li>
+ *   <li>лучник ({@code "Archer"}) бьёт случайного живого юнита вражеской армии;</li>
+ *   <li>остальные юниты выбирают случайную цель среди доступных в рядах врага
+ *       (игрок — ряды 0..2 армии компьютера, компьютер — ряды 24..26 армии игрока) и атакуют,
+ *       только если до неё есть путь;</li>
+ *   <li>урон равен базовой атаке, юнит гибнет при здоровье ≤ 0; с включёнными бонусами
+ *       ({@link #setBonusDamage(boolean)}) атака умножается на множитель {@link DamageTable}.</li>
+ * </ul>
+ * Ближний бой в библиотеке проходит путь до цели и возвращает юнита на исходную клетку,
+ * поэтому здесь проверяется только существование пути, а координаты не меняются.
+ * <p>
+ * Случайные решения принимаются через переданный {@link Random} тем же перемешиванием,
+ * что и в программах библиотеки; при детерминированном выборе целей победитель и лог
+ * совпадают с {@link SimulateBattleImpl}. У каждой стороны может быть свой генератор: тогда решения
+ * игрока не сдвигают последовательность решений компьютера, и бои двух вариантов армии с одним
+ * зерном ({@link #seeded(long)}) остаются сопряжёнными — на этом построено сравнение на общих
+ * случайных числах в {@link MonteCarloBattleRunner#compare}. Раунд, в котором никто не смог нанести урон
+ * (нет цели, нет пути или атака равна нулю), повторялся бы бесконечно, поэтому бой
+ * завершается ничьей.
+ * <p>
+ * С заданным {@link OutcomePredictor} после каждого раунда проверяется, решён ли исход; решённый бой
+ * останавливается, а итог с флагом {@code predicted} содержит предсказанных победителя и выживших.
+ * Армии при этом остаются в состоянии на момент остановки. С бонусами урона предсказатель
+ * не применяется: его границы построены по базовой атаке.
+ * <p>
+ * Порядок ходов строится один раз на бой ({@link TurnOrder}), здоровье, атака и живость
+ * хранятся в массивах {@link UnitStore} и записываются в юниты в конце боя
+ * (цель атаки — ещё и перед каждым вызовом лога).
+ * <p>
+ * Алгоритмическая сложность: O(R × n × (n + W × H × log(W × H))), где R — число раундов.
+ *
+ * @see SimulateBattleImpl
+ */
+public class HeadlessBattleSimulator implements SimulateBattle {
+
+    private static final String ARCHER_TYPE = "Archer";
+
+    // Ряды армий на поле: компьютер — x 0..2, игрок — x 24..26
+    private static final int COMPUTER_FIRST_ROW = 0;
+    private static final int COMPUTER_LAST_ROW = 2;
+    private static final int PLAYER_FIRST_ROW = 24;
+    private static final int PLAYER_LAST_ROW = 26;
+
+    private final Random playerRandom;
+    private final Random computerRandom;
+    private final SuitableForAttackUnitsFinderImpl suitableFinder = new SuitableForAttackUnitsFinderImpl();
+    private PrintBattleLog printBattleLog; // необязательный лог, вызывается после каждой атаки
+    private boolean bonusDamage;           // учитывать attackBonuses/defenceBonuses (в библиотеке не учитываются)
+    private OutcomePredictor outcomePredictor; // необязательное досрочное завершение решённого боя
+
+    public HeadlessBattleSimulator() {
+        this(new Random());
+    }
+
+    public HeadlessBattleSimulator(Random random) {
+        this(random, null);
+    }
+
+    public HeadlessBattleSimulator(Random random, PrintBattleLog printBattleLog) {
+        this(random, random, printBattleLog);
+    }
+
+    /**
+     * @param playerRandom   генератор решений юнитов игрока
+     * @param computerRandom генератор решений юнитов компьютера
+     */
+    public HeadlessBattleSimulator(Random playerRandom, Random computerRandom, PrintBattleLog printBattleLog) {
+        this.playerRandom = Objects.requireNonNull(playerRandom, "playerRandom");
+        this.computerRandom = Objects.requireNonNull(computerRandom, "computerRandom");
+        this.printBattleLog = printBattleLog;
+    }
+
+    /**
+     * Симулятор, бой которого — чистая функция армий и зерна: стороны получают
+     * независимые потоки {@link SplitMix64Random}, выделенные из seed.
+     */
+    public static HeadlessBattleSimulator seeded(long seed) {
+        SplitMix64Random root = new SplitMix64Random(seed);
+        return new HeadlessBattleSimulator(root.split(), root.split(), null);
+    }
+
+    public void setPrintBattleLog(PrintBattleLog printBattleLog) {
+        this.printBattleLog = printBattleLog;
+    }
+
+    /**
+     * Включает урон с учётом бонусов юнитов. По умолчанию выключен, как и в программах библиотеки.
+     */
+    public void setBonusDamage(boolean bonusDamage) {
+        this.bonusDamage = bonusDamage;
+    }
+
+    public boolean isBonusDamage() {
+        return bonusDamage;
+    }
+
+    /**
+     * Задаёт предсказатель исхода; null — бой всегда играется до конца.
+     */
+    public void setOutcomePredictor(OutcomePredictor outcomePredictor) {
+        this.outcomePredictor = outcomePredictor;
+    }
+
+    @Override
+    public void simulate(Army playerArmy, Army computerArmy) {
+        run(playerArmy, computerArmy);
+    }
+
+    /**
+     * Проводит бой до уничтожения одной из армий.
+     * Состояние юнитов (здоровье, живость) меняется так же, как в полной симуляции.
+     *
+     * @return итог боя
+     */
+    public BattleOutcome run(Army playerArmy, Army computerArmy) {
+        // Горячее состояние боя живёт в массивах хранилища и возвращается в юниты в конце
+        UnitStore store = UnitStore.of(unitsOf(playerArmy), unitsOf(computerArmy));
+
+        // Армия компьютера — левая на доске, армия игрока — правая
+        BattlefieldBitboard board = new BattlefieldBitboard();
+        board.addArmy(computerArmy, true);
+        board.addArmy(playerArmy, false);
+        DistanceFieldPathFinder pathFinder = new DistanceFieldPathFinder();
+        int[] candidates = new int[store.size()];
+        DamageTable damageTable = bonusDamage ? DamageTable.compile(store) : null;
+
+        TurnOrder turnOrder = TurnOrder.of(store);
+        int rounds = 0;
+        int attacks = 0;
+        boolean stalemate = false;
+        OutcomePredictor predictor = damageTable == null ? outcomePredictor : null;
+        OutcomePredictor.Prediction prediction = null;
+
+        RoundAwareBattleLog roundAwareLog = printBattleLog instanceof RoundAwareBattleLog log ? log : null;
+
+        while (turnOrder.bothArmiesAlive()) {
+            rounds++;
+            if (roundAwareLog != null) {
+                roundAwareLog.onRoundStart(rounds);
+            }
+
+            // Каждый живой юнит ходит в порядке убывания атаки
+            boolean damageDealt = false;
+            for (int position = 0; position < turnOrder.size(); position++) {
+                if (!turnOrder.markDeadIfNeeded(position)) {
+                    continue;
+                }
+                int unitId = turnOrder.unitIdAt(position);
+                int targetId = attack(unitId, store, board, pathFinder, candidates, damageTable);
+                turnOrder.onAttack(targetId);
+                attacks++;
+                damageDealt |= targetId >= 0 && damage(unitId, targetId, store, damageTable) > 0;
+
+                if (printBattleLog != null) {
+                    // Лог читает здоровье цели из объекта юнита
+                    if (targetId >= 0) {
+                        store.writeBack(targetId);
+                    }
+                    printBattleLog.printBattleLog(store.unit(unitId), targetId >= 0 ? store.unit(targetId) : null);
+                }
+            }
+            turnOrder.endRound();
+
+            // Без урона состояние не меняется, и следующий раунд повторится точно так же
+            if (!damageDealt) {
+                stalemate = true;
+                break;
+            }
+            if (predictor != null && turnOrder.bothArmiesAlive()) {
+                prediction = predictor.predict(store, rounds);
+                if (prediction != null) {
+                    break;
+                }
+            }
+        }
+
+        store.writeBack();
+        if (roundAwareLog != null) {
+            roundAwareLog.onBattleEnd();
+        }
+
+        if (prediction != null) {
+            boolean playerWins = prediction.winner() == BattleOutcome.Winner.PLAYER;
+            return new BattleOutcome(prediction.winner(), rounds, attacks,
+                    playerWins ? prediction.predictedSurvivors() : 0,
+                    playerWins ? 0 : prediction.predictedSurvivors(), true);
+        }
+
+        int playerSurvivors = store.liveCount(true);
+        int computerSurvivors = store.liveCount(false);
+        BattleOutcome.Winner winner;
+        if (stalemate || playerSurvivors == computerSurvivors && playerSurvivors == 0) {
+            winner = BattleOutcome.Winner.DRAW;
+        } else {
+            winner = playerSurvivors > 0 ? BattleOutcome.Winner.PLAYER : BattleOutcome.Winner.COMPUTER;
+        }
+        return new BattleOutcome(winner, rounds, attacks, playerSurvivors, computerSurvivors);
+    }
+
+    /**
+     * Ход одного юнита по правилам программ библиотеки.
+     *
+     * @param candidates буфер номеров кандидатов длиной не меньше числа юнитов
+     * @return номер атакованной цели или -1, если атаковать некого или до цели нет пути
+     */
+    private int attack(int unitId, UnitStore store, BattlefieldBitboard board,
+                       DistanceFieldPathFinder pathFinder, int[] candidates, DamageTable damageTable) {
+        boolean playerUnit = store.isPlayer(unitId);
+        Random random = playerUnit ? playerRandom : computerRandom;
+        int targetId;
+        if (store.isArcher(unitId)) {
+            // Лучник: случайный живой враг
+            int count = store.collectAlive(!playerUnit, candidates);
+            if (count == 0) {
+                return -1;
+            }
+            shuffle(candidates, count, random);
+            targetId = candidates[0];
+        } else {
+            // Ближний бой: случайная доступная цель в рядах врага, до которой есть путь
+            List<Unit> suitable = playerUnit
+                    ? suitableFinder.getSuitableUnits(board, true, COMPUTER_FIRST_ROW, COMPUTER_LAST_ROW + 1)
+                    : suitableFinder.getSuitableUnits(board, false, PLAYER_FIRST_ROW, PLAYER_LAST_ROW + 1);
+            Collections.shuffle(suitable, random);
+            if (suitable.isEmpty()) {
+                return -1;
+            }
+            targetId = store.idOf(suitable.getFirst());
+            if (!pathFinder.isReachable(store, unitId, targetId)) {
+                return -1;
+            }
+        }
+
+        if (store.applyDamage(targetId, damage(unitId, targetId, store, damageTable))) {
+            board.onUnitDied(store.unit(targetId));
+        }
+        return targetId;
+    }
+
+    /**
+     * Урон атаки: базовая атака или атака с множителем таблицы. Сложность: O(1)
+     */
+    private static int damage(int unitId, int targetId, UnitStore store, DamageTable damageTable) {
+        int attack = store.attack(unitId);
+        return damageTable == null ? attack : damageTable.damage(unitId, targetId, attack);
+    }
+
+    /**
+     * Перемешивание префикса массива тем же алгоритмом и с теми же вызовами {@link Random},
+     * что и {@link Collections#shuffle(List, Random)}.
+     */
+    private static void shuffle(int[] values, int count, Random random) {
+        for (int i = count; i > 1; i--) {
+            int j = random.nextInt(i);
+            int swap = values[i - 1];
+            values[i - 1] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    private static List<Unit> unitsOf(Army army) {
+        if (army == null || army.getUnits() == null) {
+            return Collections.emptyList();
+        }
+        return army.getUnits();
+    }
+}
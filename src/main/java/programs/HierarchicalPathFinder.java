@@ -0,0 +1,1063 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.*;
+
+/**
+ * Иерархический поиск пути (HPA*) для полей произвольного размера.
+ * <p>
+ * Поле W × H делится на кластеры C × C. На каждой границе соседних кластеров выбираются входы:
+ * в каждом отрезке свободных пар клеток поперёк границы — один вход в середине, а в отрезке длиной
+ * от {@value #LONG_RUN} — два по краям. Диагональные переходы, которые нельзя заменить прямыми
+ * (в том числе через угол в диагональный кластер), добавляются отдельными входами. Внутри кластера
+ * расстояния между входами считаются Дейкстрой по клеткам кластера, а деревья этих поисков
+ * сохраняются. Получается абстрактный граф входов, по которому A* с эвристикой, умноженной
+ * на {@value #HEURISTIC_WEIGHT}, ищет маршрут; старт и цель подключаются к входам своих кластеров
+ * поиском внутри кластера, а если стоят у границы — и к входам соседних кластеров, куда из них
+ * можно шагнуть. Рёбра маршрута внутри кластеров разворачиваются в клетки по сохранённым деревьям.
+ * Близкие старт и цель сначала соединяются прямым поиском в прямоугольнике вокруг них, а маршрут
+ * по графу ищется, только если прямой путь не доказуемо кратчайший и заметно длиннее октильного расстояния.
+ * <p>
+ * Путь всегда проходим и найден, если цель достижима, но он не обязательно кратчайший: обычно
+ * длиннее кратчайшего на несколько процентов, в худшем случае, найденном перебором (поля до 130 × 130,
+ * кластеры от 4 до 32, до 45% занятых клеток), — в 1.29 раза. Клетка атакующего всегда проходима, клетка цели,
+ * занятая другим юнитом, недостижима — как в {@link UnitTargetPathFinderImpl}.
+ * <p>
+ * Граф обновляется инкрементально: на каждом вызове занятость поля сравнивается со снимком,
+ * для каждой изменившейся клетки перестраиваются зависящие от неё границы, а зависящие кластеры
+ * помечаются и перестраиваются, только когда в них войдёт поиск.
+ * <p>
+ * Экземпляр хранит состояние и не потокобезопасен: используйте один экземпляр на бой.
+ * <p>
+ * Сложность запроса: O(n + W × H / 64 + C² × log C + A × k × log A + L × C), где n — число
+ * юнитов, A — число раскрытых входов, k — число входов кластера, L — число кластеров на пути;
+ * перестройка кластера — O(k × C² × log C), память деревьев — O(k × W × H).
+ *
+ * @see UnitTargetPathFinderImpl
+ */
+public class HierarchicalPathFinder implements UnitTargetPathFinder {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /**
+     * Отрезок свободных пар не короче этого получает два входа по краям вместо одного в середине.
+     */
+    static final int LONG_RUN = 6;
+
+    /**
+     * Множитель октильной эвристики абстрактного A*. Расстояния между входами на поле с препятствиями
+     * заметно больше октильных, и с точной эвристикой A* раскрывает широкую полосу входов; с множителем
+     * раскрывается в разы меньше, а маршрут длиннее найденного с точной эвристикой не больше чем в
+     * 1.05 раза (на случайных полях — на доли процента).
+     */
+    static final double HEURISTIC_WEIGHT = 1.05;
+
+    /**
+     * Путь прямого поиска для близких старта и цели, не длиннее октильного расстояния во столько раз,
+     * принимается без поиска по графу входов; более длинный сравнивается с маршрутом по графу.
+     */
+    static final double NEAR_STRETCH = 1.5;
+
+    private static final int EAST = 0;
+    private static final int NORTH = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int SOUTH_EAST = 3;
+    private static final int DIRECTIONS = 4;
+
+    private static final int[] DX = UnitTargetPathFinderImpl.DX;
+    private static final int[] DY = UnitTargetPathFinderImpl.DY;
+    private static final double STRAIGHT_COST = UnitTargetPathFinderImpl.STRAIGHT_COST;
+    private static final double DIAGONAL_COST = UnitTargetPathFinderImpl.DIAGONAL_COST;
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    private final int cells;
+    private final int start;  // узел старта в абстрактном графе
+    private final int goal;   // узел цели в абстрактном графе
+
+    private long[] occupancy;  // снимок занятых клеток, по которому построен граф
+    private long[] scratch;
+    private final Cluster[] clusters;
+    private final Border[] borders;       // [кластер * DIRECTIONS + направление], null — соседа нет
+    private final int[] entranceIndex;    // номер входа клетки в её кластере, -1 — не вход
+    private final boolean[] clusterDirty;
+    private final boolean[] borderDirty;
+    private final int[] dirtyBorders;
+    private int dirtyBorderCount;
+
+    // Абстрактный A*: узлы — клетки входов, плюс старт и цель
+    private final double[] nodeCost;
+    private final double[] nodeHeuristic;
+    private final int[] nodeParent;
+    private final int[] nodeStamp;
+    private final IndexedMinHeap open;
+    private int stamp;
+
+    // Поиски от старта и от цели: свой кластер и соседние кластеры, куда можно шагнуть через границу
+    private final LocalSearch[] startSearches = new LocalSearch[4];
+    private final LocalSearch[] goalSearches = new LocalSearch[4];
+    private final LocalSearch refineSearch;
+    private final LocalSearch nearSearch; // прямой поиск, когда старт и цель рядом
+    private int startSearchCount;
+    private int goalSearchCount;
+    private int[] route = new int[64];
+    private int routeLength;
+
+    private long expandedNodes;
+    private long localExpandedNodes;
+    private long clusterRebuilds;
+    private long borderRebuilds;
+
+    public HierarchicalPathFinder(int width, int height) {
+        this(width, height, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(int width, int height, int clusterSize) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Некорректный размер поля: " + width + "x" + height);
+        }
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Размер кластера должен быть не меньше 2: " + clusterSize);
+        }
+        this.width = width;
+        this.height = height;
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+        this.cells = width * height;
+        this.start = cells;
+        this.goal = cells + 1;
+
+        int words = (cells + 63) >>> 6;
+        this.occupancy = new long[words];
+        this.scratch = new long[words];
+        int clusterCount = clustersX * clustersY;
+        this.clusters = new Cluster[clusterCount];
+        this.borders = new Border[clusterCount * DIRECTIONS];
+        for (int cx = 0; cx < clustersX; cx++) {
+            for (int cy = 0; cy < clustersY; cy++) {
+                int id = cx * clustersY + cy;
+                clusters[id] = new Cluster(id, cx * clusterSize, cy * clusterSize,
+                        Math.min(width, (cx + 1) * clusterSize) - 1, Math.min(height, (cy + 1) * clusterSize) - 1);
+                for (int dir = 0; dir < DIRECTIONS; dir++) {
+                    if (neighbour(id, dir) >= 0) {
+                        borders[id * DIRECTIONS + dir] = new Border();
+                    }
+                }
+            }
+        }
+        this.entranceIndex = new int[cells];
+        Arrays.fill(entranceIndex, -1);
+        this.clusterDirty = new boolean[clusterCount];
+        this.borderDirty = new boolean[borders.length];
+        this.dirtyBorders = new int[borders.length];
+        for (int id = 0; id < clusterCount; id++) {
+            clusterDirty[id] = true;
+        }
+        for (int border = 0; border < borders.length; border++) {
+            if (borders[border] != null) {
+                markBorder(border);
+            }
+        }
+
+        this.nodeCost = new double[cells + 2];
+        this.nodeHeuristic = new double[cells + 2];
+        this.nodeParent = new int[cells + 2];
+        this.nodeStamp = new int[cells + 2];
+        this.open = new IndexedMinHeap(cells + 2);
+        int clusterCells = clusterSize * clusterSize;
+        for (int i = 0; i < startSearches.length; i++) {
+            startSearches[i] = new LocalSearch(clusterCells);
+            goalSearches[i] = new LocalSearch(clusterCells);
+        }
+        this.refineSearch = new LocalSearch(clusterCells);
+        int nearSide = 2 * clusterSize + 2 * Math.max(1, clusterSize / 2);
+        this.nearSearch = new LocalSearch(nearSide * nearSide);
+    }
+
+    /**
+     * Находит путь между атакующим и атакуемым юнитом через абстрактный граф входов.
+     * <p>
+     * Сложность: O(n + W × H / 64 + C² × log C + A × log A + L × C² × log C) без перестроек
+     *
+     * @param attackUnit       атакующий юнит
+     * @param targetUnit       цель атаки
+     * @param existingUnitList список всех юнитов на поле
+     * @return список координат пути от attackUnit до targetUnit, или пустой список если путь не найден
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        int startX = attackUnit.getxCoordinate();
+        int startY = attackUnit.getyCoordinate();
+        int endX = targetUnit.getxCoordinate();
+        int endY = targetUnit.getyCoordinate();
+        if (!isInside(startX, startY) || !isInside(endX, endY)) {
+            return Collections.emptyList();
+        }
+        int source = startX * height + startY;
+        int target = endX * height + endY;
+        // 1. Снимок занятости всех живых юнитов и перестройка затронутых границ
+        Arrays.fill(scratch, 0L);
+        boolean targetCovered = false;
+        for (Unit unit : existingUnitList) {
+            if (unit.isAlive()) {
+                int x = unit.getxCoordinate();
+                int y = unit.getyCoordinate();
+                if (isInside(x, y)) {
+                    int cell = x * height + y;
+                    scratch[cell >>> 6] |= 1L << cell;
+                    targetCovered |= cell == target && unit != attackUnit && unit != targetUnit;
+                }
+            }
+        }
+        synchronize();
+        if (source == target) {
+            return Collections.singletonList(new Edge(startX, startY));
+        }
+        if (targetCovered) {
+            // Клетку цели занимает другой юнит
+            return Collections.emptyList();
+        }
+
+        // 2. Старт и цель рядом: прямой поиск в прямоугольнике вокруг них
+        double near = searchNear(source, target);
+        if (near != INFINITY && near <= nearLimit(source, target)) {
+            return nearPath(target);
+        }
+
+        // 3. Подключаем старт и цель к входам своих и соседних кластеров
+        startSearchCount = connect(startSearches, source, target);
+        goalSearchCount = connect(goalSearches, target, -1);
+
+        // 4. A* по абстрактному графу и уточнение маршрута до клеток; прямой путь, если он короче
+        if (abstractSearch(source, target) && nodeCost[goal] < near) {
+            refine(source, target);
+            return toEdges();
+        }
+        if (near != INFINITY) {
+            return nearPath(target);
+        }
+        // Путь не найден
+        return Collections.emptyList();
+    }
+
+    private List<Edge> toEdges() {
+        List<Edge> path = new ArrayList<>(routeLength);
+        for (int i = 0; i < routeLength; i++) {
+            path.add(new Edge(route[i] / height, route[i] % height));
+        }
+        return path;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Суммарное число узлов абстрактного графа, раскрытых всеми запросами.
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Суммарное число клеток, раскрытых поисками внутри кластеров при запросах и перестройках.
+     */
+    public long getLocalExpandedNodes() {
+        return localExpandedNodes;
+    }
+
+    /**
+     * Число перестроек кластеров (пересчётов расстояний между входами).
+     */
+    public long getClusterRebuilds() {
+        return clusterRebuilds;
+    }
+
+    /**
+     * Число перестроек входов на границах кластеров.
+     */
+    public long getBorderRebuilds() {
+        return borderRebuilds;
+    }
+
+    /**
+     * Число входов во всех кластерах (узлов абстрактного графа); отложенные перестройки выполняются.
+     */
+    public int getEntranceCount() {
+        int count = 0;
+        for (Cluster cluster : clusters) {
+            count += built(cluster.id).size;
+        }
+        return count;
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private boolean isFree(int x, int y) {
+        int cell = x * height + y;
+        return (occupancy[cell >>> 6] & (1L << cell)) == 0;
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / height / clusterSize) * clustersY + (cell % height) / clusterSize;
+    }
+
+    /**
+     * Кластер по другую сторону границы dir или -1, если его нет.
+     */
+    private int neighbour(int cluster, int dir) {
+        int cx = cluster / clustersY;
+        int cy = cluster % clustersY;
+        int nx = cx + 1;
+        int ny = switch (dir) {
+            case EAST -> cy;
+            case NORTH -> {
+                nx = cx;
+                yield cy + 1;
+            }
+            case NORTH_EAST -> cy + 1;
+            default -> cy - 1;
+        };
+        return nx < clustersX && ny >= 0 && ny < clustersY ? nx * clustersY + ny : -1;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Инкрементальное обновление графа
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Сравнивает новый снимок занятости с прежним, перестраивает зависящие от изменений границы
+     * и помечает кластеры для перестройки. Сложность: O(W × H / 64 + изменённые клетки × C)
+     */
+    private void synchronize() {
+        long[] previous = occupancy;
+        occupancy = scratch;
+        scratch = previous;
+        for (int word = 0; word < occupancy.length; word++) {
+            long diff = occupancy[word] ^ previous[word];
+            while (diff != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(diff);
+                diff &= diff - 1;
+                invalidate(cell);
+            }
+        }
+        // Входы на границах нужны всем поискам; кластеры перестраиваются, только когда поиск в них войдёт
+        for (int i = 0; i < dirtyBorderCount; i++) {
+            int border = dirtyBorders[i];
+            borderDirty[border] = false;
+            rebuildBorder(border);
+        }
+        dirtyBorderCount = 0;
+    }
+
+    /**
+     * Кластер с актуальными входами и расстояниями между ними: помеченный кластер перестраивается
+     * при первом обращении после изменения поля, так что изменения вдали от запросов ничего не стоят.
+     */
+    private Cluster built(int clusterId) {
+        if (clusterDirty[clusterId]) {
+            clusterDirty[clusterId] = false;
+            rebuildCluster(clusterId);
+        }
+        return clusters[clusterId];
+    }
+
+    /**
+     * Помечает кластер клетки и все границы, входы которых зависят от клетки.
+     * От клетки (x, y) зависят границы кластеров клеток (x − 1..x, y − 1..y + 1).
+     */
+    private void invalidate(int cell) {
+        int x = cell / height;
+        int y = cell % height;
+        clusterDirty[clusterOf(cell)] = true;
+        for (int ox = x - 1; ox <= x; ox++) {
+            for (int oy = y - 1; oy <= y + 1; oy++) {
+                if (!isInside(ox, oy)) {
+                    continue;
+                }
+                int owner = clusterOf(ox * height + oy);
+                Cluster k = clusters[owner];
+                for (int dir = 0; dir < DIRECTIONS; dir++) {
+                    int border = owner * DIRECTIONS + dir;
+                    if (borders[border] == null || borderDirty[border]) {
+                        continue;
+                    }
+                    boolean depends = switch (dir) {
+                        case EAST -> (x == k.x1 || x == k.x1 + 1) && y >= k.y0 && y <= k.y1;
+                        case NORTH -> (y == k.y1 || y == k.y1 + 1) && x >= k.x0 && x <= k.x1;
+                        case NORTH_EAST -> (x == k.x1 || x == k.x1 + 1) && (y == k.y1 || y == k.y1 + 1);
+                        default -> (x == k.x1 || x == k.x1 + 1) && (y == k.y0 || y == k.y0 - 1);
+                    };
+                    if (depends) {
+                        markBorder(border);
+                        clusterDirty[owner] = true;
+                        clusterDirty[neighbour(owner, dir)] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void markBorder(int border) {
+        if (!borderDirty[border]) {
+            borderDirty[border] = true;
+            dirtyBorders[dirtyBorderCount++] = border;
+        }
+    }
+
+    /**
+     * Выбирает входы на границе: отрезки свободных прямых пар и диагональные переходы,
+     * которые нельзя заменить двумя прямыми шагами.
+     * Сложность: O(C)
+     */
+    private void rebuildBorder(int borderId) {
+        Border border = borders[borderId];
+        Cluster k = clusters[borderId / DIRECTIONS];
+        int dir = borderId % DIRECTIONS;
+        border.count = 0;
+        borderRebuilds++;
+        switch (dir) {
+            case EAST -> scanBorder(border, k.x1, k.y0, k.y1, true);
+            case NORTH -> scanBorder(border, k.y1, k.x0, k.x1, false);
+            case NORTH_EAST -> addCorner(border, k.x1, k.y1, k.x1 + 1, k.y1 + 1);
+            default -> addCorner(border, k.x1, k.y0, k.x1 + 1, k.y0 - 1);
+        }
+    }
+
+    /**
+     * Просматривает границу между линией line (сторона A) и line + 1 (сторона B) на отрезке [from, to].
+     * При vertical граница идёт вдоль y (линия — столбец x), иначе вдоль x (линия — строка y).
+     */
+    private void scanBorder(Border border, int line, int from, int to, boolean vertical) {
+        int runStart = -1;
+        for (int i = from; i <= to + 1; i++) {
+            boolean straight = i <= to && freeAt(line, i, vertical) && freeAt(line + 1, i, vertical);
+            if (straight && runStart < 0) {
+                runStart = i;
+            } else if (!straight && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_RUN) {
+                    addTransition(border, line, runStart, line + 1, runStart, vertical, STRAIGHT_COST);
+                    addTransition(border, line, runEnd, line + 1, runEnd, vertical, STRAIGHT_COST);
+                } else {
+                    int middle = (runStart + runEnd) >>> 1;
+                    addTransition(border, line, middle, line + 1, middle, vertical, STRAIGHT_COST);
+                }
+                runStart = -1;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            // Диагональ A(i) → B(i + 1), если обе прямые пары через неё перекрыты
+            if (freeAt(line, i, vertical) && freeAt(line + 1, i + 1, vertical)
+                    && !freeAt(line + 1, i, vertical) && !freeAt(line, i + 1, vertical)) {
+                addTransition(border, line, i, line + 1, i + 1, vertical, DIAGONAL_COST);
+            }
+            if (freeAt(line, i + 1, vertical) && freeAt(line + 1, i, vertical)
+                    && !freeAt(line, i, vertical) && !freeAt(line + 1, i + 1, vertical)) {
+                addTransition(border, line, i + 1, line + 1, i, vertical, DIAGONAL_COST);
+            }
+        }
+    }
+
+    private boolean freeAt(int line, int i, boolean vertical) {
+        return vertical ? isFree(line, i) : isFree(i, line);
+    }
+
+    private void addTransition(Border border, int lineA, int iA, int lineB, int iB, boolean vertical, double cost) {
+        int a = vertical ? lineA * height + iA : iA * height + lineA;
+        int b = vertical ? lineB * height + iB : iB * height + lineB;
+        border.add(a, b, cost);
+    }
+
+    /**
+     * Угловой переход в диагональный кластер, если обе клетки рядом с углом заняты.
+     */
+    private void addCorner(Border border, int ax, int ay, int bx, int by) {
+        if (isFree(ax, ay) && isFree(bx, by) && !isFree(bx, ay) && !isFree(ax, by)) {
+            border.add(ax * height + ay, bx * height + by, DIAGONAL_COST);
+        }
+    }
+
+    /**
+     * Собирает входы кластера со всех восьми границ; расстояния от входов считаются позже, в {@link #row}.
+     * Сложность: O(k + переходы)
+     */
+    private void rebuildCluster(int clusterId) {
+        Cluster k = clusters[clusterId];
+        clusterRebuilds++;
+        for (int i = 0; i < k.size; i++) {
+            entranceIndex[k.entrances[i]] = -1;
+        }
+        k.size = 0;
+        k.links = 0;
+        int cx = clusterId / clustersY;
+        int cy = clusterId % clustersY;
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            Border own = borders[clusterId * DIRECTIONS + dir];
+            if (own != null) {
+                for (int t = 0; t < own.count; t++) {
+                    k.link(entranceIndex, own.a[t], own.b[t], own.cost[t]);
+                }
+            }
+        }
+        // Границы, где кластер — сторона B: восточная западного соседа, северная южного и углы
+        linkIncoming(k, cx - 1, cy, EAST);
+        linkIncoming(k, cx, cy - 1, NORTH);
+        linkIncoming(k, cx - 1, cy - 1, NORTH_EAST);
+        linkIncoming(k, cx - 1, cy + 1, SOUTH_EAST);
+        k.sortLinks();
+
+        int size = k.size;
+        if (k.intra.length < size * size) {
+            k.intra = new double[Math.max(size * size, 2 * k.intra.length)];
+        }
+        int area = k.area();
+        if (k.tree.length < size * area) {
+            k.tree = new int[Math.max(size * area, 2 * k.tree.length)];
+        }
+        if (k.rowReady.length < size) {
+            k.rowReady = new boolean[Math.max(size, 2 * k.rowReady.length)];
+        }
+        Arrays.fill(k.rowReady, 0, size, false);
+    }
+
+    /**
+     * Смещение строки расстояний от входа i в {@code k.intra}. Строка и дерево путей от входа считаются
+     * Дейкстрой по кластеру при первом обращении после перестройки: поиск раскрывает лишь несколько входов
+     * кластера, и остальные строки не нужны. Сложность: O(1), первый вызов — O(C² × log C)
+     */
+    private int row(Cluster k, int i) {
+        int size = k.size;
+        if (!k.rowReady[i]) {
+            k.rowReady[i] = true;
+            refineSearch.begin(k);
+            refineSearch.addSource(k.entrances[i], 0);
+            localExpandedNodes += refineSearch.run(-1, -1);
+            for (int j = 0; j < size; j++) {
+                k.intra[i * size + j] = refineSearch.distance(k.entrances[j]);
+            }
+            int area = k.area();
+            System.arraycopy(refineSearch.parent, 0, k.tree, i * area, area);
+        }
+        return i * size;
+    }
+
+    private void linkIncoming(Cluster k, int cx, int cy, int dir) {
+        if (cx < 0 || cy < 0 || cx >= clustersX || cy >= clustersY) {
+            return;
+        }
+        Border border = borders[(cx * clustersY + cy) * DIRECTIONS + dir];
+        if (border != null) {
+            for (int t = 0; t < border.count; t++) {
+                k.link(entranceIndex, border.b[t], border.a[t], border.cost[t]);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Поиск
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Поиски внутри кластеров от клетки center: в её кластере и в соседних, куда из center
+     * можно шагнуть через границу. Сама клетка center занята юнитом и входом быть не может,
+     * поэтому переходы через неё учитываются здесь, а не в графе входов.
+     *
+     * @param openCell клетка цели, в которую поиски могут войти, или -1
+     * @return число подготовленных поисков
+     */
+    private int connect(LocalSearch[] searches, int center, int openCell) {
+        int ownCluster = clusterOf(center);
+        searches[0].begin(clusters[ownCluster]);
+        searches[0].addSource(center, 0);
+        int count = 1;
+        int x = center / height;
+        int y = center % height;
+        for (int d = 0; d < DX.length; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (!isInside(nx, ny)) {
+                continue;
+            }
+            int portal = nx * height + ny;
+            int portalCluster = clusterOf(portal);
+            if (portalCluster == ownCluster || (portal != openCell && !isFree(nx, ny))) {
+                continue;
+            }
+            LocalSearch search = find(searches, count, portalCluster);
+            if (search == null) {
+                search = searches[count++];
+                search.begin(clusters[portalCluster]);
+            }
+            search.addSource(portal, d < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+        }
+        for (int i = 0; i < count; i++) {
+            localExpandedNodes += searches[i].run(openCell, -1);
+        }
+        return count;
+    }
+
+    /**
+     * Для близких старта и цели граф входов даёт заметный крюк через вход в середине границы,
+     * поэтому сначала ищем путь напрямую в прямоугольнике вокруг них с отступом {@code C / 2}
+     * (не больше 3C × 3C). Старт и цель считаются близкими, если по каждой оси между ними меньше 2C клеток.
+     *
+     * @return длина пути в прямоугольнике; бесконечность, если они не близки или пути в нём нет
+     */
+    private double searchNear(int source, int target) {
+        int sx = source / height;
+        int sy = source % height;
+        int tx = target / height;
+        int ty = target % height;
+        if (Math.abs(sx - tx) >= 2 * clusterSize || Math.abs(sy - ty) >= 2 * clusterSize) {
+            return INFINITY;
+        }
+        int margin = Math.max(1, clusterSize / 2);
+        nearSearch.begin(Math.max(0, Math.min(sx, tx) - margin), Math.max(0, Math.min(sy, ty) - margin),
+                Math.min(width - 1, Math.max(sx, tx) + margin), Math.min(height - 1, Math.max(sy, ty) + margin));
+        nearSearch.addSource(source, 0);
+        localExpandedNodes += nearSearch.run(target, target);
+        return nearSearch.distance(target);
+    }
+
+    /**
+     * Длина, до которой путь прямого поиска принимается без поиска по графу входов. Путь, выходящий
+     * из прямоугольника, не короче суммы расстояний от старта и от цели до его открытых сторон
+     * (сторона у края поля закрыта), поэтому путь не длиннее этой суммы кратчайший. Иначе путь
+     * принимается, если он не длиннее октильного расстояния в {@value #NEAR_STRETCH} раза.
+     */
+    private double nearLimit(int source, int target) {
+        double exit = exitDistance(source) + exitDistance(target);
+        double octile = UnitTargetPathFinderImpl.octileDistance(source / height, source % height,
+                target / height, target % height);
+        return Math.max(exit, NEAR_STRETCH * octile);
+    }
+
+    /**
+     * Число шагов от клетки до ближайшей клетки за открытой стороной прямоугольника прямого поиска.
+     */
+    private double exitDistance(int cell) {
+        int x = cell / height;
+        int y = cell % height;
+        double exit = INFINITY;
+        if (nearSearch.x0 > 0) {
+            exit = Math.min(exit, x - nearSearch.x0 + 1);
+        }
+        if (nearSearch.x1 < width - 1) {
+            exit = Math.min(exit, nearSearch.x1 - x + 1);
+        }
+        if (nearSearch.y0 > 0) {
+            exit = Math.min(exit, y - nearSearch.y0 + 1);
+        }
+        if (nearSearch.y1 < height - 1) {
+            exit = Math.min(exit, nearSearch.y1 - y + 1);
+        }
+        return exit;
+    }
+
+    private List<Edge> nearPath(int target) {
+        routeLength = 0;
+        appendLocalPath(nearSearch, target, false);
+        return toEdges();
+    }
+
+    private LocalSearch find(LocalSearch[] searches, int count, int clusterId) {
+        for (int i = 0; i < count; i++) {
+            if (searches[i].cluster == clusters[clusterId]) {
+                return searches[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A* по входам от старта до цели с октильной эвристикой. Сложность: O(A × d × log A)
+     */
+    private boolean abstractSearch(int source, int target) {
+        if (++stamp == 0) {
+            Arrays.fill(nodeStamp, 0);
+            stamp = 1;
+        }
+        open.clear();
+        int targetX = target / height;
+        int targetY = target % height;
+        int targetCluster = clusterOf(target);
+        relax(start, -1, 0, targetX, targetY);
+        while (!open.isEmpty()) {
+            int node = open.pollMin();
+            if (node == goal) {
+                return true;
+            }
+            expandedNodes++;
+            double cost = nodeCost[node];
+            if (node == start) {
+                for (int s = 0; s < startSearchCount; s++) {
+                    LocalSearch search = startSearches[s];
+                    Cluster k = built(search.cluster.id);
+                    for (int i = 0; i < k.size; i++) {
+                        relax(k.entrances[i], start, cost + search.distance(k.entrances[i]), targetX, targetY);
+                    }
+                    relax(goal, start, cost + search.distance(target), targetX, targetY);
+                }
+                continue;
+            }
+            int clusterId = clusterOf(node);
+            Cluster k = built(clusterId);
+            int i = entranceIndex[node];
+            int row = row(k, i);
+            for (int j = 0; j < k.size; j++) {
+                relax(k.entrances[j], node, cost + k.intra[row + j], targetX, targetY);
+            }
+            for (int l = k.linkStart[i]; l < k.linkStart[i + 1]; l++) {
+                relax(k.partner[l], node, cost + k.partnerCost[l], targetX, targetY);
+            }
+            LocalSearch toGoal = find(goalSearches, goalSearchCount, clusterId);
+            if (toGoal != null) {
+                relax(goal, node, cost + toGoal.distance(node), targetX, targetY);
+            }
+        }
+        return false;
+    }
+
+    private void relax(int node, int parent, double cost, int targetX, int targetY) {
+        if (cost == INFINITY) {
+            return;
+        }
+        if (nodeStamp[node] == stamp) {
+            if (nodeCost[node] <= cost) {
+                return;
+            }
+        } else {
+            nodeStamp[node] = stamp;
+            nodeHeuristic[node] = node < cells
+                    ? HEURISTIC_WEIGHT * UnitTargetPathFinderImpl.octileDistance(node / height, node % height, targetX, targetY)
+                    : 0;
+        }
+        nodeCost[node] = cost;
+        nodeParent[node] = parent;
+        open.insertOrDecrease(node, cost + nodeHeuristic[node]);
+    }
+
+    /**
+     * Разворачивает абстрактный маршрут в клетки: рёбра от старта и к цели — по их поискам,
+     * рёбра между входами одного кластера — по дереву путей, сохранённому при перестройке кластера.
+     * Сложность: O(L × C)
+     */
+    private void refine(int source, int target) {
+        // Узлы маршрута от цели к старту; переворачиваем на месте
+        int nodes = 0;
+        for (int node = goal; node != -1; node = nodeParent[node]) {
+            route = ensure(route, nodes + 1);
+            route[nodes++] = node;
+        }
+        int[] abstractRoute = Arrays.copyOf(route, nodes);
+        routeLength = 0;
+        for (int i = nodes - 1; i > 0; i--) {
+            int from = abstractRoute[i];
+            int to = abstractRoute[i - 1];
+            if (from == start) {
+                int end = to == goal ? target : to;
+                append(source);
+                appendLocalPath(find(startSearches, startSearchCount, clusterOf(end)), end, false);
+            } else if (to == goal) {
+                appendLocalPath(find(goalSearches, goalSearchCount, clusterOf(from)), from, true);
+                append(target);
+            } else if (clusterOf(from) != clusterOf(to)) {
+                append(from);
+                append(to);
+            } else {
+                appendTreePath(clusters[clusterOf(from)], from, to);
+            }
+        }
+        if (routeLength == 0 || route[0] != source) {
+            throw new IllegalStateException("Маршрут не начинается в клетке атакующего");
+        }
+    }
+
+    /**
+     * Добавляет путь поиска от его источника до клетки cell; reversed — от cell до источника.
+     */
+    private void appendLocalPath(LocalSearch search, int cell, boolean reversed) {
+        int length = search.trace(cell);
+        int[] trace = search.trace;
+        for (int i = 0; i < length; i++) {
+            append(reversed ? trace[i] : trace[length - 1 - i]);
+        }
+    }
+
+    /**
+     * Добавляет путь от входа from до входа to по дереву кратчайших путей, сохранённому при перестройке кластера.
+     */
+    private void appendTreePath(Cluster k, int from, int to) {
+        int offset = entranceIndex[from] * k.area();
+        int[] trace = refineSearch.trace;
+        int length = 0;
+        for (int current = to; current != -1; current = k.tree[offset + k.local(current, height)]) {
+            trace[length++] = current;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            append(trace[i]);
+        }
+    }
+
+    private void append(int cell) {
+        if (routeLength > 0 && route[routeLength - 1] == cell) {
+            return;
+        }
+        route = ensure(route, routeLength + 1);
+        route[routeLength++] = cell;
+    }
+
+    private static int[] ensure(int[] array, int size) {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    /**
+     * Входы на границе двух кластеров: клетка a на стороне кластера-владельца, b — у соседа.
+     */
+    private static final class Border {
+        int[] a = new int[4];
+        int[] b = new int[4];
+        double[] cost = new double[4];
+        int count;
+
+        void add(int cellA, int cellB, double stepCost) {
+            if (count == a.length) {
+                a = Arrays.copyOf(a, count * 2);
+                b = Arrays.copyOf(b, count * 2);
+                cost = Arrays.copyOf(cost, count * 2);
+            }
+            a[count] = cellA;
+            b[count] = cellB;
+            cost[count] = stepCost;
+            count++;
+        }
+    }
+
+    /**
+     * Кластер: его входы, расстояния между ними и переходы входов в соседние кластеры.
+     */
+    private static final class Cluster {
+        final int id;
+        final int x0;
+        final int y0;
+        final int x1;
+        final int y1;
+        int[] entrances = new int[8];
+        int size;
+        double[] intra = new double[64];  // [i * size + j] — расстояние от входа i до входа j
+        int[] tree = new int[0];          // [i * area + клетка] — родитель клетки в дереве путей от входа i
+        boolean[] rowReady = new boolean[8]; // строка intra и дерево входа i посчитаны
+        // Переходы в соседние кластеры, сгруппированные по входу: linkStart[i]..linkStart[i + 1]
+        int[] linkOwner = new int[8];
+        int[] partner = new int[8];
+        double[] partnerCost = new double[8];
+        int[] linkStart = new int[9];
+        int links;
+
+        Cluster(int id, int x0, int y0, int x1, int y1) {
+            this.id = id;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+        }
+
+        int area() {
+            return (x1 - x0 + 1) * (y1 - y0 + 1);
+        }
+
+        int local(int cell, int height) {
+            return (cell / height - x0) * (y1 - y0 + 1) + (cell % height - y0);
+        }
+
+        void link(int[] entranceIndex, int own, int other, double stepCost) {
+            int index = entranceIndex[own];
+            if (index < 0) {
+                entrances = ensure(entrances, size + 1);
+                index = size++;
+                entrances[index] = own;
+                entranceIndex[own] = index;
+            }
+            if (links == partner.length) {
+                linkOwner = Arrays.copyOf(linkOwner, links * 2);
+                partner = Arrays.copyOf(partner, links * 2);
+                partnerCost = Arrays.copyOf(partnerCost, links * 2);
+            }
+            linkOwner[links] = index;
+            partner[links] = other;
+            partnerCost[links] = stepCost;
+            links++;
+        }
+
+        /**
+         * Группирует переходы по номеру входа подсчётом. Сложность: O(k + links)
+         */
+        void sortLinks() {
+            linkStart = ensure(linkStart, size + 1);
+            Arrays.fill(linkStart, 0, size + 1, 0);
+            for (int l = 0; l < links; l++) {
+                linkStart[linkOwner[l] + 1]++;
+            }
+            for (int i = 0; i < size; i++) {
+                linkStart[i + 1] += linkStart[i];
+            }
+            int[] sortedPartner = new int[Math.max(links, 1)];
+            double[] sortedCost = new double[Math.max(links, 1)];
+            int[] next = Arrays.copyOf(linkStart, size);
+            for (int l = 0; l < links; l++) {
+                int slot = next[linkOwner[l]]++;
+                sortedPartner[slot] = partner[l];
+                sortedCost[slot] = partnerCost[l];
+            }
+            partner = sortedPartner;
+            partnerCost = sortedCost;
+            linkOwner = new int[partner.length];
+        }
+    }
+
+    /**
+     * Дейкстра по клеткам прямоугольника — кластера или нескольких соседних кластеров.
+     */
+    private final class LocalSearch {
+        final double[] distance;
+        final int[] parent;    // родитель по глобальному номеру клетки, -1 у источника
+        final int[] trace;     // клетки пути от заданной клетки к источнику
+        final IndexedMinHeap heap;
+        Cluster cluster;       // кластер поиска или null для прямоугольника из нескольких кластеров
+        int x0;
+        int y0;
+        int x1;
+        int y1;
+        int boxHeight;
+
+        LocalSearch(int capacity) {
+            distance = new double[capacity];
+            parent = new int[capacity];
+            trace = new int[capacity];
+            heap = new IndexedMinHeap(capacity);
+        }
+
+        /**
+         * Начинает поиск в кластере k: все клетки недостижимы, источников нет.
+         */
+        void begin(Cluster k) {
+            begin(k.x0, k.y0, k.x1, k.y1);
+            cluster = k;
+        }
+
+        /**
+         * Начинает поиск в прямоугольнике [x0, x1] × [y0, y1].
+         */
+        void begin(int x0, int y0, int x1, int y1) {
+            this.cluster = null;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.boxHeight = y1 - y0 + 1;
+            Arrays.fill(distance, 0, (x1 - x0 + 1) * boxHeight, INFINITY);
+            heap.clear();
+        }
+
+        /**
+         * Добавляет источник с начальным расстоянием offset.
+         */
+        void addSource(int cell, double offset) {
+            int local = local(cell);
+            if (offset < distance[local]) {
+                distance[local] = offset;
+                parent[local] = -1;
+                heap.insertOrDecrease(local, offset);
+            }
+        }
+
+        /**
+         * Дейкстра от источников внутри прямоугольника. Занятые клетки непроходимы, кроме openCell, через
+         * которую путь не продолжается; поиск останавливается, когда извлечена stopCell
+         * (или -1 — обойти весь прямоугольник).
+         *
+         * @return число раскрытых клеток
+         */
+        int run(int openCell, int stopCell) {
+            int expanded = 0;
+            while (!heap.isEmpty()) {
+                int current = heap.pollMin();
+                expanded++;
+                int x = x0 + current / boxHeight;
+                int y = y0 + current % boxHeight;
+                int cell = x * height + y;
+                if (cell == stopCell) {
+                    break;
+                }
+                if (cell == openCell) {
+                    continue; // клетка цели — конец пути, дальше через неё не идём
+                }
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (nx < x0 || nx > x1 || ny < y0 || ny > y1) {
+                        continue;
+                    }
+                    int next = nx * height + ny;
+                    if (next != openCell && !isFree(nx, ny)) {
+                        continue;
+                    }
+                    int nextLocal = (nx - x0) * boxHeight + (ny - y0);
+                    double newDist = distance[current] + (d < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+                    if (newDist < distance[nextLocal]) {
+                        distance[nextLocal] = newDist;
+                        parent[nextLocal] = cell;
+                        heap.insertOrDecrease(nextLocal, newDist);
+                    }
+                }
+            }
+            return expanded;
+        }
+
+        /**
+         * Расстояние от источника последнего поиска до клетки; бесконечность вне прямоугольника или недостижимой.
+         */
+        double distance(int cell) {
+            int x = cell / height;
+            int y = cell % height;
+            if (x < x0 || x > x1 || y < y0 || y > y1) {
+                return INFINITY;
+            }
+            return distance[local(cell)];
+        }
+
+        /**
+         * Заполняет trace клетками пути от cell до ближайшего источника и возвращает их число.
+         */
+        int trace(int cell) {
+            int length = 0;
+            for (int current = cell; current != -1; current = parent[local(current)]) {
+                trace[length++] = current;
+            }
+            return length;
+        }
+
+        private int local(int cell) {
+            return (cell / height - x0) * boxHeight + (cell % height - y0);
+        }
+    }
+}
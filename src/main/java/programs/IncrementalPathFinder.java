@@ -0,0 +1,536 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+
+import java.util.*;
+
+/**
+ * Поиск пути с инкрементальным перепланированием (D* Lite — LPA* с движущимся стартом).
+ * <p>
+ * Между соседними вызовами обычно сдвигается или погибает один юнит, а полный поиск начинается
+ * заново. Здесь для каждой цели хранится планировщик: расстояния g и rhs до её клетки и очередь
+ * несогласованных вершин. Поиск идёт от цели, поэтому планировщик общий для всех атакующих этой
+ * цели — в бою атакующие меняют цели каждый ход, и пары (атакующий, цель) почти не повторяются.
+ * На следующем вызове снимок препятствий сравнивается с сохранённым, и пересчитываются только
+ * вершины вокруг изменившихся клеток; смена старта учитывается поправкой km к ключам очереди
+ * без перестройки. Перемещение цели меняет корень поиска, и планировщик строится заново.
+ * <p>
+ * Стоимость пути совпадает с полной Дейкстрой {@link UnitTargetPathFinderImpl}: клетка атакующего
+ * всегда проходима, клетка цели, занятая другим юнитом, недостижима.
+ * <p>
+ * Память ограничена числом планировщиков (около 23 КБ каждый): при переполнении вытесняется
+ * давно не использованный, а планировщики погибших целей удаляются на следующем вызове.
+ * <p>
+ * Экземпляр хранит состояние и не потокобезопасен: используйте один экземпляр на бой.
+ * <p>
+ * Сложность: O(n + W * H * log(W * H)) при построении планировщика, O(n + k * log(W * H)) при
+ * повторном вызове, где n — количество юнитов, k — число вершин, затронутых изменениями.
+ *
+ * @see UnitTargetPathFinderImpl
+ * @see DistanceFieldPathFinder
+ */
+public class IncrementalPathFinder implements UnitTargetPathFinder {
+
+    public static final int DEFAULT_MAX_PLANNERS = 128;
+
+    private static final int HEIGHT = UnitTargetPathFinderImpl.HEIGHT;
+    private static final int CELLS = UnitTargetPathFinderImpl.CELLS;
+    private static final int WORDS = (CELLS + 63) >>> 6;
+    private static final int[] DX = UnitTargetPathFinderImpl.DX;
+    private static final int[] DY = UnitTargetPathFinderImpl.DY;
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final int maxPlanners;
+    private final LinkedHashMap<Unit, Planner> planners; // планировщик по цели
+    private final long[] occupancy = new long[WORDS]; // препятствия текущего вызова
+    private final int[] pathCells = new int[CELLS];
+
+    private long expandedNodes;
+    private long plannerHits;
+    private long plannerBuilds;
+    private long evictions;
+
+    public IncrementalPathFinder() {
+        this(DEFAULT_MAX_PLANNERS);
+    }
+
+    /**
+     * @param maxPlanners наибольшее число одновременно хранимых планировщиков
+     */
+    public IncrementalPathFinder(int maxPlanners) {
+        if (maxPlanners <= 0) {
+            throw new IllegalArgumentException("Число планировщиков должно быть положительным: " + maxPlanners);
+        }
+        this.maxPlanners = maxPlanners;
+        this.planners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Unit, Planner> eldest) {
+                if (size() > IncrementalPathFinder.this.maxPlanners) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Находит кратчайший путь, дополняя сохранённый поиск цели вместо нового поиска.
+     * <p>
+     * Сложность: O(n + k * log(W * H)), k — число вершин, затронутых изменениями с прошлого вызова
+     *
+     * @param attackUnit       атакующий юнит
+     * @param targetUnit       цель атаки
+     * @param existingUnitList список всех юнитов на поле
+     * @return список координат пути от attackUnit до targetUnit, или пустой список если путь не найден
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        evictStale();
+        int startX = attackUnit.getxCoordinate();
+        int startY = attackUnit.getyCoordinate();
+        int endX = targetUnit.getxCoordinate();
+        int endY = targetUnit.getyCoordinate();
+        if (!UnitTargetPathFinderImpl.isInside(startX, startY) || !UnitTargetPathFinderImpl.isInside(endX, endY)) {
+            return Collections.emptyList();
+        }
+
+        // 1. Снимок препятствий: живые юниты, кроме атакующего и цели
+        Arrays.fill(occupancy, 0L);
+        for (Unit unit : existingUnitList) {
+            if (unit.isAlive() && unit != attackUnit && unit != targetUnit) {
+                int x = unit.getxCoordinate();
+                int y = unit.getyCoordinate();
+                if (UnitTargetPathFinderImpl.isInside(x, y)) {
+                    int cell = x * HEIGHT + y;
+                    occupancy[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+        int start = startX * HEIGHT + startY;
+        int goal = endX * HEIGHT + endY;
+        occupancy[start >>> 6] &= ~(1L << start); // клетка атакующего всегда проходима
+        if (start == goal) {
+            return Collections.singletonList(new Edge(startX, startY));
+        }
+
+        // 2. Планировщик цели: дополняем сохранённый поиск или строим новый
+        Planner planner = planners.get(targetUnit);
+        if (planner != null && planner.goal == goal) {
+            plannerHits++;
+            planner.synchronize(occupancy, start);
+        } else {
+            if (planner == null) {
+                planner = new Planner(targetUnit);
+                planners.put(targetUnit, planner);
+            }
+            plannerBuilds++;
+            planner.reset(occupancy, start, goal);
+        }
+
+        // 3. Досчитываем расстояния и спускаемся от старта по g
+        expandedNodes += planner.computeShortestPath();
+        return extractPath(planner, start, goal);
+    }
+
+    /**
+     * Суммарное число вершин, раскрытых всеми вызовами.
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Число вызовов, дополнивших сохранённый поиск.
+     */
+    public long getPlannerHits() {
+        return plannerHits;
+    }
+
+    /**
+     * Число поисков с нуля: новая или сместившаяся цель.
+     */
+    public long getPlannerBuilds() {
+        return plannerBuilds;
+    }
+
+    /**
+     * Число планировщиков, вытесненных по ёмкости или из-за гибели цели.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Число хранимых планировщиков.
+     */
+    public int size() {
+        return planners.size();
+    }
+
+    /**
+     * Удаляет все планировщики, например перед новым боем.
+     */
+    public void clear() {
+        planners.clear();
+    }
+
+    /**
+     * Удаляет планировщики погибших целей.
+     * Сложность: O(число планировщиков)
+     */
+    private void evictStale() {
+        Iterator<Planner> iterator = planners.values().iterator();
+        while (iterator.hasNext()) {
+            Planner planner = iterator.next();
+            if (!planner.target.isAlive()) {
+                iterator.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Спуск от старта к цели: каждый шаг — в соседнюю клетку с наименьшей суммой шага и g.
+     * Сложность: O(длина пути)
+     */
+    private List<Edge> extractPath(Planner planner, int start, int goal) {
+        if (planner.g[start] == INFINITY) {
+            // Путь не найден
+            return Collections.emptyList();
+        }
+        int length = 0;
+        pathCells[length++] = start;
+        int current = start;
+        while (current != goal && length < CELLS) {
+            int x = current / HEIGHT;
+            int y = current % HEIGHT;
+            int bestNext = -1;
+            double bestDist = INFINITY;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                    continue;
+                }
+                int next = nx * HEIGHT + ny;
+                double dist = planner.cost(current, next, d) + planner.g[next];
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    bestNext = next;
+                }
+            }
+            if (bestNext < 0) {
+                return Collections.emptyList();
+            }
+            pathCells[length++] = bestNext;
+            current = bestNext;
+        }
+
+        List<Edge> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(new Edge(pathCells[i] / HEIGHT, pathCells[i] % HEIGHT));
+        }
+        return path;
+    }
+
+    /**
+     * Состояние D* Lite для одной цели: поиск идёт от цели к атакующему, поэтому
+     * смена атакующего или его перемещение не сбрасывают расстояния.
+     */
+    private static final class Planner {
+        final Unit target;
+        final double[] g = new double[CELLS];   // расстояние до цели по последнему раскрытию
+        final double[] rhs = new double[CELLS]; // расстояние до цели по соседям (one-step lookahead)
+        final long[] blocked = new long[WORDS];
+        final long[] changed = new long[WORDS];
+        final KeyQueue open = new KeyQueue(CELLS);
+        int goal;
+        int start;
+        double km; // накопленный сдвиг эвристики при перемещениях атакующего
+
+        Planner(Unit target) {
+            this.target = target;
+        }
+
+        /**
+         * Начинает поиск заново для клетки цели goal. Сложность: O(W * H)
+         */
+        void reset(long[] occupancy, int start, int goal) {
+            Arrays.fill(g, INFINITY);
+            Arrays.fill(rhs, INFINITY);
+            System.arraycopy(occupancy, 0, blocked, 0, WORDS);
+            open.clear();
+            this.goal = goal;
+            this.start = start;
+            this.km = 0;
+            rhs[goal] = 0;
+            open.set(goal, heuristic(goal), 0);
+        }
+
+        /**
+         * Переносит старт и обновляет вершины вокруг клеток, сменивших занятость
+         * (в том числе клеток прежнего и нового атакующего).
+         * Сложность: O(W * H / 64 + изменённые клетки × log(W * H))
+         */
+        void synchronize(long[] occupancy, int newStart) {
+            if (newStart != start) {
+                km += UnitTargetPathFinderImpl.octileDistance(
+                        start / HEIGHT, start % HEIGHT, newStart / HEIGHT, newStart % HEIGHT);
+                start = newStart;
+            }
+            boolean any = false;
+            for (int word = 0; word < WORDS; word++) {
+                changed[word] = occupancy[word] ^ blocked[word];
+                blocked[word] = occupancy[word];
+                any |= changed[word] != 0;
+            }
+            if (!any) {
+                return;
+            }
+            for (int word = 0; word < WORDS; word++) {
+                long diff = changed[word];
+                while (diff != 0) {
+                    int cell = (word << 6) + Long.numberOfTrailingZeros(diff);
+                    diff &= diff - 1;
+                    // Смена занятости меняет все рёбра клетки
+                    updateVertex(cell);
+                    int x = cell / HEIGHT;
+                    int y = cell % HEIGHT;
+                    for (int d = 0; d < DX.length; d++) {
+                        int nx = x + DX[d];
+                        int ny = y + DY[d];
+                        if (UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                            updateVertex(nx * HEIGHT + ny);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Раскрывает вершины, пока старт не станет согласованным, и возвращает их число.
+         * Сложность: O(k * log(W * H)), k — число раскрытых вершин
+         */
+        int computeShortestPath() {
+            int expanded = 0;
+            while (!open.isEmpty()
+                    && (less(open.topPrimary(), open.topSecondary(), primaryKey(start), secondaryKey(start))
+                    || rhs[start] != g[start])) {
+                int u = open.top();
+                double oldPrimary = open.topPrimary();
+                double oldSecondary = open.topSecondary();
+                double newPrimary = primaryKey(u);
+                double newSecondary = secondaryKey(u);
+                if (less(oldPrimary, oldSecondary, newPrimary, newSecondary)) {
+                    // Ключ устарел после перемещения атакующего
+                    open.set(u, newPrimary, newSecondary);
+                    continue;
+                }
+                expanded++;
+                open.remove(u);
+                if (g[u] > rhs[u]) {
+                    g[u] = rhs[u];
+                    updateNeighbours(u);
+                } else {
+                    g[u] = INFINITY;
+                    updateVertex(u);
+                    updateNeighbours(u);
+                }
+            }
+            return expanded;
+        }
+
+        private void updateNeighbours(int u) {
+            int x = u / HEIGHT;
+            int y = u % HEIGHT;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                    updateVertex(nx * HEIGHT + ny);
+                }
+            }
+        }
+
+        /**
+         * Пересчитывает rhs по соседям и ставит вершину в очередь, только если она несогласована.
+         */
+        private void updateVertex(int u) {
+            if (u != goal) {
+                int x = u / HEIGHT;
+                int y = u % HEIGHT;
+                double best = INFINITY;
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (!UnitTargetPathFinderImpl.isInside(nx, ny)) {
+                        continue;
+                    }
+                    int next = nx * HEIGHT + ny;
+                    double dist = cost(u, next, d) + g[next];
+                    if (dist < best) {
+                        best = dist;
+                    }
+                }
+                rhs[u] = best;
+            }
+            if (g[u] != rhs[u]) {
+                open.set(u, primaryKey(u), secondaryKey(u));
+            } else {
+                open.remove(u);
+            }
+        }
+
+        /**
+         * Стоимость шага между соседними клетками в направлении d; занятая клетка рвёт все свои рёбра.
+         */
+        double cost(int from, int to, int d) {
+            if (isBlocked(from) || isBlocked(to)) {
+                return INFINITY;
+            }
+            return d < 4 ? UnitTargetPathFinderImpl.STRAIGHT_COST : UnitTargetPathFinderImpl.DIAGONAL_COST;
+        }
+
+        private boolean isBlocked(int cell) {
+            return (blocked[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        private double primaryKey(int u) {
+            return Math.min(g[u], rhs[u]) + heuristic(u) + km;
+        }
+
+        private double secondaryKey(int u) {
+            return Math.min(g[u], rhs[u]);
+        }
+
+        private double heuristic(int u) {
+            return UnitTargetPathFinderImpl.octileDistance(start / HEIGHT, start % HEIGHT, u / HEIGHT, u % HEIGHT);
+        }
+
+        private static boolean less(double primary1, double secondary1, double primary2, double secondary2) {
+            return primary1 < primary2 || (primary1 == primary2 && secondary1 < secondary2);
+        }
+    }
+
+    /**
+     * Индексированная двоичная min-куча с лексикографическим ключом (primary, secondary),
+     * как требует LPA*. В отличие от {@link IndexedMinHeap}, ключ можно и увеличить, и удалить элемент.
+     * Сложность: все операции — O(log n)
+     */
+    private static final class KeyQueue {
+        private final int[] heap;
+        private final int[] position;
+        private final double[] primary;
+        private final double[] secondary;
+        private int size;
+
+        KeyQueue(int capacity) {
+            heap = new int[capacity];
+            position = new int[capacity];
+            primary = new double[capacity];
+            secondary = new double[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int top() {
+            return heap[0];
+        }
+
+        double topPrimary() {
+            return primary[heap[0]];
+        }
+
+        double topSecondary() {
+            return secondary[heap[0]];
+        }
+
+        /**
+         * Вставляет элемент или меняет его ключ.
+         */
+        void set(int element, double newPrimary, double newSecondary) {
+            primary[element] = newPrimary;
+            secondary[element] = newSecondary;
+            int pos = position[element];
+            if (pos < 0) {
+                heap[size] = element;
+                position[element] = size;
+                siftUp(size++);
+            } else {
+                siftUp(pos);
+                siftDown(position[element]);
+            }
+        }
+
+        void remove(int element) {
+            int pos = position[element];
+            if (pos < 0) {
+                return;
+            }
+            position[element] = -1;
+            size--;
+            if (pos < size) {
+                int last = heap[size];
+                heap[pos] = last;
+                position[last] = pos;
+                siftUp(pos);
+                siftDown(position[last]);
+            }
+        }
+
+        private boolean before(int a, int b) {
+            return primary[a] < primary[b] || (primary[a] == primary[b] && secondary[a] < secondary[b]);
+        }
+
+        private void siftUp(int pos) {
+            int element = heap[pos];
+            while (pos > 0) {
+                int parentPos = (pos - 1) >>> 1;
+                int parent = heap[parentPos];
+                if (!before(element, parent)) {
+                    break;
+                }
+                heap[pos] = parent;
+                position[parent] = pos;
+                pos = parentPos;
+            }
+            heap[pos] = element;
+            position[element] = pos;
+        }
+
+        private void siftDown(int pos) {
+            int element = heap[pos];
+            int half = size >>> 1;
+            while (pos < half) {
+                int childPos = 2 * pos + 1;
+                int child = heap[childPos];
+                int rightPos = childPos + 1;
+                if (rightPos < size && before(heap[rightPos], child)) {
+                    childPos = rightPos;
+                    child = heap[childPos];
+                }
+                if (!before(child, element)) {
+                    break;
+                }
+                heap[pos] = child;
+                position[child] = pos;
+                pos = childPos;
+            }
+            heap[pos] = element;
+            position[element] = pos;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package programs;
+
+import java.util.Arrays;
+
+/**
+ * Индексированная двоичная min-куча по вещественному ключу.
+ * <p>
+ * Элементы — целые индексы клеток в диапазоне [0, capacity). Для каждого элемента
+ * хранится его позиция в куче, поэтому уменьшение ключа (decrease-key) выполняется
+ * на месте, без повторной вставки и без создания объектов.
+ * <p>
+ * Сложность: вставка, уменьшение ключа и извлечение минимума — O(log n).
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;      // heap[i] — элемент на позиции i
+    private final int[] position;  // position[e] — позиция элемента e в heap, -1 если его нет
+    private final double[] keys;   // keys[e] — текущий ключ элемента e
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Очищает кучу. Сложность: O(size)
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    /**
+     * Вставляет элемент или уменьшает его ключ, если элемент уже в куче.
+     * Увеличение ключа игнорируется.
+     * Сложность: O(log n)
+     */
+    void insertOrDecrease(int element, double key) {
+        int pos = position[element];
+        if (pos < 0) {
+            keys[element] = key;
+            heap[size] = element;
+            position[element] = size;
+            siftUp(size++);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(pos);
+        }
+    }
+
+    /**
+     * Извлекает элемент с минимальным ключом.
+     * Сложность: O(log n)
+     */
+    int pollMin() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        int half = size >>> 1;
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+            if (rightPos < size && keys[heap[rightPos]] < keys[child]) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[pos] = child;
+            position[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+}
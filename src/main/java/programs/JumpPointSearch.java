@@ -0,0 +1,198 @@
+package programs;
+
+import java.util.Arrays;
+
+/**
+ * Jump Point Search для однородной 8-связной сетки с весами 1.0 / √2.
+ * <p>
+ * Вместо раскрытия каждой соседней клетки алгоритм «прыгает» по прямым и диагоналям
+ * до клеток с вынужденными соседями (forced neighbours) или до цели. Диагональный ход
+ * мимо занятого угла разрешён, как и в обычной Дейкстре, поэтому используются
+ * правила отсечения исходной статьи Harabor &amp; Grastien (2011).
+ * <p>
+ * После нахождения цели родительские ссылки между точками прыжка разворачиваются
+ * в цепочку соседних клеток, поэтому путь восстанавливается так же, как у Дейкстры.
+ * <p>
+ * Сложность: O(W × H × log(W × H)) в худшем случае, на практике раскрывается
+ * на порядок меньше вершин, чем у Дейкстры.
+ */
+final class JumpPointSearch {
+
+    private final int width;
+    private final int height;
+
+    JumpPointSearch(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Ищет путь от start до target. Заполняет buffers.parent цепочкой соседних клеток.
+     *
+     * @return true, если цель достижима
+     */
+    boolean search(PathSearchBuffers buffers, int start, int target) {
+        double[] distance = buffers.distance;
+        int[] parent = buffers.parent;
+        IndexedMinHeap heap = buffers.heap;
+
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        heap.clear();
+        buffers.expandedNodes = 0;
+        buffers.queuePushes = 0;
+
+        int targetX = target / height;
+        int targetY = target % height;
+
+        distance[start] = 0;
+        heap.insertOrDecrease(start, heuristic(start, targetX, targetY));
+        buffers.queuePushes++;
+
+        while (!heap.isEmpty()) {
+            int current = heap.pollMin();
+            buffers.expandedNodes++;
+
+            if (current == target) {
+                heap.clear();
+                unrollJumps(parent, start, target);
+                return true;
+            }
+
+            int x = current / height;
+            int y = current % height;
+            int from = parent[current];
+
+            // Направления-кандидаты: для старта все 8, иначе — после отсечения
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx == 0 && dy == 0) || (from >= 0 && !isSuccessorDirection(buffers.blocked, x, y, from, dx, dy))) {
+                        continue;
+                    }
+                    int jumpPoint = jump(buffers.blocked, x, y, dx, dy, targetX, targetY);
+                    if (jumpPoint < 0) {
+                        continue;
+                    }
+                    int jx = jumpPoint / height;
+                    int jy = jumpPoint % height;
+                    double newDist = distance[current] + segmentCost(x, y, jx, jy);
+                    if (newDist < distance[jumpPoint]) {
+                        distance[jumpPoint] = newDist;
+                        parent[jumpPoint] = current;
+                        heap.insertOrDecrease(jumpPoint, newDist + heuristic(jumpPoint, targetX, targetY));
+                        buffers.queuePushes++;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, остаётся ли направление (dx, dy) после отсечения соседей при входе в (x, y) из from:
+     * естественные соседи сохраняют направление движения, вынужденные появляются рядом с препятствием.
+     */
+    private boolean isSuccessorDirection(boolean[] blocked, int x, int y, int from, int dx, int dy) {
+        int px = Integer.signum(x - from / height);
+        int py = Integer.signum(y - from % height);
+
+        if (px != 0 && py != 0) {
+            // Диагональное движение: естественные соседи (px, 0), (0, py), (px, py)
+            if ((dx == px && dy == py) || (dx == px && dy == 0) || (dx == 0 && dy == py)) {
+                return true;
+            }
+            // Вынужденные соседи
+            return (dx == -px && dy == py && isBlocked(blocked, x - px, y))
+                    || (dx == px && dy == -py && isBlocked(blocked, x, y - py));
+        }
+        if (px != 0) {
+            // Движение вдоль x: естественный сосед (px, 0), вынужденные — по диагонали у препятствия
+            return dx == px && (dy == 0 || isBlocked(blocked, x, y + dy));
+        }
+        // Движение вдоль y: естественный сосед (0, py)
+        return dy == py && (dx == 0 || isBlocked(blocked, x + dx, y));
+    }
+
+    /**
+     * Прыжок из (x, y) в направлении (dx, dy).
+     * Сложность: O(W + H) для прямого прыжка, O((W + H)²) для диагонального в худшем случае
+     *
+     * @return индекс точки прыжка или -1, если прыжок упёрся в препятствие или границу
+     */
+    private int jump(boolean[] blocked, int x, int y, int dx, int dy, int targetX, int targetY) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!isWalkable(blocked, x, y)) {
+                return -1;
+            }
+            if (x == targetX && y == targetY) {
+                return x * height + y;
+            }
+            if (dx != 0 && dy != 0) {
+                // Вынужденные соседи при диагональном движении
+                if ((isBlocked(blocked, x - dx, y) && isWalkable(blocked, x - dx, y + dy))
+                        || (isBlocked(blocked, x, y - dy) && isWalkable(blocked, x + dx, y - dy))) {
+                    return x * height + y;
+                }
+                // Диагональная клетка — точка прыжка, если из неё есть прямой прыжок
+                if (jump(blocked, x, y, dx, 0, targetX, targetY) >= 0
+                        || jump(blocked, x, y, 0, dy, targetX, targetY) >= 0) {
+                    return x * height + y;
+                }
+            } else if (dx != 0) {
+                if ((isBlocked(blocked, x, y + 1) && isWalkable(blocked, x + dx, y + 1))
+                        || (isBlocked(blocked, x, y - 1) && isWalkable(blocked, x + dx, y - 1))) {
+                    return x * height + y;
+                }
+            } else {
+                if ((isBlocked(blocked, x + 1, y) && isWalkable(blocked, x + 1, y + dy))
+                        || (isBlocked(blocked, x - 1, y) && isWalkable(blocked, x - 1, y + dy))) {
+                    return x * height + y;
+                }
+            }
+        }
+    }
+
+    /**
+     * Разворачивает ссылки между точками прыжка в цепочку соседних клеток.
+     * Сложность: O(длина пути)
+     */
+    private void unrollJumps(int[] parent, int start, int target) {
+        int cell = target;
+        while (cell != start) {
+            int jumpParent = parent[cell];
+            int x = cell / height;
+            int y = cell % height;
+            int stepX = Integer.signum(jumpParent / height - x);
+            int stepY = Integer.signum(jumpParent % height - y);
+            // Каждой промежуточной клетке сегмента назначаем родителем следующую клетку к jumpParent
+            while (cell != jumpParent) {
+                x += stepX;
+                y += stepY;
+                int next = x * height + y;
+                parent[cell] = next;
+                cell = next;
+            }
+        }
+    }
+
+    private double heuristic(int cell, int targetX, int targetY) {
+        return UnitTargetPathFinderImpl.octileDistance(cell / height, cell % height, targetX, targetY);
+    }
+
+    private static double segmentCost(int x1, int y1, int x2, int y2) {
+        // Сегмент прыжка всегда прямой или строго диагональный
+        int steps = Math.max(Math.abs(x2 - x1), Math.abs(y2 - y1));
+        boolean diagonal = x1 != x2 && y1 != y2;
+        return steps * (diagonal ? UnitTargetPathFinderImpl.DIAGONAL_COST : UnitTargetPathFinderImpl.STRAIGHT_COST);
+    }
+
+    private boolean isWalkable(boolean[] blocked, int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && !blocked[x * height + y];
+    }
+
+    private boolean isBlocked(boolean[] blocked, int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && blocked[x * height + y];
+    }
+}
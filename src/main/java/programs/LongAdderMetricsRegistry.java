@@ -0,0 +1,139 @@
+package programs;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Реестр метрик на полосатых аккумуляторах {@link LongAdder}.
+ * <p>
+ * Счётчик — один {@link LongAdder}, таймер — {@link LatencyHistogram}; обновления не берут блокировок
+ * и распределяются по ячейкам при конкуренции потоков. Счётчики и таймеры создаются при первом
+ * обращении по имени. Снимок {@link #toJson()} пишется без внешних библиотек и сервисов.
+ * <p>
+ * Экземпляр потокобезопасен.
+ */
+public final class LongAdderMetricsRegistry implements MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final Map<String, AdderCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, HistogramTimer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new AdderCounter());
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new HistogramTimer());
+    }
+
+    /**
+     * Значение счётчика или 0, если счётчика нет.
+     */
+    public long counterValue(String name) {
+        AdderCounter counter = counters.get(name);
+        return counter == null ? 0 : counter.adder.sum();
+    }
+
+    /**
+     * Гистограмма таймера в наносекундах или null, если таймера нет.
+     */
+    public LatencyHistogram histogram(String name) {
+        HistogramTimer timer = timers.get(name);
+        return timer == null ? null : timer.histogram;
+    }
+
+    /**
+     * Снимок всех метрик в JSON; имена отсортированы.
+     * <pre>
+     * {"counters":{"battle.rounds":12},
+     *  "timers":{"battle.simulate":{"count":1,"totalNanos":...,"meanNanos":...,"maxNanos":...,"p50Nanos":...}}}
+     * </pre>
+     * Сложность: O(M × B), где M — число метрик, B — число корзин гистограммы
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, AdderCounter> entry : new TreeMap<>(counters).entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, entry.getKey());
+            json.append(':').append(entry.getValue().adder.sum());
+        }
+        json.append("},\"timers\":{");
+        first = true;
+        for (Map.Entry<String, HistogramTimer> entry : new TreeMap<>(timers).entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            LatencyHistogram histogram = entry.getValue().histogram;
+            appendString(json, entry.getKey());
+            json.append(":{\"count\":").append(histogram.getCount())
+                    .append(",\"totalNanos\":").append(histogram.getTotal())
+                    .append(",\"meanNanos\":").append(Math.round(histogram.getMean()))
+                    .append(",\"maxNanos\":").append(histogram.getMax());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                json.append(",\"").append(QUANTILE_NAMES[i]).append("Nanos\":")
+                        .append(histogram.getValueAtQuantile(QUANTILES[i]));
+            }
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Удаляет все метрики.
+     */
+    public void clear() {
+        counters.clear();
+        timers.clear();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static final class AdderCounter implements Counter {
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void add(long amount) {
+            adder.add(amount);
+        }
+    }
+
+    private static final class HistogramTimer implements Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        @Override
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+    }
+}
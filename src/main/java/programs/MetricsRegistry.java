@@ -0,0 +1,136 @@
+package programs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+
+/**
+ * Реестр метрик движка боя: счётчики и таймеры по именам.
+ * <p>
+ * Поиск по имени идёт через хеш-таблицу, поэтому горячие пути разрешают счётчики и таймеры один раз
+ * на реестр и держат их у себя, пока реестр экземпляра не сменится.
+ * <p>
+ * Реализации алгоритмов создаются библиотекой конструкторами без аргументов, поэтому по умолчанию
+ * они берут глобальный реестр {@link #global()}; изначально это {@link #NOOP}, и инструментирование
+ * сводится к вызовам пустых методов без {@code System.nanoTime()}. Сбор включается установкой
+ * реестра через {@link #setGlobal(MetricsRegistry)} или сеттер конкретного экземпляра.
+ * <p>
+ * Реализации должны быть потокобезопасны: одни и те же счётчики обновляются из разных потоков.
+ *
+ * @see LongAdderMetricsRegistry
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Реестр, который ничего не собирает.
+     */
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public Counter counter(String name) {
+            return Counter.NOOP;
+        }
+
+        @Override
+        public Timer timer(String name) {
+            return Timer.NOOP;
+        }
+    };
+
+    /**
+     * Монотонный счётчик.
+     */
+    interface Counter {
+
+        Counter NOOP = amount -> {
+        };
+
+        void add(long amount);
+
+        default void increment() {
+            add(1);
+        }
+    }
+
+    /**
+     * Таймер вызовов с гистограммой длительностей.
+     * Использование: {@code long start = timer.start(); ... timer.stop(start);}
+     */
+    interface Timer {
+
+        Timer NOOP = new Timer() {
+            @Override
+            public long start() {
+                return 0;
+            }
+
+            @Override
+            public void stop(long start) {
+            }
+
+            @Override
+            public void record(long nanos) {
+            }
+        };
+
+        /**
+         * Метка начала вызова в наносекундах.
+         */
+        default long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Записывает длительность вызова, начатого в start.
+         */
+        default void stop(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        void record(long nanos);
+    }
+
+    /**
+     * Счётчик с данным именем; повторный вызов возвращает тот же счётчик.
+     */
+    Counter counter(String name);
+
+    /**
+     * Таймер с данным именем; повторный вызов возвращает тот же таймер.
+     */
+    Timer timer(String name);
+
+    /**
+     * Глобальный реестр для экземпляров без собственного реестра.
+     */
+    static MetricsRegistry global() {
+        return GlobalRegistry.registry;
+    }
+
+    static void setGlobal(MetricsRegistry registry) {
+        GlobalRegistry.registry = Objects.requireNonNull(registry, "registry");
+    }
+
+    /**
+     * Байты, выделенные текущим потоком с его старта, или -1, если JVM этого не поддерживает.
+     * Разность двух значений — число выделенных за вызов байт.
+     */
+    static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean allocationBean
+                && allocationBean.isThreadAllocatedMemorySupported()
+                && allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return allocationBean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Хранилище глобального реестра: поля интерфейса не могут быть изменяемыми.
+     */
+    final class GlobalRegistry {
+        private static volatile MetricsRegistry registry = NOOP;
+
+        private GlobalRegistry() {
+        }
+    }
+}
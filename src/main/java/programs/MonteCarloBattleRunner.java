@@ -0,0 +1,356 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Пакетный запуск независимых боёв для оценки шансов на победу.
+ * <p>
+ * Программы компьютера выбирают цель через {@code Collections.shuffle}, поэтому один бой —
+ * лишь случайная выборка. Раннер играет N боёв на {@link ForkJoinPool}: диапазон номеров боёв
+ * делится пополам, пока не станет не больше {@code leafSize}, и свободные потоки забирают
+ * половины друг у друга. Каждый бой идёт в {@link HeadlessBattleSimulator} на глубоких копиях
+ * армий, а его случайные решения — потоки {@link SplitMix64Random} из зерна, выведенного из главного
+ * зерна и номера боя ({@link HeadlessBattleSimulator#seeded(long)}). Бой — чистая функция армий и зерна.
+ * <p>
+ * {@link #compare} сравнивает два варианта армии игрока на общих случайных числах: бой с номером i
+ * обоих вариантов играется с одним зерном, и оценка разности шансов считается по парам боёв.
+ * Исходы пар положительно коррелируют, поэтому дисперсия разности меньше, чем у двух независимых
+ * серий, и для той же точности нужно меньше боёв.
+ * <p>
+ * С заданным {@link OutcomePredictor} решённые бои останавливаются досрочно, что ускоряет
+ * балансировочные прогоны; {@link #validatePredictor} играет каждый бой с предсказателем и без
+ * и сообщает, как часто он срабатывал и насколько его итог совпадает с полным боем.
+ * <p>
+ * Итог складывается из целочисленных счётчиков, поэтому при одном главном зерне результат
+ * одинаков при любом числе потоков и любом разбиении работы.
+ */
+public class MonteCarloBattleRunner implements AutoCloseable {
+
+    private static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int leafSize;
+    private volatile OutcomePredictor outcomePredictor; // null — бои играются до конца
+
+    /**
+     * Раннер со своим пулом на все доступные ядра.
+     */
+    public MonteCarloBattleRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Раннер со своим пулом из parallelism потоков.
+     */
+    public MonteCarloBattleRunner(int parallelism) {
+        this(new ForkJoinPool(parallelism), true, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Раннер на внешнем пуле; пул не закрывается в {@link #close()}.
+     */
+    public MonteCarloBattleRunner(ForkJoinPool pool, int leafSize) {
+        this(pool, false, leafSize);
+    }
+
+    private MonteCarloBattleRunner(ForkJoinPool pool, boolean ownsPool, int leafSize) {
+        if (leafSize <= 0) {
+            throw new IllegalArgumentException("Размер порции должен быть положительным: " + leafSize);
+        }
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.ownsPool = ownsPool;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Задаёт предсказатель исхода для {@link #run} и {@link #compare}; null — бои играются до конца.
+     */
+    public void setOutcomePredictor(OutcomePredictor outcomePredictor) {
+        this.outcomePredictor = outcomePredictor;
+    }
+
+    /**
+     * Играет battles независимых боёв между копиями армий.
+     * Исходные армии не изменяются.
+     * Сложность: O(N × T / P), где T — время одного боя, P — число потоков
+     *
+     * @param masterSeed главное зерно; одинаковое зерно даёт одинаковую сводку
+     * @return сводка по всем боям
+     */
+    public MonteCarloReport run(Army playerArmy, Army computerArmy, int battles, long masterSeed) {
+        checkBattles(battles);
+        // Снимки армий: потоки только читают их и копируют перед каждым боем
+        Army playerTemplate = Armies.deepCopy(Objects.requireNonNull(playerArmy, "playerArmy"));
+        Army computerTemplate = Armies.deepCopy(Objects.requireNonNull(computerArmy, "computerArmy"));
+        OutcomePredictor predictor = outcomePredictor;
+
+        Tally tally = invoke(battles, () -> new Tally(playerTemplate.getUnits().size(),
+                computerTemplate.getUnits().size()), (index, partial) ->
+                partial.add(battle(masterSeed, index, predictor).run(
+                        Armies.deepCopy(playerTemplate), Armies.deepCopy(computerTemplate))));
+        return tally.toReport(battles);
+    }
+
+    /**
+     * Сравнивает два варианта армии игрока против одной армии компьютера на общих случайных числах:
+     * бой с номером i обоих вариантов играется с одним зерном. Исходные армии не изменяются.
+     * Сложность: O(2 × N × T / P)
+     *
+     * @param masterSeed главное зерно; одинаковое зерно даёт одинаковую сводку
+     * @return сводка по парам боёв
+     */
+    public PairedComparisonReport compare(Army firstPlayerArmy, Army secondPlayerArmy, Army computerArmy,
+                                          int battles, long masterSeed) {
+        checkBattles(battles);
+        Army firstTemplate = Armies.deepCopy(Objects.requireNonNull(firstPlayerArmy, "firstPlayerArmy"));
+        Army secondTemplate = Armies.deepCopy(Objects.requireNonNull(secondPlayerArmy, "secondPlayerArmy"));
+        Army computerTemplate = Armies.deepCopy(Objects.requireNonNull(computerArmy, "computerArmy"));
+        OutcomePredictor predictor = outcomePredictor;
+
+        PairedTally tally = invoke(battles, PairedTally::new, (index, partial) -> {
+            BattleOutcome first = battle(masterSeed, index, predictor)
+                    .run(Armies.deepCopy(firstTemplate), Armies.deepCopy(computerTemplate));
+            BattleOutcome second = battle(masterSeed, index, predictor)
+                    .run(Armies.deepCopy(secondTemplate), Armies.deepCopy(computerTemplate));
+            partial.add(first.winner() == BattleOutcome.Winner.PLAYER,
+                    second.winner() == BattleOutcome.Winner.PLAYER);
+        });
+        return tally.toReport(battles);
+    }
+
+    /**
+     * Играет каждый бой дважды с одним зерном — с предсказателем и до конца — и сравнивает итоги.
+     * До остановки оба боя идут одинаково, поэтому расхождение — ошибка предсказания.
+     * Сложность: O(2 × N × T / P)
+     *
+     * @return доля досрочных остановок, совпадение победителя и выживших
+     */
+    public PredictorAgreementReport validatePredictor(OutcomePredictor predictor, Army playerArmy,
+                                                      Army computerArmy, int battles, long masterSeed) {
+        Objects.requireNonNull(predictor, "predictor");
+        checkBattles(battles);
+        Army playerTemplate = Armies.deepCopy(Objects.requireNonNull(playerArmy, "playerArmy"));
+        Army computerTemplate = Armies.deepCopy(Objects.requireNonNull(computerArmy, "computerArmy"));
+
+        AgreementTally tally = invoke(battles, AgreementTally::new, (index, partial) -> {
+            BattleOutcome predicted = battle(masterSeed, index, predictor)
+                    .run(Armies.deepCopy(playerTemplate), Armies.deepCopy(computerTemplate));
+            BattleOutcome full = battle(masterSeed, index, null)
+                    .run(Armies.deepCopy(playerTemplate), Armies.deepCopy(computerTemplate));
+            partial.add(predicted, full);
+        });
+        return tally.toReport(battles);
+    }
+
+    /**
+     * Зерно боя с номером index. Финализатор SplitMix64 разносит соседние номера
+     * по всему диапазону long, так что генераторы соседних боёв не коррелируют.
+     */
+    static long battleSeed(long masterSeed, int index) {
+        return SplitMix64Random.mix64(masterSeed + (index + 1L) * SplitMix64Random.GOLDEN_GAMMA);
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private static HeadlessBattleSimulator battle(long masterSeed, int index, OutcomePredictor predictor) {
+        HeadlessBattleSimulator simulator = HeadlessBattleSimulator.seeded(battleSeed(masterSeed, index));
+        simulator.setOutcomePredictor(predictor);
+        return simulator;
+    }
+
+    private static void checkBattles(int battles) {
+        if (battles < 0) {
+            throw new IllegalArgumentException("Число боёв не может быть отрицательным: " + battles);
+        }
+    }
+
+    private <T extends Partial<T>> T invoke(int battles, Supplier<T> empty, BattlePlayer<T> player) {
+        return pool.invoke(new BattleRange<>(empty, player, 0, battles));
+    }
+
+    /**
+     * Частичная сводка одной ветви разбиения.
+     */
+    private interface Partial<T> {
+        void merge(T other);
+    }
+
+    /**
+     * Бой с номером index, записываемый в частичную сводку.
+     */
+    @FunctionalInterface
+    private interface BattlePlayer<T> {
+        void play(int index, T partial);
+    }
+
+    /**
+     * Диапазон номеров боёв [from, to).
+     */
+    private final class BattleRange<T extends Partial<T>> extends RecursiveTask<T> {
+
+        private final Supplier<T> empty;
+        private final BattlePlayer<T> player;
+        private final int from;
+        private final int to;
+
+        BattleRange(Supplier<T> empty, BattlePlayer<T> player, int from, int to) {
+            this.empty = empty;
+            this.player = player;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= leafSize) {
+                T partial = empty.get();
+                for (int index = from; index < to; index++) {
+                    player.play(index, partial);
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            BattleRange<T> left = new BattleRange<>(empty, player, from, middle);
+            BattleRange<T> right = new BattleRange<>(empty, player, middle, to);
+            left.fork();
+            T partial = right.compute();
+            partial.merge(left.join());
+            return partial;
+        }
+    }
+
+    /**
+     * Счётчики серии боёв.
+     */
+    private static final class Tally implements Partial<Tally> {
+
+        private int playerWins;
+        private int computerWins;
+        private int draws;
+        private int predicted;
+        private long totalRounds;
+        private final long[] playerSurvivors;
+        private final long[] computerSurvivors;
+
+        Tally(int playerUnits, int computerUnits) {
+            this.playerSurvivors = new long[playerUnits + 1];
+            this.computerSurvivors = new long[computerUnits + 1];
+        }
+
+        void add(BattleOutcome outcome) {
+            switch (outcome.winner()) {
+                case PLAYER -> playerWins++;
+                case COMPUTER -> computerWins++;
+                case DRAW -> draws++;
+            }
+            if (outcome.predicted()) {
+                predicted++;
+            }
+            totalRounds += outcome.rounds();
+            playerSurvivors[outcome.playerSurvivors()]++;
+            computerSurvivors[outcome.computerSurvivors()]++;
+        }
+
+        @Override
+        public void merge(Tally other) {
+            playerWins += other.playerWins;
+            computerWins += other.computerWins;
+            draws += other.draws;
+            predicted += other.predicted;
+            totalRounds += other.totalRounds;
+            for (int k = 0; k < playerSurvivors.length; k++) {
+                playerSurvivors[k] += other.playerSurvivors[k];
+            }
+            for (int k = 0; k < computerSurvivors.length; k++) {
+                computerSurvivors[k] += other.computerSurvivors[k];
+            }
+        }
+
+        MonteCarloReport toReport(int battles) {
+            return new MonteCarloReport(battles, playerWins, computerWins, draws, predicted, totalRounds,
+                    playerSurvivors, computerSurvivors);
+        }
+    }
+
+    /**
+     * Счётчики пар боёв: таблица 2 × 2 побед первого и второго варианта.
+     */
+    private static final class PairedTally implements Partial<PairedTally> {
+
+        private int bothWins;
+        private int firstOnlyWins;
+        private int secondOnlyWins;
+
+        void add(boolean firstWon, boolean secondWon) {
+            if (firstWon && secondWon) {
+                bothWins++;
+            } else if (firstWon) {
+                firstOnlyWins++;
+            } else if (secondWon) {
+                secondOnlyWins++;
+            }
+        }
+
+        @Override
+        public void merge(PairedTally other) {
+            bothWins += other.bothWins;
+            firstOnlyWins += other.firstOnlyWins;
+            secondOnlyWins += other.secondOnlyWins;
+        }
+
+        PairedComparisonReport toReport(int battles) {
+            return new PairedComparisonReport(battles, bothWins, firstOnlyWins, secondOnlyWins);
+        }
+    }
+
+    /**
+     * Счётчики сверки предсказаний с полными боями.
+     */
+    private static final class AgreementTally implements Partial<AgreementTally> {
+
+        private int shortCircuited;
+        private int agreedWinners;
+        private long survivorError;
+        private long predictedRounds;
+        private long fullRounds;
+
+        void add(BattleOutcome predicted, BattleOutcome full) {
+            predictedRounds += predicted.rounds();
+            fullRounds += full.rounds();
+            if (!predicted.predicted()) {
+                return;
+            }
+            shortCircuited++;
+            if (predicted.winner() == full.winner()) {
+                agreedWinners++;
+            }
+            survivorError += Math.abs(predicted.playerSurvivors() - full.playerSurvivors())
+                    + Math.abs(predicted.computerSurvivors() - full.computerSurvivors());
+        }
+
+        @Override
+        public void merge(AgreementTally other) {
+            shortCircuited += other.shortCircuited;
+            agreedWinners += other.agreedWinners;
+            survivorError += other.survivorError;
+            predictedRounds += other.predictedRounds;
+            fullRounds += other.fullRounds;
+        }
+
+        PredictorAgreementReport toReport(int battles) {
+            return new PredictorAgreementReport(battles, shortCircuited, agreedWinners, survivorError,
+                    predictedRounds, fullRounds);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package programs;
+
+import java.util.Arrays;
+
+/**
+ * Сводка серии независимых боёв.
+ * <p>
+ * Хранит только целочисленные счётчики, поэтому результат не зависит от того,
+ * в каком порядке и на каких потоках игрались бои.
+ */
+public final class MonteCarloReport {
+
+    private final int battles;
+    private final int playerWins;
+    private final int computerWins;
+    private final int draws;
+    private final int predicted;            // бои, остановленные предсказателем исхода
+    private final long totalRounds;
+    private final long[] playerSurvivors;   // [k] — число боёв, в которых выжило k юнитов игрока
+    private final long[] computerSurvivors; // [k] — то же для армии компьютера
+
+    MonteCarloReport(int battles, int playerWins, int computerWins, int draws, int predicted, long totalRounds,
+                     long[] playerSurvivors, long[] computerSurvivors) {
+        this.battles = battles;
+        this.playerWins = playerWins;
+        this.computerWins = computerWins;
+        this.draws = draws;
+        this.predicted = predicted;
+        this.totalRounds = totalRounds;
+        this.playerSurvivors = playerSurvivors;
+        this.computerSurvivors = computerSurvivors;
+    }
+
+    public int getBattles() {
+        return battles;
+    }
+
+    public int getPlayerWins() {
+        return playerWins;
+    }
+
+    public int getComputerWins() {
+        return computerWins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Число боёв, остановленных {@link OutcomePredictor} до конца.
+     */
+    public int getPredicted() {
+        return predicted;
+    }
+
+    public long getTotalRounds() {
+        return totalRounds;
+    }
+
+    /**
+     * Доля боёв, выигранных игроком.
+     */
+    public double playerWinProbability() {
+        return battles == 0 ? 0.0 : (double) playerWins / battles;
+    }
+
+    /**
+     * Доля боёв, выигранных компьютером.
+     */
+    public double computerWinProbability() {
+        return battles == 0 ? 0.0 : (double) computerWins / battles;
+    }
+
+    /**
+     * Стандартная ошибка оценки вероятности победы игрока: sqrt(p(1 - p) / N).
+     */
+    public double playerWinStandardError() {
+        if (battles == 0) {
+            return 0.0;
+        }
+        double p = playerWinProbability();
+        return Math.sqrt(p * (1 - p) / battles);
+    }
+
+    public double meanRounds() {
+        return battles == 0 ? 0.0 : (double) totalRounds / battles;
+    }
+
+    /**
+     * Распределение выживших юнитов игрока: элемент k — число боёв с k выжившими.
+     */
+    public long[] getPlayerSurvivorHistogram() {
+        return playerSurvivors.clone();
+    }
+
+    /**
+     * Распределение выживших юнитов компьютера: элемент k — число боёв с k выжившими.
+     */
+    public long[] getComputerSurvivorHistogram() {
+        return computerSurvivors.clone();
+    }
+
+    public double meanPlayerSurvivors() {
+        return mean(playerSurvivors);
+    }
+
+    public double meanComputerSurvivors() {
+        return mean(computerSurvivors);
+    }
+
+    private double mean(long[] histogram) {
+        if (battles == 0) {
+            return 0.0;
+        }
+        long sum = 0;
+        for (int k = 0; k < histogram.length; k++) {
+            sum += k * histogram[k];
+        }
+        return (double) sum / battles;
+    }
+
+    @Override
+    public String toString() {
+        return "MonteCarloReport{battles=" + battles
+                + ", playerWins=" + playerWins
+                + ", computerWins=" + computerWins
+                + ", draws=" + draws
+                + ", predicted=" + predicted
+                + ", meanRounds=" + meanRounds()
+                + ", playerSurvivors=" + Arrays.toString(playerSurvivors)
+                + ", computerSurvivors=" + Arrays.toString(computerSurvivors)
+                + '}';
+    }
+}
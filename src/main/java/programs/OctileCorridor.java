@@ -0,0 +1,86 @@
+package programs;
+
+/**
+ * Проверка свободного октильного коридора между двумя клетками.
+ * <p>
+ * Любой путь из max(dx, dy) шагов, в котором ровно min(dx, dy) диагональных, имеет октильную длину —
+ * нижнюю границу расстояния на поле с препятствиями. Поэтому если свободен хотя бы один такой путь,
+ * он кратчайший, и поиск не нужен. Проверяются три канонических пути: прямая линия
+ * (диагональные шаги равномерно вперемешку с прямыми), сначала диагональ и сначала прямая.
+ * В начале боя поле между армиями пусто, и коридор обычно свободен.
+ * <p>
+ * Сложность: O(max(dx, dy)) на путь.
+ */
+final class OctileCorridor {
+
+    private static final int LINE = 0;
+    private static final int DIAGONAL_FIRST = 1;
+    private static final int STRAIGHT_FIRST = 2;
+
+    private OctileCorridor() {
+    }
+
+    /**
+     * Ищет свободный октильный путь от start до target; клетка start не проверяется,
+     * занятая target, как и в поиске, недостижима.
+     *
+     * @param blocked занятость клеток по индексу {@code x * height + y}
+     * @param cells   буфер длиной не меньше max(dx, dy) + 1 для клеток пути от start до target
+     * @return длина пути в cells или -1, если все три пути заняты
+     */
+    static int trace(boolean[] blocked, int height, int start, int target, int[] cells) {
+        int x0 = start / height;
+        int y0 = start % height;
+        int dx = target / height - x0;
+        int dy = target % height - y0;
+        if (start != target && blocked[target]) {
+            return -1;
+        }
+        for (int mode = LINE; mode <= STRAIGHT_FIRST; mode++) {
+            int length = walk(blocked, height, x0, y0, dx, dy, mode, cells);
+            if (length > 0) {
+                return length;
+            }
+            if (Math.min(Math.abs(dx), Math.abs(dy)) == 0) {
+                return -1; // путь по прямой единственный
+            }
+        }
+        return -1;
+    }
+
+    private static int walk(boolean[] blocked, int height, int x0, int y0, int dx, int dy, int mode, int[] cells) {
+        int stepX = Integer.signum(dx);
+        int stepY = Integer.signum(dy);
+        boolean majorIsX = Math.abs(dx) >= Math.abs(dy);
+        int major = Math.max(Math.abs(dx), Math.abs(dy));
+        int minor = Math.min(Math.abs(dx), Math.abs(dy));
+
+        int x = x0;
+        int y = y0;
+        cells[0] = x0 * height + y0;
+        for (int i = 1; i <= major; i++) {
+            boolean diagonal = switch (mode) {
+                case LINE -> (i * minor) / major != ((i - 1) * minor) / major;
+                case DIAGONAL_FIRST -> i <= minor;
+                default -> i > major - minor;
+            };
+            if (majorIsX) {
+                x += stepX;
+                if (diagonal) {
+                    y += stepY;
+                }
+            } else {
+                y += stepY;
+                if (diagonal) {
+                    x += stepX;
+                }
+            }
+            int cell = x * height + y;
+            if (blocked[cell]) {
+                return -1;
+            }
+            cells[i] = cell;
+        }
+        return major + 1;
+    }
+}
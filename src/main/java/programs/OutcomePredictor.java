@@ -0,0 +1,255 @@
+package programs;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Предсказание исхода боя по границам урона и здоровья сторон для досрочного завершения.
+ * <p>
+ * После раунда для каждой стороны считаются:
+ * <ul>
+ *   <li>верхняя граница урона за раунд — сумма атак живых юнитов (больше нанести нельзя,
+ *       а с потерями урон только падает);</li>
+ *   <li>нижняя граница урона за раунд — атаки лучников целиком (лучник всегда бьёт живого врага)
+ *       и доля {@code 1 − confidence} атаки ближнего боя, которому цель может быть недоступна;</li>
+ *   <li>потеря нижней границы урона после получения d урона — не больше дробного рюкзака по юнитам
+ *       с наибольшим уроном на единицу здоровья.</li>
+ * </ul>
+ * Сторона W объявляется победителем, если даже по нижней границе урона она уничтожает противника L
+ * (с запасом на избыточный урон последнего удара по каждому юниту) раньше, чем L успевает нанести
+ * всё здоровье W по своей верхней границе. При {@code confidence = 1} ближний бой не учитывается
+ * вовсе, и предсказание следует из границ; при меньших значениях часть ударов ближнего боя считается
+ * гарантированной, и предсказания появляются раньше ценой редких ошибок.
+ * <p>
+ * Выжившие победителя оцениваются диапазоном: сверху — нынешние живые, снизу — число живых после
+ * худшего случая, когда весь урон противника уходит на юнитов с наименьшим здоровьем.
+ * Бонусы урона не учитываются.
+ * <p>
+ * Экземпляр потокобезопасен: счётчики — {@link LongAdder}, остальное состояние неизменно.
+ * Алгоритмическая сложность одной оценки: O(n log n + R × n), где R — горизонт предсказания в раундах.
+ */
+public final class OutcomePredictor {
+
+    public static final double DEFAULT_CONFIDENCE = 0.5;
+
+    private final double confidence;
+    private final double meleeFloor; // доля атаки ближнего боя, которая считается гарантированной
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+
+    /**
+     * Предсказанный исход.
+     *
+     * @param winner        предсказанный победитель
+     * @param round         раунд, после которого сделано предсказание
+     * @param roundsLeft    верхняя граница оставшихся раундов
+     * @param survivorsLow  нижняя граница выживших победителя
+     * @param survivorsHigh верхняя граница выживших победителя
+     */
+    public record Prediction(BattleOutcome.Winner winner, int round, int roundsLeft,
+                             int survivorsLow, int survivorsHigh) {
+
+        /**
+         * Оценка выживших победителя — середина диапазона.
+         */
+        public int predictedSurvivors() {
+            return (survivorsLow + survivorsHigh + 1) / 2;
+        }
+    }
+
+    public OutcomePredictor() {
+        this(DEFAULT_CONFIDENCE);
+    }
+
+    /**
+     * @param confidence от 0 до 1: чем больше, тем меньшая доля ударов ближнего боя считается
+     *                   гарантированной и тем позже, но надёжнее предсказания
+     */
+    public OutcomePredictor(double confidence) {
+        if (!(confidence >= 0.0 && confidence <= 1.0)) {
+            throw new IllegalArgumentException("Уверенность вне [0, 1]: " + confidence);
+        }
+        this.confidence = confidence;
+        this.meleeFloor = 1.0 - confidence;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Оценивает бой по текущему состоянию хранилища.
+     * Сложность: O(n log n + R × n)
+     *
+     * @param round номер завершившегося раунда
+     * @return предсказание или null, если исход ещё не решён
+     */
+    public Prediction predict(UnitStore store, int round) {
+        evaluations.increment();
+        Side player = new Side(store, true, meleeFloor);
+        Side computer = new Side(store, false, meleeFloor);
+        if (player.count == 0 || computer.count == 0) {
+            return null; // бой уже окончен, предсказывать нечего
+        }
+
+        Prediction prediction = decide(player, computer, BattleOutcome.Winner.PLAYER, round);
+        if (prediction == null) {
+            prediction = decide(computer, player, BattleOutcome.Winner.COMPUTER, round);
+        }
+        if (prediction != null) {
+            shortCircuits.increment();
+        }
+        return prediction;
+    }
+
+    /**
+     * Число оценок.
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Число оценок, решивших исход боя.
+     */
+    public long getShortCircuits() {
+        return shortCircuits.sum();
+    }
+
+    /**
+     * Побеждает ли winner наверняка: верхняя граница раундов до уничтожения loser
+     * меньше нижней границы раундов, за которые loser уничтожит winner.
+     */
+    private static Prediction decide(Side winner, Side loser, BattleOutcome.Winner side, int round) {
+        if (winner.floorAttack <= 0) {
+            return null;
+        }
+        long loserRounds = loser.totalAttack == 0
+                ? Long.MAX_VALUE
+                : ceilDiv(winner.totalHealth, loser.totalAttack);
+        // Каждый юнит проигравшего может получить лишний урон последнего удара, меньший максимальной атаки
+        long needed = loser.totalHealth + (long) loser.count * (winner.maxAttack - 1);
+
+        double dealt = 0;
+        for (long r = 1; r < loserRounds; r++) {
+            // Противник может ходить раньше в каждом раунде, поэтому урон r-го раунда уже получен
+            double absorbed = (double) r * loser.totalAttack;
+            double floor = winner.floorAttack - winner.maxFloorLoss(absorbed);
+            if (floor <= 0) {
+                return null;
+            }
+            dealt += floor;
+            if (dealt >= needed) {
+                int low = Math.max(1, winner.count - winner.maxKills(absorbed));
+                return new Prediction(side, round, (int) Math.min(Integer.MAX_VALUE, r), low, winner.count);
+            }
+            if (loser.totalAttack == 0) {
+                // Урон больше не падает: остаток добивается за постоянное число раундов
+                long left = (long) Math.ceil((needed - dealt) / floor);
+                return new Prediction(side, round, (int) Math.min(Integer.MAX_VALUE, r + left),
+                        winner.count, winner.count);
+            }
+        }
+        return null;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * Живые юниты одной стороны, сведённые к границам.
+     */
+    private static final class Side {
+
+        final int count;
+        final long totalHealth;
+        final long totalAttack;
+        final int maxAttack;
+        final double floorAttack;
+        private final int[] healthByRatio;    // здоровье по убыванию гарантированного урона на единицу здоровья
+        private final double[] floorByRatio;  // гарантированный урон в том же порядке
+        private final int[] healthAscending;
+
+        Side(UnitStore store, boolean player, double meleeFloor) {
+            int n = store.liveCount(player);
+            int[] ids = new int[n];
+            int k = 0;
+            for (int id = 0; id < store.size() && k < n; id++) {
+                if (store.isPlayer(id) == player && store.isAlive(id)) {
+                    ids[k++] = id;
+                }
+            }
+            count = k;
+
+            long health = 0;
+            long attack = 0;
+            int max = 0;
+            double floor = 0;
+            double[] floors = new double[count];
+            healthAscending = new int[count];
+            for (int i = 0; i < count; i++) {
+                int id = ids[i];
+                int unitAttack = Math.max(0, store.attack(id));
+                health += store.health(id);
+                attack += unitAttack;
+                max = Math.max(max, unitAttack);
+                floors[i] = store.isArcher(id) ? unitAttack : unitAttack * meleeFloor;
+                floor += floors[i];
+                healthAscending[i] = store.health(id);
+            }
+            totalHealth = health;
+            totalAttack = attack;
+            maxAttack = max;
+            floorAttack = floor;
+            Arrays.sort(healthAscending);
+
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(
+                    floors[b] / Math.max(1, store.health(ids[b])),
+                    floors[a] / Math.max(1, store.health(ids[a]))));
+            healthByRatio = new int[count];
+            floorByRatio = new double[count];
+            for (int i = 0; i < count; i++) {
+                healthByRatio[i] = Math.max(1, store.health(ids[order[i]]));
+                floorByRatio[i] = floors[order[i]];
+            }
+        }
+
+        /**
+         * Верхняя граница потери гарантированного урона после получения damage: дробный рюкзак.
+         * Сложность: O(n)
+         */
+        double maxFloorLoss(double damage) {
+            double loss = 0;
+            double left = damage;
+            for (int i = 0; i < healthByRatio.length && left > 0; i++) {
+                if (healthByRatio[i] <= left) {
+                    loss += floorByRatio[i];
+                    left -= healthByRatio[i];
+                } else {
+                    loss += floorByRatio[i] * left / healthByRatio[i];
+                    break;
+                }
+            }
+            return loss;
+        }
+
+        /**
+         * Наибольшее число юнитов, которых можно убить уроном damage.
+         * Сложность: O(n)
+         */
+        int maxKills(double damage) {
+            double left = damage;
+            int kills = 0;
+            while (kills < healthAscending.length && healthAscending[kills] <= left) {
+                left -= healthAscending[kills];
+                kills++;
+            }
+            return kills;
+        }
+    }
+}
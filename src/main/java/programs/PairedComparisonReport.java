@@ -0,0 +1,112 @@
+package programs;
+
+/**
+ * Сводка сравнения двух вариантов армии игрока на общих случайных числах.
+ * <p>
+ * Бой с номером i обоих вариантов играется с одним зерном, поэтому исходы образуют пары.
+ * Разность шансов оценивается как среднее разностей d_i = [первый победил] − [второй победил],
+ * и её стандартная ошибка зависит только от несовпавших пар. Чем сильнее исходы пар
+ * коррелируют, тем меньше эта ошибка по сравнению с ошибкой двух независимых серий
+ * ({@link #independentStandardError()}).
+ * <p>
+ * Хранит только целочисленные счётчики.
+ */
+public final class PairedComparisonReport {
+
+    private final int battles;
+    private final int bothWins;       // пары, в которых победили оба варианта
+    private final int firstOnlyWins;  // победил только первый вариант
+    private final int secondOnlyWins; // победил только второй вариант
+
+    PairedComparisonReport(int battles, int bothWins, int firstOnlyWins, int secondOnlyWins) {
+        this.battles = battles;
+        this.bothWins = bothWins;
+        this.firstOnlyWins = firstOnlyWins;
+        this.secondOnlyWins = secondOnlyWins;
+    }
+
+    public int getBattles() {
+        return battles;
+    }
+
+    public int getFirstWins() {
+        return bothWins + firstOnlyWins;
+    }
+
+    public int getSecondWins() {
+        return bothWins + secondOnlyWins;
+    }
+
+    public int getFirstOnlyWins() {
+        return firstOnlyWins;
+    }
+
+    public int getSecondOnlyWins() {
+        return secondOnlyWins;
+    }
+
+    public double firstWinProbability() {
+        return battles == 0 ? 0.0 : (double) getFirstWins() / battles;
+    }
+
+    public double secondWinProbability() {
+        return battles == 0 ? 0.0 : (double) getSecondWins() / battles;
+    }
+
+    /**
+     * Оценка разности вероятностей победы первого и второго варианта.
+     */
+    public double winProbabilityDifference() {
+        return battles == 0 ? 0.0 : (double) (firstOnlyWins - secondOnlyWins) / battles;
+    }
+
+    /**
+     * Стандартная ошибка разности по парам: sqrt((доля несовпавших пар − d²) / N).
+     */
+    public double pairedStandardError() {
+        if (battles == 0) {
+            return 0.0;
+        }
+        double mean = winProbabilityDifference();
+        double discordant = (double) (firstOnlyWins + secondOnlyWins) / battles;
+        return Math.sqrt(Math.max(0.0, discordant - mean * mean) / battles);
+    }
+
+    /**
+     * Стандартная ошибка той же разности, если бы серии были независимыми:
+     * sqrt(p1(1 − p1) / N + p2(1 − p2) / N).
+     */
+    public double independentStandardError() {
+        if (battles == 0) {
+            return 0.0;
+        }
+        double p1 = firstWinProbability();
+        double p2 = secondWinProbability();
+        return Math.sqrt((p1 * (1 - p1) + p2 * (1 - p2)) / battles);
+    }
+
+    /**
+     * Во сколько раз общие случайные числа уменьшили дисперсию оценки — столько же раз меньше
+     * боёв нужно для той же точности. 1, если дисперсия независимых серий нулевая;
+     * бесконечность, если нулевая только парная.
+     */
+    public double varianceReduction() {
+        double independent = independentStandardError();
+        double paired = pairedStandardError();
+        if (independent == 0.0) {
+            return 1.0;
+        }
+        return paired == 0.0 ? Double.POSITIVE_INFINITY : (independent * independent) / (paired * paired);
+    }
+
+    @Override
+    public String toString() {
+        return "PairedComparisonReport{battles=" + battles
+                + ", firstWins=" + getFirstWins()
+                + ", secondWins=" + getSecondWins()
+                + ", difference=" + winProbabilityDifference()
+                + ", pairedStandardError=" + pairedStandardError()
+                + ", independentStandardError=" + independentStandardError()
+                + '}';
+    }
+}
@@ -0,0 +1,49 @@
+package programs;
+
+import java.util.Arrays;
+
+/**
+ * Переиспользуемые буферы поиска пути на плоской сетке.
+ * <p>
+ * Клетка (x, y) хранится по индексу {@code x * height + y}. Буферы живут в
+ * {@link ThreadLocal} и переиспользуются между вызовами, поэтому поиск пути
+ * не создаёт промежуточных объектов.
+ */
+final class PathSearchBuffers {
+
+    final boolean[] blocked;   // blocked[cell] — клетка занята другим юнитом
+    final boolean[] goal;      // goal[cell] — цель пакетного поиска из общего корня
+    final double[] distance;   // distance[cell] — кратчайшее расстояние от старта
+    final int[] parent;        // parent[cell] — предыдущая клетка пути, -1 если нет
+    final int[] pathCells;     // стек клеток при восстановлении пути
+    final IndexedMinHeap heap;
+    final int[] occupancy;           // occupancy[cell] — число живых юнитов в клетке (пакетный поиск)
+    final long[] distinctSources;    // биты клеток атакующих пакетного поиска
+    final long[] distinctTargets;    // биты клеток целей пакетного поиска
+    private long[] batchKeys = new long[64]; // упакованные запросы пакетного поиска
+    int expandedNodes;         // число раскрытых вершин в последнем поиске
+    int queuePushes;           // число вставок и уменьшений ключа в куче в последнем поиске
+    int corridorHits;          // число путей, найденных по свободному коридору без поиска
+
+    PathSearchBuffers(int cells) {
+        this.blocked = new boolean[cells];
+        this.goal = new boolean[cells];
+        this.distance = new double[cells];
+        this.parent = new int[cells];
+        this.pathCells = new int[cells];
+        this.heap = new IndexedMinHeap(cells);
+        this.occupancy = new int[cells];
+        this.distinctSources = new long[(cells + 63) >>> 6];
+        this.distinctTargets = new long[(cells + 63) >>> 6];
+    }
+
+    /**
+     * Массив ключей пакетного поиска не короче count; растёт удвоением и переиспользуется.
+     */
+    long[] batchKeys(int count) {
+        if (batchKeys.length < count) {
+            batchKeys = Arrays.copyOf(batchKeys, Math.max(count, batchKeys.length * 2));
+        }
+        return batchKeys;
+    }
+}
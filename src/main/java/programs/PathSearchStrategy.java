@@ -0,0 +1,28 @@
+package programs;
+
+/**
+ * Стратегия поиска пути для {@link UnitTargetPathFinderImpl}.
+ * <p>
+ * Все стратегии находят путь одинаковой (оптимальной) стоимости на 8-связной сетке
+ * с весами 1.0 для прямых и √2 для диагональных ходов; отличаются числом раскрытых вершин.
+ */
+public enum PathSearchStrategy {
+
+    /**
+     * Алгоритм Дейкстры: раскрывает вершины по возрастанию расстояния от старта
+     * до тех пор, пока не будет извлечена цель.
+     */
+    DIJKSTRA,
+
+    /**
+     * A* с допустимой и согласованной октильной эвристикой
+     * {@code h = max(dx, dy) + (√2 - 1) × min(dx, dy)}.
+     */
+    A_STAR,
+
+    /**
+     * Jump Point Search: A* по «точкам прыжка» для однородной 8-связной сетки.
+     * Промежуточные клетки прямых и диагональных прыжков восстанавливаются при построении пути.
+     */
+    JUMP_POINT
+}
@@ -0,0 +1,80 @@
+package programs;
+
+/**
+ * Сверка {@link OutcomePredictor} с полными боями из {@link MonteCarloBattleRunner#validatePredictor}.
+ * <p>
+ * Каждый бой играется с одним зерном дважды: с предсказателем и до конца. Сводка показывает,
+ * как часто бой останавливался досрочно, в какой доле остановок победитель совпал с полным боем,
+ * насколько ошиблась оценка выживших и сколько раундов сэкономлено.
+ * <p>
+ * Хранит только целочисленные счётчики.
+ */
+public final class PredictorAgreementReport {
+
+    private final int battles;
+    private final int shortCircuited;
+    private final int agreedWinners;
+    private final long survivorError;   // сумма |предсказанные − настоящие| выживших обеих сторон
+    private final long predictedRounds; // сыграно раундов с предсказателем
+    private final long fullRounds;      // сыграно раундов в полных боях
+
+    PredictorAgreementReport(int battles, int shortCircuited, int agreedWinners, long survivorError,
+                             long predictedRounds, long fullRounds) {
+        this.battles = battles;
+        this.shortCircuited = shortCircuited;
+        this.agreedWinners = agreedWinners;
+        this.survivorError = survivorError;
+        this.predictedRounds = predictedRounds;
+        this.fullRounds = fullRounds;
+    }
+
+    public int getBattles() {
+        return battles;
+    }
+
+    public int getShortCircuited() {
+        return shortCircuited;
+    }
+
+    public int getAgreedWinners() {
+        return agreedWinners;
+    }
+
+    /**
+     * Доля боёв, остановленных досрочно.
+     */
+    public double shortCircuitRate() {
+        return battles == 0 ? 0.0 : (double) shortCircuited / battles;
+    }
+
+    /**
+     * Доля досрочных остановок, в которых победитель совпал с полным боем; 1, если остановок не было.
+     */
+    public double winnerAgreement() {
+        return shortCircuited == 0 ? 1.0 : (double) agreedWinners / shortCircuited;
+    }
+
+    /**
+     * Средняя абсолютная ошибка числа выживших на досрочную остановку.
+     */
+    public double meanSurvivorError() {
+        return shortCircuited == 0 ? 0.0 : (double) survivorError / shortCircuited;
+    }
+
+    /**
+     * Доля раундов полных боёв, которые не пришлось играть.
+     */
+    public double roundsSaved() {
+        return fullRounds == 0 ? 0.0 : 1.0 - (double) predictedRounds / fullRounds;
+    }
+
+    @Override
+    public String toString() {
+        return "PredictorAgreementReport{battles=" + battles
+                + ", shortCircuited=" + shortCircuited
+                + ", winnerAgreement=" + winnerAgreement()
+                + ", meanSurvivorError=" + meanSurvivorError()
+                + ", roundsSaved=" + roundsSaved()
+                + '}';
+    }
+}
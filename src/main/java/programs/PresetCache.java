@@ -0,0 +1,238 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.GeneratePreset;
+
+import java.util.*;
+
+/**
+ * Кэш готовых армий поверх {@link GeneratePreset}.
+ * <p>
+ * Ключ — характеристики шаблонов (тип, здоровье, атака, стоимость, тип атаки, бонусы) в порядке
+ * списка плюс бюджет. Для быстрого хеширования из них считается 64-битный отпечаток, а равенство
+ * ключей проверяется по самим характеристикам, так что коллизия отпечатков не подменит армию.
+ * <p>
+ * В кэше хранится неизменяемый «чертёж» армии: номер шаблона, имя и координаты каждого юнита.
+ * При попадании по чертежу создаются новые юниты — вызывающий код может менять их здоровье
+ * и живость, не затрагивая кэш. Вытеснение — LRU при превышении ёмкости.
+ * <p>
+ * Потокобезопасен: обращения к таблице синхронизированы, генерация при промахе идёт вне блокировки.
+ */
+public class PresetCache implements GeneratePreset {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final GeneratePreset delegate;
+    private final int capacity;
+    private final LinkedHashMap<PresetKey, ArmyBlueprint> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PresetCache() {
+        this(new GeneratePresetImpl(), DEFAULT_CAPACITY);
+    }
+
+    public PresetCache(GeneratePreset delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость кэша должна быть положительной: " + capacity);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PresetKey, ArmyBlueprint> eldest) {
+                if (size() > PresetCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает армию из кэша или генерирует и запоминает её.
+     * Сложность: O(n) при попадании (n — число юнитов армии), иначе как у генератора
+     */
+    @Override
+    public Army generate(List<Unit> unitList, int maxPoints) {
+        List<UnitTemplate> templates = new ArrayList<>(unitList.size());
+        for (Unit unit : unitList) {
+            templates.add(UnitTemplate.of(unit));
+        }
+        PresetKey key = new PresetKey(List.copyOf(templates), maxPoints, fingerprint(templates, maxPoints));
+
+        ArmyBlueprint blueprint;
+        synchronized (this) {
+            blueprint = entries.get(key);
+            if (blueprint != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (blueprint == null) {
+            blueprint = ArmyBlueprint.of(delegate.generate(unitList, maxPoints), key.templates());
+            synchronized (this) {
+                entries.put(key, blueprint);
+            }
+        }
+        return blueprint.materialize(key.templates());
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Очищает кэш и счётчики.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * 64-битный отпечаток шаблонов и бюджета (перемешивание в духе SplitMix64).
+     * Сложность: O(n + суммарный размер бонусов)
+     */
+    static long fingerprint(List<UnitTemplate> templates, int maxPoints) {
+        long hash = mix(maxPoints);
+        for (UnitTemplate template : templates) {
+            hash = mix(hash ^ template.unitType().hashCode());
+            hash = mix(hash ^ template.health());
+            hash = mix(hash ^ template.baseAttack());
+            hash = mix(hash ^ template.cost());
+            hash = mix(hash ^ Objects.hashCode(template.attackType()));
+            hash = mix(hash ^ bonusesHash(template.attackBonuses()));
+            hash = mix(hash ^ bonusesHash(template.defenceBonuses()));
+        }
+        return hash;
+    }
+
+    private static long bonusesHash(Map<String, Double> bonuses) {
+        if (bonuses == null) {
+            return 0x5DEECE66DL;
+        }
+        // Сумма не зависит от порядка обхода словаря
+        long hash = bonuses.size();
+        for (Map.Entry<String, Double> entry : bonuses.entrySet()) {
+            hash += mix(entry.getKey().hashCode() ^ Double.doubleToLongBits(entry.getValue()));
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Характеристики шаблона, от которых зависит сгенерированная армия.
+     */
+    record UnitTemplate(String unitType, int health, int baseAttack, int cost, String attackType,
+                        Map<String, Double> attackBonuses, Map<String, Double> defenceBonuses) {
+
+        static UnitTemplate of(Unit unit) {
+            return new UnitTemplate(unit.getUnitType(), unit.getHealth(), unit.getBaseAttack(), unit.getCost(),
+                    unit.getAttackType(), copyOf(unit.getAttackBonuses()), copyOf(unit.getDefenceBonuses()));
+        }
+
+        private static Map<String, Double> copyOf(Map<String, Double> bonuses) {
+            return bonuses == null ? null : Map.copyOf(bonuses);
+        }
+    }
+
+    /**
+     * Ключ кэша: хеш — готовый отпечаток, равенство — по характеристикам.
+     */
+    private record PresetKey(List<UnitTemplate> templates, int maxPoints, long fingerprint) {
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PresetKey other)) {
+                return false;
+            }
+            return fingerprint == other.fingerprint
+                    && maxPoints == other.maxPoints
+                    && templates.equals(other.templates);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint);
+        }
+    }
+
+    /**
+     * Неизменяемый чертёж армии: для каждого юнита — номер шаблона, имя и координаты.
+     */
+    private record ArmyBlueprint(int points, int[] templateIndex, String[] names, int[] x, int[] y) {
+
+        static ArmyBlueprint of(Army army, List<UnitTemplate> templates) {
+            Map<String, Integer> indexByType = new HashMap<>();
+            for (int i = 0; i < templates.size(); i++) {
+                indexByType.putIfAbsent(templates.get(i).unitType(), i);
+            }
+            List<Unit> units = army.getUnits();
+            int size = units.size();
+            int[] templateIndex = new int[size];
+            String[] names = new String[size];
+            int[] x = new int[size];
+            int[] y = new int[size];
+            for (int i = 0; i < size; i++) {
+                Unit unit = units.get(i);
+                Integer index = indexByType.get(unit.getUnitType());
+                if (index == null) {
+                    throw new IllegalStateException("Генератор вернул юнита неизвестного типа: " + unit.getUnitType());
+                }
+                templateIndex[i] = index;
+                names[i] = unit.getName();
+                x[i] = unit.getxCoordinate();
+                y[i] = unit.getyCoordinate();
+            }
+            return new ArmyBlueprint(army.getPoints(), templateIndex, names, x, y);
+        }
+
+        Army materialize(List<UnitTemplate> templates) {
+            List<Unit> units = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                UnitTemplate template = templates.get(templateIndex[i]);
+                units.add(new Unit(names[i], template.unitType(), template.health(), template.baseAttack(),
+                        template.cost(), template.attackType(),
+                        template.attackBonuses() == null ? null : new HashMap<>(template.attackBonuses()),
+                        template.defenceBonuses() == null ? null : new HashMap<>(template.defenceBonuses()),
+                        x[i], y[i]));
+            }
+            Army army = new Army();
+            army.setUnits(units);
+            army.setPoints(points);
+            return army;
+        }
+    }
+}
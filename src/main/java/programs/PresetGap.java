@@ -0,0 +1,36 @@
+package programs;
+
+/**
+ * Сравнение жадной армии с оптимальной при одинаковом бюджете.
+ *
+ * @param greedyAttack   суммарная атака жадной армии
+ * @param greedyHealth   суммарное здоровье жадной армии
+ * @param greedyPoints   стоимость жадной армии
+ * @param optimalAttack  суммарная атака оптимальной армии
+ * @param optimalHealth  суммарное здоровье оптимальной армии
+ * @param optimalPoints  стоимость оптимальной армии
+ */
+public record PresetGap(long greedyAttack, long greedyHealth, int greedyPoints,
+                        long optimalAttack, long optimalHealth, int optimalPoints) {
+
+    /**
+     * На сколько атака жадной армии меньше оптимальной.
+     */
+    public long attackGap() {
+        return optimalAttack - greedyAttack;
+    }
+
+    /**
+     * Отставание по атаке в долях оптимума (0 — жадная армия оптимальна).
+     */
+    public double relativeAttackGap() {
+        return optimalAttack == 0 ? 0.0 : (double) attackGap() / optimalAttack;
+    }
+
+    /**
+     * Совпадает ли жадная армия с оптимумом по атаке и здоровью.
+     */
+    public boolean isGreedyOptimal() {
+        return greedyAttack == optimalAttack && greedyHealth == optimalHealth;
+    }
+}
@@ -0,0 +1,19 @@
+package programs;
+
+/**
+ * Режим генерации армии для {@link GeneratePresetImpl}.
+ */
+public enum PresetMode {
+
+    /**
+     * Жадный проход по типам в порядке убывания attack/cost (при равенстве — health/cost).
+     * Быстрый, но может оставить часть бюджета неиспользованной.
+     */
+    GREEDY,
+
+    /**
+     * Точное решение ограниченной задачи о рюкзаке: максимум суммарной атаки,
+     * при равенстве — максимум суммарного здоровья при тех же ограничениях на бюджет и число юнитов.
+     */
+    OPTIMAL
+}
@@ -0,0 +1,20 @@
+package programs;
+
+import com.battle.heroes.army.programs.PrintBattleLog;
+
+/**
+ * Лог боя, которому нужны границы раундов и конец боя.
+ * Симуляторы вызывают эти методы, если переданный лог реализует интерфейс.
+ */
+public interface RoundAwareBattleLog extends PrintBattleLog {
+
+    /**
+     * Начало раунда с номером round (с единицы).
+     */
+    void onRoundStart(int round);
+
+    /**
+     * Бой закончен: все записи боя должны дойти до получателя.
+     */
+    void onBattleEnd();
+}
@@ -0,0 +1,253 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+
+import java.util.*;
+
+/**
+ * Инкрементальный индекс открытых юнитов по рядам.
+ * <p>
+ * {@link SuitableForAttackUnitsFinderImpl} на каждом ходу перебирает всех юнитов каждого ряда,
+ * чтобы найти крайнего живого. Индекс хранит для каждой армии и каждого ряда (фиксированный x,
+ * как в {@code Program.getUnitsByRow}) упорядоченное множество ключей {@code (y, номер юнита)},
+ * поэтому крайний юнит ряда — это первый или последний ключ множества.
+ * <p>
+ * Обновления:
+ * <ul>
+ *   <li>{@link #onUnitDied(Unit)} и {@link #onUnitMoved(Unit)} — O(log n);</li>
+ *   <li>о гибели можно не сообщать: погибший юнит удаляется лениво, когда оказывается крайним;</li>
+ *   <li>крайний юнит, сменивший клетку без уведомления, тоже переставляется лениво,
+ *       но перемещение юнита из глубины ряда должно сообщаться через {@link #onUnitMoved(Unit)}.</li>
+ * </ul>
+ * Программы библиотеки возвращают юнита ближнего боя на исходную клетку после атаки,
+ * поэтому с ними индекс работает как замена {@link SuitableForAttackUnitsFinder} без уведомлений.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ *
+ * @see SuitableForAttackUnitsFinderImpl
+ */
+public final class RowFrontierIndex implements SuitableForAttackUnitsFinder {
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+
+    // [сторона]: ряд x -> ключи (y << 32 | номер) юнитов ряда
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final TreeMap<Integer, TreeSet<Long>>[] rows = new TreeMap[]{new TreeMap<>(), new TreeMap<>()};
+
+    private final Map<Unit, Integer> ids = new IdentityHashMap<>();
+    private final List<Unit> units = new ArrayList<>();
+    private int[] unitSide = new int[16];
+    private int[] unitRow = new int[16];   // ряд, в котором лежит ключ юнита
+    private long[] unitKey = new long[16]; // ключ юнита или -1, если юнита нет в индексе
+
+    private final SuitableForAttackUnitsFinderImpl fallback = new SuitableForAttackUnitsFinderImpl();
+
+    /**
+     * Строит индекс для двух армий.
+     * Сложность: O(n log n)
+     *
+     * @param leftArmy  армия компьютера (малые x)
+     * @param rightArmy армия игрока (большие x)
+     */
+    public static RowFrontierIndex of(Army leftArmy, Army rightArmy) {
+        RowFrontierIndex index = new RowFrontierIndex();
+        index.addArmy(leftArmy, true);
+        index.addArmy(rightArmy, false);
+        return index;
+    }
+
+    /**
+     * Регистрирует живых юнитов армии.
+     * Сложность: O(n log n)
+     */
+    public void addArmy(Army army, boolean leftArmy) {
+        if (army == null || army.getUnits() == null) {
+            return;
+        }
+        for (Unit unit : army.getUnits()) {
+            addUnit(unit, leftArmy);
+        }
+    }
+
+    /**
+     * Регистрирует юнита. Повторная регистрация обновляет его положение.
+     * Сложность: O(log n)
+     */
+    public void addUnit(Unit unit, boolean leftArmy) {
+        Integer existing = ids.get(unit);
+        if (existing != null) {
+            reindex(existing);
+            return;
+        }
+        int id = units.size();
+        ids.put(unit, id);
+        units.add(unit);
+        ensureCapacity(id + 1);
+        unitSide[id] = leftArmy ? LEFT : RIGHT;
+        unitKey[id] = -1;
+        reindex(id);
+    }
+
+    /**
+     * Убирает погибшего юнита из его ряда.
+     * Сложность: O(log n)
+     */
+    public void onUnitDied(Unit unit) {
+        remove(requireId(unit));
+    }
+
+    /**
+     * Переносит ключ юнита в соответствии с его текущими координатами.
+     * Сложность: O(log n)
+     */
+    public void onUnitMoved(Unit unit) {
+        reindex(requireId(unit));
+    }
+
+    /**
+     * Крайний живой юнит ряда: с минимальным y для левой армии, с максимальным — для правой.
+     * Сложность: O(log n) амортизированно
+     *
+     * @return юнит или null, если в ряду армии нет живых юнитов
+     */
+    public Unit frontier(boolean leftArmy, int x) {
+        return frontier(side(leftArmy), x, leftArmy);
+    }
+
+    /**
+     * Находит открытых юнитов армии-цели во всех рядах в порядке возрастания x.
+     * Сложность: O(R × log n), где R — число непустых рядов
+     */
+    public List<Unit> getSuitableUnits(boolean isLeftArmyTarget) {
+        return getSuitableUnits(isLeftArmyTarget, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Находит открытых юнитов армии-цели в рядах [fromRow, toRow) в порядке возрастания x.
+     * Сложность: O(R × log n), где R — число непустых рядов в диапазоне
+     */
+    public List<Unit> getSuitableUnits(boolean isLeftArmyTarget, int fromRow, int toRow) {
+        List<Unit> result = new ArrayList<>();
+        if (fromRow >= toRow) {
+            return result;
+        }
+        int side = side(isLeftArmyTarget);
+        // Копия ключей: ленивое удаление может опустошить и убрать ряд во время обхода
+        List<Integer> rowKeys = new ArrayList<>(rows[side].subMap(fromRow, true, toRow, false).keySet());
+        for (int x : rowKeys) {
+            Unit unit = frontier(side, x, isLeftArmyTarget);
+            if (unit != null) {
+                result.add(unit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Замена {@link SuitableForAttackUnitsFinderImpl#getSuitableUnits(List, boolean)}: ряд
+     * определяется по первому юниту списка, крайний юнит берётся из индекса без обхода ряда.
+     * Ряды, первый юнит которых не зарегистрирован, обходятся как в исходной реализации.
+     * <p>
+     * Сложность: O(R × log n), где R — число рядов
+     */
+    @Override
+    public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        List<Unit> result = new ArrayList<>();
+        for (List<Unit> row : unitsByRow) {
+            if (row == null || row.isEmpty()) {
+                continue;
+            }
+            Unit first = row.getFirst();
+            Integer id = ids.get(first);
+            Unit suitable = id != null
+                    ? frontier(unitSide[id], first.getxCoordinate(), isLeftArmyTarget)
+                    : scan(row, isLeftArmyTarget);
+            if (suitable != null) {
+                result.add(suitable);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Крайний юнит ряда стороны. Погибшие и сменившие клетку крайние юниты переставляются
+     * до тех пор, пока крайним не окажется актуальный ключ.
+     */
+    private Unit frontier(int side, int x, boolean minimalY) {
+        while (true) {
+            TreeSet<Long> row = rows[side].get(x);
+            if (row == null) {
+                return null;
+            }
+            long key = minimalY ? row.first() : row.last();
+            int id = (int) key;
+            Unit unit = units.get(id);
+            if (unit.isAlive() && unit.getxCoordinate() == x && unit.getyCoordinate() == (int) (key >> 32)) {
+                return unit;
+            }
+            reindex(id);
+        }
+    }
+
+    /**
+     * Приводит ключ юнита к его текущему состоянию: погибший удаляется, живой ставится в свой ряд.
+     */
+    private void reindex(int id) {
+        Unit unit = units.get(id);
+        if (!unit.isAlive()) {
+            remove(id);
+            return;
+        }
+        long key = ((long) unit.getyCoordinate() << 32) | id;
+        int x = unit.getxCoordinate();
+        if (unitKey[id] == key && unitRow[id] == x) {
+            return;
+        }
+        remove(id);
+        rows[unitSide[id]].computeIfAbsent(x, row -> new TreeSet<>()).add(key);
+        unitRow[id] = x;
+        unitKey[id] = key;
+    }
+
+    private void remove(int id) {
+        if (unitKey[id] == -1) {
+            return;
+        }
+        TreeMap<Integer, TreeSet<Long>> sideRows = rows[unitSide[id]];
+        TreeSet<Long> row = sideRows.get(unitRow[id]);
+        row.remove(unitKey[id]);
+        if (row.isEmpty()) {
+            sideRows.remove(unitRow[id]);
+        }
+        unitKey[id] = -1;
+    }
+
+    private Unit scan(List<Unit> row, boolean isLeftArmyTarget) {
+        List<Unit> suitable = fallback.getSuitableUnits(Collections.singletonList(row), isLeftArmyTarget);
+        return suitable.isEmpty() ? null : suitable.getFirst();
+    }
+
+    private int requireId(Unit unit) {
+        Integer id = ids.get(unit);
+        if (id == null) {
+            throw new IllegalArgumentException("Юнит не зарегистрирован в индексе: " + unit.getName());
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > unitSide.length) {
+            int newLength = Math.max(size, unitSide.length * 2);
+            unitSide = Arrays.copyOf(unitSide, newLength);
+            unitRow = Arrays.copyOf(unitRow, newLength);
+            unitKey = Arrays.copyOf(unitKey, newLength);
+        }
+    }
+
+    private static int side(boolean leftArmy) {
+        return leftArmy ? LEFT : RIGHT;
+    }
+}
@@ -0,0 +1,44 @@
+package programs;
+
+/**
+ * Состояние сессии боя в {@link BattleSessionExecutor}.
+ */
+public enum SessionStatus {
+
+    /**
+     * Сессия принята и ждёт свободного места среди выполняющихся.
+     */
+    QUEUED,
+
+    /**
+     * Бой идёт.
+     */
+    RUNNING,
+
+    /**
+     * Бой завершился штатно.
+     */
+    COMPLETED,
+
+    /**
+     * Симулятор выбросил исключение; оно доступно в {@link BattleSession#getError()}.
+     */
+    FAILED,
+
+    /**
+     * Сессия отменена до или во время боя.
+     */
+    CANCELLED,
+
+    /**
+     * Бой не уложился в отведённое время и был прерван.
+     */
+    TIMED_OUT;
+
+    /**
+     * Конечное ли состояние: сессия больше не изменится.
+     */
+    public boolean isTerminal() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
@@ -5,95 +5,157 @@ import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.PrintBattleLog;
 import com.battle.heroes.army.programs.SimulateBattle;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Реализация симулятора боя между армиями.
  * <p>
  * Проводит пошаговый бой с раундовой системой, где юниты атакуют
- * в порядке убывания силы атаки.
+ * в порядке убывания силы атаки. Порядок ходов строится один раз на бой ({@link TurnOrder}).
  * <p>
- * Алгоритмическая сложность: O(n² × log n), где n — общее количество юнитов.
+ * Алгоритмическая сложность: O(n log n + R × n), где n — общее количество юнитов, R — число раундов.
+ * <p>
+ * Метрики ({@link MetricsRegistry}): таймер {@value #METRIC_SIMULATE}, счётчики раундов, атак
+ * и байт, выделенных потоком за бой.
+ * <p>
+ * С заданным {@link OutcomePredictor} после каждого раунда состояние армий сводится в {@link UnitStore}
+ * и проверяется, решён ли исход; решённый бой останавливается, а предсказание доступно через
+ * {@link #getLastPrediction()}. Счётчик {@value #METRIC_SHORT_CIRCUITS} — число таких боёв.
  *
  * @see SimulateBattle
  */
 public class SimulateBattleImpl implements SimulateBattle {
+
+    public static final String METRIC_SIMULATE = "battle.simulate";
+    public static final String METRIC_ROUNDS = "battle.rounds";
+    public static final String METRIC_ATTACKS = "battle.attacks";
+    public static final String METRIC_ALLOCATED_BYTES = "battle.allocatedBytes";
+    public static final String METRIC_SHORT_CIRCUITS = "battle.shortCircuits";
+
     private PrintBattleLog printBattleLog; // Позволяет логировать. Использовать после каждой атаки юнита
+    private MetricsRegistry metrics;       // null — глобальный реестр
+    private OutcomePredictor outcomePredictor;       // null — бой всегда играется до конца
+    private OutcomePredictor.Prediction lastPrediction;
+
+    /**
+     * Задаёт реестр метрик экземпляра; null возвращает глобальный реестр.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Задаёт предсказатель исхода; null — бой всегда играется до конца.
+     */
+    public void setOutcomePredictor(OutcomePredictor outcomePredictor) {
+        this.outcomePredictor = outcomePredictor;
+    }
+
+    /**
+     * Предсказание, остановившее последний бой, или null, если он сыгран до конца.
+     */
+    public OutcomePredictor.Prediction getLastPrediction() {
+        return lastPrediction;
+    }
+
+    private MetricsRegistry registry() {
+        return metrics != null ? metrics : MetricsRegistry.global();
+    }
 
     /**
      * Симулирует бой между армией игрока и армией компьютера.
      * <p>
      * Правила боя:
-     * 1. На каждом раунде юниты сортируются по убыванию значения атаки
+     * 1. Юниты ходят в порядке убывания значения атаки (при равенстве — сначала игрок)
      * 2. Юниты атакуют друг друга по очереди
      * 3. Погибшие юниты (isAlive == false) пропускаются
      * 4. Бой завершается, когда в одной из армий не остаётся живых юнитов
      * <p>
-     * Сложность: O(n² * log n), где n — общее количество юнитов
-     * - O(n) раундов в худшем случае (каждый раунд погибает минимум 1 юнит)
-     * - O(n log n) сортировка в каждом раунде
-     * - O(n) атак в каждом раунде
+     * Сложность: O(n log n + R × n)
+     * - O(n log n) однократная сортировка по атаке
+     * - O(живых) на раунд: проход по порядку ходов и сверка погибших
+     * - O(1) проверка окончания боя по счётчикам живых
+     * <p>
+     * Если лог реализует {@link RoundAwareBattleLog}, он получает начало каждого раунда и конец боя —
+     * в том числе когда бой прерван или программа юнита бросила исключение.
      */
     @Override
     public void simulate(Army playerArmy, Army computerArmy) throws InterruptedException {
-        // Пока в обеих армиях есть живые юниты
-        while (hasAliveUnits(playerArmy) && hasAliveUnits(computerArmy)) {
-            // 1. Собираем всех живых юнитов из обеих армий
-            List<Unit> allUnits = new ArrayList<>();
-            allUnits.addAll(getAliveUnits(playerArmy));
-            allUnits.addAll(getAliveUnits(computerArmy));
-
-            // 2. Сортируем по убыванию базовой атаки (самые сильные ходят первыми)
-            allUnits.sort(Comparator.comparingInt(Unit::getBaseAttack).reversed());
-
-            // 3. Каждый юнит по очереди атакует
-            for (Unit unit : allUnits) {
-                // Проверяем, что юнит ещё жив (мог погибнуть в этом раунде от предыдущей атаки)
-                if (!unit.isAlive()) {
-                    continue;
+        MetricsRegistry registry = registry();
+        boolean measureAllocations = registry != MetricsRegistry.NOOP;
+        long allocatedBefore = measureAllocations ? MetricsRegistry.threadAllocatedBytes() : -1;
+        MetricsRegistry.Timer timer = registry.timer(METRIC_SIMULATE);
+        long start = timer.start();
+        int attacks = 0;
+
+        RoundAwareBattleLog roundAwareLog = printBattleLog instanceof RoundAwareBattleLog log ? log : null;
+        int round = 0;
+        // Лог и метрики закрываются и при исключении программы, и при прерывании боя
+        try {
+            TurnOrder turnOrder = TurnOrder.of(getUnits(playerArmy), getUnits(computerArmy));
+            lastPrediction = null;
+            OutcomePredictor predictor = outcomePredictor;
+            UnitStore store = predictor != null ? UnitStore.of(getUnits(playerArmy), getUnits(computerArmy)) : null;
+
+            // Пока в обеих армиях есть живые юниты
+            while (turnOrder.bothArmiesAlive()) {
+                round++;
+                if (roundAwareLog != null) {
+                    roundAwareLog.onRoundStart(round);
                 }
 
-                // Юнит атакует через свою программу
-                Unit target = unit.getProgram().attack();
+                // Каждый юнит по очереди атакует
+                for (int position = 0; position < turnOrder.size(); position++) {
+                    // Проверяем, что юнит ещё жив (мог погибнуть в этом раунде от предыдущей атаки)
+                    if (!turnOrder.markDeadIfNeeded(position)) {
+                        continue;
+                    }
+                    Unit unit = turnOrder.unitAt(position);
 
-                // Логируем результат атаки
-                printBattleLog.printBattleLog(unit, target);
-            }
-        }
-    }
+                    // Юнит атакует через свою программу
+                    Unit target = unit.getProgram().attack();
+                    turnOrder.onAttack(target);
+                    attacks++;
 
-    /**
-     * Проверяет, есть ли в армии живые юниты.
-     * Сложность: O(n)
-     */
-    private boolean hasAliveUnits(Army army) {
-        if (army == null || army.getUnits() == null) {
-            return false;
-        }
-        for (Unit unit : army.getUnits()) {
-            if (unit.isAlive()) {
-                return true;
+                    // Логируем результат атаки
+                    printBattleLog.printBattleLog(unit, target);
+                }
+
+                // Сверяем погибших, о которых не сообщила атака, и уплотняем порядок
+                turnOrder.endRound();
+
+                if (predictor != null && turnOrder.bothArmiesAlive()) {
+                    // Программы меняют юнитов напрямую, поэтому хранилище перечитывается после раунда
+                    store.load();
+                    lastPrediction = predictor.predict(store, round);
+                    if (lastPrediction != null) {
+                        registry.counter(METRIC_SHORT_CIRCUITS).increment();
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (roundAwareLog != null) {
+                roundAwareLog.onBattleEnd();
+            }
+            timer.stop(start);
+            registry.counter(METRIC_ROUNDS).add(round);
+            registry.counter(METRIC_ATTACKS).add(attacks);
+            if (allocatedBefore >= 0) {
+                registry.counter(METRIC_ALLOCATED_BYTES).add(MetricsRegistry.threadAllocatedBytes() - allocatedBefore);
             }
         }
-        return false;
     }
 
     /**
-     * Возвращает список живых юнитов армии.
-     * Сложность: O(n)
+     * Возвращает юнитов армии или пустой список.
+     * Сложность: O(1)
      */
-    private List<Unit> getAliveUnits(Army army) {
-        List<Unit> aliveUnits = new ArrayList<>();
+    private List<Unit> getUnits(Army army) {
         if (army == null || army.getUnits() == null) {
-            return aliveUnits;
-        }
-        for (Unit unit : army.getUnits()) {
-            if (unit.isAlive()) {
-                aliveUnits.add(unit);
-            }
+            return Collections.emptyList();
         }
-        return aliveUnits;
+        return army.getUnits();
     }
 }
@@ -0,0 +1,126 @@
+package programs;
+
+import java.util.Random;
+
+/**
+ * Быстрый генератор SplitMix64 с разделением на независимые потоки.
+ * <p>
+ * Состояние — одно {@code long}, которое на каждом шаге увеличивается на нечётное «гамма»,
+ * а выход — финализатор Стаффорда (вариант 13) от нового состояния. В отличие от {@link Random},
+ * здесь нет CAS на каждом вызове и 64 бита выхода за шаг, а {@link #split()} отдаёт генератор
+ * с другим гамма, так что деревья потоков (бой → сторона → решение) строятся детерминированно
+ * из одного зерна.
+ * <p>
+ * Наследуется от {@link Random}, чтобы подставляться в {@code Collections.shuffle} и
+ * {@link HeadlessBattleSimulator}. Экземпляр не потокобезопасен: каждому потоку — свой генератор
+ * из {@link #split()}.
+ */
+public final class SplitMix64Random extends Random {
+
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+    private long gamma;
+
+    public SplitMix64Random(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitMix64Random(long seed, long gamma) {
+        super(seed);
+        this.state = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Генератор для потока с номером index из главного зерна: одинаковые (seed, index) дают
+     * одинаковую последовательность, соседние номера не коррелируют.
+     * Сложность: O(1)
+     */
+    public static SplitMix64Random forStream(long masterSeed, long index) {
+        return new SplitMix64Random(mix64(masterSeed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Новый генератор, статистически независимый от этого; этот генератор продвигается на два шага.
+     * Сложность: O(1)
+     */
+    public SplitMix64Random split() {
+        long seed = nextLong();
+        state += gamma;
+        return new SplitMix64Random(seed, mixGamma(state));
+    }
+
+    /**
+     * Сбрасывает генератор на начало последовательности зерна seed; гамма не меняется.
+     */
+    @Override
+    public void setSeed(long seed) {
+        // Вызывается и из конструктора Random, до инициализации gamma
+        super.setSeed(seed);
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += gamma;
+        return mix64(state);
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Равномерное число в [0, bound) умножением со сдвигом (Лемир), без деления в общем случае.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Граница должна быть положительной: " + bound);
+        }
+        long product = (nextLong() >>> 32) * bound;
+        int low = (int) product;
+        if (Integer.compareUnsigned(low, bound) < 0) {
+            int threshold = Integer.remainderUnsigned(-bound, bound);
+            while (Integer.compareUnsigned(low, threshold) < 0) {
+                product = (nextLong() >>> 32) * bound;
+                low = (int) product;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Финализатор SplitMix64: биективно разносит близкие значения по всему диапазону long.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Нечётное гамма с достаточным числом смен битов, как в {@link java.util.SplittableRandom}.
+     */
+    private static long mixGamma(long z) {
+        z = mix64(z) | 1L;
+        return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+    }
+}
@@ -1,10 +1,12 @@
 package programs;
 
+import com.battle.heroes.army.Army;
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Реализация поиска юнитов, доступных для атаки.
@@ -13,11 +15,43 @@ import java.util.List;
  * Для каждого ряда выбирает крайнего юнита (минимальный или максимальный y).
  * <p>
  * Алгоритмическая сложность: O(n), где n — общее количество юнитов.
+ * <p>
+ * Программы библиотеки передают ряды поля 27 × 21; для армий на поле другого размера
+ * {@link #getSuitableUnits(Army, boolean)} сам раскладывает армию по колонкам расстановки {@link BattlefieldConfig}.
+ * <p>
+ * Метрики ({@link MetricsRegistry}): таймер {@value #METRIC_GET_SUITABLE_UNITS} и счётчик
+ * просмотренных юнитов.
  *
  * @see SuitableForAttackUnitsFinder
  */
 public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsFinder {
 
+    public static final String METRIC_GET_SUITABLE_UNITS = "suitable.getSuitableUnits";
+    public static final String METRIC_UNITS_SCANNED = "suitable.unitsScanned";
+
+    private final BattlefieldConfig config;
+    private MetricsRegistry metrics; // null — глобальный реестр
+    private SuitableMetrics resolved = new SuitableMetrics(MetricsRegistry.NOOP);
+
+    public SuitableForAttackUnitsFinderImpl() {
+        this(BattlefieldConfig.DEFAULT);
+    }
+
+    public SuitableForAttackUnitsFinderImpl(BattlefieldConfig config) {
+        this.config = Objects.requireNonNull(config, "config");
+    }
+
+    public BattlefieldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Задаёт реестр метрик экземпляра; null возвращает глобальный реестр.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Находит юнитов, подходящих для атаки.
      * <p>
@@ -31,12 +65,16 @@ public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsF
      */
     @Override
     public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        SuitableMetrics handles = handles();
+        long start = handles.getSuitableUnits().start();
         List<Unit> result = new ArrayList<>();
+        int scanned = 0;
 
         for (List<Unit> row : unitsByRow) {
             if (row == null || row.isEmpty()) {
                 continue;
             }
+            scanned += row.size();
 
             Unit suitableUnit = null;
 
@@ -64,6 +102,112 @@ public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsF
             }
         }
 
+        handles.getSuitableUnits().stop(start);
+        handles.unitsScanned().add(scanned);
+        return result;
+    }
+
+    /**
+     * Находит юнитов, подходящих для атаки, в армии-цели без готовых списков рядов: юниты раскладываются
+     * по колонкам расстановки армии из конфигурации за один проход, крайний юнит колонки — с минимальным
+     * (левая армия) или максимальным (правая армия) y. Юниты вне колонок расстановки не рассматриваются.
+     * <p>
+     * Сложность: O(n + c), где n — размер армии, c — число колонок расстановки
+     *
+     * @param targetArmy       атакуемая армия
+     * @param isLeftArmyTarget true, если атакуется левая армия (армия компьютера)
+     * @return доступные для атаки юниты в порядке возрастания номера колонки
+     */
+    public List<Unit> getSuitableUnits(Army targetArmy, boolean isLeftArmyTarget) {
+        SuitableMetrics handles = handles();
+        long start = handles.getSuitableUnits().start();
+        List<Unit> units = targetArmy == null || targetArmy.getUnits() == null ? List.of() : targetArmy.getUnits();
+        int firstColumn = config.firstColumn(isLeftArmyTarget);
+        Unit[] frontier = new Unit[config.deploymentColumns()];
+
+        for (Unit unit : units) {
+            int column = unit.getxCoordinate() - firstColumn;
+            if (!unit.isAlive() || column < 0 || column >= frontier.length) {
+                continue;
+            }
+            Unit current = frontier[column];
+            if (current == null || (isLeftArmyTarget
+                    ? unit.getyCoordinate() < current.getyCoordinate()
+                    : unit.getyCoordinate() > current.getyCoordinate())) {
+                frontier[column] = unit;
+            }
+        }
+
+        List<Unit> result = new ArrayList<>();
+        for (Unit unit : frontier) {
+            if (unit != null) {
+                result.add(unit);
+            }
+        }
+        handles.getSuitableUnits().stop(start);
+        handles.unitsScanned().add(units.size());
+        return result;
+    }
+
+    /**
+     * Находит юнитов, подходящих для атаки, по битовой доске без обхода юнитов ряда.
+     * Для каждого ряда армии-цели крайний юнит — первый или последний установленный бит маски ряда.
+     * <p>
+     * Сложность: O(W), где W — количество рядов поля
+     *
+     * @param board            битовая доска поля
+     * @param isLeftArmyTarget true, если атакуется левая армия (армия компьютера)
+     * @return доступные для атаки юниты в порядке возрастания номера ряда
+     */
+    public List<Unit> getSuitableUnits(BattlefieldBitboard board, boolean isLeftArmyTarget) {
+        return getSuitableUnits(board, isLeftArmyTarget, 0, board.getWidth());
+    }
+
+    /**
+     * Находит юнитов, подходящих для атаки, по битовой доске в диапазоне рядов [fromRow, toRow) —
+     * аналог списка {@code getUnitsByRow} для рядов армии-цели в программах юнитов.
+     * <p>
+     * Сложность: O(toRow - fromRow)
+     */
+    public List<Unit> getSuitableUnits(BattlefieldBitboard board, boolean isLeftArmyTarget, int fromRow, int toRow) {
+        MetricsRegistry.Timer timer = handles().getSuitableUnits();
+        long start = timer.start();
+        List<Unit> result = new ArrayList<>();
+
+        for (int x = Math.max(0, fromRow); x < Math.min(toRow, board.getWidth()); x++) {
+            // Левая армия открыта с минимального y, правая — с максимального
+            int y = isLeftArmyTarget ? board.firstInRow(true, x) : board.lastInRow(false, x);
+            if (y >= 0) {
+                result.add(board.unitAt(x, y));
+            }
+        }
+
+        timer.stop(start);
         return result;
     }
+
+    /**
+     * Счётчик и таймер текущего реестра; по именам они ищутся, только когда реестр сменился.
+     */
+    private SuitableMetrics handles() {
+        MetricsRegistry registry = metrics != null ? metrics : MetricsRegistry.global();
+        SuitableMetrics current = resolved;
+        if (current.registry() != registry) {
+            current = new SuitableMetrics(registry);
+            resolved = current;
+        }
+        return current;
+    }
+
+    /**
+     * Таймер и счётчик поиска целей, разрешённые по именам в реестре registry.
+     */
+    private record SuitableMetrics(MetricsRegistry registry,
+                                   MetricsRegistry.Timer getSuitableUnits,
+                                   MetricsRegistry.Counter unitsScanned) {
+
+        SuitableMetrics(MetricsRegistry registry) {
+            this(registry, registry.timer(METRIC_GET_SUITABLE_UNITS), registry.counter(METRIC_UNITS_SCANNED));
+        }
+    }
 }
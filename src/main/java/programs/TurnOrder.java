@@ -0,0 +1,215 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.*;
+
+/**
+ * Очерёдность ходов на весь бой.
+ * <p>
+ * Атака юнитов в бою не меняется, поэтому порядок «по убыванию атаки, при равенстве — игрок,
+ * затем компьютер в порядке армий» строится один раз: ключи {@code (атака, номер юнита)}
+ * упаковываются в {@code long} и сортируются как примитивы. Погибшие юниты помечаются
+ * надгробиями и пропускаются; массив порядка уплотняется лениво, когда надгробий становится
+ * больше половины. Число живых юнитов каждой армии хранится отдельно и обновляется при гибели,
+ * поэтому проверка окончания боя стоит O(1).
+ * <p>
+ * Гибель, о которой не сообщили через {@link #onAttack(Unit)} или {@link #markDeadIfNeeded(int)},
+ * подхватывается сверкой в {@link #endRound()} за O(живых). Предполагается, что погибшие
+ * юниты не оживают.
+ * <p>
+ * Очерёдность, построенная по {@link UnitStore}, читает атаку и живость из его массивов,
+ * а не из объектов {@link Unit}; номера юнитов при этом совпадают с номерами хранилища.
+ */
+final class TurnOrder {
+
+    private static final int PLAYER = 0;
+    private static final int COMPUTER = 1;
+
+    private final Unit[] units;        // юниты по номеру: сначала армия игрока, затем компьютера
+    private final int playerCount;     // юниты с номером < playerCount принадлежат игроку
+    private final boolean[] dead;      // надгробия по номеру юнита
+    private final Map<Unit, Integer> ids;
+    private final UnitStore store;     // источник живости или null — живость читается из юнитов
+    private final int[] liveCount = new int[2];
+
+    private int[] order;               // номера юнитов в порядке хода, включая надгробия
+    private int size;
+    private int tombstones;            // надгробий в order[0..size)
+
+    private TurnOrder(Unit[] units, int playerCount, UnitStore store) {
+        this.units = units;
+        this.playerCount = playerCount;
+        this.store = store;
+        int total = units.length;
+        dead = new boolean[total];
+        ids = new IdentityHashMap<>(total * 2);
+        for (int id = 0; id < total; id++) {
+            ids.putIfAbsent(units[id], id);
+        }
+
+        // Ключ: инвертированная атака в старших битах, номер юнита — в младших.
+        // Номера уникальны, поэтому сортировка примитивов даёт тот же порядок, что устойчивая сортировка.
+        long[] keys = new long[total];
+        int alive = 0;
+        for (int id = 0; id < total; id++) {
+            if (!isAlive(id)) {
+                dead[id] = true;
+                continue;
+            }
+            int attack = store != null ? store.attack(id) : units[id].getBaseAttack();
+            long attackKey = Integer.MAX_VALUE - (long) attack;
+            keys[alive++] = (attackKey << 32) | id;
+            liveCount[side(id)]++;
+        }
+        Arrays.sort(keys, 0, alive);
+        order = new int[alive];
+        for (int i = 0; i < alive; i++) {
+            order[i] = (int) keys[i];
+        }
+        size = alive;
+    }
+
+    /**
+     * Строит очерёдность по живым юнитам армий.
+     * Сложность: O(n log n)
+     */
+    static TurnOrder of(List<Unit> playerUnits, List<Unit> computerUnits) {
+        int playerCount = playerUnits.size();
+        Unit[] units = new Unit[playerCount + computerUnits.size()];
+        for (int id = 0; id < units.length; id++) {
+            units[id] = id < playerCount ? playerUnits.get(id) : computerUnits.get(id - playerCount);
+        }
+        return new TurnOrder(units, playerCount, null);
+    }
+
+    /**
+     * Строит очерёдность по живым юнитам хранилища.
+     * Сложность: O(n log n)
+     */
+    static TurnOrder of(UnitStore store) {
+        Unit[] units = new Unit[store.size()];
+        for (int id = 0; id < units.length; id++) {
+            units[id] = store.unit(id);
+        }
+        return new TurnOrder(units, store.getPlayerCount(), store);
+    }
+
+    /**
+     * Есть ли живые юниты в обеих армиях. Сложность: O(1)
+     */
+    boolean bothArmiesAlive() {
+        return liveCount[PLAYER] > 0 && liveCount[COMPUTER] > 0;
+    }
+
+    int liveCount(boolean playerArmy) {
+        return liveCount[playerArmy ? PLAYER : COMPUTER];
+    }
+
+    /**
+     * Число позиций в порядке хода, включая надгробия.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Юнит на позиции или null, если он отмечен погибшим.
+     */
+    Unit unitAt(int position) {
+        int id = order[position];
+        return dead[id] ? null : units[id];
+    }
+
+    /**
+     * Номер юнита на позиции или -1, если он отмечен погибшим.
+     */
+    int unitIdAt(int position) {
+        int id = order[position];
+        return dead[id] ? -1 : id;
+    }
+
+    boolean isPlayerUnit(int position) {
+        return order[position] < playerCount;
+    }
+
+    /**
+     * Ставит надгробие юниту на позиции, если он погиб. Сложность: O(1)
+     *
+     * @return true, если юнит жив и может ходить
+     */
+    boolean markDeadIfNeeded(int position) {
+        int id = order[position];
+        if (dead[id]) {
+            return false;
+        }
+        if (!isAlive(id)) {
+            markDead(id);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Учитывает результат атаки: погибшая цель получает надгробие. Сложность: O(1)
+     */
+    void onAttack(Unit target) {
+        if (target == null || target.isAlive()) {
+            return;
+        }
+        Integer id = ids.get(target);
+        if (id != null && !dead[id]) {
+            markDead(id);
+        }
+    }
+
+    /**
+     * Учитывает результат атаки по номеру цели (-1 — атаки не было). Сложность: O(1)
+     */
+    void onAttack(int targetId) {
+        if (targetId >= 0 && !dead[targetId] && !isAlive(targetId)) {
+            markDead(targetId);
+        }
+    }
+
+    /**
+     * Сверяет живость оставшихся юнитов и при необходимости уплотняет порядок.
+     * Сложность: O(size), амортизированно O(живых)
+     */
+    void endRound() {
+        for (int i = 0; i < size; i++) {
+            int id = order[i];
+            if (!dead[id] && !isAlive(id)) {
+                markDead(id);
+            }
+        }
+        if (tombstones * 2 > size) {
+            compact();
+        }
+    }
+
+    private boolean isAlive(int id) {
+        return store != null ? store.isAlive(id) : units[id].isAlive();
+    }
+
+    private void markDead(int id) {
+        dead[id] = true;
+        liveCount[side(id)]--;
+        tombstones++;
+    }
+
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (!dead[order[read]]) {
+                order[write++] = order[read];
+            }
+        }
+        size = write;
+        tombstones = 0;
+    }
+
+    private int side(int id) {
+        return id < playerCount ? PLAYER : COMPUTER;
+    }
+}
@@ -0,0 +1,259 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.*;
+
+/**
+ * Горячее состояние юнитов боя в виде параллельных массивов (structure of arrays).
+ * <p>
+ * {@link Unit} — тяжёлый объект: имя, тип, два словаря бонусов, программа. Цикл симуляции
+ * читает только здоровье, атаку, живость и координаты, поэтому они копируются в массивы
+ * по номеру юнита: {@code int[]} здоровья, атаки и координат и битовые маски
+ * живых юнитов и лучников. Номера раздаются как в {@link TurnOrder}: сначала армия игрока,
+ * затем армия компьютера.
+ * <p>
+ * Синхронизация двусторонняя и явная: {@link #load()} читает состояние юнитов в массивы,
+ * {@link #writeBack()} и {@link #writeBack(int)} возвращают его в юниты. Между ними юниты
+ * не обновляются. Экземпляр не потокобезопасен.
+ */
+public final class UnitStore {
+
+    private static final String ARCHER_TYPE = "Archer";
+
+    private final Unit[] units;          // юниты по номеру
+    private final int playerCount;       // юниты с номером < playerCount принадлежат игроку
+    private final Map<Unit, Integer> ids;
+
+    private final int[] health;
+    private final int[] attack;
+    private final int[] x;               // координаты любого поля BattlefieldConfig
+    private final int[] y;
+    private final long[] alive;          // бит id — юнит жив
+    private final long[] archers;        // бит id — юнит стреляет по любой цели
+    private final int[] liveCount = new int[2];
+
+    private UnitStore(List<Unit> playerUnits, List<Unit> computerUnits) {
+        playerCount = playerUnits.size();
+        int total = playerCount + computerUnits.size();
+        units = new Unit[total];
+        ids = new IdentityHashMap<>(total * 2);
+        for (int id = 0; id < total; id++) {
+            Unit unit = id < playerCount ? playerUnits.get(id) : computerUnits.get(id - playerCount);
+            units[id] = unit;
+            ids.putIfAbsent(unit, id);
+        }
+        health = new int[total];
+        attack = new int[total];
+        x = new int[total];
+        y = new int[total];
+        int words = (total + 63) >>> 6;
+        alive = new long[words];
+        archers = new long[words];
+        load();
+    }
+
+    /**
+     * Копирует горячие поля юнитов обеих армий в массивы.
+     * Сложность: O(n)
+     */
+    public static UnitStore of(Army playerArmy, Army computerArmy) {
+        return new UnitStore(unitsOf(playerArmy), unitsOf(computerArmy));
+    }
+
+    static UnitStore of(List<Unit> playerUnits, List<Unit> computerUnits) {
+        return new UnitStore(playerUnits, computerUnits);
+    }
+
+    /**
+     * Перечитывает состояние всех юнитов в массивы.
+     * Сложность: O(n)
+     */
+    public void load() {
+        Arrays.fill(alive, 0L);
+        Arrays.fill(archers, 0L);
+        liveCount[0] = 0;
+        liveCount[1] = 0;
+        for (int id = 0; id < units.length; id++) {
+            Unit unit = units[id];
+            health[id] = unit.getHealth();
+            attack[id] = unit.getBaseAttack();
+            x[id] = unit.getxCoordinate();
+            y[id] = unit.getyCoordinate();
+            if (ARCHER_TYPE.equals(unit.getUnitType())) {
+                archers[id >>> 6] |= 1L << id;
+            }
+            if (unit.isAlive()) {
+                alive[id >>> 6] |= 1L << id;
+                liveCount[side(id)]++;
+            }
+        }
+    }
+
+    /**
+     * Записывает здоровье, живость и координаты всех юнитов обратно в объекты {@link Unit}.
+     * Сложность: O(n)
+     */
+    public void writeBack() {
+        for (int id = 0; id < units.length; id++) {
+            writeBack(id);
+        }
+    }
+
+    /**
+     * Записывает состояние одного юнита обратно в объект {@link Unit}. Сложность: O(1)
+     */
+    public void writeBack(int id) {
+        Unit unit = units[id];
+        unit.setHealth(health[id]);
+        unit.setAlive(isAlive(id));
+        unit.setxCoordinate(x[id]);
+        unit.setyCoordinate(y[id]);
+    }
+
+    public int size() {
+        return units.length;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Номер юнита или -1, если юнит не из этих армий. Сложность: O(1)
+     */
+    public int idOf(Unit unit) {
+        Integer id = ids.get(unit);
+        return id == null ? -1 : id;
+    }
+
+    public Unit unit(int id) {
+        return units[id];
+    }
+
+    public boolean isPlayer(int id) {
+        return id < playerCount;
+    }
+
+    public int health(int id) {
+        return health[id];
+    }
+
+    public int attack(int id) {
+        return attack[id];
+    }
+
+    public int x(int id) {
+        return x[id];
+    }
+
+    public int y(int id) {
+        return y[id];
+    }
+
+    public boolean isAlive(int id) {
+        return (alive[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public boolean isArcher(int id) {
+        return (archers[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Число живых юнитов армии. Сложность: O(1)
+     */
+    public int liveCount(boolean playerArmy) {
+        return liveCount[playerArmy ? 0 : 1];
+    }
+
+    /**
+     * Наносит урон живому юниту; при здоровье ≤ 0 юнит погибает.
+     * Сложность: O(1)
+     *
+     * @return true, если юнит погиб от этого удара
+     */
+    public boolean applyDamage(int id, int damage) {
+        if (!isAlive(id)) {
+            return false;
+        }
+        health[id] -= damage;
+        if (health[id] > 0) {
+            return false;
+        }
+        alive[id >>> 6] &= ~(1L << id);
+        liveCount[side(id)]--;
+        return true;
+    }
+
+    /**
+     * Перемещает юнита. Сложность: O(1)
+     */
+    public void moveTo(int id, int newX, int newY) {
+        x[id] = newX;
+        y[id] = newY;
+    }
+
+    /**
+     * Записывает номера живых юнитов армии в порядке возрастания номера.
+     * Сложность: O(n / 64 + живых)
+     *
+     * @param target массив длиной не меньше {@link #liveCount(boolean)}
+     * @return число записанных номеров
+     */
+    public int collectAlive(boolean playerArmy, int[] target) {
+        int from = playerArmy ? 0 : playerCount;
+        int to = playerArmy ? playerCount : units.length;
+        int count = 0;
+        for (int id = nextAlive(from); id >= 0 && id < to; id = nextAlive(id + 1)) {
+            target[count++] = id;
+        }
+        return count;
+    }
+
+    /**
+     * Первый живой номер, не меньший from, или -1. Сложность: O(n / 64)
+     */
+    public int nextAlive(int from) {
+        if (from >= units.length) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = alive[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == alive.length) {
+                return -1;
+            }
+            bits = alive[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Заполняет битовую маску занятых клеток: бит {@code x * height + y} для каждого живого юнита
+     * внутри поля width × height.
+     * Сложность: O(words + живых)
+     */
+    public void fillOccupancy(long[] target, int width, int height) {
+        Arrays.fill(target, 0L);
+        for (int id = nextAlive(0); id >= 0; id = nextAlive(id + 1)) {
+            int cx = x[id];
+            int cy = y[id];
+            if (cx >= 0 && cx < width && cy >= 0 && cy < height) {
+                int cell = cx * height + cy;
+                target[cell >>> 6] |= 1L << cell;
+            }
+        }
+    }
+
+    private int side(int id) {
+        return id < playerCount ? 0 : 1;
+    }
+
+    private static List<Unit> unitsOf(Army army) {
+        if (army == null || army.getUnits() == null) {
+            return Collections.emptyList();
+        }
+        return army.getUnits();
+    }
+}
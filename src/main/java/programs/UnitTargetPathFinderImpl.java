@@ -9,8 +9,10 @@ import java.util.*;
 /**
  * Реализация поиска кратчайшего пути между юнитами.
  * <p>
- * Использует алгоритм Дейкстры с приоритетной очередью для нахождения
- * оптимального пути на игровом поле с учётом препятствий.
+ * По умолчанию использует алгоритм Дейкстры с индексированной двоичной кучей для нахождения
+ * оптимального пути на игровом поле с учётом препятствий. Стратегия поиска
+ * ({@link PathSearchStrategy}) задаётся в конструкторе: A* и Jump Point Search
+ * возвращают пути той же стоимости, раскрывая меньше вершин.
  * <p>
  * Веса рёбер:
  * <ul>
@@ -18,35 +20,123 @@ import java.util.*;
  *   <li>Диагональные ходы: √2 ≈ 1.414</li>
  * </ul>
  * <p>
+ * Поле хранится в плоских примитивных массивах (клетка (x, y) → индекс {@code x * HEIGHT + y}),
+ * буферы поиска переиспользуются между вызовами через {@link ThreadLocal}.
+ * Единственные аллокации вызова — итоговый список {@link Edge}.
+ * <p>
  * Алгоритмическая сложность: O(W × H × log(W × H)), где W=27, H=21.
+ * <p>
+ * Перед поиском проверяется октильный коридор ({@link OctileCorridor}): если между атакующим и целью
+ * свободен путь длины октильного расстояния, он кратчайший и возвращается без поиска. Эвристика A* —
+ * октильное расстояние по формуле: несколько арифметических операций дешевле чтения из таблицы
+ * расстояний, которая не помещается в кэш.
+ * <p>
+ * Пакетный поиск {@link #getTargetPaths(List, List)} отвечает на много пар (атакующий, цель) по одному
+ * снимку поля: сетка препятствий строится один раз, запросы группируются по общему концу, и на каждую
+ * группу идёт один проход Дейкстры с несколькими целями.
+ * <p>
+ * Метрики ({@link MetricsRegistry}): таймеры {@value #METRIC_GET_TARGET_PATH} и
+ * {@value #METRIC_GET_TARGET_PATHS}, счётчики раскрытых вершин, операций с кучей и проходов пакетного поиска.
  *
  * @see UnitTargetPathFinder
  */
 public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
 
-    private static final int WIDTH = 27;
-    private static final int HEIGHT = 21;
+    public static final String METRIC_GET_TARGET_PATH = "pathfinder.getTargetPath";
+    public static final String METRIC_NODES_EXPANDED = "pathfinder.nodesExpanded";
+    public static final String METRIC_QUEUE_PUSHES = "pathfinder.queuePushes";
+    public static final String METRIC_GET_TARGET_PATHS = "pathfinder.getTargetPaths";
+    public static final String METRIC_BATCH_SWEEPS = "pathfinder.batchSweeps";
+    public static final String METRIC_CORRIDOR_HITS = "pathfinder.corridorHits";
+
+    static final int WIDTH = 27;
+    static final int HEIGHT = 21;
+    static final int CELLS = WIDTH * HEIGHT;
 
-    // 8 направлений движения с весами: {dx, dy, weight}
     // Прямые ходы: вес 1.0, диагональные: вес √2
-    private static final double STRAIGHT_COST = 1.0;
-    private static final double DIAGONAL_COST = Math.sqrt(2); // ≈ 1.414
-
-    // Направления: {dx, dy, isDiagonal}
-    private static final int[][] DIRECTIONS = {
-            {-1, 0},  // вверх
-            {1, 0},   // вниз
-            {0, -1},  // влево
-            {0, 1},   // вправо
-            {-1, -1}, // вверх-влево (диагональ)
-            {-1, 1},  // вверх-вправо (диагональ)
-            {1, -1},  // вниз-влево (диагональ)
-            {1, 1}    // вниз-вправо (диагональ)
-    };
+    static final double STRAIGHT_COST = 1.0;
+    static final double DIAGONAL_COST = Math.sqrt(2); // ≈ 1.414
+
+    // 8 направлений движения: вверх, вниз, влево, вправо и четыре диагонали
+    // Первые четыре направления — прямые, остальные — диагональные
+    static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    private static final ThreadLocal<PathSearchBuffers> BUFFERS =
+            ThreadLocal.withInitial(() -> new PathSearchBuffers(CELLS));
+
+    /**
+     * Запрос пакетного поиска: путь от атакующего до цели.
+     */
+    public record PathQuery(Unit attackUnit, Unit targetUnit) {
+        public PathQuery {
+            Objects.requireNonNull(attackUnit, "attackUnit");
+            Objects.requireNonNull(targetUnit, "targetUnit");
+        }
+    }
+
+    private final PathSearchStrategy strategy;
+    private final JumpPointSearch jumpPointSearch = new JumpPointSearch(WIDTH, HEIGHT);
+    private MetricsRegistry metrics; // null — глобальный реестр
+    private PathMetrics resolved = new PathMetrics(MetricsRegistry.NOOP);
+    private boolean corridorShortcut = true;
+
+    public UnitTargetPathFinderImpl() {
+        this(PathSearchStrategy.DIJKSTRA);
+    }
+
+    public UnitTargetPathFinderImpl(PathSearchStrategy strategy) {
+        this.strategy = Objects.requireNonNull(strategy, "strategy");
+    }
+
+    public PathSearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Задаёт реестр метрик экземпляра; null возвращает глобальный реестр.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Счётчики и таймеры текущего реестра; по именам они ищутся, только когда реестр сменился.
+     * Гонка потоков при замене безопасна: записи неизменяемы, а лишнее разрешение лишь повторит поиск.
+     */
+    private PathMetrics handles() {
+        MetricsRegistry registry = metrics != null ? metrics : MetricsRegistry.global();
+        PathMetrics current = resolved;
+        if (current.registry() != registry) {
+            current = new PathMetrics(registry);
+            resolved = current;
+        }
+        return current;
+    }
+
+    /**
+     * Включает проверку свободного октильного коридора перед поиском (по умолчанию включена).
+     * Найденный так путь имеет ту же стоимость, что и путь поиска, но может отличаться формой.
+     */
+    public void setCorridorShortcut(boolean corridorShortcut) {
+        this.corridorShortcut = corridorShortcut;
+    }
+
+    public boolean isCorridorShortcut() {
+        return corridorShortcut;
+    }
+
+    /**
+     * Возвращает число вершин, раскрытых последним поиском в текущем потоке.
+     * Позволяет сравнивать стратегии на одинаковых расстановках.
+     */
+    public int getLastExpandedNodes() {
+        return BUFFERS.get().expandedNodes;
+    }
 
     /**
      * Находит кратчайший путь между атакующим и атакуемым юнитом.
-     * Использует алгоритм Дейкстры с учётом разных весов для прямых и диагональных ходов.
+     * Использует выбранную стратегию поиска с учётом разных весов для прямых и диагональных ходов.
      * <p>
      * Сложность: O(W * H * log(W * H))
      *
@@ -57,118 +147,443 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
      */
     @Override
     public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
-        // 1. Создаём сетку заблокированных клеток (занятых другими юнитами)
-        boolean[][] blocked = new boolean[WIDTH][HEIGHT];
+        PathMetrics handles = handles();
+        long start = handles.getTargetPath().start();
+        PathSearchBuffers buffers = BUFFERS.get();
+        List<Edge> path = searchAmongUnits(buffers, attackUnit, targetUnit, existingUnitList);
+        recordSearch(handles, start, buffers);
+        return path;
+    }
+
+    private List<Edge> searchAmongUnits(PathSearchBuffers buffers, Unit attackUnit, Unit targetUnit,
+                                        List<Unit> existingUnitList) {
+        buffers.expandedNodes = 0;
+        buffers.queuePushes = 0;
+        buffers.corridorHits = 0;
+        if (!isInside(attackUnit) || !isInside(targetUnit)) {
+            return Collections.emptyList();
+        }
 
+        // 1. Заполняем сетку заблокированных клеток (занятых другими юнитами)
+        boolean[] blocked = buffers.blocked;
+        Arrays.fill(blocked, false);
         for (Unit unit : existingUnitList) {
             if (unit.isAlive() && unit != attackUnit && unit != targetUnit) {
                 int x = unit.getxCoordinate();
                 int y = unit.getyCoordinate();
-                if (x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT) {
-                    blocked[x][y] = true;
+                if (isInside(x, y)) {
+                    blocked[x * HEIGHT + y] = true;
                 }
             }
         }
 
-        int startX = attackUnit.getxCoordinate();
-        int startY = attackUnit.getyCoordinate();
-        int endX = targetUnit.getxCoordinate();
-        int endY = targetUnit.getyCoordinate();
+        // 2. Поиск выбранной стратегией
+        return findPath(buffers, attackUnit, targetUnit);
+    }
 
-        // 2. Алгоритм Дейкстры
-        // distance[x][y] - кратчайшее расстояние от старта до (x, y)
-        double[][] distance = new double[WIDTH][HEIGHT];
-        for (double[] row : distance) {
-            Arrays.fill(row, Double.MAX_VALUE);
+    /**
+     * Находит кратчайший путь, беря препятствия из битовой доски вместо обхода списка юнитов.
+     * Клетки атакующего и цели препятствиями не считаются.
+     * <p>
+     * Сложность: O(W * H * log(W * H))
+     *
+     * @param attackUnit атакующий юнит
+     * @param targetUnit цель атаки
+     * @param board      битовая доска поля размером W × H
+     * @return список координат пути от attackUnit до targetUnit, или пустой список если путь не найден
+     */
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, BattlefieldBitboard board) {
+        if (board.getWidth() != WIDTH || board.getHeight() != HEIGHT) {
+            throw new IllegalArgumentException("Размер доски " + board.getWidth() + "x" + board.getHeight()
+                    + " не совпадает с полем " + WIDTH + "x" + HEIGHT);
         }
-        distance[startX][startY] = 0;
-
-        // parent[x][y] - предыдущая позиция для восстановления пути
-        int[][][] parent = new int[WIDTH][HEIGHT][];
+        PathMetrics handles = handles();
+        long start = handles.getTargetPath().start();
+        PathSearchBuffers buffers = BUFFERS.get();
+        buffers.expandedNodes = 0;
+        buffers.queuePushes = 0;
+        buffers.corridorHits = 0;
+        List<Edge> path = Collections.emptyList();
+        if (isInside(attackUnit) && isInside(targetUnit)) {
+            board.fillBlocked(buffers.blocked, attackUnit, targetUnit);
+            path = findPath(buffers, attackUnit, targetUnit);
+        }
+        recordSearch(handles, start, buffers);
+        return path;
+    }
 
-        // Приоритетная очередь: {distance, x, y}
-        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[0]));
-        pq.add(new double[]{0, startX, startY});
+    /**
+     * Находит пути для многих пар (атакующий, цель) по одному снимку поля.
+     * <p>
+     * Сетка занятости строится один раз. Путь по сетке обратим, поэтому запросы группируются по тому концу
+     * (клетке атакующего или цели), у которого меньше различных клеток: в раунде много атакующих
+     * выбирают цели среди немногих открытых юнитов, и групп получается столько, сколько различных целей.
+     * Для группы выполняется один проход Дейкстры из общей клетки до всех других концов её запросов;
+     * занятые клетки-концы входят в поиск как тупики, не пропуская путь дальше, — как и в одиночном запросе,
+     * где все живые юниты, кроме атакующего и цели, — препятствия. Стоимость каждого пути совпадает с
+     * {@link #getTargetPath(Unit, Unit, List)}; среди путей равной стоимости может быть выбран другой.
+     * Стратегия экземпляра к пакетному поиску не применяется.
+     * <p>
+     * Сложность: O(n + q × log q + G × W × H × log(W × H)), где n — число юнитов, q — число запросов,
+     * G — число групп
+     *
+     * @param queries          пары (атакующий, цель)
+     * @param existingUnitList список всех юнитов на поле
+     * @return пути в порядке запросов; пустой список, если путь не найден
+     */
+    public List<List<Edge>> getTargetPaths(List<PathQuery> queries, List<Unit> existingUnitList) {
+        PathMetrics handles = handles();
+        long start = handles.getTargetPaths().start();
+        PathSearchBuffers buffers = BUFFERS.get();
+        buffers.expandedNodes = 0;
+        buffers.queuePushes = 0;
 
-        while (!pq.isEmpty()) {
-            double[] current = pq.poll();
-            double currentDist = current[0];
-            int x = (int) current[1];
-            int y = (int) current[2];
+        int count = queries.size();
+        List<List<Edge>> paths = new ArrayList<>(Collections.nCopies(count, Collections.<Edge>emptyList()));
 
-            // Достигли цели
-            if (x == endX && y == endY) {
-                return reconstructPath(parent, startX, startY, endX, endY);
+        // 1. Число живых юнитов в каждой клетке — общая сетка препятствий всех запросов
+        int[] occupancy = buffers.occupancy;
+        Arrays.fill(occupancy, 0);
+        for (Unit unit : existingUnitList) {
+            if (unit.isAlive() && isInside(unit)) {
+                occupancy[unit.getxCoordinate() * HEIGHT + unit.getyCoordinate()]++;
             }
+        }
+        boolean[] blocked = buffers.blocked;
+        for (int cell = 0; cell < CELLS; cell++) {
+            blocked[cell] = occupancy[cell] > 0;
+        }
 
-            // Пропускаем, если уже нашли более короткий путь
-            if (currentDist > distance[x][y]) {
+        // 2. Отбрасываем запросы без пути и выбираем сторону группировки;
+        //    запрос с путём упаковывается в ключ (клетка атакующего, клетка цели, номер запроса)
+        long[] keys = buffers.batchKeys(count);
+        long[] distinctSources = buffers.distinctSources;
+        long[] distinctTargets = buffers.distinctTargets;
+        Arrays.fill(distinctSources, 0L);
+        Arrays.fill(distinctTargets, 0L);
+        int pending = 0;
+        for (int i = 0; i < count; i++) {
+            PathQuery query = queries.get(i);
+            if (!isInside(query.attackUnit()) || !isInside(query.targetUnit())) {
+                continue;
+            }
+            int source = cellOf(query.attackUnit());
+            int target = cellOf(query.targetUnit());
+            if (source == target) {
+                paths.set(i, List.of(new Edge(source / HEIGHT, source % HEIGHT)));
                 continue;
             }
+            // Клетка цели, занятая кем-то ещё, недостижима и в одиночном запросе
+            int othersAtTarget = occupancy[target]
+                    - (query.targetUnit().isAlive() ? 1 : 0);
+            if (othersAtTarget > 0) {
+                continue;
+            }
+            keys[pending++] = batchKey(source, target, i);
+            distinctSources[source >>> 6] |= 1L << source;
+            distinctTargets[target >>> 6] |= 1L << target;
+        }
+        boolean fromTargets = cardinality(distinctTargets) < cardinality(distinctSources);
+        if (fromTargets) {
+            for (int k = 0; k < pending; k++) {
+                keys[k] = batchKey(batchEnd(keys[k]), batchRoot(keys[k]), batchIndex(keys[k]));
+            }
+        }
+
+        // 3. Сортировка ключей собирает запросы с общим корнем подряд; один проход на группу
+        Arrays.sort(keys, 0, pending);
+        boolean[] goal = buffers.goal;
+        int groups = 0;
+        for (int from = 0, to; from < pending; from = to) {
+            int root = batchRoot(keys[from]);
+            int goals = 0;
+            for (to = from; to < pending && batchRoot(keys[to]) == root; to++) {
+                int end = batchEnd(keys[to]);
+                if (!goal[end]) {
+                    goal[end] = true;
+                    goals++;
+                }
+            }
+            multiGoalSearch(buffers, root, goals);
+            for (int k = from; k < to; k++) {
+                int end = batchEnd(keys[k]);
+                goal[end] = false;
+                List<Edge> path = reconstructPath(buffers, root, end);
+                paths.set(batchIndex(keys[k]), fromTargets ? path.reversed() : path);
+            }
+            groups++;
+        }
+
+        handles.getTargetPaths().stop(start);
+        handles.batchSweeps().add(groups);
+        handles.nodesExpanded().add(buffers.expandedNodes);
+        handles.queuePushes().add(buffers.queuePushes);
+        return paths;
+    }
+
+    private static void recordSearch(PathMetrics handles, long start, PathSearchBuffers buffers) {
+        handles.getTargetPath().stop(start);
+        handles.nodesExpanded().add(buffers.expandedNodes);
+        handles.queuePushes().add(buffers.queuePushes);
+        handles.corridorHits().add(buffers.corridorHits);
+    }
+
+    /**
+     * Ключ запроса пакетного поиска: корень группы в старших 16 битах, другой конец в следующих 16,
+     * номер запроса в младших 32. Клетки поля 27 × 21 помещаются в 16 бит.
+     */
+    private static long batchKey(int root, int end, int index) {
+        return ((long) root << 48) | ((long) end << 32) | index;
+    }
+
+    private static int batchRoot(long key) {
+        return (int) (key >>> 48);
+    }
+
+    private static int batchEnd(long key) {
+        return (int) (key >>> 32) & 0xFFFF;
+    }
+
+    private static int batchIndex(long key) {
+        return (int) key;
+    }
+
+    private static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Счётчики и таймеры поиска, разрешённые по именам в реестре registry.
+     */
+    private record PathMetrics(MetricsRegistry registry,
+                               MetricsRegistry.Timer getTargetPath,
+                               MetricsRegistry.Timer getTargetPaths,
+                               MetricsRegistry.Counter nodesExpanded,
+                               MetricsRegistry.Counter queuePushes,
+                               MetricsRegistry.Counter corridorHits,
+                               MetricsRegistry.Counter batchSweeps) {
+
+        PathMetrics(MetricsRegistry registry) {
+            this(registry,
+                    registry.timer(METRIC_GET_TARGET_PATH),
+                    registry.timer(METRIC_GET_TARGET_PATHS),
+                    registry.counter(METRIC_NODES_EXPANDED),
+                    registry.counter(METRIC_QUEUE_PUSHES),
+                    registry.counter(METRIC_CORRIDOR_HITS),
+                    registry.counter(METRIC_BATCH_SWEEPS));
+        }
+    }
+
+    /**
+     * Запускает поиск выбранной стратегией по заполненной сетке препятствий.
+     */
+    private List<Edge> findPath(PathSearchBuffers buffers, Unit attackUnit, Unit targetUnit) {
+        int start = attackUnit.getxCoordinate() * HEIGHT + attackUnit.getyCoordinate();
+        int target = targetUnit.getxCoordinate() * HEIGHT + targetUnit.getyCoordinate();
+        if (corridorShortcut) {
+            int length = OctileCorridor.trace(buffers.blocked, HEIGHT, start, target, buffers.pathCells);
+            if (length > 0) {
+                buffers.corridorHits++;
+                List<Edge> path = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    path.add(new Edge(buffers.pathCells[i] / HEIGHT, buffers.pathCells[i] % HEIGHT));
+                }
+                return path;
+            }
+        }
+        boolean found = switch (strategy) {
+            case DIJKSTRA -> bestFirstSearch(buffers, start, target, false);
+            case A_STAR -> bestFirstSearch(buffers, start, target, true);
+            case JUMP_POINT -> jumpPointSearch.search(buffers, start, target);
+        };
+        if (!found) {
+            // Путь не найден
+            return Collections.emptyList();
+        }
+        return reconstructPath(buffers, start, target);
+    }
+
+    /**
+     * Алгоритм Дейкстры (или A* при useHeuristic) от start до target на плоской сетке.
+     * Заполняет buffers.distance и buffers.parent.
+     * Сложность: O(W * H * log(W * H))
+     *
+     * @return true, если цель достижима
+     */
+    private boolean bestFirstSearch(PathSearchBuffers buffers, int start, int target, boolean useHeuristic) {
+        boolean[] blocked = buffers.blocked;
+        double[] distance = buffers.distance;
+        int[] parent = buffers.parent;
+        IndexedMinHeap heap = buffers.heap;
+        int targetX = target / HEIGHT;
+        int targetY = target % HEIGHT;
+
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        heap.clear();
+
+        distance[start] = 0;
+        heap.insertOrDecrease(start, 0);
+        buffers.queuePushes++;
+
+        while (!heap.isEmpty()) {
+            int current = heap.pollMin();
+            buffers.expandedNodes++;
+
+            // Достигли цели
+            if (current == target) {
+                heap.clear();
+                return true;
+            }
+
+            int x = current / HEIGHT;
+            int y = current % HEIGHT;
+            double currentDist = distance[current];
 
             // Проверяем все 8 направлений
-            for (int[] direction : DIRECTIONS) {
-                int dx = direction[0];
-                int dy = direction[1];
-                int nx = x + dx;
-                int ny = y + dy;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
 
                 // Проверяем границы поля
-                if (nx < 0 || nx >= WIDTH || ny < 0 || ny >= HEIGHT) {
+                if (!isInside(nx, ny)) {
                     continue;
                 }
 
                 // Проверяем, что клетка не занята
-                if (blocked[nx][ny]) {
+                int next = nx * HEIGHT + ny;
+                if (blocked[next]) {
                     continue;
                 }
 
-                // Вычисляем вес ребра
-                boolean isDiagonal = (dx != 0 && dy != 0);
-                double edgeCost = isDiagonal ? DIAGONAL_COST : STRAIGHT_COST;
-                double newDist = distance[x][y] + edgeCost;
+                // Первые четыре направления — прямые, остальные — диагональные
+                double newDist = currentDist + (d < 4 ? STRAIGHT_COST : DIAGONAL_COST);
 
                 // Если нашли более короткий путь
-                if (newDist < distance[nx][ny]) {
-                    distance[nx][ny] = newDist;
-                    parent[nx][ny] = new int[]{x, y};
-                    pq.add(new double[]{newDist, nx, ny});
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    parent[next] = current;
+                    // Эвристика постоянна для клетки, поэтому уменьшение g уменьшает и приоритет
+                    double priority = useHeuristic ? newDist + octileDistance(nx, ny, targetX, targetY) : newDist;
+                    heap.insertOrDecrease(next, priority);
+                    buffers.queuePushes++;
                 }
             }
         }
+        return false;
+    }
 
-        // Путь не найден
-        return Collections.emptyList();
+    /**
+     * Дейкстра от root до всех клеток, отмеченных в buffers.goal. Занятые цели — тупики: в них можно
+     * войти, но не пройти дальше. Останавливается, когда все цели извлечены из кучи.
+     * Сложность: O(W * H * log(W * H))
+     */
+    private void multiGoalSearch(PathSearchBuffers buffers, int root, int goals) {
+        boolean[] blocked = buffers.blocked;
+        boolean[] goal = buffers.goal;
+        double[] distance = buffers.distance;
+        int[] parent = buffers.parent;
+        IndexedMinHeap heap = buffers.heap;
+
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        heap.clear();
+        distance[root] = 0;
+        heap.insertOrDecrease(root, 0);
+        buffers.queuePushes++;
+
+        int remaining = goals;
+        while (!heap.isEmpty()) {
+            int current = heap.pollMin();
+            buffers.expandedNodes++;
+            if (current != root && goal[current]) {
+                if (--remaining == 0) {
+                    heap.clear();
+                    return;
+                }
+                if (blocked[current]) {
+                    continue;
+                }
+            }
+
+            int x = current / HEIGHT;
+            int y = current % HEIGHT;
+            double currentDist = distance[current];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!isInside(nx, ny)) {
+                    continue;
+                }
+                int next = nx * HEIGHT + ny;
+                if (blocked[next] && !goal[next]) {
+                    continue;
+                }
+                double newDist = currentDist + (d < 4 ? STRAIGHT_COST : DIAGONAL_COST);
+                if (newDist < distance[next]) {
+                    distance[next] = newDist;
+                    parent[next] = current;
+                    heap.insertOrDecrease(next, newDist);
+                    buffers.queuePushes++;
+                }
+            }
+        }
     }
 
     /**
      * Восстанавливает путь от стартовой точки до конечной.
      * Сложность: O(длина пути) = O(W + H) в худшем случае
      */
-    private List<Edge> reconstructPath(int[][][] parent, int startX, int startY, int endX, int endY) {
-        List<Edge> path = new ArrayList<>();
-
-        int x = endX;
-        int y = endY;
+    private List<Edge> reconstructPath(PathSearchBuffers buffers, int start, int target) {
+        int[] parent = buffers.parent;
+        int[] pathCells = buffers.pathCells;
 
-        // Идём от конца к началу по ссылкам parent
-        while (!(x == startX && y == startY)) {
-            path.add(new Edge(x, y));
-            int[] prev = parent[x][y];
-            if (prev == null) {
+        // Идём от конца к началу по ссылкам parent, складывая клетки в стек
+        int length = 0;
+        int cell = target;
+        while (cell != start) {
+            pathCells[length++] = cell;
+            cell = parent[cell];
+            if (cell < 0) {
                 // Путь прерван (не должно происходить)
                 return Collections.emptyList();
             }
-            x = prev[0];
-            y = prev[1];
         }
+        pathCells[length++] = start;
+
+        // Выгружаем стек в обратном порядке (от начала к концу)
+        List<Edge> path = new ArrayList<>(length);
+        for (int i = length - 1; i >= 0; i--) {
+            path.add(new Edge(pathCells[i] / HEIGHT, pathCells[i] % HEIGHT));
+        }
+        return path;
+    }
 
-        // Добавляем стартовую точку
-        path.add(new Edge(startX, startY));
+    /**
+     * Октильное расстояние между клетками на пустом поле:
+     * max(dx, dy) прямых ходов, из которых min(dx, dy) заменены диагональными.
+     * Сложность: O(1)
+     */
+    static double octileDistance(int x1, int y1, int x2, int y2) {
+        int dx = Math.abs(x1 - x2);
+        int dy = Math.abs(y1 - y2);
+        int diagonal = Math.min(dx, dy);
+        return diagonal * DIAGONAL_COST + (Math.max(dx, dy) - diagonal) * STRAIGHT_COST;
+    }
 
-        // Переворачиваем путь (от начала к концу)
-        Collections.reverse(path);
+    private static int cellOf(Unit unit) {
+        return unit.getxCoordinate() * HEIGHT + unit.getyCoordinate();
+    }
 
-        return path;
+    private static boolean isInside(Unit unit) {
+        return isInside(unit.getxCoordinate(), unit.getyCoordinate());
+    }
+
+    static boolean isInside(int x, int y) {
+        return x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT;
     }
 }
@@ -0,0 +1,91 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ArmyMutationTracker.
+ * Проверяем:
+ * - Продвижение эпохи армии погибшей цели через лог
+ * - Однократный учёт гибели и перемещения
+ * - Передачу атак и границ раундов исходному логу
+ */
+class ArmyMutationTrackerTest {
+
+    @Test
+    @DisplayName("Погибшая цель атаки продвигает эпоху своей армии")
+    void printBattleLog_deadTarget_shouldAdvanceEpoch() {
+        Unit left = createUnit("Left");
+        Unit right = createUnit("Right");
+        ArmyMutationTracker tracker = new ArmyMutationTracker(createArmy(left), createArmy(right));
+
+        tracker.printBattleLog(left, right);
+        assertEquals(0, tracker.epoch(false));
+
+        right.setAlive(false);
+        tracker.printBattleLog(left, right);
+        tracker.printBattleLog(left, right);
+
+        assertEquals(1, tracker.epoch(false), "Повторное сообщение о той же гибели не учитывается");
+        assertEquals(0, tracker.epoch(true));
+    }
+
+    @Test
+    @DisplayName("Перемещение продвигает эпоху, незнакомый юнит - эпохи обеих армий")
+    void onUnitMoved_shouldAdvanceEpoch() {
+        Unit left = createUnit("Left");
+        ArmyMutationTracker tracker = new ArmyMutationTracker(createArmy(left), createArmy());
+
+        tracker.onUnitMoved(left);
+        tracker.onUnitMoved(createUnit("Stranger"));
+
+        assertEquals(2, tracker.epoch(true));
+        assertEquals(1, tracker.epoch(false));
+    }
+
+    @Test
+    @DisplayName("Атаки и границы раундов передаются исходному логу")
+    void printBattleLog_shouldForwardToDelegate() {
+        Unit left = createUnit("Left");
+        List<String> events = new ArrayList<>();
+        RoundAwareBattleLog delegate = new RoundAwareBattleLog() {
+            @Override
+            public void onRoundStart(int round) {
+                events.add("round " + round);
+            }
+
+            @Override
+            public void onBattleEnd() {
+                events.add("end");
+            }
+
+            @Override
+            public void printBattleLog(Unit attacker, Unit target) {
+                events.add(attacker.getName() + " -> " + (target == null ? "null" : target.getName()));
+            }
+        };
+        ArmyMutationTracker tracker = new ArmyMutationTracker(createArmy(left), createArmy(), delegate);
+
+        tracker.onRoundStart(1);
+        tracker.printBattleLog(left, null);
+        tracker.onBattleEnd();
+
+        assertEquals(List.of("round 1", "Left -> null", "end"), events);
+    }
+
+    private Army createArmy(Unit... units) {
+        return new Army(new ArrayList<>(List.of(units)));
+    }
+
+    private Unit createUnit(String name) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, 0, 0);
+        unit.setAlive(true);
+        return unit;
+    }
+}
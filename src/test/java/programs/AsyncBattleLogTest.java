@@ -0,0 +1,247 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.Program;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для AsyncBattleLog.
+ * Проверяем:
+ * - Доставку всех событий в порядке атак со снимком здоровья цели
+ * - Политики BLOCK, DROP и SPILL при переполнении буфера
+ * - Номера раундов и сброс лога в конце боя SimulateBattleImpl
+ * - Делегат PrintBattleLog видит состояние юнитов на момент атаки, номера юнитов сбрасываются в конце боя
+ * - Копии юнитов для делегата не занимают реестр номеров, в том числе при переполнении в SPILL
+ */
+class AsyncBattleLogTest {
+
+    @Test
+    @DisplayName("BLOCK: все события доставлены по порядку со снимком здоровья")
+    void printBattleLog_block_shouldDeliverAllInOrder() {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Unit attacker = createUnit("Attacker", 100);
+        Unit target = createUnit("Target", 1_000_000);
+
+        try (AsyncBattleLog log = new AsyncBattleLog(recordingSink(received), BackpressurePolicy.BLOCK, 8, 3)) {
+            for (int i = 0; i < 5000; i++) {
+                target.setHealth(i);
+                log.printBattleLog(attacker, i % 10 == 0 ? null : target);
+            }
+            log.flush();
+
+            assertEquals(5000, received.size());
+            assertEquals(5000, log.getDelivered());
+            assertEquals(0, log.getDropped());
+        }
+        for (int i = 0; i < 5000; i++) {
+            String expected = "0:Attacker->" + (i % 10 == 0 ? "null:0" : "Target:" + i);
+            assertEquals(expected, received.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("DROP: при заполненном буфере события отбрасываются")
+    void printBattleLog_drop_shouldDropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Unit attacker = createUnit("Attacker", 100);
+
+        try (AsyncBattleLog log = new AsyncBattleLog(blockingSink(received, release),
+                BackpressurePolicy.DROP, 4, 1)) {
+            for (int i = 0; i < 50; i++) {
+                log.printBattleLog(attacker, null);
+            }
+            release.countDown();
+            log.flush();
+
+            assertTrue(log.getDropped() > 0);
+            assertEquals(50, log.getDelivered() + log.getDropped());
+            assertEquals(log.getDelivered(), received.size());
+        }
+    }
+
+    @Test
+    @DisplayName("SPILL: переполнение уходит в файл, порядок сохраняется")
+    void printBattleLog_spill_shouldKeepOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Unit attacker = createUnit("Attacker", 100);
+        Unit target = createUnit("Target", 100);
+
+        try (AsyncBattleLog log = new AsyncBattleLog(blockingSink(received, release),
+                BackpressurePolicy.SPILL, 4, 2)) {
+            for (int i = 0; i < 300; i++) {
+                log.onRoundStart(i / 10);
+                target.setHealth(i);
+                log.printBattleLog(attacker, target);
+            }
+            assertTrue(log.getSpilled() > 0);
+            release.countDown();
+            log.flush();
+
+            assertEquals(300, log.getDelivered());
+            assertEquals(0, log.getDropped());
+        }
+        for (int i = 0; i < 300; i++) {
+            assertEquals((i / 10) + ":Attacker->Target:" + i, received.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Исключение получателя не останавливает доставку")
+    void printBattleLog_failingSink_shouldCountErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        AsyncBattleLog.Sink sink = (round, attacker, target, health) -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("sink failure");
+            }
+        };
+
+        try (AsyncBattleLog log = new AsyncBattleLog(sink, BackpressurePolicy.BLOCK, 16, 4)) {
+            for (int i = 0; i < 10; i++) {
+                log.printBattleLog(createUnit("Attacker", 1), null);
+            }
+            log.flush();
+
+            assertEquals(10, calls.get());
+            assertEquals(5, log.getSinkErrors());
+            assertEquals(10, log.getDelivered());
+        }
+    }
+
+    @Test
+    @DisplayName("SimulateBattleImpl передаёт номера раундов и сбрасывает лог в конце боя")
+    void simulate_shouldReportRoundsAndFlushOnBattleEnd() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Unit player = createUnit("Player", 100);
+        Unit computer = createUnit("Computer", 100);
+        AtomicInteger attacks = new AtomicInteger();
+        Program playerProgram = mock(Program.class);
+        when(playerProgram.attack()).thenAnswer(_ -> {
+            if (attacks.incrementAndGet() == 3) {
+                computer.setAlive(false);
+            }
+            return computer;
+        });
+        player.setProgram(playerProgram);
+        Program computerProgram = mock(Program.class);
+        when(computerProgram.attack()).thenReturn(player);
+        computer.setProgram(computerProgram);
+
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        try (AsyncBattleLog log = new AsyncBattleLog(recordingSink(received), BackpressurePolicy.BLOCK, 4, 2)) {
+            Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+            field.setAccessible(true);
+            field.set(simulateBattle, log);
+
+            simulateBattle.simulate(createArmy(player), createArmy(computer));
+
+            // Без явного flush: конец боя сам дожидается доставки
+            assertEquals(List.of(
+                    "1:Player->Computer:100", "1:Computer->Player:100",
+                    "2:Player->Computer:100", "2:Computer->Player:100",
+                    "3:Player->Computer:100"), new ArrayList<>(received));
+        }
+    }
+
+    @Test
+    @DisplayName("Делегат PrintBattleLog видит здоровье цели на момент атаки, а не на момент доставки")
+    void printBattleLog_delegate_shouldSeeStateAtAttackTime() throws Exception {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        PrintBattleLog delegate = (attacker, target) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            printed.add(attacker.getName() + "->" + target.getName() + ":" + target.getHealth() + ":" + target.isAlive());
+        };
+        Unit attacker = createUnit("Attacker", 100);
+        Unit target = createUnit("Target", 70);
+
+        try (AsyncBattleLog log = new AsyncBattleLog(delegate, BackpressurePolicy.BLOCK, 8, 2)) {
+            log.printBattleLog(attacker, target);
+            // Симуляция продолжает бой, пока делегат ещё не получил событие
+            target.setHealth(0);
+            target.setAlive(false);
+            release.countDown();
+            log.onBattleEnd();
+
+            assertEquals(List.of("Attacker->Target:70:true"), new ArrayList<>(printed));
+            assertEquals(0, log.registeredUnits(), "После конца боя лог не удерживает юнитов");
+        }
+    }
+
+    @Test
+    @DisplayName("Делегат PrintBattleLog: копии не попадают в реестр номеров, в SPILL порядок и состояние сохраняются")
+    void printBattleLog_delegateSpill_shouldNotRegisterCopies() {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        PrintBattleLog delegate = (attacker, target) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            printed.add(attacker.getName() + "->" + (target == null ? "null" : target.getName() + ":" + target.getHealth()));
+        };
+        Unit attacker = createUnit("Attacker", 100);
+        Unit target = createUnit("Target", 100);
+
+        try (AsyncBattleLog log = new AsyncBattleLog(delegate, BackpressurePolicy.SPILL, 4, 2)) {
+            for (int i = 0; i < 200; i++) {
+                target.setHealth(i);
+                log.printBattleLog(attacker, i % 50 == 0 ? null : target);
+            }
+            release.countDown();
+            log.flush();
+
+            assertTrue(log.getSpilled() > 0);
+            assertEquals(0, log.registeredUnits());
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 50 == 0 ? "Attacker->null" : "Attacker->Target:" + i, printed.get(i));
+        }
+    }
+
+    private AsyncBattleLog.Sink recordingSink(List<String> received) {
+        return (round, attacker, target, health) -> received.add(round + ":" + attacker.getName() + "->"
+                + (target == null ? "null" : target.getName()) + ":" + health);
+    }
+
+    private AsyncBattleLog.Sink blockingSink(List<String> received, CountDownLatch release) {
+        AsyncBattleLog.Sink recording = recordingSink(received);
+        return (round, attacker, target, health) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recording.onAttack(round, attacker, target, health);
+        };
+    }
+
+    private Army createArmy(Unit... units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(Arrays.asList(units)));
+        return army;
+    }
+
+    private Unit createUnit(String name, int health) {
+        Unit unit = new Unit(name, "TestType", health, 10, 50, "melee", null, null, 0, 0);
+        unit.setAlive(true);
+        return unit;
+    }
+}
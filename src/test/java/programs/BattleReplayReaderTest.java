@@ -0,0 +1,141 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для BattleReplayReader.
+ * Проверяем:
+ * - Восстановление итогового состояния боя без запуска программ
+ * - Произвольный доступ к раунду через индекс
+ * - Отказ открывать незавершённый или чужой файл
+ */
+class BattleReplayReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Повтор записи восстанавливает итоговое состояние боя")
+    void replayAll_shouldRestoreFinalState() throws IOException {
+        Army playerArmy = army("Player", 24, 6);
+        Army computerArmy = army("Computer", 0, 7);
+        Path file = tempDir.resolve("battle.replay");
+
+        BattleOutcome outcome;
+        try (BattleReplayWriter writer = new BattleReplayWriter(file, playerArmy, computerArmy)) {
+            outcome = new HeadlessBattleSimulator(new Random(11), writer).run(playerArmy, computerArmy);
+        }
+
+        try (BattleReplayReader reader = new BattleReplayReader(file)) {
+            Army[] replayed = reader.replayAll();
+
+            assertEquals(outcome.rounds(), reader.getRoundCount());
+            assertEquals(outcome.attacks(), reader.getRecordCount());
+            assertEquals(describe(playerArmy), describe(replayed[0]));
+            assertEquals(describe(computerArmy), describe(replayed[1]));
+        }
+    }
+
+    @Test
+    @DisplayName("Начальное состояние и состояние перед раундом N")
+    void replayTo_shouldApplyRecordsBeforeRound() throws IOException {
+        Unit player = createUnit("Player", 24, 5, 100);
+        Unit computer = createUnit("Computer", 1, 5, 100);
+        Path file = tempDir.resolve("rounds.replay");
+
+        try (BattleReplayWriter writer = new BattleReplayWriter(file, new Army(List.of(player)),
+                new Army(List.of(computer)))) {
+            for (int round = 1; round <= 4; round++) {
+                writer.onRoundStart(round);
+                computer.setHealth(100 - 20 * round);
+                writer.printBattleLog(player, computer);
+                player.setyCoordinate(5 + round);
+                writer.recordMove(player);
+            }
+        }
+
+        try (BattleReplayReader reader = new BattleReplayReader(file)) {
+            assertEquals(100, reader.replayTo(1)[1].getUnits().getFirst().getHealth());
+            assertEquals(40, reader.replayTo(4)[1].getUnits().getFirst().getHealth());
+            assertEquals(7, reader.replayTo(3)[0].getUnits().getFirst().getyCoordinate());
+            assertEquals(20, reader.replayAll()[1].getUnits().getFirst().getHealth());
+
+            List<BattleReplayReader.Event> round3 = reader.eventsOfRound(3);
+            assertEquals(2, round3.size());
+            assertEquals(new BattleReplayReader.Event(BattleReplayReader.Kind.ATTACK, 0, 1, 40, true), round3.get(0));
+            assertEquals(new BattleReplayReader.Event(BattleReplayReader.Kind.MOVE, 0, 24, 8, false), round3.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Длинная запись открывается сразу, раунд берётся из индекса")
+    void eventsOfRound_longReplay_shouldUseIndex() throws IOException {
+        Unit player = createUnit("Player", 24, 0, 100);
+        Unit computer = createUnit("Computer", 0, 0, 1_000_000);
+        Path file = tempDir.resolve("long.replay");
+
+        try (BattleReplayWriter writer = new BattleReplayWriter(file, new Army(List.of(player)),
+                new Army(List.of(computer)))) {
+            for (int round = 1; round <= 10_000; round++) {
+                writer.onRoundStart(round);
+                computer.setHealth(1_000_000 - round);
+                writer.printBattleLog(player, computer);
+                writer.printBattleLog(computer, null);
+            }
+        }
+
+        try (BattleReplayReader reader = new BattleReplayReader(file)) {
+            assertEquals(10_000, reader.getRoundCount());
+            assertEquals(20_000, reader.getRecordCount());
+            assertEquals(2 * 7_499, reader.firstRecordOfRound(7_500));
+            List<BattleReplayReader.Event> events = reader.eventsOfRound(7_500);
+            assertEquals(1_000_000 - 7_500, events.get(0).value());
+            assertEquals(-1, events.get(1).otherId());
+        }
+    }
+
+    @Test
+    @DisplayName("Чужой файл не открывается")
+    void open_foreignFile_shouldThrow() throws IOException {
+        Path file = tempDir.resolve("foreign.bin");
+        Files.write(file, new byte[128]);
+
+        assertThrows(IllegalArgumentException.class, () -> new BattleReplayReader(file));
+    }
+
+    private List<String> describe(Army army) {
+        List<String> description = new ArrayList<>();
+        for (Unit unit : army.getUnits()) {
+            description.add(unit.getName() + ":" + unit.getHealth() + ":" + unit.isAlive()
+                    + "@" + unit.getxCoordinate() + "," + unit.getyCoordinate());
+        }
+        return description;
+    }
+
+    private Army army(String prefix, int column, int size) {
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Unit unit = createUnit(prefix + i, column + i % 3, 2 * i, 60 + 10 * i);
+            unit.setUnitType(i % 3 == 0 ? "Archer" : "Knight");
+            units.add(unit);
+        }
+        return new Army(units);
+    }
+
+    private Unit createUnit(String name, int x, int y, int health) {
+        Unit unit = new Unit(name, "Knight", health, 25, 50, "melee", Map.of("Archer", 1.5), null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,114 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для BattleReplayWriter.
+ * Проверяем:
+ * - Фиксированный размер записей, индекса и концовки
+ * - Запись через несколько окон отображения и обрезку файла после закрытия канала
+ * - Ошибки при записи неизвестного юнита и после завершения
+ */
+class BattleReplayWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Файл обрезается до заголовка, записей, индекса и концовки")
+    void close_shouldTruncateToExactLength() throws IOException {
+        Unit player = createUnit("Player");
+        Unit computer = createUnit("Computer");
+        Path file = tempDir.resolve("size.replay");
+
+        Path empty = tempDir.resolve("empty.replay");
+        new BattleReplayWriter(empty, new Army(List.of(player)), new Army(List.of(computer))).close();
+
+        try (BattleReplayWriter writer = new BattleReplayWriter(file, new Army(List.of(player)),
+                new Army(List.of(computer)))) {
+            writer.onRoundStart(1);
+            writer.printBattleLog(player, computer);
+            writer.onRoundStart(2);
+            writer.printBattleLog(computer, player);
+            writer.printBattleLog(player, null);
+        }
+
+        // Пустая запись — это заголовок и концовка, остальное — записи и индекс раундов
+        assertEquals(Files.size(empty) + 3 * BattleReplayFormat.RECORD_BYTES + 2 * Long.BYTES, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Запись длиннее окна отображения читается целиком, файл обрезан точно")
+    void close_recordsSpanSeveralWindows_shouldReadBackAndTruncate() throws IOException {
+        Unit player = createUnit("Player");
+        Unit computer = createUnit("Computer");
+        Path file = tempDir.resolve("large.replay");
+        int rounds = 3;
+        int attacksPerRound = 50_000; // 150 000 записей по 16 байт — больше двух окон по 1 МБ
+
+        Path empty = tempDir.resolve("empty.replay");
+        new BattleReplayWriter(empty, new Army(List.of(player)), new Army(List.of(computer))).close();
+
+        try (BattleReplayWriter writer = new BattleReplayWriter(file, new Army(List.of(player)),
+                new Army(List.of(computer)))) {
+            for (int round = 1; round <= rounds; round++) {
+                writer.onRoundStart(round);
+                for (int i = 0; i < attacksPerRound; i++) {
+                    computer.setHealth(i);
+                    writer.printBattleLog(player, computer);
+                }
+            }
+            writer.onBattleEnd();
+        }
+
+        long records = (long) rounds * attacksPerRound;
+        assertEquals(Files.size(empty) + records * BattleReplayFormat.RECORD_BYTES + rounds * Long.BYTES,
+                Files.size(file));
+        try (BattleReplayReader reader = new BattleReplayReader(file)) {
+            assertEquals(records, reader.getRecordCount());
+            List<BattleReplayReader.Event> lastRound = reader.eventsOfRound(rounds);
+            assertEquals(attacksPerRound, lastRound.size());
+            assertEquals(attacksPerRound - 1, lastRound.get(attacksPerRound - 1).value());
+        }
+    }
+
+    @Test
+    @DisplayName("Юнит вне снимка армий - ошибка")
+    void printBattleLog_unknownUnit_shouldThrow() throws IOException {
+        Unit player = createUnit("Player");
+        try (BattleReplayWriter writer = new BattleReplayWriter(tempDir.resolve("unknown.replay"),
+                new Army(List.of(player)), new Army(List.of()))) {
+
+            assertThrows(IllegalArgumentException.class, () -> writer.printBattleLog(player, createUnit("Stranger")));
+        }
+    }
+
+    @Test
+    @DisplayName("После конца боя запись запрещена")
+    void printBattleLog_afterBattleEnd_shouldThrow() throws IOException {
+        Unit player = createUnit("Player");
+        try (BattleReplayWriter writer = new BattleReplayWriter(tempDir.resolve("ended.replay"),
+                new Army(List.of(player)), new Army(List.of()))) {
+            writer.onBattleEnd();
+
+            assertThrows(IllegalStateException.class, () -> writer.printBattleLog(player, null));
+        }
+    }
+
+    private Unit createUnit(String name) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, 0, 0);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,275 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.SimulateBattle;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для BattleSessionExecutor.
+ * Проверяем:
+ * - Десять тысяч одновременных спящих боёв на виртуальных потоках
+ * - Ограничение числа идущих боёв и отказ при заполненной очереди
+ * - Истечение времени, отмену в очереди и во время боя, ошибку симулятора
+ * - Запрет общих армий у незавершённых сессий, освобождение места при отказе
+ * - Ожидание сессий в close и shutdownNow
+ * - Настоящие бои SimulateBattleImpl в параллельных сессиях
+ */
+class BattleSessionExecutorTest {
+
+    @Test
+    @DisplayName("10 000 боёв со сном идут одновременно на виртуальных потоках")
+    void submit_tenThousandSleepingBattles_shouldRunConcurrently() throws Exception {
+        int sessions = 10_000;
+        LongAdderMetricsRegistry metrics = new LongAdderMetricsRegistry();
+        Set<Boolean> virtualFlags = Collections.synchronizedSet(new HashSet<>());
+        SimulateBattle sleeping = (player, computer) -> {
+            virtualFlags.add(Thread.currentThread().isVirtual());
+            Thread.sleep(200);
+        };
+
+        List<BattleSession> submitted = new ArrayList<>();
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(sessions, 0, metrics)) {
+            for (int i = 0; i < sessions; i++) {
+                submitted.add(executor.submit(sleeping, createArmy(), createArmy(), Duration.ofSeconds(30)));
+            }
+            for (BattleSession session : submitted) {
+                assertEquals(SessionStatus.COMPLETED, session.await(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(sessions, executor.getFinished(SessionStatus.COMPLETED));
+            assertTrue(executor.getPeakActive() > sessions / 2,
+                    "Сон не должен занимать поток ОС: пик " + executor.getPeakActive());
+            assertEquals(0, executor.getActive());
+        }
+        assertEquals(Set.of(true), virtualFlags);
+        assertEquals(sessions, metrics.histogram(BattleSessionExecutor.METRIC_RUN).getCount());
+        assertEquals(sessions, metrics.counterValue("session.completed"));
+    }
+
+    @Test
+    @DisplayName("Сверх лимита бои ждут в очереди, при полной очереди — отказ")
+    void submit_queueFull_shouldReject() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SimulateBattle blocking = (player, computer) -> release.await();
+
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(1, 1, new LongAdderMetricsRegistry())) {
+            BattleSession running = executor.submit(blocking, createArmy(), createArmy());
+            BattleSession queued = executor.submit(blocking, createArmy(), createArmy());
+            awaitStatus(running, SessionStatus.RUNNING);
+
+            assertThrows(RejectedExecutionException.class,
+                    () -> executor.submit(blocking, createArmy(), createArmy()));
+            assertEquals(1, executor.getActive());
+            assertEquals(1, executor.getQueued());
+            assertEquals(SessionStatus.QUEUED, queued.getStatus());
+            assertEquals(1, executor.getRejected());
+
+            release.countDown();
+            assertEquals(SessionStatus.COMPLETED, running.await(5, TimeUnit.SECONDS));
+            assertEquals(SessionStatus.COMPLETED, queued.await(5, TimeUnit.SECONDS));
+            assertEquals(1, executor.getPeakActive());
+        }
+    }
+
+    @Test
+    @DisplayName("Бой дольше таймаута прерывается и завершается как TIMED_OUT")
+    void submit_battleExceedsTimeout_shouldTimeOut() throws Exception {
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(4, 4, new LongAdderMetricsRegistry())) {
+            BattleSession session = executor.submit((player, computer) -> Thread.sleep(60_000),
+                    createArmy(), createArmy(), Duration.ofMillis(50));
+
+            assertEquals(SessionStatus.TIMED_OUT, session.await(5, TimeUnit.SECONDS));
+            assertEquals(1, executor.getFinished(SessionStatus.TIMED_OUT));
+            assertNull(session.getError());
+        }
+    }
+
+    @Test
+    @DisplayName("Отмена останавливает идущий бой и не даёт начаться ожидающему")
+    void cancel_runningAndQueued_shouldCancelBoth() throws Exception {
+        List<Long> started = Collections.synchronizedList(new ArrayList<>());
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(1, 1, new LongAdderMetricsRegistry())) {
+            BattleSession running = executor.submit((player, computer) -> Thread.sleep(60_000),
+                    createArmy(), createArmy());
+            awaitStatus(running, SessionStatus.RUNNING);
+            BattleSession queued = executor.submit((player, computer) -> started.add(1L),
+                    createArmy(), createArmy());
+
+            assertTrue(queued.cancel());
+            assertTrue(running.cancel());
+            assertFalse(running.cancel());
+
+            assertEquals(SessionStatus.CANCELLED, running.await(5, TimeUnit.SECONDS));
+            assertEquals(SessionStatus.CANCELLED, queued.await(5, TimeUnit.SECONDS));
+            assertEquals(2, executor.getFinished(SessionStatus.CANCELLED));
+        }
+        assertTrue(started.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Исключение симулятора завершает сессию как FAILED")
+    void submit_simulatorThrows_shouldFail() throws Exception {
+        IllegalStateException failure = new IllegalStateException("сломалось");
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(1, 0, new LongAdderMetricsRegistry())) {
+            BattleSession session = executor.submit((player, computer) -> {
+                throw failure;
+            }, createArmy(), createArmy());
+
+            assertEquals(SessionStatus.FAILED, session.await(5, TimeUnit.SECONDS));
+            assertSame(failure, session.getError());
+        }
+    }
+
+    @Test
+    @DisplayName("Армию и юнитов незавершённой сессии нельзя передать в другую")
+    void submit_sharedArmy_shouldRejectUntilFinished() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Unit shared = createUnit("Shared", 24, 0);
+        Army player = createArmy(shared);
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(4, 4, new LongAdderMetricsRegistry())) {
+            BattleSession first = executor.submit((p, c) -> release.await(), player, createArmy());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> executor.submit((p, c) -> { }, player, createArmy()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> executor.submit((p, c) -> { }, createArmy(), createArmy(shared)));
+            assertEquals(1, executor.getQueued() + executor.getActive());
+
+            release.countDown();
+            assertEquals(SessionStatus.COMPLETED, first.await(5, TimeUnit.SECONDS));
+            BattleSession second = executor.submit((p, c) -> { }, player, createArmy());
+            assertEquals(SessionStatus.COMPLETED, second.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Отказ из-за некорректных армий не занимает место в очереди")
+    void submit_invalidArmies_shouldNotLeakAdmission() throws Exception {
+        BattleSessionExecutor executor = new BattleSessionExecutor(1, 0, new LongAdderMetricsRegistry());
+        Army army = createArmy();
+
+        assertThrows(IllegalArgumentException.class, () -> executor.submit((p, c) -> { }, army, army));
+        assertThrows(NullPointerException.class, () -> executor.submit((p, c) -> { }, null, createArmy()));
+        assertEquals(0, executor.getQueued());
+
+        BattleSession session = executor.submit((p, c) -> { }, createArmy(), createArmy());
+        assertEquals(SessionStatus.COMPLETED, session.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.shutdownNow(Duration.ofSeconds(2)));
+        assertThrows(RejectedExecutionException.class,
+                () -> executor.submit((p, c) -> { }, createArmy(), createArmy()));
+    }
+
+    @Test
+    @DisplayName("close при флаге прерывания дожидается сессий и восстанавливает флаг")
+    void close_interrupted_shouldAwaitSessionsAndKeepFlag() throws Exception {
+        BattleSessionExecutor executor = new BattleSessionExecutor(1, 0, new LongAdderMetricsRegistry());
+        BattleSession session = executor.submit((p, c) -> Thread.sleep(100), createArmy(), createArmy());
+
+        Thread.currentThread().interrupt();
+        try {
+            executor.close();
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(SessionStatus.COMPLETED, session.getStatus());
+    }
+
+    @Test
+    @DisplayName("Параллельные сессии SimulateBattleImpl дают тот же лог, что и последовательный бой")
+    void submit_realBattles_shouldMatchSequentialRun() throws Exception {
+        List<String> expected = new ArrayList<>();
+        Army playerExpected = createArmy(meleeUnits("P", 24, 5, 40));
+        Army computerExpected = createArmy(meleeUnits("C", 0, 5, 35));
+        attachKnights(playerExpected, computerExpected);
+        simulator(expected).simulate(playerExpected, computerExpected);
+
+        int sessions = 16;
+        List<List<String>> logs = new ArrayList<>();
+        List<BattleSession> submitted = new ArrayList<>();
+        try (BattleSessionExecutor executor = new BattleSessionExecutor(4, sessions, new LongAdderMetricsRegistry())) {
+            for (int i = 0; i < sessions; i++) {
+                List<String> log = Collections.synchronizedList(new ArrayList<>());
+                logs.add(log);
+                Army player = createArmy(meleeUnits("P", 24, 5, 40));
+                Army computer = createArmy(meleeUnits("C", 0, 5, 35));
+                attachKnights(player, computer);
+                submitted.add(executor.submit(simulator(log), player, computer, Duration.ofSeconds(30)));
+            }
+            for (BattleSession session : submitted) {
+                assertEquals(SessionStatus.COMPLETED, session.await(30, TimeUnit.SECONDS));
+            }
+            assertTrue(executor.getPeakActive() <= 4);
+        }
+        for (List<String> log : logs) {
+            assertEquals(expected, log);
+        }
+    }
+
+    private void awaitStatus(BattleSession session, SessionStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (session.getStatus() != status) {
+            assertTrue(System.nanoTime() < deadline, "Сессия не перешла в " + status);
+            Thread.sleep(1);
+        }
+    }
+
+    private SimulateBattle simulator(List<String> log) throws Exception {
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, logTo(log));
+        return simulateBattle;
+    }
+
+    private void attachKnights(Army playerArmy, Army computerArmy) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        SuitableForAttackUnitsFinderImpl finder = new SuitableForAttackUnitsFinderImpl();
+        UnitTargetPathFinderImpl pathFinder = new UnitTargetPathFinderImpl();
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram(new UserKnightProgram(unit, playerArmy, computerArmy, speed, finder, pathFinder));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram(new ComputerKnightProgram(unit, computerArmy, playerArmy, speed, finder, pathFinder));
+        }
+    }
+
+    private PrintBattleLog logTo(List<String> log) {
+        return (attacker, target) -> log.add(attacker.getName() + " -> "
+                + (target != null ? target.getName() + ":" + target.getHealth() : "null"));
+    }
+
+    private Unit[] meleeUnits(String prefix, int x, int count, int attack) {
+        Unit[] units = new Unit[count];
+        for (int i = 0; i < count; i++) {
+            units[i] = createUnit(prefix + i, x, 3 * i + 2);
+            units[i].setBaseAttack(attack - i);
+        }
+        return units;
+    }
+
+    private Army createArmy(Unit... units) {
+        return new Army(new ArrayList<>(List.of(units)));
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
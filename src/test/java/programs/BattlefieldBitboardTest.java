@@ -0,0 +1,124 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для BattlefieldBitboard.
+ * Проверяем:
+ * - Занятость клеток по армиям
+ * - Маски рядов и крайние юниты ряда, в том числе на стыке слов long
+ * - Инкрементальные обновления при перемещении и гибели
+ */
+class BattlefieldBitboardTest {
+
+    @Test
+    @DisplayName("Клетки живых юнитов занимаются в маске своей армии")
+    void of_shouldMarkOccupancyPerArmy() {
+        Unit computer = createUnit("Computer", 1, 5);
+        Unit player = createUnit("Player", 25, 7);
+        Unit dead = createUnit("Dead", 2, 3);
+        dead.setAlive(false);
+
+        BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(computer, dead), createArmy(player));
+
+        assertTrue(board.isOccupied(1, 5));
+        assertTrue(board.isOccupied(true, 1, 5));
+        assertFalse(board.isOccupied(false, 1, 5));
+        assertTrue(board.isOccupied(false, 25, 7));
+        assertFalse(board.isOccupied(2, 3), "Мёртвый юнит не занимает клетку");
+        assertSame(computer, board.unitAt(1, 5));
+        assertEquals(1, board.aliveCount(true));
+        assertEquals(1, board.aliveCount(false));
+        assertFalse(board.isAlive(dead));
+    }
+
+    @Test
+    @DisplayName("Маска ряда и крайние юниты ряда, включая ряд на стыке слов")
+    void rowMask_shouldReturnFirstAndLastInRow() {
+        // Ряд 3 занимает биты 63..83 — пересекает границу первого и второго слова
+        Unit first = createUnit("First", 3, 0);
+        Unit middle = createUnit("Middle", 3, 9);
+        Unit last = createUnit("Last", 3, 20);
+
+        BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(first, middle, last), createArmy());
+
+        assertEquals((1L) | (1L << 9) | (1L << 20), board.rowMask(true, 3));
+        assertEquals(0, board.firstInRow(true, 3));
+        assertEquals(20, board.lastInRow(true, 3));
+        assertEquals(-1, board.firstInRow(false, 3));
+        assertEquals(0L, board.rowMask(true, 4));
+    }
+
+    @Test
+    @DisplayName("Гибель и перемещение обновляют доску инкрементально")
+    void onUnitDiedAndMoved_shouldUpdateIncrementally() {
+        Unit unit = createUnit("Unit", 0, 0);
+        Unit other = createUnit("Other", 0, 4);
+        BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(unit, other), createArmy());
+
+        unit.setxCoordinate(5);
+        unit.setyCoordinate(6);
+        board.onUnitMoved(unit);
+        other.setAlive(false);
+        board.onUnitDied(other);
+
+        assertFalse(board.isOccupied(0, 0));
+        assertTrue(board.isOccupied(5, 6));
+        assertSame(unit, board.unitAt(5, 6));
+        assertFalse(board.isOccupied(0, 4));
+        assertEquals(-1, board.firstInRow(true, 0));
+        assertEquals(1, board.aliveCount(true));
+    }
+
+    @Test
+    @DisplayName("Синхронизация подхватывает изменения, о которых доске не сообщили")
+    void synchronize_shouldPickUpUnreportedChanges() {
+        Unit unit = createUnit("Unit", 10, 10);
+        BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(), createArmy(unit));
+
+        unit.setAlive(false);
+        board.synchronize();
+
+        assertFalse(board.isOccupied(10, 10));
+        assertEquals(0, board.aliveCount(false));
+    }
+
+    @Test
+    @DisplayName("Маска соседей отмечает занятые соседние клетки")
+    void neighbourMask_shouldMarkOccupiedNeighbours() {
+        Unit up = createUnit("Up", 4, 5);      // направление 0: (-1, 0)
+        Unit right = createUnit("Right", 5, 6); // направление 3: (0, 1)
+        Unit corner = createUnit("Corner", 6, 6); // направление 7: (1, 1)
+        BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(up, right, corner), createArmy());
+
+        assertEquals((1) | (1 << 3) | (1 << 7), board.neighbourMask(5, 5));
+        assertEquals(0, board.neighbourMask(20, 20));
+    }
+
+    @Test
+    @DisplayName("Незарегистрированный юнит - ошибка")
+    void onUnitDied_unknownUnit_shouldThrow() {
+        BattlefieldBitboard board = new BattlefieldBitboard();
+
+        assertThrows(IllegalArgumentException.class, () -> board.onUnitDied(createUnit("Stranger", 0, 0)));
+    }
+
+    private Army createArmy(Unit... units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(Arrays.asList(units)));
+        return army;
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,81 @@
+package programs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для BoundedKnapsack.
+ * Проверяем:
+ * - Совпадение с полным перебором, в том числе с ограничением на число предметов
+ * - Лексикографическую упаковку ценности
+ */
+class BoundedKnapsackTest {
+
+    @Test
+    @DisplayName("Решение совпадает с полным перебором")
+    void solve_shouldMatchBruteForce() {
+        Random random = new Random(8);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            int types = 1 + random.nextInt(4);
+            int[] costs = new int[types];
+            long[] values = new long[types];
+            int[] caps = new int[types];
+            for (int i = 0; i < types; i++) {
+                costs[i] = 1 + random.nextInt(20);
+                values[i] = BoundedKnapsack.packValue(random.nextInt(30), random.nextInt(100));
+                caps[i] = random.nextInt(6);
+            }
+            int budget = random.nextInt(120);
+            int maxItems = 1 + random.nextInt(12);
+
+            int[] counts = BoundedKnapsack.solve(costs, values, caps, budget, maxItems);
+
+            int cost = 0;
+            int items = 0;
+            long value = 0;
+            for (int i = 0; i < types; i++) {
+                assertTrue(counts[i] >= 0 && counts[i] <= caps[i]);
+                cost += counts[i] * costs[i];
+                items += counts[i];
+                value += counts[i] * values[i];
+            }
+            assertTrue(cost <= budget);
+            assertTrue(items <= maxItems);
+            assertEquals(bruteForce(costs, values, caps, budget, maxItems, 0), value);
+        }
+    }
+
+    @Test
+    @DisplayName("Упакованная ценность сравнивается сначала по первому критерию")
+    void packValue_shouldCompareLexicographically() {
+        assertTrue(BoundedKnapsack.packValue(2, 0) > BoundedKnapsack.packValue(1, 1_000_000));
+        assertTrue(BoundedKnapsack.packValue(1, 2) > BoundedKnapsack.packValue(1, 1));
+        assertEquals(BoundedKnapsack.packValue(3, 300),
+                BoundedKnapsack.packValue(1, 100) + BoundedKnapsack.packValue(2, 200));
+    }
+
+    @Test
+    @DisplayName("Пустой бюджет - пустое решение")
+    void solve_zeroBudget_shouldTakeNothing() {
+        int[] counts = BoundedKnapsack.solve(new int[]{5}, new long[]{BoundedKnapsack.packValue(1, 1)},
+                new int[]{3}, 0, 10);
+
+        assertArrayEquals(new int[]{0}, counts);
+    }
+
+    private long bruteForce(int[] costs, long[] values, int[] caps, int budget, int maxItems, int type) {
+        if (type == costs.length) {
+            return 0;
+        }
+        long best = 0;
+        for (int count = 0; count <= caps[type] && count <= maxItems && count * costs[type] <= budget; count++) {
+            best = Math.max(best, count * values[type]
+                    + bruteForce(costs, values, caps, budget - count * costs[type], maxItems - count, type + 1));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,212 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для CachingSuitableUnitsFinder.
+ * Проверяем:
+ * - Попадание в кэш при неизменной эпохе; изменение выданного списка не портит снимок
+ * - Пересчёт после гибели, сообщённой трекеру и не сообщённой
+ * - Совпадение полной симуляции с кэшем и без него
+ * - Бой рыцарей библиотеки против армий из нескольких рядов: программы перемешивают выданный список
+ */
+class CachingSuitableUnitsFinderTest {
+
+    @Test
+    @DisplayName("Повторный запрос той же стороны обслуживается из кэша")
+    void getSuitableUnits_sameEpoch_shouldHitCache() {
+        Army left = createArmy(createUnit("L1", 0, 3), createUnit("L2", 1, 5));
+        ArmyMutationTracker tracker = new ArmyMutationTracker(left, createArmy());
+        CountingFinder delegate = new CountingFinder();
+        CachingSuitableUnitsFinder finder = new CachingSuitableUnitsFinder(delegate, tracker);
+
+        List<Unit> first = finder.getSuitableUnits(rows(left), true);
+        List<Unit> second = finder.getSuitableUnits(rows(left), true);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, delegate.calls);
+        assertEquals(1, finder.getHits());
+        assertEquals(1, finder.getMisses());
+        assertEquals(0.5, finder.getHitRate());
+
+        // Программы библиотеки перемешивают и меняют выданный список — снимок это не затрагивает
+        List<Unit> expected = List.copyOf(second);
+        Collections.reverse(second);
+        second.add(createUnit("X", 0, 0));
+        assertEquals(expected, finder.getSuitableUnits(rows(left), true));
+        assertEquals(2, finder.getHits());
+    }
+
+    @Test
+    @DisplayName("Гибель, сообщённая трекеру, сбрасывает снимок только своей стороны")
+    void getSuitableUnits_trackedDeath_shouldRecompute() {
+        Unit front = createUnit("Front", 25, 9);
+        Unit back = createUnit("Back", 25, 4);
+        Unit leftUnit = createUnit("Left", 0, 0);
+        Army left = createArmy(leftUnit);
+        Army right = createArmy(front, back);
+        ArmyMutationTracker tracker = new ArmyMutationTracker(left, right);
+        CachingSuitableUnitsFinder finder = new CachingSuitableUnitsFinder(new SuitableForAttackUnitsFinderImpl(), tracker);
+
+        assertEquals(List.of(front), finder.getSuitableUnits(rows(right), false));
+        finder.getSuitableUnits(rows(left), true);
+
+        back.setAlive(false);
+        tracker.onUnitDied(back);
+
+        assertEquals(List.of(front), finder.getSuitableUnits(rows(right), false));
+        assertEquals(List.of(leftUnit), finder.getSuitableUnits(rows(left), true));
+        assertEquals(3, finder.getMisses());
+        assertEquals(1, finder.getHits());
+    }
+
+    @Test
+    @DisplayName("Гибель открытого юнита без уведомления обнаруживается проверкой снимка")
+    void getSuitableUnits_untrackedDeath_shouldDetectStaleSnapshot() {
+        Unit front = createUnit("Front", 0, 1);
+        Unit back = createUnit("Back", 0, 6);
+        Army left = createArmy(front, back);
+        CachingSuitableUnitsFinder finder = new CachingSuitableUnitsFinder(new SuitableForAttackUnitsFinderImpl(),
+                new ArmyMutationTracker(left, createArmy()));
+
+        finder.getSuitableUnits(rows(left), true);
+        front.setAlive(false);
+
+        assertEquals(List.of(back), finder.getSuitableUnits(rows(left), true));
+        assertEquals(1, finder.getStaleSnapshots());
+    }
+
+    @Test
+    @DisplayName("Полная симуляция с кэшем совпадает с симуляцией без кэша")
+    void simulate_withCache_shouldMatchUncachedLog() throws Exception {
+        List<String> expectedLog = new ArrayList<>();
+        Army playerExpected = createArmy(meleeUnits("P", 24, 6, 40));
+        Army computerExpected = createArmy(meleeUnits("C", 0, 6, 35));
+        SuitableForAttackUnitsFinderImpl plainFinder = new SuitableForAttackUnitsFinderImpl();
+        attachKnights(playerExpected, computerExpected, plainFinder);
+        simulate(playerExpected, computerExpected, logTo(expectedLog));
+
+        List<String> actualLog = new ArrayList<>();
+        Army playerActual = createArmy(meleeUnits("P", 24, 6, 40));
+        Army computerActual = createArmy(meleeUnits("C", 0, 6, 35));
+        ArmyMutationTracker tracker = new ArmyMutationTracker(computerActual, playerActual, logTo(actualLog));
+        CachingSuitableUnitsFinder cachingFinder = new CachingSuitableUnitsFinder(plainFinder, tracker);
+        attachKnights(playerActual, computerActual, cachingFinder);
+        simulate(playerActual, computerActual, tracker);
+
+        assertEquals(expectedLog, actualLog);
+        assertTrue(cachingFinder.getHits() > cachingFinder.getMisses(),
+                "Большинство запросов должно обслуживаться из кэша: " + cachingFinder.getHitRate());
+    }
+
+    @Test
+    @DisplayName("Рыцари библиотеки против армий из трёх рядов перемешивают выданный список без ошибок")
+    void simulate_multiRowArmies_shouldAllowShuffleOfReturnedList() throws Exception {
+        Army player = createArmy(multiRowUnits("P", 24));
+        Army computer = createArmy(multiRowUnits("C", 0));
+        List<String> log = new ArrayList<>();
+        ArmyMutationTracker tracker = new ArmyMutationTracker(computer, player, logTo(log));
+        CachingSuitableUnitsFinder cachingFinder = new CachingSuitableUnitsFinder(new SuitableForAttackUnitsFinderImpl(),
+                tracker);
+        attachKnights(player, computer, cachingFinder);
+
+        simulate(player, computer, tracker);
+
+        boolean playerAlive = player.getUnits().stream().anyMatch(Unit::isAlive);
+        boolean computerAlive = computer.getUnits().stream().anyMatch(Unit::isAlive);
+        assertNotEquals(playerAlive, computerAlive, "Бой должен закончиться гибелью одной из армий");
+        assertFalse(log.isEmpty());
+        assertTrue(cachingFinder.getHits() > 0);
+    }
+
+    private void simulate(Army playerArmy, Army computerArmy, PrintBattleLog log) throws Exception {
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, log);
+        simulateBattle.simulate(playerArmy, computerArmy);
+    }
+
+    private void attachKnights(Army playerArmy, Army computerArmy, SuitableForAttackUnitsFinder finder) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        UnitTargetPathFinderImpl pathFinder = new UnitTargetPathFinderImpl();
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram(new UserKnightProgram(unit, playerArmy, computerArmy, speed, finder, pathFinder));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram(new ComputerKnightProgram(unit, computerArmy, playerArmy, speed, finder, pathFinder));
+        }
+    }
+
+    private PrintBattleLog logTo(List<String> log) {
+        return (attacker, target) -> log.add(attacker.getName() + " -> "
+                + (target != null ? target.getName() + ":" + target.getHealth() : "null"));
+    }
+
+    private List<List<Unit>> rows(Army army) {
+        Map<Integer, List<Unit>> rows = new TreeMap<>();
+        for (Unit unit : army.getUnits()) {
+            rows.computeIfAbsent(unit.getxCoordinate(), x -> new ArrayList<>()).add(unit);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private Unit[] meleeUnits(String prefix, int x, int count, int attack) {
+        Unit[] units = new Unit[count];
+        for (int i = 0; i < count; i++) {
+            units[i] = createUnit(prefix + i, x, 3 * i + 2);
+            units[i].setBaseAttack(attack - i);
+        }
+        return units;
+    }
+
+    /**
+     * По два юнита в каждой из трёх колонок начиная с firstX: открыты сразу три цели.
+     */
+    private Unit[] multiRowUnits(String prefix, int firstX) {
+        Unit[] units = new Unit[6];
+        for (int i = 0; i < units.length; i++) {
+            units[i] = createUnit(prefix + i, firstX + i % 3, 4 * (i / 3) + 5);
+            units[i].setBaseAttack(30 - i);
+        }
+        return units;
+    }
+
+    private Army createArmy(Unit... units) {
+        return new Army(new ArrayList<>(List.of(units)));
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+
+    /**
+     * Исходный поиск, считающий вызовы.
+     */
+    private static final class CountingFinder implements SuitableForAttackUnitsFinder {
+        private final SuitableForAttackUnitsFinderImpl finder = new SuitableForAttackUnitsFinderImpl();
+        private int calls;
+
+        @Override
+        public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+            calls++;
+            return finder.getSuitableUnits(unitsByRow, isLeftArmyTarget);
+        }
+    }
+}
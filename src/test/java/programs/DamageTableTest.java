@@ -0,0 +1,110 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для DamageTable.
+ * Проверяем:
+ * - Совпадение матрицы со словарной семантикой бонусов на случайных армиях
+ * - Множитель 1.0 для отсутствующих словарей и ключей
+ * - Общий класс для юнитов одного шаблона и разные классы при разных бонусах
+ */
+class DamageTableTest {
+
+    private static final List<String> TYPES = List.of("Knight", "Archer", "Swordsman", "Pikeman");
+
+    @Test
+    @DisplayName("Множители совпадают со словарной семантикой для всех пар")
+    void compile_randomUnits_shouldMatchMapSemantics() {
+        Random random = new Random(14);
+        List<Unit> playerUnits = new ArrayList<>();
+        List<Unit> computerUnits = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            (i % 2 == 0 ? playerUnits : computerUnits).add(randomUnit("Unit" + i, random));
+        }
+        UnitStore store = UnitStore.of(playerUnits, computerUnits);
+
+        DamageTable table = DamageTable.compile(store);
+
+        for (int attacker = 0; attacker < store.size(); attacker++) {
+            for (int defender = 0; defender < store.size(); defender++) {
+                double expected = DamageTable.resolve(store.unit(attacker), store.unit(defender));
+                assertEquals(expected, table.multiplierFor(attacker, defender),
+                        store.unit(attacker).getName() + " -> " + store.unit(defender).getName());
+                assertEquals((int) Math.round(30 * expected), table.damage(attacker, defender, 30));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Отсутствующие бонусы дают множитель 1.0")
+    void multiplier_missingBonuses_shouldBeOne() {
+        Unit knight = createUnit("Knight", "Knight", null, null);
+        Unit archer = createUnit("Archer", "Archer", Map.of("Pikeman", 2.0), Map.of("Swordsman", 0.5));
+
+        DamageTable table = DamageTable.compile(UnitStore.of(List.of(knight), List.of(archer)));
+
+        assertEquals(1.0, table.multiplierFor(0, 1));
+        assertEquals(1.0, table.multiplierFor(1, 0));
+        assertEquals(2, table.classCount());
+        assertEquals("Archer", table.unitTypeOf(table.classOf(1)));
+    }
+
+    @Test
+    @DisplayName("Бонус атаки и бонус защиты перемножаются")
+    void multiplier_attackAndDefence_shouldMultiply() {
+        Unit archer = createUnit("Archer", "Archer", Map.of("Knight", 1.5), null);
+        Unit knight = createUnit("Knight", "Knight", null, Map.of("Archer", 0.5));
+
+        DamageTable table = DamageTable.compile(UnitStore.of(List.of(archer), List.of(knight)));
+
+        assertEquals(0.75, table.multiplierFor(0, 1));
+        assertEquals(23, table.damage(0, 1, 30));
+        assertEquals(0.75, DamageTable.resolve(archer, knight));
+    }
+
+    @Test
+    @DisplayName("Юниты одного шаблона разделяют класс, другие бонусы - отдельный класс")
+    void compile_shouldInternIdenticalProfiles() {
+        Unit knight1 = createUnit("Knight1", "Knight", Map.of("Archer", 1.2), null);
+        Unit knight2 = createUnit("Knight2", "Knight", new HashMap<>(Map.of("Archer", 1.2)), Map.of());
+        Unit veteran = createUnit("Veteran", "Knight", Map.of("Archer", 2.0), null);
+
+        DamageTable table = DamageTable.compile(UnitStore.of(List.of(knight1, knight2), List.of(veteran)));
+
+        assertEquals(table.classOf(0), table.classOf(1));
+        assertNotEquals(table.classOf(0), table.classOf(2));
+        assertEquals(2, table.classCount());
+    }
+
+    private Unit randomUnit(String name, Random random) {
+        String type = TYPES.get(random.nextInt(TYPES.size()));
+        return createUnit(name, type, randomBonuses(random), randomBonuses(random));
+    }
+
+    private Map<String, Double> randomBonuses(Random random) {
+        if (random.nextInt(4) == 0) {
+            return null;
+        }
+        Map<String, Double> bonuses = new HashMap<>();
+        for (String type : TYPES) {
+            if (random.nextBoolean()) {
+                bonuses.put(type, 0.5 + random.nextInt(4) * 0.25);
+            }
+        }
+        return bonuses;
+    }
+
+    private Unit createUnit(String name, String type, Map<String, Double> attackBonuses,
+                            Map<String, Double> defenceBonuses) {
+        Unit unit = new Unit(name, type, 100, 30, 50, "melee", attackBonuses, defenceBonuses, 0, 0);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,232 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для DistanceFieldPathFinder.
+ * Проверяем:
+ * - Совпадение стоимости путей с Дейкстрой
+ * - Разделение одного поля между атакующими
+ * - Инкрементальную инвалидацию при гибели и перемещении юнитов
+ * - Проверку достижимости по массивам UnitStore
+ */
+class DistanceFieldPathFinderTest {
+
+    private DistanceFieldPathFinder pathFinder;
+
+    @BeforeEach
+    void setUp() {
+        pathFinder = new DistanceFieldPathFinder();
+    }
+
+    @Test
+    @DisplayName("Несколько атакующих одной цели используют одно поле расстояний")
+    void getTargetPath_sameTarget_shouldReuseField() {
+        Unit target = createUnit("Target", 25, 10);
+        Unit attacker1 = createUnit("Attacker1", 0, 0);
+        Unit attacker2 = createUnit("Attacker2", 1, 5);
+        Unit attacker3 = createUnit("Attacker3", 2, 20);
+        List<Unit> units = Arrays.asList(target, attacker1, attacker2, attacker3);
+
+        for (Unit attacker : List.of(attacker1, attacker2, attacker3)) {
+            List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+            assertFalse(path.isEmpty());
+            assertEquals(attacker.getxCoordinate(), path.getFirst().getX());
+            assertEquals(attacker.getyCoordinate(), path.getFirst().getY());
+            assertEquals(25, path.getLast().getX());
+            assertEquals(10, path.getLast().getY());
+        }
+
+        assertEquals(1, pathFinder.getFieldBuilds());
+        assertEquals(2, pathFinder.getFieldHits());
+    }
+
+    @Test
+    @DisplayName("Гибель препятствия инвалидирует поле и открывает прямой путь")
+    void getTargetPath_obstacleDies_shouldInvalidateField() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 2, 0);
+        Unit obstacle = createUnit("Obstacle", 1, 0);
+        List<Unit> units = Arrays.asList(attacker, target, obstacle);
+
+        List<Edge> detour = pathFinder.getTargetPath(attacker, target, units);
+        long version = pathFinder.getObstacleVersion();
+        obstacle.setAlive(false);
+        List<Edge> direct = pathFinder.getTargetPath(attacker, target, units);
+
+        assertNotEquals(0, detour.get(1).getY(), "Пока препятствие живо, путь его обходит");
+        assertEquals(3, direct.size());
+        assertEquals(0, direct.get(1).getY(), "После гибели препятствия путь идёт напрямую");
+        assertEquals(version + 1, pathFinder.getObstacleVersion());
+        assertEquals(1, pathFinder.getFieldInvalidations());
+        assertEquals(2, pathFinder.getFieldBuilds());
+    }
+
+    @Test
+    @DisplayName("Изменение в недостижимой части поля не инвалидирует поле")
+    void getTargetPath_changeBehindWall_shouldKeepField() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 5, 5);
+        Unit farUnit = createUnit("Far", 20, 10);
+        List<Unit> units = new ArrayList<>(Arrays.asList(attacker, target, farUnit));
+        // Сплошная стена отделяет правую часть поля
+        for (int y = 0; y < 21; y++) {
+            units.add(createUnit("Wall", 13, y));
+        }
+
+        pathFinder.getTargetPath(attacker, target, units);
+        farUnit.setAlive(false);
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+
+        assertFalse(path.isEmpty());
+        assertEquals(0, pathFinder.getFieldInvalidations());
+        assertEquals(1, pathFinder.getFieldBuilds());
+        assertEquals(1, pathFinder.getFieldHits());
+    }
+
+    @Test
+    @DisplayName("Стоимость путей совпадает с Дейкстрой при гибели и перемещении юнитов")
+    void getTargetPath_changingField_shouldMatchDijkstraCost() {
+        UnitTargetPathFinderImpl dijkstra = new UnitTargetPathFinderImpl();
+        Random random = new Random(5);
+        List<Unit> units = new ArrayList<>();
+        Set<Integer> occupied = new HashSet<>();
+        while (units.size() < 120) {
+            int x = random.nextInt(27);
+            int y = random.nextInt(21);
+            if (occupied.add(x * 21 + y)) {
+                units.add(createUnit("Unit", x, y));
+            }
+        }
+
+        for (int step = 0; step < 600; step++) {
+            Unit changed = units.get(random.nextInt(units.size()));
+            if (random.nextInt(8) == 0) {
+                changed.setAlive(false);
+            } else if (random.nextInt(8) == 0) {
+                int x = random.nextInt(27);
+                int y = random.nextInt(21);
+                if (occupied.add(x * 21 + y)) {
+                    occupied.remove(changed.getxCoordinate() * 21 + changed.getyCoordinate());
+                    changed.setxCoordinate(x);
+                    changed.setyCoordinate(y);
+                }
+            }
+            Unit attacker = units.get(random.nextInt(units.size()));
+            Unit target = units.get(random.nextInt(units.size()));
+            if (!attacker.isAlive() || !target.isAlive()) {
+                continue;
+            }
+
+            List<Edge> expected = dijkstra.getTargetPath(attacker, target, units);
+            List<Edge> actual = pathFinder.getTargetPath(attacker, target, units);
+
+            assertEquals(expected.isEmpty(), actual.isEmpty());
+            assertEquals(pathCost(expected), pathCost(actual), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Атакующий на клетке цели - путь из одной точки")
+    void getTargetPath_samePosition_shouldReturnSinglePoint() {
+        Unit attacker = createUnit("Attacker", 4, 4);
+        Unit target = createUnit("Target", 4, 4);
+
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target));
+
+        assertEquals(1, path.size());
+        assertEquals(4, path.getFirst().getX());
+        assertEquals(4, path.getFirst().getY());
+    }
+
+    @Test
+    @DisplayName("Окружённая цель недостижима")
+    void getTargetPath_blockedTarget_shouldReturnEmpty() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 2, 2);
+        List<Unit> units = new ArrayList<>(Arrays.asList(attacker, target));
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    units.add(createUnit("Block", 2 + dx, 2 + dy));
+                }
+            }
+        }
+
+        assertTrue(pathFinder.getTargetPath(attacker, target, units).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Поля строятся по снимку битовой доски")
+    void getTargetPath_bitboard_shouldUseBoardOccupancy() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 2, 0);
+        Unit obstacle = createUnit("Obstacle", 1, 0);
+        BattlefieldBitboard board = BattlefieldBitboard.of(
+                new Army(new ArrayList<>(List.of(attacker, obstacle))), new Army(new ArrayList<>(List.of(target))));
+
+        List<Edge> detour = pathFinder.getTargetPath(attacker, target, board);
+        obstacle.setAlive(false);
+        board.onUnitDied(obstacle);
+        List<Edge> direct = pathFinder.getTargetPath(attacker, target, board);
+
+        assertNotEquals(0, detour.get(1).getY());
+        assertEquals(0, direct.get(1).getY());
+        assertEquals(1, pathFinder.getFieldInvalidations());
+    }
+
+    @Test
+    @DisplayName("Достижимость по массивам хранилища юнитов")
+    void isReachable_unitStore_shouldUseStoreState() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 2, 2);
+        List<Unit> blocks = new ArrayList<>();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    blocks.add(createUnit("Block", 2 + dx, 2 + dy));
+                }
+            }
+        }
+        UnitStore store = UnitStore.of(List.of(attacker), concat(List.of(target), blocks));
+
+        assertFalse(pathFinder.isReachable(store, 0, 1));
+
+        // Гибель блока видна только хранилищу, объект юнита не меняется
+        store.applyDamage(2, 1000);
+        assertTrue(blocks.getFirst().isAlive());
+        assertTrue(pathFinder.isReachable(store, 0, 1));
+    }
+
+    private double pathCost(List<Edge> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "Шаг пути должен вести в соседнюю клетку");
+            cost += (dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0;
+        }
+        return cost;
+    }
+
+    private List<Unit> concat(List<Unit> first, List<Unit> second) {
+        List<Unit> result = new ArrayList<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -16,6 +16,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Суммарная стоимость не превышает maxPoints
  * - Не более 11 юнитов каждого типа
  * - Приоритет по эффективности (attack/cost, затем health/cost)
+ * - Режим OPTIMAL: точный максимум атаки и отчёт об отставании жадного режима
+ * - Поле, колонки расстановки и лимит типа из BattlefieldConfig для армий из тысяч юнитов
  */
 class GeneratePresetImplTest {
 
@@ -133,6 +135,115 @@ class GeneratePresetImplTest {
         }
     }
 
+    @Test
+    @DisplayName("Оптимальный режим находит армию сильнее жадной")
+    void generate_optimal_shouldBeatGreedyWhenBudgetIsLeftUnused() {
+        // Жадный берёт одного A (31 атаки) и оставляет 40 очков; оптимум — два B (50 атаки)
+        List<Unit> unitList = List.of(
+                createUnit("A", "A", 100, 31, 60),
+                createUnit("B", "B", 100, 25, 50));
+
+        Army greedy = generatePreset.generate(unitList, 100);
+        Army optimal = new GeneratePresetImpl(PresetMode.OPTIMAL).generate(unitList, 100);
+        PresetGap gap = generatePreset.compareGreedyWithOptimal(unitList, 100);
+
+        assertEquals(31, totalAttack(greedy));
+        assertEquals(50, totalAttack(optimal));
+        assertEquals(100, optimal.getPoints());
+        assertEquals(19, gap.attackGap());
+        assertEquals(0.38, gap.relativeAttackGap(), 1e-12);
+        assertFalse(gap.isGreedyOptimal());
+    }
+
+    @Test
+    @DisplayName("Оптимальный режим соблюдает бюджет и лимиты и не уступает жадному")
+    void generate_optimal_shouldRespectLimitsAndDominateGreedy() {
+        GeneratePresetImpl optimalPreset = new GeneratePresetImpl(PresetMode.OPTIMAL);
+        List<Unit> unitList = createTestUnitList();
+
+        for (int maxPoints = 0; maxPoints <= 2500; maxPoints += 37) {
+            Army army = optimalPreset.generate(unitList, maxPoints);
+            PresetGap gap = optimalPreset.compareGreedyWithOptimal(unitList, maxPoints);
+
+            assertTrue(army.getPoints() <= maxPoints);
+            assertEquals(army.getPoints(), army.getUnits().stream().mapToInt(Unit::getCost).sum());
+            Map<String, Integer> countByType = new HashMap<>();
+            for (Unit unit : army.getUnits()) {
+                countByType.merge(unit.getUnitType(), 1, Integer::sum);
+            }
+            countByType.values().forEach(count -> assertTrue(count <= 11));
+            assertTrue(gap.attackGap() >= 0, "Бюджет " + maxPoints + ": " + gap);
+            assertEquals(totalAttack(army), gap.optimalAttack());
+        }
+    }
+
+    @Test
+    @DisplayName("При равной атаке оптимальный режим выбирает большее здоровье")
+    void generate_optimal_shouldBreakTiesByHealth() {
+        List<Unit> unitList = List.of(
+                createUnit("Fragile", "Fragile", 10, 20, 50),
+                createUnit("Sturdy", "Sturdy", 90, 20, 50));
+
+        Army army = new GeneratePresetImpl(PresetMode.OPTIMAL).generate(unitList, 100);
+
+        assertEquals(2, army.getUnits().size());
+        assertTrue(army.getUnits().stream().allMatch(unit -> unit.getUnitType().equals("Sturdy")));
+    }
+
+    @Test
+    @DisplayName("Оптимальный режим не ставит на поле больше 63 юнитов и быстро решает большой бюджет")
+    void generate_optimal_largeBudget_shouldFitFieldAndFinishQuickly() {
+        List<Unit> unitList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            unitList.add(createUnit("Type" + i, "Type" + i, 100 + i, 40 + 7 * i, 1000 + 997 * i));
+        }
+
+        long startTime = System.currentTimeMillis();
+        Army army = new GeneratePresetImpl(PresetMode.OPTIMAL).generate(unitList, 100_000);
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertTrue(army.getUnits().size() <= 63);
+        assertTrue(army.getPoints() <= 100_000);
+        assertTrue(duration < 5000, "Время: " + duration + "ms");
+        Set<String> cells = new HashSet<>();
+        for (Unit unit : army.getUnits()) {
+            assertTrue(unit.getxCoordinate() < 3);
+            assertTrue(cells.add(unit.getxCoordinate() + ":" + unit.getyCoordinate()));
+        }
+    }
+
+    @Test
+    @DisplayName("Конфигурация поля задаёт колонки расстановки и лимит типа для армии из тысяч юнитов")
+    void generate_largeConfig_shouldFillDeploymentColumns() {
+        BattlefieldConfig config = new BattlefieldConfig(200, 500, 8, 1500);
+        List<Unit> unitList = createTestUnitList();
+
+        Army army = new GeneratePresetImpl(PresetMode.GREEDY, config).generate(unitList, 1_000_000);
+
+        // Лимит 4 × 1500 больше 8 × 500 клеток расстановки, бюджет не ограничивает
+        assertEquals(config.maxArmySize(), army.getUnits().size());
+        assertTrue(army.getPoints() <= 1_000_000);
+        Map<String, Integer> countByType = new HashMap<>();
+        Set<Integer> cells = new HashSet<>();
+        for (Unit unit : army.getUnits()) {
+            assertTrue(config.isDeploymentColumn(true, unit.getxCoordinate()));
+            assertTrue(unit.getyCoordinate() < config.height());
+            assertTrue(cells.add(unit.getxCoordinate() * config.height() + unit.getyCoordinate()));
+            countByType.merge(unit.getUnitType(), 1, Integer::sum);
+        }
+        for (int count : countByType.values()) {
+            assertTrue(count <= 1500);
+        }
+        // Стандартная конфигурация совпадает с генератором по умолчанию
+        assertEquals(generatePreset.generate(unitList, 1500).getUnits().size(),
+                new GeneratePresetImpl(PresetMode.GREEDY, BattlefieldConfig.DEFAULT).generate(unitList, 1500)
+                        .getUnits().size());
+    }
+
+    private long totalAttack(Army army) {
+        return army.getUnits().stream().mapToLong(Unit::getBaseAttack).sum();
+    }
+
     private List<Unit> createTestUnitList() {
         List<Unit> units = new ArrayList<>();
         units.add(createUnit("Archer", "Archer", 50, 15, 30));
@@ -0,0 +1,210 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.computer.ComputerArcherProgram;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для HeadlessBattleSimulator.
+ * Проверяем:
+ * - Совпадение лога и победителя с SimulateBattleImpl и программами библиотеки
+ * - Завершение боя ничьей, если никто не может нанести урон
+ * - Бой с пустой армией
+ * - Урон с учётом бонусов юнитов
+ * - Воспроизводимость боя по зерну
+ */
+class HeadlessBattleSimulatorTest {
+
+    @Test
+    @DisplayName("Ближний бой в одном ряду совпадает с полной симуляцией")
+    void run_meleeSingleRow_shouldMatchFullSimulation() throws Exception {
+        List<String> expectedLog = new ArrayList<>();
+        Army playerExpected = createArmy(meleeUnits("P", 24, 4, 60));
+        Army computerExpected = createArmy(meleeUnits("C", 0, 5, 45));
+        attachPrograms(playerExpected, computerExpected);
+        SimulateBattleImpl fullSimulation = new SimulateBattleImpl();
+        injectLog(fullSimulation, logTo(expectedLog));
+        fullSimulation.simulate(playerExpected, computerExpected);
+
+        List<String> actualLog = new ArrayList<>();
+        Army playerActual = createArmy(meleeUnits("P", 24, 4, 60));
+        Army computerActual = createArmy(meleeUnits("C", 0, 5, 45));
+        BattleOutcome outcome = new HeadlessBattleSimulator(new Random(1), logTo(actualLog))
+                .run(playerActual, computerActual);
+
+        assertEquals(expectedLog, actualLog);
+        assertEquals(aliveCount(playerExpected), outcome.playerSurvivors());
+        assertEquals(aliveCount(computerExpected), outcome.computerSurvivors());
+        assertEquals(expectedLog.size(), outcome.attacks());
+        assertEquals(aliveCount(playerExpected) > 0 ? BattleOutcome.Winner.PLAYER : BattleOutcome.Winner.COMPUTER,
+                outcome.winner());
+    }
+
+    @Test
+    @DisplayName("Дуэль лучника и рыцаря совпадает с полной симуляцией")
+    void run_archerDuel_shouldMatchFullSimulation() throws Exception {
+        List<String> expectedLog = new ArrayList<>();
+        Army playerExpected = createArmy(List.of(createUnit("Archer", "Archer", 100, 30, 25, 10)));
+        Army computerExpected = createArmy(List.of(createUnit("Knight", "Knight", 130, 40, 1, 3)));
+        attachPrograms(playerExpected, computerExpected);
+        SimulateBattleImpl fullSimulation = new SimulateBattleImpl();
+        injectLog(fullSimulation, logTo(expectedLog));
+        fullSimulation.simulate(playerExpected, computerExpected);
+
+        List<String> actualLog = new ArrayList<>();
+        BattleOutcome outcome = new HeadlessBattleSimulator(new Random(2), logTo(actualLog)).run(
+                createArmy(List.of(createUnit("Archer", "Archer", 100, 30, 25, 10))),
+                createArmy(List.of(createUnit("Knight", "Knight", 130, 40, 1, 3))));
+
+        assertEquals(expectedLog, actualLog);
+        assertEquals(BattleOutcome.Winner.COMPUTER, outcome.winner());
+        assertEquals(3, outcome.rounds());
+        assertEquals(0, outcome.playerSurvivors());
+        assertEquals(1, outcome.computerSurvivors());
+    }
+
+    @Test
+    @DisplayName("Если никто не может нанести урон, бой заканчивается ничьей")
+    void run_noReachableTargets_shouldEndInDraw() {
+        // Рыцарь игрока окружён своими юнитами без атаки, рыцарь компьютера не видит целей в рядах 24..26
+        List<Unit> playerUnits = new ArrayList<>();
+        playerUnits.add(createUnit("Player", "Knight", 100, 30, 13, 10));
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (dx != 0 || dy != 0) {
+                    playerUnits.add(createUnit("Guard", "Knight", 100, 0, 13 + dx, 10 + dy));
+                }
+            }
+        }
+        Unit computer = createUnit("Computer", "Knight", 100, 30, 1, 1);
+
+        BattleOutcome outcome = new HeadlessBattleSimulator(new Random(3))
+                .run(createArmy(playerUnits), createArmy(List.of(computer)));
+
+        assertEquals(BattleOutcome.Winner.DRAW, outcome.winner());
+        assertEquals(1, outcome.rounds());
+        assertEquals(9, outcome.playerSurvivors());
+        assertEquals(1, outcome.computerSurvivors());
+        assertEquals(100, computer.getHealth());
+    }
+
+    @Test
+    @DisplayName("Пустая армия - бой не начинается")
+    void run_emptyArmy_shouldNotStartBattle() {
+        Unit player = createUnit("Player", "Knight", 100, 30, 25, 10);
+
+        BattleOutcome outcome = new HeadlessBattleSimulator(new Random(4))
+                .run(createArmy(List.of(player)), createArmy(List.of()));
+
+        assertEquals(BattleOutcome.Winner.PLAYER, outcome.winner());
+        assertEquals(0, outcome.rounds());
+        assertEquals(0, outcome.attacks());
+        assertEquals(100, player.getHealth());
+    }
+
+    @Test
+    @DisplayName("С бонусами урон умножается на множитель таблицы")
+    void run_bonusDamage_shouldApplyMultipliers() {
+        Unit archer = new Unit("Archer", "Archer", 100, 30, 50, "ranged", Map.of("Knight", 2.0), null, 25, 10);
+        archer.setAlive(true);
+        Unit knight = createUnit("Knight", "Knight", 130, 10, 1, 3);
+        List<String> log = new ArrayList<>();
+        HeadlessBattleSimulator simulator = new HeadlessBattleSimulator(new Random(5), logTo(log));
+        simulator.setBonusDamage(true);
+
+        BattleOutcome outcome = simulator.run(createArmy(List.of(archer)), createArmy(List.of(knight)));
+
+        assertTrue(simulator.isBonusDamage());
+        assertEquals(BattleOutcome.Winner.PLAYER, outcome.winner());
+        assertEquals(3, outcome.rounds());
+        assertEquals(List.of("Archer -> Knight:70", "Knight -> Archer:90", "Archer -> Knight:10", "Knight -> Archer:80",
+                "Archer -> Knight:-50"), log);
+    }
+
+    @Test
+    @DisplayName("Бой с одним зерном повторяется до последней атаки")
+    void seeded_sameSeed_shouldReplaySameBattle() {
+        List<String> firstLog = new ArrayList<>();
+        List<String> secondLog = new ArrayList<>();
+        List<Unit> mixed = new ArrayList<>(meleeUnits("P", 24, 4, 30));
+        mixed.add(createUnit("PA", "Archer", 80, 20, 25, 9));
+
+        HeadlessBattleSimulator first = HeadlessBattleSimulator.seeded(2024L);
+        first.setPrintBattleLog(logTo(firstLog));
+        BattleOutcome firstOutcome = first.run(createArmy(copies(mixed)), createArmy(meleeUnits("C", 0, 5, 28)));
+        HeadlessBattleSimulator second = HeadlessBattleSimulator.seeded(2024L);
+        second.setPrintBattleLog(logTo(secondLog));
+        BattleOutcome secondOutcome = second.run(createArmy(copies(mixed)), createArmy(meleeUnits("C", 0, 5, 28)));
+
+        assertFalse(firstLog.isEmpty());
+        assertEquals(firstLog, secondLog);
+        assertEquals(firstOutcome, secondOutcome);
+    }
+
+    private List<Unit> copies(List<Unit> units) {
+        return Armies.deepCopy(createArmy(units)).getUnits();
+    }
+
+    private void attachPrograms(Army playerArmy, Army computerArmy) {
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        SuitableForAttackUnitsFinderImpl suitableFinder = new SuitableForAttackUnitsFinderImpl();
+        UnitTargetPathFinderImpl pathFinder = new UnitTargetPathFinderImpl();
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram("Archer".equals(unit.getUnitType())
+                    ? new UserArcherProgram(unit, playerArmy, computerArmy, speed)
+                    : new UserKnightProgram(unit, playerArmy, computerArmy, speed, suitableFinder, pathFinder));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram("Archer".equals(unit.getUnitType())
+                    ? new ComputerArcherProgram(unit, computerArmy, playerArmy, speed)
+                    : new ComputerKnightProgram(unit, computerArmy, playerArmy, speed, suitableFinder, pathFinder));
+        }
+    }
+
+    private void injectLog(SimulateBattleImpl simulateBattle, PrintBattleLog log) throws Exception {
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, log);
+    }
+
+    private PrintBattleLog logTo(List<String> log) {
+        return (attacker, target) -> log.add(attacker.getName() + " -> "
+                + (target != null ? target.getName() + ":" + target.getHealth() : "null"));
+    }
+
+    private List<Unit> meleeUnits(String prefix, int x, int count, int attack) {
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            units.add(createUnit(prefix + i, "Knight", 100 + 10 * i, attack - i, x, 3 * i + 2));
+        }
+        return units;
+    }
+
+    private int aliveCount(Army army) {
+        return (int) army.getUnits().stream().filter(Unit::isAlive).count();
+    }
+
+    private Army createArmy(List<Unit> units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(units));
+        return army;
+    }
+
+    private Unit createUnit(String name, String type, int health, int attack, int x, int y) {
+        Unit unit = new Unit(name, type, health, attack, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,251 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для HierarchicalPathFinder.
+ * Проверяем:
+ * - Путь проходим и найден тогда же, когда его находит полная Дейкстра, а его длина близка к кратчайшей
+ * - Ограниченное удлинение пути к близкой цели на плотных полях
+ * - Поля, размер которых не кратен размеру кластера, и старт или цель у границы кластера
+ * - Отложенное построение кластеров и перестройку только затронутых при перемещении юнита
+ * - Граничные случаи: одна клетка, выход за поле, занятая цель, некорректный размер
+ */
+class HierarchicalPathFinderTest {
+
+    @Test
+    @DisplayName("На случайных полях путь проходим, достижимость совпадает с Дейкстрой, длина близка к кратчайшей")
+    void getTargetPath_randomFields_shouldMatchReachabilityAndStayNearOptimal() {
+        Random random = new Random(21);
+        double totalCost = 0;
+        double totalOptimal = 0;
+        for (int field = 0; field < 30; field++) {
+            int width = 20 + random.nextInt(60);
+            int height = 20 + random.nextInt(60);
+            HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(width, height, 4 + random.nextInt(10));
+            List<Unit> units = new ArrayList<>();
+            int obstacles = (int) (width * height * random.nextDouble() * 0.35);
+            for (int i = 0; i < obstacles; i++) {
+                units.add(createUnit("Block", random.nextInt(width), random.nextInt(height)));
+            }
+            for (int query = 0; query < 20; query++) {
+                Unit attacker = createUnit("Attacker", random.nextInt(width), random.nextInt(height));
+                Unit target = createUnit("Target", random.nextInt(width), random.nextInt(height));
+                List<Unit> all = new ArrayList<>(units);
+                all.add(attacker);
+                all.add(target);
+
+                List<Edge> path = pathFinder.getTargetPath(attacker, target, all);
+                double optimal = referenceDistance(attacker, target, all, width, height);
+
+                assertEquals(optimal == Double.MAX_VALUE, path.isEmpty(), "Поле " + field + ", запрос " + query);
+                if (!path.isEmpty()) {
+                    double cost = pathCost(path, attacker, target, all);
+                    assertTrue(cost <= optimal * 1.3 + 2, cost + " против " + optimal);
+                    totalCost += cost;
+                    totalOptimal += optimal;
+                }
+            }
+        }
+        assertTrue(totalCost <= totalOptimal * 1.1, totalCost + " против " + totalOptimal);
+    }
+
+    @Test
+    @DisplayName("На плотных полях путь к близкой и далёкой цели длиннее кратчайшего не больше чем в 1.4 раза")
+    void getTargetPath_denseFields_shouldBoundStretch() {
+        Random random = new Random(7);
+        int[][] sizes = {{27, 21, 16}, {64, 64, 16}, {64, 64, 8}, {50, 40, 5}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            for (int field = 0; field < 100; field++) {
+                HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(width, height, size[2]);
+                List<Unit> units = new ArrayList<>();
+                int obstacles = (int) (width * height * random.nextDouble() * 0.45);
+                for (int i = 0; i < obstacles; i++) {
+                    units.add(createUnit("Block", random.nextInt(width), random.nextInt(height)));
+                }
+                for (int query = 0; query < 30; query++) {
+                    Unit attacker = createUnit("Attacker", random.nextInt(width), random.nextInt(height));
+                    // Чётные запросы — цель в нескольких клетках от атакующего
+                    Unit target = query % 2 == 0
+                            ? createUnit("Target",
+                                    Math.clamp(attacker.getxCoordinate() + random.nextInt(9) - 4, 0, width - 1),
+                                    Math.clamp(attacker.getyCoordinate() + random.nextInt(9) - 4, 0, height - 1))
+                            : createUnit("Target", random.nextInt(width), random.nextInt(height));
+                    List<Unit> all = new ArrayList<>(units);
+                    all.add(attacker);
+                    all.add(target);
+
+                    List<Edge> path = pathFinder.getTargetPath(attacker, target, all);
+                    double optimal = referenceDistance(attacker, target, all, width, height);
+
+                    assertEquals(optimal == Double.MAX_VALUE, path.isEmpty());
+                    if (!path.isEmpty()) {
+                        double cost = pathCost(path, attacker, target, all);
+                        assertTrue(cost <= optimal * 1.4 + 1e-9, width + "x" + height + ": " + cost + " против " + optimal);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Старт, запертый в кластере, выходит через границу прямо из своей клетки")
+    void getTargetPath_startOnClusterBorder_shouldStepAcrossBorder() {
+        HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(40, 8, 4);
+        Unit attacker = createUnit("Attacker", 3, 0); // восточный край кластера [0..3] × [0..3]
+        Unit target = createUnit("Target", 39, 7);
+        List<Unit> units = new ArrayList<>(List.of(attacker, target));
+        // Внутри своего кластера атакующий окружён, свободен только шаг на восток
+        units.add(createUnit("W", 2, 0));
+        units.add(createUnit("NW", 2, 1));
+        units.add(createUnit("N", 3, 1));
+        units.add(createUnit("NE", 4, 1));
+
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+
+        assertFalse(path.isEmpty());
+        assertEquals(4, path.get(1).getX());
+        assertEquals(0, path.get(1).getY());
+        double optimal = referenceDistance(attacker, target, units, 40, 8);
+        assertTrue(pathCost(path, attacker, target, units) <= optimal * 1.1);
+    }
+
+    @Test
+    @DisplayName("Строятся только кластеры, куда вошёл поиск, перемещение юнита перестраивает лишь соседние")
+    void getTargetPath_unitMoved_shouldRebuildOnlyAffectedClusters() {
+        HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(256, 256);
+        Random random = new Random(4);
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            units.add(createUnit("Unit" + i, random.nextInt(256), random.nextInt(256)));
+        }
+        Unit attacker = createUnit("Attacker", 5, 5);
+        Unit target = createUnit("Target", 250, 240);
+        units.add(attacker);
+        units.add(target);
+
+        assertFalse(pathFinder.getTargetPath(attacker, target, units).isEmpty());
+        long fullBuild = pathFinder.getClusterRebuilds();
+        assertTrue(fullBuild > 0 && fullBuild < 16 * 16 / 2, "Кластеры вдали от пути не строятся: " + fullBuild);
+
+        Unit moved = units.get(0);
+        moved.setxCoordinate(Math.min(255, moved.getxCoordinate() + 1));
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+
+        assertTrue(pathFinder.getClusterRebuilds() - fullBuild <= 4,
+                "Перестроено кластеров: " + (pathFinder.getClusterRebuilds() - fullBuild));
+        double optimal = referenceDistance(attacker, target, units, 256, 256);
+        assertTrue(pathCost(path, attacker, target, units) <= optimal * 1.1);
+
+        long rebuilds = pathFinder.getClusterRebuilds();
+        pathFinder.getTargetPath(attacker, target, units);
+        assertEquals(rebuilds, pathFinder.getClusterRebuilds(), "Без изменений поле не перестраивается");
+    }
+
+    @Test
+    @DisplayName("Одна клетка, выход за поле, занятая цель и некорректный размер")
+    void getTargetPath_edgeCases_shouldMatchFullSearch() {
+        HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(50, 30, 8);
+        Unit attacker = createUnit("Attacker", 2, 2);
+        Unit outside = createUnit("Outside", 50, 2);
+        Unit target = createUnit("Target", 45, 20);
+        Unit stacked = createUnit("Stacked", 45, 20);
+
+        assertEquals(1, pathFinder.getTargetPath(attacker, attacker, List.of(attacker)).size());
+        assertTrue(pathFinder.getTargetPath(attacker, outside, List.of(attacker, outside)).isEmpty());
+        assertTrue(pathFinder.getTargetPath(attacker, target, List.of(attacker, target, stacked)).isEmpty());
+        // На пустом поле крюк через входы невелик
+        double octile = 43.0 + 18 * (Math.sqrt(2) - 1);
+        double cost = pathCost(pathFinder.getTargetPath(attacker, target, List.of(attacker, target)), attacker, target,
+                List.of(attacker, target));
+        assertTrue(cost >= octile - 1e-9 && cost <= octile * 1.05, cost + " против " + octile);
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalPathFinder(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalPathFinder(10, 10, 1));
+        // Конфигурация поля выбирает поиск по размеру
+        assertInstanceOf(UnitTargetPathFinderImpl.class, BattlefieldConfig.DEFAULT.createPathFinder());
+        assertInstanceOf(HierarchicalPathFinder.class, new BattlefieldConfig(200, 100, 5, 11).createPathFinder());
+    }
+
+    private double pathCost(List<Edge> path, Unit attacker, Unit target, List<Unit> units) {
+        Set<Long> blocked = new HashSet<>();
+        for (Unit unit : units) {
+            if (unit.isAlive() && unit != attacker && unit != target) {
+                blocked.add(key(unit.getxCoordinate(), unit.getyCoordinate()));
+            }
+        }
+        assertEquals(attacker.getxCoordinate(), path.get(0).getX());
+        assertEquals(attacker.getyCoordinate(), path.get(0).getY());
+        assertEquals(target.getxCoordinate(), path.get(path.size() - 1).getX());
+        assertEquals(target.getyCoordinate(), path.get(path.size() - 1).getY());
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "Шаг пути должен вести в соседнюю клетку");
+            assertFalse(blocked.contains(key(path.get(i).getX(), path.get(i).getY())), "Путь проходит через юнита");
+            cost += (dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0;
+        }
+        return cost;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | y;
+    }
+
+    /**
+     * Эталонная Дейкстра на поле произвольного размера.
+     */
+    private double referenceDistance(Unit attacker, Unit target, List<Unit> units, int width, int height) {
+        boolean[][] blocked = new boolean[width][height];
+        for (Unit unit : units) {
+            if (unit.isAlive() && unit != attacker && unit != target) {
+                blocked[unit.getxCoordinate()][unit.getyCoordinate()] = true;
+            }
+        }
+        double[][] distance = new double[width][height];
+        for (double[] row : distance) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        distance[attacker.getxCoordinate()][attacker.getyCoordinate()] = 0;
+        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[0]));
+        pq.add(new double[]{0, attacker.getxCoordinate(), attacker.getyCoordinate()});
+        while (!pq.isEmpty()) {
+            double[] current = pq.poll();
+            int x = (int) current[1];
+            int y = (int) current[2];
+            if (current[0] > distance[x][y]) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || nx >= width || ny < 0 || ny >= height || blocked[nx][ny]) {
+                        continue;
+                    }
+                    double newDist = current[0] + ((dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0);
+                    if (newDist < distance[nx][ny]) {
+                        distance[nx][ny] = newDist;
+                        pq.add(new double[]{newDist, nx, ny});
+                    }
+                }
+            }
+        }
+        return distance[target.getxCoordinate()][target.getyCoordinate()];
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
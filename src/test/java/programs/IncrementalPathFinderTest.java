@@ -0,0 +1,183 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для IncrementalPathFinder.
+ * Проверяем:
+ * - Стоимость пути совпадает с полной Дейкстрой при перемещениях и гибели юнитов
+ * - Перепланирование раскрывает меньше вершин, чем поиск с нуля
+ * - Общий планировщик атакующих одной цели и перестройку при смещении цели
+ * - Вытеснение по ёмкости и после гибели цели
+ * - Граничные случаи: одна клетка, выход за поле, занятая цель
+ */
+class IncrementalPathFinderTest {
+
+    @Test
+    @DisplayName("Стоимость пути совпадает с Дейкстрой на последовательности мелких изменений поля")
+    void getTargetPath_smallChanges_shouldMatchDijkstraCost() {
+        UnitTargetPathFinderImpl dijkstra = new UnitTargetPathFinderImpl(PathSearchStrategy.DIJKSTRA);
+        dijkstra.setCorridorShortcut(false);
+        IncrementalPathFinder incremental = new IncrementalPathFinder();
+        Random random = new Random(3);
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            units.add(createUnit("Block" + i, random.nextInt(27), random.nextInt(21)));
+        }
+        List<Unit> attackers = new ArrayList<>();
+        List<Unit> targets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            attackers.add(createUnit("Attacker" + i, random.nextInt(3), random.nextInt(21)));
+        }
+        for (int i = 0; i < 2; i++) {
+            targets.add(createUnit("Target" + i, 24 + random.nextInt(3), random.nextInt(21)));
+        }
+        units.addAll(attackers);
+        units.addAll(targets);
+
+        long fullExpansions = 0;
+        for (int step = 0; step < 150; step++) {
+            Unit moved = units.get(random.nextInt(120));
+            if (random.nextInt(10) == 0) {
+                moved.setAlive(!moved.isAlive());
+            } else {
+                moved.setxCoordinate(clamp(moved.getxCoordinate() + random.nextInt(3) - 1, 27));
+                moved.setyCoordinate(clamp(moved.getyCoordinate() + random.nextInt(3) - 1, 21));
+            }
+            for (int i = 0; i < attackers.size(); i++) {
+                Unit attacker = attackers.get(i);
+                Unit target = targets.get(i % 2); // два атакующих на цель делят планировщик
+                List<Edge> expected = dijkstra.getTargetPath(attacker, target, units);
+                fullExpansions += dijkstra.getLastExpandedNodes();
+
+                List<Edge> path = incremental.getTargetPath(attacker, target, units);
+
+                assertEquals(expected.isEmpty(), path.isEmpty(), "Шаг " + step + ", пара " + i);
+                assertEquals(pathCost(expected), pathCost(path), 1e-9, "Шаг " + step + ", пара " + i);
+                if (path.size() > 2 && step % 5 == 0) {
+                    // Атакующий продвигается по найденному пути
+                    attacker.setxCoordinate(path.get(1).getX());
+                    attacker.setyCoordinate(path.get(1).getY());
+                }
+            }
+        }
+        assertEquals(2, incremental.getPlannerBuilds());
+        assertTrue(incremental.getExpandedNodes() * 3 < fullExpansions,
+                incremental.getExpandedNodes() + " против " + fullExpansions);
+    }
+
+    @Test
+    @DisplayName("Без изменений поле не раскрывается, смещение цели строит поиск заново")
+    void getTargetPath_repeatedAndMovedTarget_shouldReuseOrRebuild() {
+        IncrementalPathFinder pathFinder = new IncrementalPathFinder();
+        Unit attacker = createUnit("Attacker", 0, 10);
+        Unit target = createUnit("Target", 26, 10);
+        Unit wall = createUnit("Wall", 13, 10);
+        List<Unit> units = Arrays.asList(attacker, target, wall);
+
+        List<Edge> first = pathFinder.getTargetPath(attacker, target, units);
+        long afterFirst = pathFinder.getExpandedNodes();
+        List<Edge> second = pathFinder.getTargetPath(attacker, target, units);
+
+        assertEquals(pathCost(first), pathCost(second), 1e-9);
+        assertEquals(afterFirst, pathFinder.getExpandedNodes(), "Повторный вызов не должен раскрывать вершины");
+        assertEquals(1, pathFinder.getPlannerHits());
+
+        target.setyCoordinate(11);
+        List<Edge> moved = pathFinder.getTargetPath(attacker, target, units);
+        assertEquals(26, moved.get(moved.size() - 1).getX());
+        assertEquals(11, moved.get(moved.size() - 1).getY());
+        assertEquals(2, pathFinder.getPlannerBuilds());
+    }
+
+    @Test
+    @DisplayName("Атакующие одной цели делят планировщик")
+    void getTargetPath_sharedTarget_shouldReusePlanner() {
+        IncrementalPathFinder pathFinder = new IncrementalPathFinder();
+        Unit target = createUnit("Target", 20, 5);
+        Unit first = createUnit("First", 0, 0);
+        Unit second = createUnit("Second", 1, 0);
+        List<Unit> units = Arrays.asList(target, first, second);
+
+        List<Edge> firstPath = pathFinder.getTargetPath(first, target, units);
+        List<Edge> secondPath = pathFinder.getTargetPath(second, target, units);
+
+        assertEquals(1, pathFinder.getPlannerBuilds());
+        assertEquals(1, pathFinder.getPlannerHits());
+        assertEquals(5 * Math.sqrt(2) + 15, pathCost(firstPath), 1e-9);
+        assertEquals(5 * Math.sqrt(2) + 14, pathCost(secondPath), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Планировщики вытесняются по ёмкости и после гибели цели")
+    void getTargetPath_budget_shouldEvictLeastRecentAndStale() {
+        IncrementalPathFinder pathFinder = new IncrementalPathFinder(2);
+        Unit attacker = createUnit("Attacker", 0, 5);
+        Unit a = createUnit("A", 20, 0);
+        Unit b = createUnit("B", 20, 5);
+        Unit c = createUnit("C", 20, 10);
+        List<Unit> units = Arrays.asList(attacker, a, b, c);
+
+        pathFinder.getTargetPath(attacker, a, units);
+        pathFinder.getTargetPath(attacker, b, units);
+        pathFinder.getTargetPath(attacker, a, units);
+        pathFinder.getTargetPath(attacker, c, units); // вытесняет B как давно не использованный
+
+        assertEquals(2, pathFinder.size());
+        assertEquals(1, pathFinder.getEvictions());
+        pathFinder.getTargetPath(attacker, a, units);
+        assertEquals(2, pathFinder.getPlannerHits());
+
+        c.setAlive(false);
+        pathFinder.getTargetPath(attacker, a, units);
+        assertEquals(1, pathFinder.size());
+        assertEquals(2, pathFinder.getEvictions());
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalPathFinder(0));
+    }
+
+    @Test
+    @DisplayName("Одна клетка, выход за поле и занятая клетка цели")
+    void getTargetPath_edgeCases_shouldMatchFullSearch() {
+        IncrementalPathFinder pathFinder = new IncrementalPathFinder();
+        Unit attacker = createUnit("Attacker", 2, 2);
+        Unit outside = createUnit("Outside", 40, 2);
+        Unit target = createUnit("Target", 8, 2);
+        Unit stacked = createUnit("Stacked", 8, 2);
+        Unit companion = createUnit("Companion", 2, 2);
+
+        assertEquals(1, pathFinder.getTargetPath(attacker, attacker, List.of(attacker)).size());
+        assertTrue(pathFinder.getTargetPath(attacker, outside, List.of(attacker, outside)).isEmpty());
+        assertTrue(pathFinder.getTargetPath(attacker, target, List.of(attacker, target, stacked)).isEmpty());
+        // Юнит в клетке атакующего старт не перекрывает
+        assertEquals(6.0, pathCost(pathFinder.getTargetPath(attacker, target, List.of(attacker, target, companion))),
+                1e-9);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private double pathCost(List<Edge> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "Шаг пути должен вести в соседнюю клетку");
+            cost += (dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0;
+        }
+        return cost;
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
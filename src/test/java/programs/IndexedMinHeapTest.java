@@ -0,0 +1,91 @@
+package programs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для IndexedMinHeap.
+ * Проверяем порядок извлечения, уменьшение ключа и очистку кучи.
+ */
+class IndexedMinHeapTest {
+
+    private IndexedMinHeap heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new IndexedMinHeap(16);
+    }
+
+    @Test
+    @DisplayName("Элементы извлекаются по возрастанию ключа")
+    void pollMin_shouldReturnElementsInKeyOrder() {
+        heap.insertOrDecrease(3, 3.0);
+        heap.insertOrDecrease(1, 1.5);
+        heap.insertOrDecrease(7, 0.5);
+        heap.insertOrDecrease(2, 2.0);
+
+        assertEquals(7, heap.pollMin());
+        assertEquals(1, heap.pollMin());
+        assertEquals(2, heap.pollMin());
+        assertEquals(3, heap.pollMin());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Уменьшение ключа поднимает элемент, увеличение игнорируется")
+    void insertOrDecrease_shouldOnlyDecreaseKey() {
+        heap.insertOrDecrease(4, 5.0);
+        heap.insertOrDecrease(5, 3.0);
+        heap.insertOrDecrease(4, 1.0);
+        heap.insertOrDecrease(5, 10.0);
+
+        assertEquals(2, heap.size());
+        assertEquals(4, heap.pollMin());
+        assertEquals(5, heap.pollMin());
+    }
+
+    @Test
+    @DisplayName("Очистка позволяет переиспользовать кучу")
+    void clear_shouldResetMembership() {
+        heap.insertOrDecrease(0, 1.0);
+        heap.insertOrDecrease(9, 2.0);
+
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(0));
+        assertFalse(heap.contains(9));
+        heap.insertOrDecrease(9, 4.0);
+        assertEquals(9, heap.pollMin());
+    }
+
+    @Test
+    @DisplayName("Случайная последовательность совпадает с сортировкой")
+    void pollMin_randomKeys_shouldMatchSortedOrder() {
+        IndexedMinHeap big = new IndexedMinHeap(500);
+        Random random = new Random(7);
+        double[] best = new double[500];
+        Arrays.fill(best, Double.MAX_VALUE);
+        for (int i = 0; i < 3000; i++) {
+            int element = random.nextInt(500);
+            double key = random.nextDouble();
+            big.insertOrDecrease(element, key);
+            best[element] = Math.min(best[element], key);
+        }
+
+        double previous = -1;
+        int polled = 0;
+        while (!big.isEmpty()) {
+            int element = big.pollMin();
+            assertTrue(best[element] >= previous);
+            previous = best[element];
+            polled++;
+        }
+        assertEquals(Arrays.stream(best).filter(k -> k != Double.MAX_VALUE).count(), polled);
+    }
+}
@@ -0,0 +1,65 @@
+package programs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для LatencyHistogram.
+ * Проверяем:
+ * - Точное хранение малых значений и относительную ошибку корзин не больше 12.5%
+ * - Квантили, среднее и максимум
+ */
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Каждое значение попадает в корзину с границей не дальше 12.5%")
+    void bucketOf_shouldBoundRelativeError() {
+        Random random = new Random(17);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+
+            assertTrue(bucket >= 0 && bucket < LatencyHistogram.BUCKETS);
+            assertTrue(upper >= value, value + " > " + upper);
+            assertTrue(upper - value <= value / 8, "Слишком широкая корзина для " + value);
+        }
+        for (long value = 0; value < 8; value++) {
+            assertEquals(value, LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value)));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("Квантили оцениваются сверху с точностью корзины")
+    void getValueAtQuantile_shouldEstimateFromAbove() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean());
+        assertEquals(1000, histogram.getMax());
+        long median = histogram.getValueAtQuantile(0.5);
+        assertTrue(median >= 500 && median <= 500 * 9 / 8, "p50 = " + median);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99 = " + p99);
+        assertEquals(1000, histogram.getValueAtQuantile(1.0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtQuantile(1.5));
+    }
+
+    @Test
+    @DisplayName("Пустая гистограмма")
+    void emptyHistogram_shouldReturnZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.getValueAtQuantile(0.99));
+    }
+}
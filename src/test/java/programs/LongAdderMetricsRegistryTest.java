@@ -0,0 +1,158 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для LongAdderMetricsRegistry.
+ * Проверяем:
+ * - Счётчики и таймеры при записи из многих потоков
+ * - Снимок метрик в JSON
+ * - Метрики генерации, симуляции, поиска целей и пути; пустой глобальный реестр по умолчанию
+ * - Разрешение счётчиков и таймеров горячих путей один раз на реестр
+ */
+class LongAdderMetricsRegistryTest {
+
+    @Test
+    @DisplayName("Счётчики и таймеры не теряют обновлений из разных потоков")
+    void counterAndTimer_concurrentUpdates_shouldSum() throws InterruptedException {
+        LongAdderMetricsRegistry registry = new LongAdderMetricsRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    registry.counter("events").increment();
+                    registry.timer("calls").record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000, registry.counterValue("events"));
+        assertEquals(40_000, registry.histogram("calls").getCount());
+        assertEquals(9_999, registry.histogram("calls").getMax());
+        assertSame(registry.counter("events"), registry.counter("events"));
+        assertEquals(0, registry.counterValue("missing"));
+        assertNull(registry.histogram("missing"));
+    }
+
+    @Test
+    @DisplayName("Снимок в JSON содержит счётчики и квантили таймеров")
+    void toJson_shouldWriteSortedSnapshot() {
+        LongAdderMetricsRegistry registry = new LongAdderMetricsRegistry();
+        registry.counter("b.count").add(5);
+        registry.counter("a\"quoted").add(1);
+        registry.timer("t").record(4);
+
+        assertEquals("{\"counters\":{\"a\\\"quoted\":1,\"b.count\":5},\"timers\":{\"t\":{\"count\":1,"
+                + "\"totalNanos\":4,\"meanNanos\":4,\"maxNanos\":4,\"p50Nanos\":4,\"p90Nanos\":4,"
+                + "\"p99Nanos\":4,\"p999Nanos\":4}}}", registry.toJson());
+
+        registry.clear();
+        assertEquals("{\"counters\":{},\"timers\":{}}", registry.toJson());
+    }
+
+    @Test
+    @DisplayName("Реализации алгоритмов пишут метрики в реестр экземпляра")
+    void algorithms_shouldRecordMetrics() throws InterruptedException {
+        LongAdderMetricsRegistry registry = new LongAdderMetricsRegistry();
+
+        GeneratePresetImpl generator = new GeneratePresetImpl();
+        generator.setMetrics(registry);
+        Army army = generator.generate(List.of(createUnit("Knight", 0, 0)), 500);
+
+        SuitableForAttackUnitsFinderImpl suitableFinder = new SuitableForAttackUnitsFinderImpl();
+        suitableFinder.setMetrics(registry);
+        suitableFinder.getSuitableUnits(List.of(army.getUnits()), true);
+
+        UnitTargetPathFinderImpl pathFinder = new UnitTargetPathFinderImpl();
+        pathFinder.setMetrics(registry);
+        Unit attacker = createUnit("Attacker", 24, 10);
+        Unit target = createUnit("Target", 2, 10);
+        pathFinder.getTargetPath(attacker, target, List.of(attacker, target));
+
+        SimulateBattleImpl simulator = new SimulateBattleImpl();
+        simulator.setMetrics(registry);
+        simulator.simulate(new Army(new ArrayList<>()), new Army(new ArrayList<>()));
+
+        assertEquals(1, registry.histogram(GeneratePresetImpl.METRIC_GENERATE).getCount());
+        assertEquals(army.getUnits().size(), registry.counterValue(GeneratePresetImpl.METRIC_UNITS));
+        assertTrue(registry.counterValue(GeneratePresetImpl.METRIC_ALLOCATED_BYTES) > 0);
+        assertEquals(army.getUnits().size(),
+                registry.counterValue(SuitableForAttackUnitsFinderImpl.METRIC_UNITS_SCANNED));
+        assertEquals(1, registry.histogram(UnitTargetPathFinderImpl.METRIC_GET_TARGET_PATH).getCount());
+        assertEquals(pathFinder.getLastExpandedNodes(),
+                registry.counterValue(UnitTargetPathFinderImpl.METRIC_NODES_EXPANDED));
+        assertTrue(registry.counterValue(UnitTargetPathFinderImpl.METRIC_QUEUE_PUSHES)
+                >= registry.counterValue(UnitTargetPathFinderImpl.METRIC_NODES_EXPANDED));
+        assertEquals(1, registry.histogram(SimulateBattleImpl.METRIC_SIMULATE).getCount());
+        assertEquals(0, registry.counterValue(SimulateBattleImpl.METRIC_ROUNDS));
+    }
+
+    @Test
+    @DisplayName("Поиск пути и целей разрешают счётчики и таймеры по именам один раз на реестр")
+    void algorithms_repeatedCalls_shouldResolveMetricsOncePerRegistry() {
+        LongAdderMetricsRegistry first = new LongAdderMetricsRegistry();
+        LongAdderMetricsRegistry second = new LongAdderMetricsRegistry();
+        Map<String, Integer> lookups = new HashMap<>();
+        MetricsRegistry counting = new MetricsRegistry() {
+            @Override
+            public Counter counter(String name) {
+                lookups.merge(name, 1, Integer::sum);
+                return first.counter(name);
+            }
+
+            @Override
+            public Timer timer(String name) {
+                lookups.merge(name, 1, Integer::sum);
+                return first.timer(name);
+            }
+        };
+        UnitTargetPathFinderImpl pathFinder = new UnitTargetPathFinderImpl();
+        SuitableForAttackUnitsFinderImpl suitableFinder = new SuitableForAttackUnitsFinderImpl();
+        pathFinder.setMetrics(counting);
+        suitableFinder.setMetrics(counting);
+        Unit attacker = createUnit("Attacker", 24, 10);
+        Unit target = createUnit("Target", 2, 10);
+
+        for (int i = 0; i < 100; i++) {
+            pathFinder.getTargetPath(attacker, target, List.of(attacker, target));
+            suitableFinder.getSuitableUnits(List.of(List.of(target)), true);
+        }
+
+        assertEquals(100, first.histogram(UnitTargetPathFinderImpl.METRIC_GET_TARGET_PATH).getCount());
+        assertEquals(100, first.counterValue(SuitableForAttackUnitsFinderImpl.METRIC_UNITS_SCANNED));
+        assertEquals(Set.of(1), new HashSet<>(lookups.values()), "Повторный поиск по имени: " + lookups);
+
+        pathFinder.setMetrics(second);
+        suitableFinder.setMetrics(second);
+        pathFinder.getTargetPath(attacker, target, List.of(attacker, target));
+        suitableFinder.getSuitableUnits(List.of(List.of(target)), true);
+        assertEquals(1, second.histogram(UnitTargetPathFinderImpl.METRIC_GET_TARGET_PATH).getCount());
+        assertEquals(1, second.counterValue(SuitableForAttackUnitsFinderImpl.METRIC_UNITS_SCANNED));
+    }
+
+    @Test
+    @DisplayName("По умолчанию метрики уходят в пустой глобальный реестр")
+    void defaultRegistry_shouldBeNoop() {
+        assertSame(MetricsRegistry.NOOP, MetricsRegistry.global());
+        assertSame(MetricsRegistry.Counter.NOOP, MetricsRegistry.global().counter("any"));
+        assertEquals(0, MetricsRegistry.Timer.NOOP.start());
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
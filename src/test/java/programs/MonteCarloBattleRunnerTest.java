@@ -0,0 +1,209 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для MonteCarloBattleRunner.
+ * Проверяем:
+ * - Воспроизводимость сводки при одном главном зерне и разном числе потоков
+ * - Неизменность исходных армий
+ * - Согласованность счётчиков и гистограмм выживших
+ * - Сравнение двух армий на общих случайных числах
+ * - Сверку предсказателя исхода с полными боями
+ */
+class MonteCarloBattleRunnerTest {
+
+    private static final int PAIRED_ARMY_SIZE = 13; // против сгенерированной армии шансы около половины
+
+    @Test
+    @DisplayName("Одинаковое главное зерно даёт одинаковую сводку при любом числе потоков")
+    void run_sameSeed_shouldBeReproducibleAcrossParallelism() {
+        Army computerArmy = generatedComputerArmy();
+        Army playerArmy = playerArmy(12);
+
+        MonteCarloReport single;
+        MonteCarloReport parallel;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(1)) {
+            single = runner.run(playerArmy, computerArmy, 40, 42L);
+        }
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(4)) {
+            parallel = runner.run(playerArmy, computerArmy, 40, 42L);
+        }
+
+        assertEquals(single.getPlayerWins(), parallel.getPlayerWins());
+        assertEquals(single.getComputerWins(), parallel.getComputerWins());
+        assertEquals(single.getDraws(), parallel.getDraws());
+        assertEquals(single.getTotalRounds(), parallel.getTotalRounds());
+        assertArrayEquals(single.getPlayerSurvivorHistogram(), parallel.getPlayerSurvivorHistogram());
+        assertArrayEquals(single.getComputerSurvivorHistogram(), parallel.getComputerSurvivorHistogram());
+    }
+
+    @Test
+    @DisplayName("Исходные армии не изменяются")
+    void run_shouldNotMutateInputArmies() {
+        Army computerArmy = generatedComputerArmy();
+        Army playerArmy = playerArmy(6);
+
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(2)) {
+            runner.run(playerArmy, computerArmy, 10, 7L);
+        }
+
+        for (Unit unit : playerArmy.getUnits()) {
+            assertTrue(unit.isAlive());
+            assertEquals(120, unit.getHealth());
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            assertTrue(unit.isAlive());
+        }
+    }
+
+    @Test
+    @DisplayName("Счётчики побед и гистограммы выживших согласованы")
+    void run_shouldAggregateConsistentCounters() {
+        Army computerArmy = generatedComputerArmy();
+        Army playerArmy = playerArmy(10);
+
+        MonteCarloReport report;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(3)) {
+            report = runner.run(playerArmy, computerArmy, 50, 1L);
+        }
+
+        assertEquals(50, report.getBattles());
+        assertEquals(50, report.getPlayerWins() + report.getComputerWins() + report.getDraws());
+        assertEquals(50, Arrays.stream(report.getPlayerSurvivorHistogram()).sum());
+        assertEquals(50, Arrays.stream(report.getComputerSurvivorHistogram()).sum());
+        assertEquals(report.getPlayerWins(), 50 - report.getPlayerSurvivorHistogram()[0] - report.getDraws());
+        assertTrue(report.meanRounds() >= 1.0);
+        assertEquals(report.getPlayerWins() / 50.0, report.playerWinProbability(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Подавляющее превосходство - вероятность победы 1")
+    void run_overwhelmingArmy_shouldAlwaysWin() {
+        Army computerArmy = createArmy(List.of(createUnit("Weak", "Knight", 10, 1, 1, 10)));
+        Army playerArmy = playerArmy(5);
+
+        MonteCarloReport report;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(2)) {
+            report = runner.run(playerArmy, computerArmy, 20, 3L);
+        }
+
+        assertEquals(1.0, report.playerWinProbability());
+        assertEquals(0.0, report.playerWinStandardError());
+        assertEquals(20, report.getPlayerSurvivorHistogram()[5]);
+    }
+
+    @Test
+    @DisplayName("Зёрна соседних боёв различаются")
+    void battleSeed_shouldDifferForNeighbouringBattles() {
+        Set<Long> seeds = new HashSet<>();
+        for (int index = 0; index < 1000; index++) {
+            seeds.add(MonteCarloBattleRunner.battleSeed(42L, index));
+        }
+
+        assertEquals(1000, seeds.size());
+        assertNotEquals(MonteCarloBattleRunner.battleSeed(1L, 0), MonteCarloBattleRunner.battleSeed(2L, 0));
+    }
+
+    @Test
+    @DisplayName("Сравнение армии с её копией на общих числах даёт нулевую разность без ошибки")
+    void compare_identicalArmies_shouldHaveZeroDifference() {
+        Army computerArmy = generatedComputerArmy();
+        Army playerArmy = playerArmy(12);
+
+        PairedComparisonReport report;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(2)) {
+            report = runner.compare(playerArmy, Armies.deepCopy(playerArmy), computerArmy, 40, 5L);
+        }
+
+        assertEquals(report.getFirstWins(), report.getSecondWins());
+        assertEquals(0, report.getFirstOnlyWins());
+        assertEquals(0, report.getSecondOnlyWins());
+        assertEquals(0.0, report.winProbabilityDifference());
+        assertEquals(0.0, report.pairedStandardError());
+    }
+
+    @Test
+    @DisplayName("Общие случайные числа уменьшают ошибку разности и воспроизводимы")
+    void compare_similarArmies_shouldReduceVariance() {
+        Army computerArmy = generatedComputerArmy();
+        Army weaker = playerArmy(PAIRED_ARMY_SIZE);
+        Army stronger = playerArmy(PAIRED_ARMY_SIZE);
+        stronger.getUnits().getFirst().setBaseAttack(stronger.getUnits().getFirst().getBaseAttack() + 15);
+
+        PairedComparisonReport single;
+        PairedComparisonReport parallel;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(1)) {
+            single = runner.compare(stronger, weaker, computerArmy, 200, 11L);
+        }
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(4)) {
+            parallel = runner.compare(stronger, weaker, computerArmy, 200, 11L);
+        }
+
+        assertEquals(single.getFirstWins(), parallel.getFirstWins());
+        assertEquals(single.getFirstOnlyWins(), parallel.getFirstOnlyWins());
+        assertEquals(single.getSecondOnlyWins(), parallel.getSecondOnlyWins());
+        assertTrue(single.independentStandardError() > 0, single.toString());
+        assertTrue(single.pairedStandardError() < single.independentStandardError(), single.toString());
+        assertTrue(single.varianceReduction() > 1.0, single.toString());
+    }
+
+    @Test
+    @DisplayName("Предсказатель при полной уверенности экономит раунды без ошибок")
+    void validatePredictor_fullConfidence_shouldAgreeWithFullBattles() {
+        Army computerArmy = generatedComputerArmy();
+        Army playerArmy = playerArmy(18);
+
+        PredictorAgreementReport agreement;
+        MonteCarloReport predicted;
+        try (MonteCarloBattleRunner runner = new MonteCarloBattleRunner(2)) {
+            agreement = runner.validatePredictor(new OutcomePredictor(1.0), playerArmy, computerArmy, 30, 9L);
+            runner.setOutcomePredictor(new OutcomePredictor(1.0));
+            predicted = runner.run(playerArmy, computerArmy, 30, 9L);
+        }
+
+        assertEquals(30, agreement.getBattles());
+        assertTrue(agreement.getShortCircuited() > 0, agreement.toString());
+        assertEquals(1.0, agreement.winnerAgreement());
+        assertTrue(agreement.roundsSaved() > 0, agreement.toString());
+        assertEquals(agreement.getShortCircuited(), predicted.getPredicted());
+    }
+
+    private Army generatedComputerArmy() {
+        List<Unit> templates = List.of(
+                createUnit("Archer", "Archer", 50, 25, 0, 0),
+                createUnit("Knight", "Knight", 120, 30, 0, 0),
+                createUnit("Swordsman", "Swordsman", 90, 20, 0, 0));
+        Army army = new GeneratePresetImpl().generate(templates, 900);
+        army.getUnits().forEach(unit -> unit.setAlive(true));
+        return army;
+    }
+
+    private Army playerArmy(int size) {
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String type = i % 3 == 0 ? "Archer" : "Knight";
+            units.add(createUnit("Player " + i, type, 120, 30, 24 + i % 3, (i * 5) % 21));
+        }
+        return createArmy(units);
+    }
+
+    private Army createArmy(List<Unit> units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(units));
+        return army;
+    }
+
+    private Unit createUnit(String name, String type, int health, int attack, int x, int y) {
+        Unit unit = new Unit(name, type, health, attack, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
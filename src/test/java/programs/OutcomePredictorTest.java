@@ -0,0 +1,134 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для OutcomePredictor.
+ * Проверяем:
+ * - Предсказание по границам урона лучников и оценку оставшихся раундов
+ * - Отказ от предсказания в равном бою и без гарантированного урона
+ * - Досрочную остановку HeadlessBattleSimulator и SimulateBattleImpl
+ */
+class OutcomePredictorTest {
+
+    @Test
+    @DisplayName("Лучники, гарантированно добивающие рыцаря, объявляются победителями")
+    void predict_archersOutpaceKnight_shouldPredictPlayer() {
+        Army player = createArmy(archers("A", 3, 100, 50));
+        Army computer = createArmy(List.of(createUnit("Knight", "Knight", 400, 10, 1, 5)));
+        OutcomePredictor predictor = new OutcomePredictor(1.0);
+
+        OutcomePredictor.Prediction prediction = predictor.predict(UnitStore.of(player, computer), 0);
+
+        assertNotNull(prediction);
+        assertEquals(BattleOutcome.Winner.PLAYER, prediction.winner());
+        // 150 урона за раунд минус потери от 10 урона рыцаря: 145 + 140 + 135 + 130 ≥ 400 + 49
+        assertEquals(4, prediction.roundsLeft());
+        assertEquals(3, prediction.survivorsLow());
+        assertEquals(3, prediction.predictedSurvivors());
+        assertEquals(1, predictor.getEvaluations());
+        assertEquals(1, predictor.getShortCircuits());
+    }
+
+    @Test
+    @DisplayName("Равный бой и ближний бой при полной уверенности не предсказываются")
+    void predict_undecidedBattle_shouldReturnNull() {
+        Army playerArchers = createArmy(archers("A", 3, 100, 30));
+        Army computerArchers = createArmy(archers("B", 3, 100, 30));
+        Army playerKnights = createArmy(List.of(createUnit("PK", "Knight", 500, 80, 24, 1)));
+        Army computerKnights = createArmy(List.of(createUnit("CK", "Knight", 50, 5, 1, 1)));
+
+        assertNull(new OutcomePredictor(0.0).predict(UnitStore.of(playerArchers, computerArchers), 1));
+        assertNull(new OutcomePredictor(1.0).predict(UnitStore.of(playerKnights, computerKnights), 1));
+        OutcomePredictor.Prediction optimistic = new OutcomePredictor(0.0)
+                .predict(UnitStore.of(playerKnights, computerKnights), 1);
+        assertNotNull(optimistic);
+        assertEquals(BattleOutcome.Winner.PLAYER, optimistic.winner());
+        assertThrows(IllegalArgumentException.class, () -> new OutcomePredictor(1.5));
+    }
+
+    @Test
+    @DisplayName("Досрочно остановленный бой без анимации сходится с полным по победителю")
+    void headless_withPredictor_shouldStopEarlyAndAgree() {
+        Army computer = createArmy(List.of(
+                createUnit("Knight", "Knight", 400, 10, 1, 5),
+                createUnit("Guard", "Knight", 150, 15, 1, 9)));
+        Army player = createArmy(archers("A", 4, 100, 40));
+
+        BattleOutcome full = HeadlessBattleSimulator.seeded(8L)
+                .run(Armies.deepCopy(player), Armies.deepCopy(computer));
+        HeadlessBattleSimulator simulator = HeadlessBattleSimulator.seeded(8L);
+        simulator.setOutcomePredictor(new OutcomePredictor(1.0));
+        BattleOutcome predicted = simulator.run(Armies.deepCopy(player), Armies.deepCopy(computer));
+
+        assertTrue(predicted.predicted());
+        assertFalse(full.predicted());
+        assertEquals(full.winner(), predicted.winner());
+        assertTrue(predicted.rounds() < full.rounds(), predicted + " / " + full);
+        assertEquals(0, predicted.computerSurvivors());
+    }
+
+    @Test
+    @DisplayName("SimulateBattleImpl останавливает решённый бой и сохраняет предсказание")
+    void simulate_withPredictor_shouldStopAfterDecidedRound() throws Exception {
+        LongAdderMetricsRegistry metrics = new LongAdderMetricsRegistry();
+        Army player = createArmy(archers("A", 3, 100, 50));
+        Unit knight = createUnit("Knight", "Knight", 400, 10, 1, 5);
+        Army computer = createArmy(List.of(knight));
+        GameSpeedUtil speed = new GameSpeedUtil(0);
+        for (Unit unit : player.getUnits()) {
+            unit.setProgram(new UserArcherProgram(unit, player, computer, speed));
+        }
+        knight.setProgram(new ComputerKnightProgram(knight, computer, player, speed,
+                new SuitableForAttackUnitsFinderImpl(), new UnitTargetPathFinderImpl()));
+
+        List<String> log = new ArrayList<>();
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, (PrintBattleLog) (attacker, target) -> log.add(attacker.getName()));
+        simulateBattle.setMetrics(metrics);
+        simulateBattle.setOutcomePredictor(new OutcomePredictor(1.0));
+        simulateBattle.simulate(player, computer);
+
+        OutcomePredictor.Prediction prediction = simulateBattle.getLastPrediction();
+        assertNotNull(prediction);
+        assertEquals(BattleOutcome.Winner.PLAYER, prediction.winner());
+        assertEquals(1, prediction.round());
+        assertEquals(4, log.size());
+        assertTrue(knight.isAlive());
+        assertEquals(1, metrics.counterValue(SimulateBattleImpl.METRIC_SHORT_CIRCUITS));
+    }
+
+    private List<Unit> archers(String prefix, int count, int health, int attack) {
+        List<Unit> units = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            units.add(createUnit(prefix + i, "Archer", health, attack, 24, 3 * i + 1));
+        }
+        return units;
+    }
+
+    private Army createArmy(List<Unit> units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(units));
+        return army;
+    }
+
+    private Unit createUnit(String name, String type, int health, int attack, int x, int y) {
+        Unit unit = new Unit(name, type, health, attack, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
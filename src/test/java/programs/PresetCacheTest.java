@@ -0,0 +1,155 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для PresetCache.
+ * Проверяем:
+ * - Совпадение армии из кэша с армией генератора, в том числе на поле 512 × 512
+ * - Независимость выданных юнитов от кэша
+ * - Ключ по характеристикам шаблонов и бюджету
+ * - Счётчики попаданий, промахов и вытеснений
+ */
+class PresetCacheTest {
+
+    private PresetCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PresetCache(new GeneratePresetImpl(), 2);
+    }
+
+    @Test
+    @DisplayName("Армия из кэша совпадает с армией генератора")
+    void generate_hit_shouldMatchGenerator() {
+        List<Unit> unitList = createTestUnitList();
+
+        Army expected = new GeneratePresetImpl().generate(unitList, 1500);
+        Army miss = cache.generate(unitList, 1500);
+        Army hit = cache.generate(createTestUnitList(), 1500);
+
+        assertEquals(describe(expected), describe(miss));
+        assertEquals(describe(expected), describe(hit));
+        assertEquals(expected.getPoints(), hit.getPoints());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Армия поля 512 × 512 возвращается из кэша с теми же координатами")
+    void generate_largeFieldHit_shouldKeepCoordinates() {
+        BattlefieldConfig config = new BattlefieldConfig(512, 512, 1, 200);
+        PresetCache largeCache = new PresetCache(new GeneratePresetImpl(PresetMode.GREEDY, config), 2);
+        List<Unit> unitList = createTestUnitList();
+
+        Army expected = new GeneratePresetImpl(PresetMode.GREEDY, config).generate(unitList, Integer.MAX_VALUE);
+        largeCache.generate(unitList, Integer.MAX_VALUE);
+        Army hit = largeCache.generate(createTestUnitList(), Integer.MAX_VALUE);
+
+        assertEquals(1, largeCache.getHits());
+        assertEquals(512, hit.getUnits().size());
+        assertEquals(511, hit.getUnits().stream().mapToInt(Unit::getyCoordinate).max().orElseThrow());
+        assertEquals(describe(expected), describe(hit));
+    }
+
+    @Test
+    @DisplayName("При попадании создаются новые юниты")
+    void generate_hit_shouldMaterializeFreshUnits() {
+        List<Unit> unitList = createTestUnitList();
+
+        Army first = cache.generate(unitList, 800);
+        first.getUnits().getFirst().setHealth(-5);
+        first.getUnits().getFirst().getAttackBonuses().put("Knight", 9.0);
+        Army second = cache.generate(unitList, 800);
+
+        assertNotSame(first.getUnits().getFirst(), second.getUnits().getFirst());
+        assertNotEquals(-5, second.getUnits().getFirst().getHealth());
+        assertFalse(second.getUnits().getFirst().getAttackBonuses().containsKey("Knight"));
+    }
+
+    @Test
+    @DisplayName("Другой бюджет или другие характеристики - промах")
+    void generate_differentKey_shouldMiss() {
+        cache.generate(createTestUnitList(), 1000);
+        cache.generate(createTestUnitList(), 1001);
+
+        List<Unit> changed = createTestUnitList();
+        changed.getFirst().setBaseAttack(changed.getFirst().getBaseAttack() + 1);
+        cache.generate(changed, 1000);
+
+        List<Unit> changedBonus = createTestUnitList();
+        changedBonus.getFirst().getDefenceBonuses().put("Archer", 0.5);
+        cache.generate(changedBonus, 1000);
+
+        assertEquals(0, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Вытесняется давно не использованная запись")
+    void generate_overCapacity_shouldEvictLeastRecentlyUsed() {
+        List<Unit> unitList = createTestUnitList();
+
+        cache.generate(unitList, 100);
+        cache.generate(unitList, 200);
+        cache.generate(unitList, 100); // 100 становится свежее 200
+        cache.generate(unitList, 300); // вытесняет 200
+        cache.generate(unitList, 100);
+        cache.generate(unitList, 200);
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Отпечаток не зависит от порядка бонусов и различает бюджеты")
+    void fingerprint_shouldDependOnStatsAndBudget() {
+        Unit unit1 = createUnit("Archer", "Archer", 50, 15, 30);
+        unit1.setAttackBonuses(new LinkedHashMap<>(Map.of("Knight", 1.5)));
+        unit1.getAttackBonuses().put("Pikeman", 2.0);
+        Unit unit2 = createUnit("Archer", "Archer", 50, 15, 30);
+        unit2.setAttackBonuses(new LinkedHashMap<>(Map.of("Pikeman", 2.0)));
+        unit2.getAttackBonuses().put("Knight", 1.5);
+
+        long fingerprint1 = PresetCache.fingerprint(List.of(PresetCache.UnitTemplate.of(unit1)), 500);
+        long fingerprint2 = PresetCache.fingerprint(List.of(PresetCache.UnitTemplate.of(unit2)), 500);
+        long otherBudget = PresetCache.fingerprint(List.of(PresetCache.UnitTemplate.of(unit1)), 501);
+
+        assertEquals(fingerprint1, fingerprint2);
+        assertNotEquals(fingerprint1, otherBudget);
+    }
+
+    private List<String> describe(Army army) {
+        List<String> description = new ArrayList<>();
+        for (Unit unit : army.getUnits()) {
+            description.add(unit.getName() + "/" + unit.getUnitType() + "/" + unit.getHealth() + "/"
+                    + unit.getBaseAttack() + "/" + unit.getCost() + "@" + unit.getxCoordinate() + ","
+                    + unit.getyCoordinate() + unit.getAttackBonuses() + unit.getDefenceBonuses());
+        }
+        return description;
+    }
+
+    private List<Unit> createTestUnitList() {
+        List<Unit> units = new ArrayList<>();
+        units.add(createUnit("Archer", "Archer", 50, 15, 30));
+        units.add(createUnit("Knight", "Knight", 100, 25, 60));
+        units.add(createUnit("Pikeman", "Pikeman", 70, 20, 40));
+        units.add(createUnit("Swordsman", "Swordsman", 80, 22, 50));
+        return units;
+    }
+
+    private Unit createUnit(String name, String unitType, int health, int attack, int cost) {
+        return new Unit(name, unitType, health, attack, cost, "melee",
+                new HashMap<>(Map.of("Swordsman", 1.2)), new HashMap<>(), 0, 0);
+    }
+}
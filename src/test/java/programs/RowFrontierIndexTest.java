@@ -0,0 +1,138 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для RowFrontierIndex.
+ * Проверяем:
+ * - Совпадение с SuitableForAttackUnitsFinderImpl при гибели без уведомлений
+ * - Обновление крайнего юнита при гибели и перемещении
+ * - Запрос по диапазону рядов и обход незарегистрированных рядов
+ */
+class RowFrontierIndexTest {
+
+    @Test
+    @DisplayName("Замена исходного поиска даёт те же цели на случайных боях")
+    void getSuitableUnits_randomDeaths_shouldMatchRowScan() {
+        Random random = new Random(15);
+        SuitableForAttackUnitsFinderImpl rowScan = new SuitableForAttackUnitsFinderImpl();
+        for (int trial = 0; trial < 20; trial++) {
+            Army left = randomArmy("L", 0, random);
+            Army right = randomArmy("R", 24, random);
+            RowFrontierIndex index = RowFrontierIndex.of(left, right);
+
+            while (left.getUnits().stream().anyMatch(Unit::isAlive)) {
+                for (Army army : List.of(left, right)) {
+                    boolean isLeft = army == left;
+                    assertEquals(rowScan.getSuitableUnits(unitsByRow(army), isLeft),
+                            index.getSuitableUnits(unitsByRow(army), isLeft));
+                    assertEquals(rowScan.getSuitableUnits(unitsByRow(army), isLeft),
+                            index.getSuitableUnits(isLeft));
+                }
+                // Гибель случайного юнита без уведомления индекса
+                Unit victim = left.getUnits().get(random.nextInt(left.getUnits().size()));
+                victim.setAlive(false);
+                right.getUnits().get(random.nextInt(right.getUnits().size())).setAlive(false);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Гибель крайнего юнита открывает следующего в ряду")
+    void onUnitDied_shouldExposeNextUnit() {
+        Unit front = createUnit("Front", 1, 2);
+        Unit middle = createUnit("Middle", 1, 5);
+        Unit back = createUnit("Back", 1, 9);
+        RowFrontierIndex index = RowFrontierIndex.of(createArmy(front, middle, back), createArmy());
+
+        assertSame(front, index.frontier(true, 1));
+        front.setAlive(false);
+        index.onUnitDied(front);
+        assertSame(middle, index.frontier(true, 1));
+
+        middle.setAlive(false);
+        assertSame(back, index.frontier(true, 1), "Гибель без уведомления снимается лениво");
+        back.setAlive(false);
+        assertNull(index.frontier(true, 1));
+        assertTrue(index.getSuitableUnits(true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Перемещение переносит юнита в другой ряд")
+    void onUnitMoved_shouldRekeyUnit() {
+        Unit a = createUnit("A", 25, 3);
+        Unit b = createUnit("B", 25, 7);
+        Unit c = createUnit("C", 26, 1);
+        RowFrontierIndex index = RowFrontierIndex.of(createArmy(), createArmy(a, b, c));
+
+        assertSame(b, index.frontier(false, 25));
+        assertEquals(List.of(b, c), index.getSuitableUnits(false));
+
+        a.setxCoordinate(26);
+        a.setyCoordinate(12);
+        index.onUnitMoved(a);
+
+        assertSame(b, index.frontier(false, 25));
+        assertSame(a, index.frontier(false, 26));
+
+        b.setxCoordinate(24);
+        index.onUnitMoved(b);
+
+        assertNull(index.frontier(false, 25));
+        assertEquals(List.of(b, a), index.getSuitableUnits(false));
+        assertEquals(List.of(a), index.getSuitableUnits(false, 25, 27));
+    }
+
+    @Test
+    @DisplayName("Ряд с незарегистрированными юнитами обходится как в исходном поиске")
+    void getSuitableUnits_unknownRow_shouldFallBackToScan() {
+        Unit known = createUnit("Known", 0, 4);
+        Unit stranger1 = createUnit("Stranger1", 1, 6);
+        Unit stranger2 = createUnit("Stranger2", 1, 2);
+        RowFrontierIndex index = RowFrontierIndex.of(createArmy(known), createArmy());
+
+        List<Unit> suitable = index.getSuitableUnits(List.of(List.of(known), List.of(stranger1, stranger2)), true);
+
+        assertEquals(List.of(known, stranger2), suitable);
+        assertThrows(IllegalArgumentException.class, () -> index.onUnitDied(stranger1));
+    }
+
+    private List<List<Unit>> unitsByRow(Army army) {
+        Map<Integer, List<Unit>> rows = new TreeMap<>();
+        for (Unit unit : army.getUnits()) {
+            rows.computeIfAbsent(unit.getxCoordinate(), x -> new ArrayList<>()).add(unit);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private Army randomArmy(String prefix, int firstRow, Random random) {
+        Set<Integer> cells = new HashSet<>();
+        List<Unit> units = new ArrayList<>();
+        int size = 1 + random.nextInt(30);
+        while (units.size() < size) {
+            int x = firstRow + random.nextInt(3);
+            int y = random.nextInt(21);
+            if (cells.add(x * 21 + y)) {
+                units.add(createUnit(prefix + units.size(), x, y));
+            }
+        }
+        return new Army(units);
+    }
+
+    private Army createArmy(Unit... units) {
+        return new Army(new ArrayList<>(List.of(units)));
+    }
+
+    private Unit createUnit(String name, int x, int y) {
+        Unit unit = new Unit(name, "Knight", 100, 20, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
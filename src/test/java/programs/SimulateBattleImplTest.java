@@ -27,6 +27,7 @@ import static org.mockito.Mockito.*;
  * - Одновременные смерти
  * - Корректная очерёдность ходов
  * - Завершение боя
+ * - Конец боя в логе и метрики при исключении программы
  */
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -444,6 +445,60 @@ class SimulateBattleImplTest {
         assertFalse(battleLog.isEmpty());
     }
 
+    @Test
+    @DisplayName("Исключение программы - лог получает конец боя, метрики записаны")
+    void simulate_programThrows_shouldEndBattleLogAndRecordMetrics() throws Exception {
+        Unit player = createUnit("Player", 100, 60, true);
+        Unit computer = createUnit("Computer", 100, 50, true);
+
+        Army playerArmy = createArmyWithUnits(player);
+        Army computerArmy = createArmyWithUnits(computer);
+
+        Program playerProgram = mock(Program.class);
+        when(playerProgram.attack()).thenReturn(computer);
+        player.setProgram(playerProgram);
+
+        AtomicInteger computerAttacks = new AtomicInteger(0);
+        Program computerProgram = mock(Program.class);
+        when(computerProgram.attack()).thenAnswer(_ -> {
+            if (computerAttacks.incrementAndGet() == 2) {
+                throw new IllegalStateException("сбой программы");
+            }
+            return player;
+        });
+        computer.setProgram(computerProgram);
+
+        List<String> events = new ArrayList<>();
+        RoundAwareBattleLog roundAwareLog = new RoundAwareBattleLog() {
+            @Override
+            public void printBattleLog(Unit attacker, Unit target) {
+                events.add(attacker.getName());
+            }
+
+            @Override
+            public void onRoundStart(int round) {
+                events.add("round " + round);
+            }
+
+            @Override
+            public void onBattleEnd() {
+                events.add("end");
+            }
+        };
+        Field field = SimulateBattleImpl.class.getDeclaredField("printBattleLog");
+        field.setAccessible(true);
+        field.set(simulateBattle, roundAwareLog);
+        LongAdderMetricsRegistry registry = new LongAdderMetricsRegistry();
+        simulateBattle.setMetrics(registry);
+
+        assertThrows(IllegalStateException.class, () -> simulateBattle.simulate(playerArmy, computerArmy));
+
+        assertEquals(List.of("round 1", "Player", "Computer", "round 2", "Player", "end"), events);
+        assertEquals(1, registry.histogram(SimulateBattleImpl.METRIC_SIMULATE).getCount());
+        assertEquals(2, registry.counterValue(SimulateBattleImpl.METRIC_ROUNDS));
+        assertEquals(3, registry.counterValue(SimulateBattleImpl.METRIC_ATTACKS));
+    }
+
     // ============ Helper Methods ============
 
     private Army createArmyWithUnits(Unit... units) {
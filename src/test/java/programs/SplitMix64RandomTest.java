@@ -0,0 +1,86 @@
+package programs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для SplitMix64Random.
+ * Проверяем:
+ * - Совпадение с эталонной последовательностью SplitMix64
+ * - Воспроизводимость по зерну и сброс через setSeed
+ * - Независимость разделённых потоков
+ * - Равномерность nextInt(bound) и работу с Collections.shuffle
+ */
+class SplitMix64RandomTest {
+
+    @Test
+    @DisplayName("Последовательность совпадает с эталонной реализацией SplitMix64")
+    void nextLong_zeroSeed_shouldMatchReferenceSequence() {
+        SplitMix64Random random = new SplitMix64Random(0L);
+
+        assertEquals(0xE220A8397B1DCDAFL, random.nextLong());
+        assertEquals(0x6E789E6AA1B965F4L, random.nextLong());
+        assertEquals(0x06C45D188009454FL, random.nextLong());
+    }
+
+    @Test
+    @DisplayName("Одинаковое зерно даёт одинаковую последовательность, setSeed её перезапускает")
+    void setSeed_shouldRestartSequence() {
+        SplitMix64Random first = new SplitMix64Random(42L);
+        SplitMix64Random second = new SplitMix64Random(42L);
+        long[] firstValues = new long[16];
+        for (int i = 0; i < firstValues.length; i++) {
+            firstValues[i] = first.nextLong();
+            assertEquals(firstValues[i], second.nextLong());
+        }
+
+        first.setSeed(42L);
+        for (long value : firstValues) {
+            assertEquals(value, first.nextLong());
+        }
+    }
+
+    @Test
+    @DisplayName("Разделённые потоки и потоки соседних номеров не совпадают")
+    void split_shouldProduceDistinctStreams() {
+        SplitMix64Random root = new SplitMix64Random(7L);
+        SplitMix64Random left = root.split();
+        SplitMix64Random right = root.split();
+        Set<Long> values = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(root.nextLong());
+            values.add(left.nextLong());
+            values.add(right.nextLong());
+            values.add(SplitMix64Random.forStream(7L, i).nextLong());
+        }
+
+        assertEquals(4000, values.size());
+        assertEquals(SplitMix64Random.forStream(7L, 3).nextLong(), SplitMix64Random.forStream(7L, 3).nextLong());
+    }
+
+    @Test
+    @DisplayName("nextInt(bound) равномерен, shuffle воспроизводим по зерну")
+    void nextInt_bounded_shouldBeUniformAndDriveShuffle() {
+        SplitMix64Random random = new SplitMix64Random(99L);
+        int bound = 6;
+        int samples = 60_000;
+        int[] counts = new int[bound];
+        for (int i = 0; i < samples; i++) {
+            counts[random.nextInt(bound)]++;
+        }
+        for (int count : counts) {
+            assertEquals(samples / bound, count, samples / bound * 0.05);
+        }
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(0));
+
+        List<Integer> first = new ArrayList<>(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        List<Integer> second = new ArrayList<>(first);
+        Collections.shuffle(first, new SplitMix64Random(5L));
+        Collections.shuffle(second, new SplitMix64Random(5L));
+        assertEquals(first, second);
+    }
+}
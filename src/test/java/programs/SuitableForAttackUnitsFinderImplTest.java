@@ -1,5 +1,6 @@
 package programs;
 
+import com.battle.heroes.army.Army;
 import com.battle.heroes.army.Unit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +15,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Проверяем корректность определения доступных для атаки юнитов:
  * - Для левой армии (isLeftArmyTarget=true) - юнит с минимальным y в ряду
  * - Для правой армии (isLeftArmyTarget=false) - юнит с максимальным y в ряду
+ * - Поиск по армии на большом поле из BattlefieldConfig совпадает с поиском по рядам
  */
 class SuitableForAttackUnitsFinderImplTest {
 
@@ -151,6 +153,77 @@ class SuitableForAttackUnitsFinderImplTest {
         assertEquals("Single", result.getFirst().getName());
     }
 
+    @Test
+    @DisplayName("Поиск по битовой доске совпадает с поиском по спискам рядов")
+    void getSuitableUnits_bitboard_shouldMatchRowLists() {
+        Random random = new Random(3);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            List<Unit> computerUnits = new ArrayList<>();
+            List<Unit> playerUnits = new ArrayList<>();
+            Set<Integer> occupied = new HashSet<>();
+            for (int i = 0; i < 40; i++) {
+                boolean computer = random.nextBoolean();
+                int x = computer ? random.nextInt(3) : 24 + random.nextInt(3);
+                int y = random.nextInt(21);
+                if (!occupied.add(x * 21 + y)) {
+                    continue;
+                }
+                Unit unit = random.nextInt(4) == 0 ? createDeadUnit("Unit", x, y) : createAliveUnit("Unit", x, y);
+                (computer ? computerUnits : playerUnits).add(unit);
+            }
+            BattlefieldBitboard board = BattlefieldBitboard.of(createArmy(computerUnits), createArmy(playerUnits));
+
+            assertEquals(finder.getSuitableUnits(rows(computerUnits, 0, 3), true), finder.getSuitableUnits(board, true));
+            assertEquals(finder.getSuitableUnits(rows(playerUnits, 24, 27), false), finder.getSuitableUnits(board, false));
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск по армии на большом поле совпадает с поиском по рядам колонок расстановки")
+    void getSuitableUnits_largeFieldArmy_shouldMatchRowLists() {
+        BattlefieldConfig config = new BattlefieldConfig(300, 50, 100, 11);
+        SuitableForAttackUnitsFinderImpl largeFinder = new SuitableForAttackUnitsFinderImpl(config);
+        Random random = new Random(8);
+        List<Unit> computerUnits = new ArrayList<>();
+        List<Unit> playerUnits = new ArrayList<>();
+        Set<Integer> occupied = new HashSet<>();
+        for (int i = 0; i < 4000; i++) {
+            boolean computer = random.nextBoolean();
+            int x = random.nextInt(config.width()); // часть юнитов стоит вне колонок расстановки
+            int y = random.nextInt(config.height());
+            if (!occupied.add(x * config.height() + y)) {
+                continue;
+            }
+            Unit unit = random.nextInt(4) == 0 ? createDeadUnit("Unit", x, y) : createAliveUnit("Unit", x, y);
+            (computer ? computerUnits : playerUnits).add(unit);
+        }
+
+        List<Unit> left = largeFinder.getSuitableUnits(createArmy(computerUnits), true);
+        List<Unit> right = largeFinder.getSuitableUnits(createArmy(playerUnits), false);
+
+        assertEquals(finder.getSuitableUnits(rows(computerUnits, 0, 100), true), left);
+        assertEquals(finder.getSuitableUnits(rows(playerUnits, 200, 300), false), right);
+        assertTrue(left.size() > 90 && right.size() > 90);
+        assertTrue(largeFinder.getSuitableUnits((Army) null, true).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new BattlefieldConfig(10, 10, 6, 11));
+        assertThrows(IllegalArgumentException.class, () -> new BattlefieldConfig(10, 10, 3, 0));
+    }
+
+    private List<List<Unit>> rows(List<Unit> units, int fromX, int toX) {
+        List<List<Unit>> unitsByRow = new ArrayList<>();
+        for (int x = fromX; x < toX; x++) {
+            int row = x;
+            unitsByRow.add(units.stream().filter(u -> u.getxCoordinate() == row).toList());
+        }
+        return unitsByRow;
+    }
+
+    private Army createArmy(List<Unit> units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(units));
+        return army;
+    }
+
     private Unit createAliveUnit(String name, int x, int y) {
         Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
         unit.setAlive(true);
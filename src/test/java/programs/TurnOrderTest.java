@@ -0,0 +1,136 @@
+package programs;
+
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для TurnOrder.
+ * Проверяем:
+ * - Порядок по убыванию атаки с устойчивостью (игрок раньше компьютера при равной атаке)
+ * - Счётчики живых при гибели цели и при гибели без сообщения
+ * - Ленивое уплотнение без изменения порядка
+ * - Очерёдность по массивам UnitStore
+ */
+class TurnOrderTest {
+
+    @Test
+    @DisplayName("Порядок по убыванию атаки, при равенстве - в порядке армий")
+    void of_shouldSortByAttackStably() {
+        Unit player1 = createUnit("Player1", 30);
+        Unit player2 = createUnit("Player2", 50);
+        Unit computer1 = createUnit("Computer1", 50);
+        Unit computer2 = createUnit("Computer2", 40);
+
+        TurnOrder order = TurnOrder.of(List.of(player1, player2), List.of(computer1, computer2));
+
+        assertEquals(List.of("Player2", "Computer1", "Computer2", "Player1"), names(order));
+        assertTrue(order.isPlayerUnit(0));
+        assertFalse(order.isPlayerUnit(1));
+    }
+
+    @Test
+    @DisplayName("Мёртвые на старте юниты не входят в порядок")
+    void of_deadUnits_shouldBeExcluded() {
+        Unit dead = createUnit("Dead", 100);
+        dead.setAlive(false);
+
+        TurnOrder order = TurnOrder.of(List.of(dead), List.of(createUnit("Computer", 10)));
+
+        assertEquals(1, order.size());
+        assertEquals(0, order.liveCount(true));
+        assertFalse(order.bothArmiesAlive());
+    }
+
+    @Test
+    @DisplayName("Погибшая цель атаки получает надгробие и уменьшает счётчик")
+    void onAttack_deadTarget_shouldDecrementLiveCount() {
+        Unit player = createUnit("Player", 50);
+        Unit computer1 = createUnit("Computer1", 40);
+        Unit computer2 = createUnit("Computer2", 30);
+        TurnOrder order = TurnOrder.of(List.of(player), List.of(computer1, computer2));
+
+        computer1.setAlive(false);
+        order.onAttack(computer1);
+        order.onAttack(computer1);
+
+        assertEquals(1, order.liveCount(false));
+        assertNull(order.unitAt(1));
+        assertFalse(order.markDeadIfNeeded(1));
+        assertTrue(order.bothArmiesAlive());
+    }
+
+    @Test
+    @DisplayName("Сверка в конце раунда подхватывает гибель без сообщения")
+    void endRound_unreportedDeath_shouldBeCounted() {
+        Unit player = createUnit("Player", 50);
+        Unit computer = createUnit("Computer", 40);
+        TurnOrder order = TurnOrder.of(List.of(player), List.of(computer));
+
+        computer.setAlive(false);
+        assertTrue(order.bothArmiesAlive(), "До сверки гибель не видна");
+        order.endRound();
+
+        assertFalse(order.bothArmiesAlive());
+        assertEquals(0, order.liveCount(false));
+    }
+
+    @Test
+    @DisplayName("Уплотнение удаляет надгробия и сохраняет порядок")
+    void endRound_manyTombstones_shouldCompact() {
+        List<Unit> players = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            players.add(createUnit("Player" + i, 60 - i));
+        }
+        TurnOrder order = TurnOrder.of(players, List.of(createUnit("Computer", 1)));
+
+        for (int i : new int[]{0, 1, 2, 4}) {
+            players.get(i).setAlive(false);
+        }
+        order.endRound();
+
+        assertEquals(3, order.size());
+        assertEquals(List.of("Player3", "Player5", "Computer"), names(order));
+        assertEquals(2, order.liveCount(true));
+    }
+
+    @Test
+    @DisplayName("Очерёдность по хранилищу читает живость из его массивов")
+    void of_unitStore_shouldTrackStoreDeaths() {
+        Unit player = createUnit("Player", 50);
+        Unit computer1 = createUnit("Computer1", 60);
+        Unit computer2 = createUnit("Computer2", 30);
+        UnitStore store = UnitStore.of(List.of(player), List.of(computer1, computer2));
+        TurnOrder order = TurnOrder.of(store);
+
+        assertEquals(List.of("Computer1", "Player", "Computer2"), names(order));
+        store.applyDamage(1, 1000);
+        order.onAttack(1);
+
+        assertEquals(1, order.liveCount(false));
+        assertEquals(-1, order.unitIdAt(0));
+        assertEquals(0, order.unitIdAt(1));
+        assertTrue(computer1.isAlive(), "Объект юнита не меняется до записи обратно");
+    }
+
+    private List<String> names(TurnOrder order) {
+        List<String> names = new ArrayList<>();
+        for (int position = 0; position < order.size(); position++) {
+            Unit unit = order.unitAt(position);
+            if (unit != null) {
+                names.add(unit.getName());
+            }
+        }
+        return names;
+    }
+
+    private Unit createUnit(String name, int attack) {
+        Unit unit = new Unit(name, "TestType", 100, attack, 50, "melee", null, null, 0, 0);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -0,0 +1,160 @@
+package programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для UnitStore.
+ * Проверяем:
+ * - Загрузку горячих полей и нумерацию (сначала игрок, затем компьютер)
+ * - Урон и гибель без изменения объектов Unit до записи обратно
+ * - Обход живых юнитов по битовой маске и маску занятых клеток, в том числе на поле 512 × 512
+ */
+class UnitStoreTest {
+
+    @Test
+    @DisplayName("Поля юнитов загружаются в массивы по номерам")
+    void of_shouldLoadHotFields() {
+        Unit player = createUnit("Player", "Knight", 120, 30, 25, 4);
+        Unit archer = createUnit("Archer", "Archer", 80, 15, 1, 7);
+        Unit dead = createUnit("Dead", "Knight", 0, 10, 2, 9);
+        dead.setAlive(false);
+
+        UnitStore store = UnitStore.of(createArmy(List.of(player)), createArmy(List.of(archer, dead)));
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.getPlayerCount());
+        assertEquals(1, store.idOf(archer));
+        assertEquals(-1, store.idOf(createUnit("Stranger", "Knight", 1, 1, 0, 0)));
+        assertTrue(store.isPlayer(0));
+        assertEquals(120, store.health(0));
+        assertEquals(15, store.attack(1));
+        assertEquals(25, store.x(0));
+        assertEquals(7, store.y(1));
+        assertTrue(store.isArcher(1));
+        assertFalse(store.isArcher(0));
+        assertFalse(store.isAlive(2));
+        assertEquals(1, store.liveCount(true));
+        assertEquals(1, store.liveCount(false));
+    }
+
+    @Test
+    @DisplayName("Урон меняет только массивы, запись обратно синхронизирует юнитов")
+    void applyDamage_shouldUpdateStoreUntilWriteBack() {
+        Unit player = createUnit("Player", "Knight", 50, 30, 25, 4);
+        Unit computer = createUnit("Computer", "Knight", 100, 30, 1, 4);
+        UnitStore store = UnitStore.of(createArmy(List.of(player)), createArmy(List.of(computer)));
+
+        assertFalse(store.applyDamage(1, 40));
+        assertTrue(store.applyDamage(0, 50));
+        assertFalse(store.applyDamage(0, 10), "Мёртвый юнит не получает урон повторно");
+        store.moveTo(1, 3, 5);
+
+        assertEquals(50, player.getHealth());
+        assertTrue(player.isAlive());
+
+        store.writeBack();
+
+        assertEquals(0, player.getHealth());
+        assertFalse(player.isAlive());
+        assertEquals(60, computer.getHealth());
+        assertEquals(3, computer.getxCoordinate());
+        assertEquals(5, computer.getyCoordinate());
+        assertEquals(0, store.liveCount(true));
+    }
+
+    @Test
+    @DisplayName("Повторная загрузка подхватывает изменения юнитов")
+    void load_shouldReadChangedUnits() {
+        Unit player = createUnit("Player", "Knight", 50, 30, 25, 4);
+        UnitStore store = UnitStore.of(createArmy(List.of(player)), createArmy(List.of()));
+
+        player.setHealth(20);
+        player.setAlive(false);
+        store.load();
+
+        assertEquals(20, store.health(0));
+        assertFalse(store.isAlive(0));
+        assertEquals(0, store.liveCount(true));
+    }
+
+    @Test
+    @DisplayName("Обход живых юнитов пересекает границу слова маски")
+    void collectAlive_shouldSkipDeadAcrossWords() {
+        List<Unit> computerUnits = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            computerUnits.add(createUnit("Computer" + i, "Knight", 10, 5, i % 3, i % 21));
+        }
+        UnitStore store = UnitStore.of(createArmy(List.of(createUnit("Player", "Knight", 10, 5, 25, 0))),
+                createArmy(computerUnits));
+        for (int id = 1; id <= 70; id++) {
+            if (id != 3 && id != 64 && id != 70) {
+                store.applyDamage(id, 10);
+            }
+        }
+
+        int[] ids = new int[store.size()];
+        int count = store.collectAlive(false, ids);
+
+        assertArrayEquals(new int[]{3, 64, 70}, Arrays.copyOf(ids, count));
+        assertEquals(1, store.collectAlive(true, ids));
+        assertEquals(64, store.nextAlive(4));
+        assertEquals(-1, store.nextAlive(71));
+    }
+
+    @Test
+    @DisplayName("Маска занятости содержит только живых юнитов внутри поля")
+    void fillOccupancy_shouldMarkAliveCells() {
+        Unit alive = createUnit("Alive", "Knight", 10, 5, 2, 3);
+        Unit dying = createUnit("Dying", "Knight", 10, 5, 4, 5);
+        Unit outside = createUnit("Outside", "Knight", 10, 5, 30, 0);
+        UnitStore store = UnitStore.of(createArmy(List.of(alive, dying)), createArmy(List.of(outside)));
+        store.applyDamage(1, 10);
+
+        long[] occupancy = new long[9];
+        store.fillOccupancy(occupancy, 27, 21);
+
+        long[] expected = new long[9];
+        int cell = 2 * 21 + 3;
+        expected[cell >>> 6] |= 1L << cell;
+        assertArrayEquals(expected, occupancy);
+    }
+
+    @Test
+    @DisplayName("Координаты поля 512 × 512 хранятся без потерь и попадают в маску занятых клеток")
+    void of_largeFieldCoordinates_shouldRoundTrip() {
+        Unit unit = createUnit("Far", "Knight", 10, 5, 500, 300);
+        UnitStore store = UnitStore.of(createArmy(List.of(unit)), createArmy(List.of()));
+
+        assertEquals(500, store.x(0));
+        assertEquals(300, store.y(0));
+        store.moveTo(0, 511, 128);
+        long[] occupancy = new long[512 * 512 / 64];
+        store.fillOccupancy(occupancy, 512, 512);
+        store.writeBack();
+
+        int cell = 511 * 512 + 128;
+        assertEquals(1L << cell, occupancy[cell >>> 6]);
+        assertEquals(1, Arrays.stream(occupancy).mapToInt(Long::bitCount).sum());
+        assertEquals(511, unit.getxCoordinate());
+        assertEquals(128, unit.getyCoordinate());
+    }
+
+    private Army createArmy(List<Unit> units) {
+        Army army = new Army();
+        army.setUnits(new ArrayList<>(units));
+        return army;
+    }
+
+    private Unit createUnit(String name, String type, int health, int attack, int x, int y) {
+        Unit unit = new Unit(name, type, health, attack, 50, "melee", null, null, x, y);
+        unit.setAlive(true);
+        return unit;
+    }
+}
@@ -1,5 +1,6 @@
 package programs;
 
+import com.battle.heroes.army.Army;
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.Edge;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +18,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Обход препятствий
  * - Диагональное движение
  * - Пустой путь при невозможности достичь цели
+ * - Пакетный поиск по одному снимку поля
+ * - Свободный октильный коридор без поиска
  */
 class UnitTargetPathFinderImplTest {
 
@@ -190,6 +193,360 @@ class UnitTargetPathFinderImplTest {
         assertFalse(path.isEmpty());
     }
 
+    @Test
+    @DisplayName("Повторные вызовы с переиспользованием буферов дают независимые результаты")
+    void getTargetPath_repeatedCalls_shouldNotLeakState() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 2, 0);
+        Unit obstacle = createUnit("Obstacle", 1, 0);
+
+        List<Edge> blockedPath = pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target, obstacle));
+        List<Edge> freePath = pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target));
+
+        assertEquals(3, blockedPath.size());
+        assertNotEquals(0, blockedPath.get(1).getY(), "Первый путь должен обходить препятствие");
+        assertEquals(3, freePath.size());
+        assertEquals(0, freePath.get(1).getY(), "Второй путь не должен видеть препятствие первого вызова");
+    }
+
+    @Test
+    @DisplayName("Стоимость пути совпадает с эталонной реализацией Дейкстры на случайных полях")
+    void getTargetPath_randomFields_shouldMatchReferenceCost() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            List<Unit> units = new ArrayList<>();
+            int obstacles = random.nextInt(250);
+            for (int i = 0; i < obstacles; i++) {
+                units.add(createUnit("Block", random.nextInt(27), random.nextInt(21)));
+            }
+            Unit attacker = createUnit("Attacker", random.nextInt(27), random.nextInt(21));
+            Unit target = createUnit("Target", random.nextInt(27), random.nextInt(21));
+            units.add(attacker);
+            units.add(target);
+
+            List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+            double expected = referenceDistance(attacker, target, units);
+
+            if (expected == Double.MAX_VALUE) {
+                assertTrue(path.isEmpty(), "Путь должен быть пустым, если цель недостижима");
+            } else {
+                assertEquals(expected, pathCost(path), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A* и Jump Point Search находят пути той же стоимости, что и Дейкстра")
+    void getTargetPath_allStrategies_shouldMatchDijkstraCost() {
+        UnitTargetPathFinderImpl aStar = new UnitTargetPathFinderImpl(PathSearchStrategy.A_STAR);
+        UnitTargetPathFinderImpl jumpPoint = new UnitTargetPathFinderImpl(PathSearchStrategy.JUMP_POINT);
+        Random random = new Random(11);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            List<Unit> units = new ArrayList<>();
+            int obstacles = random.nextInt(300);
+            for (int i = 0; i < obstacles; i++) {
+                units.add(createUnit("Block", random.nextInt(27), random.nextInt(21)));
+            }
+            Unit attacker = createUnit("Attacker", random.nextInt(27), random.nextInt(21));
+            Unit target = createUnit("Target", random.nextInt(27), random.nextInt(21));
+            units.add(attacker);
+            units.add(target);
+
+            List<Edge> dijkstraPath = pathFinder.getTargetPath(attacker, target, units);
+            for (UnitTargetPathFinderImpl finder : List.of(aStar, jumpPoint)) {
+                List<Edge> path = finder.getTargetPath(attacker, target, units);
+                assertEquals(dijkstraPath.isEmpty(), path.isEmpty(), finder.getStrategy() + ": достижимость должна совпадать");
+                if (!path.isEmpty()) {
+                    assertEquals(pathCost(dijkstraPath), pathCost(path), 1e-9, finder.getStrategy() + ": стоимость должна совпадать");
+                    assertEquals(target.getxCoordinate(), path.getLast().getX());
+                    assertEquals(target.getyCoordinate(), path.getLast().getY());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A* и Jump Point Search раскрывают меньше вершин, чем Дейкстра")
+    void getLastExpandedNodes_informedStrategies_shouldExpandFewerNodes() {
+        Unit attacker = createUnit("Attacker", 0, 10);
+        Unit target = createUnit("Target", 26, 10);
+        List<Unit> units = new ArrayList<>(Arrays.asList(attacker, target));
+        // Стена поперёк поля с проходом у края
+        for (int y = 0; y < 20; y++) {
+            units.add(createUnit("Wall", 13, y));
+        }
+
+        pathFinder.getTargetPath(attacker, target, units);
+        int dijkstraExpanded = pathFinder.getLastExpandedNodes();
+
+        UnitTargetPathFinderImpl aStar = new UnitTargetPathFinderImpl(PathSearchStrategy.A_STAR);
+        aStar.getTargetPath(attacker, target, units);
+        int aStarExpanded = aStar.getLastExpandedNodes();
+
+        UnitTargetPathFinderImpl jumpPoint = new UnitTargetPathFinderImpl(PathSearchStrategy.JUMP_POINT);
+        List<Edge> jumpPath = jumpPoint.getTargetPath(attacker, target, units);
+        int jumpExpanded = jumpPoint.getLastExpandedNodes();
+
+        assertFalse(jumpPath.isEmpty());
+        assertTrue(dijkstraExpanded > 0);
+        assertTrue(aStarExpanded < dijkstraExpanded, "A*: " + aStarExpanded + ", Дейкстра: " + dijkstraExpanded);
+        assertTrue(jumpExpanded < aStarExpanded, "JPS: " + jumpExpanded + ", A*: " + aStarExpanded);
+    }
+
+    @Test
+    @DisplayName("Jump Point Search восстанавливает путь по соседним клеткам в обход препятствия")
+    void getTargetPath_jumpPoint_shouldExpandJumpsIntoAdjacentSteps() {
+        UnitTargetPathFinderImpl jumpPoint = new UnitTargetPathFinderImpl(PathSearchStrategy.JUMP_POINT);
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 10, 0);
+        Unit obstacle = createUnit("Obstacle", 5, 0);
+
+        List<Edge> path = jumpPoint.getTargetPath(attacker, target, Arrays.asList(attacker, target, obstacle));
+
+        assertEquals(11, path.size());
+        assertEquals(8 + 2 * Math.sqrt(2), pathCost(path), 1e-9);
+        assertTrue(path.stream().noneMatch(e -> e.getX() == 5 && e.getY() == 0),
+                "Путь не должен проходить через препятствие");
+    }
+
+    @Test
+    @DisplayName("Поиск по битовой доске совпадает с поиском по списку юнитов")
+    void getTargetPath_bitboard_shouldMatchUnitList() {
+        Random random = new Random(17);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            List<Unit> units = new ArrayList<>();
+            Set<Integer> occupied = new HashSet<>();
+            while (units.size() < 150) {
+                int x = random.nextInt(27);
+                int y = random.nextInt(21);
+                if (occupied.add(x * 21 + y)) {
+                    units.add(createUnit("Unit", x, y));
+                }
+            }
+            Unit attacker = units.get(0);
+            Unit target = units.get(1);
+            Army army = new Army();
+            army.setUnits(units);
+            BattlefieldBitboard board = BattlefieldBitboard.of(army, new Army(new ArrayList<>()));
+
+            List<Edge> expected = pathFinder.getTargetPath(attacker, target, units);
+            List<Edge> actual = pathFinder.getTargetPath(attacker, target, board);
+
+            assertEquals(expected.isEmpty(), actual.isEmpty());
+            assertEquals(pathCost(expected), pathCost(actual), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Пакетный поиск совпадает с одиночными запросами и группирует их по целям")
+    void getTargetPaths_roundOfQueries_shouldMatchSingleQueries() {
+        LongAdderMetricsRegistry metrics = new LongAdderMetricsRegistry();
+        pathFinder.setMetrics(metrics);
+        Random random = new Random(23);
+        for (int iteration = 0; iteration < 50; iteration++) {
+            List<Unit> units = new ArrayList<>();
+            List<Unit> left = new ArrayList<>();
+            List<Unit> right = new ArrayList<>();
+            Set<Integer> occupied = new HashSet<>();
+            while (left.size() < 40) {
+                Unit unit = createUnit("L", random.nextInt(3), random.nextInt(21));
+                if (occupied.add(unit.getxCoordinate() * 21 + unit.getyCoordinate())) {
+                    left.add(unit);
+                }
+            }
+            while (right.size() < 40) {
+                Unit unit = createUnit("R", 24 + random.nextInt(3), random.nextInt(21));
+                if (occupied.add(unit.getxCoordinate() * 21 + unit.getyCoordinate())) {
+                    right.add(unit);
+                }
+            }
+            while (units.size() < 60) {
+                Unit unit = createUnit("Block", 3 + random.nextInt(21), random.nextInt(21));
+                if (occupied.add(unit.getxCoordinate() * 21 + unit.getyCoordinate())) {
+                    units.add(unit);
+                }
+            }
+            units.addAll(left);
+            units.addAll(right);
+
+            // Все юниты левой армии атакуют одну из пяти целей правой
+            List<Unit> frontier = right.subList(0, 5);
+            List<UnitTargetPathFinderImpl.PathQuery> queries = new ArrayList<>();
+            for (Unit attacker : left) {
+                queries.add(new UnitTargetPathFinderImpl.PathQuery(attacker, frontier.get(random.nextInt(5))));
+            }
+
+            long sweepsBefore = metrics.counterValue(UnitTargetPathFinderImpl.METRIC_BATCH_SWEEPS);
+            List<List<Edge>> paths = pathFinder.getTargetPaths(queries, units);
+
+            assertEquals(queries.size(), paths.size());
+            assertTrue(metrics.counterValue(UnitTargetPathFinderImpl.METRIC_BATCH_SWEEPS) - sweepsBefore <= 5);
+            for (int i = 0; i < queries.size(); i++) {
+                UnitTargetPathFinderImpl.PathQuery query = queries.get(i);
+                List<Edge> expected = pathFinder.getTargetPath(query.attackUnit(), query.targetUnit(), units);
+                List<Edge> actual = paths.get(i);
+                assertEquals(expected.isEmpty(), actual.isEmpty());
+                if (!actual.isEmpty()) {
+                    assertEquals(pathCost(expected), pathCost(actual), 1e-9);
+                    assertEquals(query.attackUnit().getxCoordinate(), actual.getFirst().getX());
+                    assertEquals(query.attackUnit().getyCoordinate(), actual.getFirst().getY());
+                    assertEquals(query.targetUnit().getxCoordinate(), actual.getLast().getX());
+                    assertEquals(query.targetUnit().getyCoordinate(), actual.getLast().getY());
+                    for (Edge step : actual.subList(1, actual.size() - 1)) {
+                        assertFalse(occupied.contains(step.getX() * 21 + step.getY()),
+                                "Путь не должен проходить через юнитов");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Пакетный поиск: одна клетка, выход за поле, занятая цель и общий атакующий")
+    void getTargetPaths_edgeCases_shouldMatchSingleQueries() {
+        LongAdderMetricsRegistry metrics = new LongAdderMetricsRegistry();
+        pathFinder.setMetrics(metrics);
+        Unit attacker = createUnit("Attacker", 2, 10);
+        Unit near = createUnit("Near", 5, 10);
+        Unit far = createUnit("Far", 20, 3);
+        Unit outside = createUnit("Outside", 40, 3);
+        Unit stacked = createUnit("Stacked", 12, 12);
+        Unit blocker = createUnit("Blocker", 12, 12);
+        List<Unit> units = List.of(attacker, near, far, outside, stacked, blocker);
+
+        List<List<Edge>> paths = pathFinder.getTargetPaths(List.of(
+                new UnitTargetPathFinderImpl.PathQuery(attacker, attacker),
+                new UnitTargetPathFinderImpl.PathQuery(attacker, near),
+                new UnitTargetPathFinderImpl.PathQuery(attacker, far),
+                new UnitTargetPathFinderImpl.PathQuery(attacker, outside),
+                new UnitTargetPathFinderImpl.PathQuery(attacker, stacked)), units);
+
+        assertEquals(1, paths.get(0).size());
+        assertEquals(3.0, pathCost(paths.get(1)), 1e-9);
+        assertEquals(pathCost(pathFinder.getTargetPath(attacker, far, units)), pathCost(paths.get(2)), 1e-9);
+        assertTrue(paths.get(3).isEmpty());
+        assertTrue(paths.get(4).isEmpty());
+        assertEquals(pathFinder.getTargetPath(attacker, stacked, units).isEmpty(), paths.get(4).isEmpty());
+        // У всех запросов общий атакующий — достаточно одного прохода
+        assertEquals(1, metrics.counterValue(UnitTargetPathFinderImpl.METRIC_BATCH_SWEEPS));
+    }
+
+    @Test
+    @DisplayName("Свободный коридор даёт октильный путь без раскрытия вершин")
+    void getTargetPath_openCorridor_shouldSkipSearch() {
+        LongAdderMetricsRegistry metrics = new LongAdderMetricsRegistry();
+        pathFinder.setMetrics(metrics);
+        Unit attacker = createUnit("Attacker", 2, 3);
+        Unit target = createUnit("Target", 24, 17);
+
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target));
+
+        assertEquals(23, path.size());
+        assertEquals(14 * Math.sqrt(2) + 8, pathCost(path), 1e-9);
+        assertEquals(0, pathFinder.getLastExpandedNodes());
+        assertEquals(1, metrics.counterValue(UnitTargetPathFinderImpl.METRIC_CORRIDOR_HITS));
+    }
+
+    @Test
+    @DisplayName("Занятая прямая линия обходится диагональю коридора, занятая цель недостижима")
+    void getTargetPath_blockedLine_shouldUseOtherCorridor() {
+        Unit attacker = createUnit("Attacker", 0, 0);
+        Unit target = createUnit("Target", 4, 2);
+        // Прямая линия проходит через (2, 1), путь «сначала диагональ» — через (1, 1), (2, 2), (3, 2)
+        Unit lineBlocker = createUnit("LineBlocker", 2, 1);
+
+        List<Edge> path = pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target, lineBlocker));
+
+        assertEquals(5, path.size());
+        assertEquals(2 * Math.sqrt(2) + 2, pathCost(path), 1e-9);
+        assertEquals(0, pathFinder.getLastExpandedNodes());
+        assertEquals(1, path.get(1).getX());
+        assertEquals(1, path.get(1).getY());
+
+        Unit stacked = createUnit("Stacked", 4, 2);
+        assertTrue(pathFinder.getTargetPath(attacker, target, Arrays.asList(attacker, target, stacked)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("С коридором и без него стоимость пути одинакова на случайных полях")
+    void getTargetPath_corridorToggle_shouldKeepCost() {
+        UnitTargetPathFinderImpl searchOnly = new UnitTargetPathFinderImpl();
+        searchOnly.setCorridorShortcut(false);
+        assertTrue(pathFinder.isCorridorShortcut());
+        assertFalse(searchOnly.isCorridorShortcut());
+        Random random = new Random(11);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            List<Unit> units = new ArrayList<>();
+            int obstacles = random.nextInt(60);
+            for (int i = 0; i < obstacles; i++) {
+                units.add(createUnit("Block", random.nextInt(27), random.nextInt(21)));
+            }
+            Unit attacker = createUnit("Attacker", random.nextInt(27), random.nextInt(21));
+            Unit target = createUnit("Target", random.nextInt(27), random.nextInt(21));
+            units.add(attacker);
+            units.add(target);
+
+            List<Edge> withCorridor = pathFinder.getTargetPath(attacker, target, units);
+            List<Edge> withoutCorridor = searchOnly.getTargetPath(attacker, target, units);
+
+            assertEquals(withoutCorridor.isEmpty(), withCorridor.isEmpty());
+            assertEquals(pathCost(withoutCorridor), pathCost(withCorridor), 1e-9);
+        }
+    }
+
+    private double pathCost(List<Edge> path) {
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "Шаг пути должен вести в соседнюю клетку");
+            cost += (dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0;
+        }
+        return cost;
+    }
+
+    /**
+     * Эталонная Дейкстра на PriorityQueue — исходная реализация до перехода на плоские массивы.
+     */
+    private double referenceDistance(Unit attacker, Unit target, List<Unit> units) {
+        boolean[][] blocked = new boolean[27][21];
+        for (Unit unit : units) {
+            if (unit.isAlive() && unit != attacker && unit != target) {
+                blocked[unit.getxCoordinate()][unit.getyCoordinate()] = true;
+            }
+        }
+        double[][] distance = new double[27][21];
+        for (double[] row : distance) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        distance[attacker.getxCoordinate()][attacker.getyCoordinate()] = 0;
+        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[0]));
+        pq.add(new double[]{0, attacker.getxCoordinate(), attacker.getyCoordinate()});
+        while (!pq.isEmpty()) {
+            double[] current = pq.poll();
+            int x = (int) current[1];
+            int y = (int) current[2];
+            if (current[0] > distance[x][y]) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || nx >= 27 || ny < 0 || ny >= 21 || blocked[nx][ny]) {
+                        continue;
+                    }
+                    double newDist = current[0] + ((dx != 0 && dy != 0) ? Math.sqrt(2) : 1.0);
+                    if (newDist < distance[nx][ny]) {
+                        distance[nx][ny] = newDist;
+                        pq.add(new double[]{newDist, nx, ny});
+                    }
+                }
+            }
+        }
+        return distance[target.getxCoordinate()][target.getyCoordinate()];
+    }
+
     private Unit createUnit(String name, int x, int y) {
         Unit unit = new Unit(name, "TestType", 100, 20, 50, "melee", null, null, x, y);
         unit.setAlive(true);